@@ -0,0 +1,52 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.config.DecimalConfig;
+import com.estapar.parking.config.JacksonConfig;
+import com.estapar.parking.service.ParkingFeeCalculator;
+import com.estapar.parking.util.BigDecimalUtils;
+import com.estapar.parking.util.FixedPointMoney;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * Builds the Spring components under benchmark without starting a context, with the same
+ * settings application.yml gives them.
+ */
+final class BenchmarkFixtures {
+
+    static final String TIMEZONE = "America/Sao_Paulo";
+    static final int FREE_MINUTES = 30;
+
+    private BenchmarkFixtures() {
+    }
+
+    static BigDecimalUtils bigDecimalUtils() {
+        return new BigDecimalUtils(new DecimalConfig());
+    }
+
+    static ParkingFeeCalculator feeCalculator() {
+        ParkingFeeCalculator calculator = new ParkingFeeCalculator(bigDecimalUtils(), new FixedPointMoney(new DecimalConfig()));
+        setField(calculator, "freeMinutes", FREE_MINUTES);
+        return calculator;
+    }
+
+    static ObjectMapper objectMapper() {
+        JacksonConfig config = new JacksonConfig();
+        setField(config, "applicationTimezone", TIMEZONE);
+        return config.objectMapper();
+    }
+
+    /**
+     * Stands in for {@code @Value} injection on fields that have no setter.
+     */
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.util.BigDecimalUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BigDecimalUtils} operations ENTRY and EXIT run for every event: occupancy percentage,
+ * effective price and currency rounding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BigDecimalUtilsBenchmark {
+
+    private BigDecimalUtils bigDecimalUtils;
+    private BigDecimal occupied;
+    private BigDecimal capacity;
+    private BigDecimal basePrice;
+    private BigDecimal multiplier;
+    private BigDecimal unscaledFee;
+
+    @Setup
+    public void setUp() {
+        bigDecimalUtils = BenchmarkFixtures.bigDecimalUtils();
+        occupied = BigDecimal.valueOf(37);
+        capacity = BigDecimal.valueOf(120);
+        basePrice = new BigDecimal("10.00");
+        multiplier = new BigDecimal("1.10");
+        unscaledFee = new BigDecimal("33.0000");
+    }
+
+    @Benchmark
+    public BigDecimal calculatePercentage() {
+        return bigDecimalUtils.calculatePercentage(occupied, capacity);
+    }
+
+    @Benchmark
+    public BigDecimal multiplyAndSetCurrencyScale() {
+        return bigDecimalUtils.multiplyAndSetCurrencyScale(basePrice, multiplier);
+    }
+
+    @Benchmark
+    public BigDecimal setCurrencyScale() {
+        return bigDecimalUtils.setCurrencyScale(unscaledFee);
+    }
+
+    @Benchmark
+    public BigDecimal zeroWithCurrencyScale() {
+        return bigDecimalUtils.zeroWithCurrencyScale();
+    }
+}
@@ -0,0 +1,102 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.ParkingServiceApplication;
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.ExitEventDto;
+import com.estapar.parking.api.dto.ParkedEventDto;
+import com.estapar.parking.api.mapper.ParkingMapper;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SectorConfigDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SpotConfigDto;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.WebhookEventService;
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One vehicle's ENTRY, PARKED and EXIT through {@link WebhookEventService}, each in its own handler
+ * transaction, against the full Spring context on an embedded H2 database. Every invocation uses a
+ * new license plate so the garage is empty again afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventHandlerChainBenchmark {
+
+    private static final BigDecimal SPOT_LATITUDE = new BigDecimal("-23.561684");
+    private static final BigDecimal SPOT_LONGITUDE = new BigDecimal("-46.655981");
+
+    private ConfigurableApplicationContext context;
+    private WebhookEventService webhookEventService;
+    private UUID garageId;
+    private Instant entryTime;
+    private long vehicle;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParkingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run();
+
+        GarageSimulatorResponseDto layout = new GarageSimulatorResponseDto(
+                List.of(new SectorConfigDto("A", new BigDecimal("10.00"), 10)),
+                List.of(new SpotConfigDto(1, "A", SPOT_LATITUDE, SPOT_LONGITUDE)));
+        garageId = context.getBean(GarageRepository.class)
+                .save(context.getBean(ParkingMapper.class).toGarage(layout))
+                .getId();
+        context.getBean(GarageTopologyCache.class).reloadAll();
+
+        webhookEventService = context.getBean(WebhookEventService.class);
+        entryTime = Instant.parse("2025-01-01T10:00:00Z");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entryParkedExit() {
+        String licensePlate = "BENCH" + vehicle++;
+
+        EntryEventDto entry = new EntryEventDto(entryTime);
+        entry.setEventType(EventType.ENTRY);
+        entry.setLicensePlate(licensePlate);
+        webhookEventService.processEvent(garageId, entry);
+
+        ParkedEventDto parked = new ParkedEventDto(SPOT_LATITUDE, SPOT_LONGITUDE);
+        parked.setEventType(EventType.PARKED);
+        parked.setLicensePlate(licensePlate);
+        webhookEventService.processEvent(garageId, parked);
+
+        ExitEventDto exit = new ExitEventDto(entryTime.plus(Duration.ofMinutes(95)));
+        exit.setEventType(EventType.EXIT);
+        exit.setLicensePlate(licensePlate);
+        webhookEventService.processEvent(garageId, exit);
+    }
+}
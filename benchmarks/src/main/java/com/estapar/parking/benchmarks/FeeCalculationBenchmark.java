@@ -0,0 +1,67 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.service.ParkingFeeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ParkingFeeCalculator#calculateFee} for a stay inside the free period, a few hours and a
+ * full day: with a precomputed price, with the dynamic multiplier applied, and in minor units.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeeCalculationBenchmark {
+
+    @Param({"15", "95", "1440"})
+    private long stayMinutes;
+
+    private ParkingFeeCalculator feeCalculator;
+    private Instant entryTime;
+    private Instant exitTime;
+    private BigDecimal effectivePrice;
+    private BigDecimal basePrice;
+    private BigDecimal multiplier;
+
+    @Setup
+    public void setUp() {
+        feeCalculator = BenchmarkFixtures.feeCalculator();
+        entryTime = Instant.parse("2025-01-01T10:00:00Z");
+        exitTime = entryTime.plus(Duration.ofMinutes(stayMinutes));
+        effectivePrice = new BigDecimal("11.00");
+        basePrice = new BigDecimal("10.00");
+        multiplier = new BigDecimal("1.10");
+    }
+
+    @Benchmark
+    public BigDecimal calculateFee() {
+        return feeCalculator.calculateFee(entryTime, exitTime, effectivePrice);
+    }
+
+    @Benchmark
+    public BigDecimal calculateFeeWithMultiplier() {
+        return feeCalculator.calculateFee(entryTime, exitTime, basePrice, multiplier);
+    }
+
+    @Benchmark
+    public long calculateFeeMinorUnits() {
+        return feeCalculator.calculateFeeMinorUnits(entryTime, exitTime, 1_100);
+    }
+}
@@ -0,0 +1,179 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.ParkingServiceApplication;
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.ExitEventDto;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.api.mapper.ParkingMapper;
+import com.estapar.parking.config.AdmissionLimiter;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SectorConfigDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SpotConfigDto;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.WebhookEventService;
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A burst of concurrent vehicles, each sending ENTRY and EXIT as two requests, served the way Tomcat
+ * would serve them in each {@code parking.execution.mode}: {@code platform} on a 200-thread pool
+ * (Tomcat's default {@code max-threads}) that queues on Hikari, {@code virtual} on one virtual thread
+ * per request behind an {@link AdmissionLimiter} sized to the pool. Every request holds its
+ * connection for {@code dbLatencyMillis} extra, inside the handler's transaction, to stand in for
+ * MySQL round trips that embedded H2 does not have.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final long ADMISSION_TIMEOUT_MILLIS = 30_000;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"0", "5"})
+    private long dbLatencyMillis;
+
+    @Param({"400"})
+    private int vehicles;
+
+    private ConfigurableApplicationContext context;
+    private WebhookEventService webhookEventService;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private AdmissionLimiter admissionLimiter;
+    private ExecutorService executor;
+    private UUID garageId;
+    private Instant entryTime;
+    private final AtomicLong vehicle = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ParkingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run();
+
+        GarageSimulatorResponseDto layout = new GarageSimulatorResponseDto(
+                List.of(new SectorConfigDto("A", new BigDecimal("10.00"), vehicles)),
+                List.of(new SpotConfigDto(1, "A", new BigDecimal("-23.561684"), new BigDecimal("-46.655981"))));
+        garageId = context.getBean(GarageRepository.class)
+                .save(context.getBean(ParkingMapper.class).toGarage(layout))
+                .getId();
+        context.getBean(GarageTopologyCache.class).reloadAll();
+
+        webhookEventService = context.getBean(WebhookEventService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        entryTime = Instant.parse("2025-01-01T10:00:00Z");
+
+        if ("virtual".equals(mode)) {
+            int poolSize = context.getEnvironment()
+                    .getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+            admissionLimiter = new AdmissionLimiter(poolSize, ADMISSION_TIMEOUT_MILLIS, new SimpleMeterRegistry());
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bench-vt-", 0).factory());
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void burst() throws Exception {
+        List<Future<?>> pending = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            String licensePlate = "BENCH" + vehicle.incrementAndGet();
+            pending.add(executor.submit(() -> {
+                request(entry(licensePlate));
+                request(exit(licensePlate));
+            }));
+        }
+        for (Future<?> future : pending) {
+            future.get();
+        }
+    }
+
+    private void request(WebhookEventDto event) {
+        if (admissionLimiter != null && !admissionLimiter.tryAcquire()) {
+            throw new IllegalStateException("Request rejected by admission limit");
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                webhookEventService.processEvent(garageId, event);
+                if (dbLatencyMillis > 0) {
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    sleep(dbLatencyMillis);
+                }
+            });
+        } finally {
+            if (admissionLimiter != null) {
+                admissionLimiter.release();
+            }
+        }
+    }
+
+    private EntryEventDto entry(String licensePlate) {
+        EntryEventDto entry = new EntryEventDto(entryTime);
+        entry.setEventType(EventType.ENTRY);
+        entry.setLicensePlate(licensePlate);
+        return entry;
+    }
+
+    private ExitEventDto exit(String licensePlate) {
+        ExitEventDto exit = new ExitEventDto(entryTime.plus(Duration.ofMinutes(95)));
+        exit.setEventType(EventType.EXIT);
+        exit.setLicensePlate(licensePlate);
+        return exit;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.estapar.parking.benchmarks;
+
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.config.InstantDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body parsing with the application's ObjectMapper: the webhook timestamp format through
+ * {@link InstantDeserializer} and the polymorphic {@link WebhookEventDto} payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookDeserializationBenchmark {
+
+    private static final byte[] TIMESTAMP = bytes("\"2025-01-01T12:00:00\"");
+    private static final byte[] ENTRY = bytes(
+            "{\"license_plate\":\"ZUL0001\",\"entry_time\":\"2025-01-01T12:00:00\",\"event_type\":\"ENTRY\"}");
+    private static final byte[] PARKED = bytes(
+            "{\"license_plate\":\"ZUL0001\",\"lat\":-23.561684,\"lng\":-46.655981,\"event_type\":\"PARKED\"}");
+    private static final byte[] EXIT = bytes(
+            "{\"license_plate\":\"ZUL0001\",\"exit_time\":\"2025-01-01T14:00:00\",\"event_type\":\"EXIT\"}");
+
+    private ObjectReader instantReader;
+    private ObjectReader eventReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        instantReader = objectMapper.readerFor(Instant.class);
+        eventReader = objectMapper.readerFor(WebhookEventDto.class);
+    }
+
+    @Benchmark
+    public Instant instant() throws IOException {
+        return instantReader.readValue(TIMESTAMP);
+    }
+
+    @Benchmark
+    public WebhookEventDto entryEvent() throws IOException {
+        return eventReader.readValue(ENTRY);
+    }
+
+    @Benchmark
+    public WebhookEventDto parkedEvent() throws IOException {
+        return eventReader.readValue(PARKED);
+    }
+
+    @Benchmark
+    public WebhookEventDto exitEvent() throws IOException {
+        return eventReader.readValue(EXIT);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
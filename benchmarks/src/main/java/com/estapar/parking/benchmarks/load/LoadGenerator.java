@@ -0,0 +1,152 @@
+package com.estapar.parking.benchmarks.load;
+
+import com.estapar.parking.ParkingServiceApplication;
+import com.estapar.parking.api.mapper.ParkingMapper;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drives {@code POST /webhook} with recorded or synthesized traffic and prints throughput, latency
+ * percentiles and outcomes per event type and status.
+ * <p>
+ * Without {@code --target} the service is started in-process on a random port with the
+ * {@code benchmark} profile (embedded H2), and the garage is created from {@code --layout} (the
+ * simulator's {@code /garage} JSON) or from the synthesized layout, so a run needs no MySQL and no
+ * simulator. With {@code --target} requests go to an already running service.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.estapar.parking.benchmarks.load.LoadGenerator \
+ *      --mode=synthesize --spots=500 --vehicles=5000 --duration-seconds=3600 --speed=60
+ * java -cp benchmarks/target/benchmarks.jar com.estapar.parking.benchmarks.load.LoadGenerator \
+ *      --mode=replay --recording=data/webhook-traffic.ndjson --layout=garage.json --speed=10
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final Set<String> OPTIONS = Set.of(
+            "mode", "recording", "layout", "output", "target", "garage-id", "speed", "timeout-millis",
+            "spots", "sectors", "vehicles", "duration-seconds", "mean-stay-minutes", "seed");
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        ObjectMapper objectMapper = new ObjectMapper();
+        String mode = options.getOrDefault("mode", "synthesize");
+
+        TrafficSynthesizer synthesizer = new TrafficSynthesizer(
+                intOption(options, "spots", 100),
+                intOption(options, "sectors", 4),
+                intOption(options, "vehicles", 1000),
+                longOption(options, "duration-seconds", 3600),
+                longOption(options, "mean-stay-minutes", 90),
+                longOption(options, "seed", 42),
+                objectMapper);
+
+        List<TrafficEvent> events;
+        GarageSimulatorResponseDto layout;
+        switch (mode) {
+            case "synthesize" -> {
+                events = synthesizer.events();
+                layout = synthesizer.layout();
+                if (options.containsKey("output")) {
+                    TrafficRecording.write(Path.of(options.get("output")), events, System.currentTimeMillis(), objectMapper);
+                    System.out.printf("Synthesized traffic written: file=%s, requests=%d%n", options.get("output"), events.size());
+                }
+            }
+            case "replay" -> {
+                String recording = options.get("recording");
+                if (recording == null) {
+                    throw new IllegalArgumentException("--mode=replay needs --recording=<file>");
+                }
+                events = TrafficRecording.read(Path.of(recording), objectMapper);
+                if (options.containsKey("layout")) {
+                    layout = objectMapper.readValue(Path.of(options.get("layout")).toFile(), GarageSimulatorResponseDto.class);
+                } else {
+                    layout = synthesizer.layout();
+                    if (!options.containsKey("target")) {
+                        System.err.println("No --layout given: recorded PARKED coordinates will not match the "
+                                + "synthesized garage and their spot assignments are skipped");
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown --mode " + mode + ", expected synthesize or replay");
+        }
+
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        Duration timeout = Duration.ofMillis(longOption(options, "timeout-millis", 10_000));
+        System.out.printf("Sending %d requests at %sx speed%n", events.size(), speed > 0 ? speed : "max");
+
+        ConfigurableApplicationContext context = null;
+        try {
+            URI target;
+            String garageId = options.get("garage-id");
+            if (options.containsKey("target")) {
+                target = URI.create(options.get("target"));
+            } else {
+                context = startEmbedded();
+                garageId = createGarage(context, layout);
+                target = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            }
+
+            try (TrafficReplayer replayer = new TrafficReplayer(target, garageId, timeout)) {
+                replayer.replay(events, speed).print(System.out);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded() {
+        return new SpringApplicationBuilder(ParkingServiceApplication.class)
+                .profiles("benchmark")
+                .properties("server.port=0")
+                .run();
+    }
+
+    private static String createGarage(ConfigurableApplicationContext context, GarageSimulatorResponseDto layout) {
+        String garageId = context.getBean(GarageRepository.class)
+                .save(context.getBean(ParkingMapper.class).toGarage(layout))
+                .getId()
+                .toString();
+        context.getBean(GarageTopologyCache.class).reloadAll();
+        return garageId;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !OPTIONS.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected --<option>=<value> with "
+                        + "option one of " + OPTIONS);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static long longOption(Map<String, String> options, String name, long defaultValue) {
+        return options.containsKey(name) ? Long.parseLong(options.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,79 @@
+package com.estapar.parking.benchmarks.load;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latency and outcome of every request of a run. Latency is measured from the time a
+ * request was scheduled to be sent, not from when it was actually sent, so a service that falls
+ * behind shows up in the percentiles instead of silently slowing the generator down.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private long elapsedNanos;
+
+    LoadReport(int expectedRequests) {
+        this.latencies = new long[expectedRequests];
+    }
+
+    void recordStatus(String eventType, int status, long latencyNanos) {
+        record(eventType + " " + status, status >= 400, latencyNanos);
+    }
+
+    void recordFailure(String eventType, Throwable failure, long latencyNanos) {
+        record(eventType + " " + failure.getClass().getSimpleName(), true, latencyNanos);
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void print(PrintStream out) {
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+
+        out.printf("Requests:   %d in %.1f s (%.1f req/s)%n", count, seconds, seconds > 0 ? count / seconds : 0);
+        out.printf("Errors:     %d (%.2f%%)%n", errors.sum(), count > 0 ? 100.0 * errors.sum() / count : 0);
+        StringBuilder percentiles = new StringBuilder("Latency ms:");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.append(String.format("  %s=%.2f", PERCENTILE_LABELS[i], millis(sorted, PERCENTILES[i])));
+        }
+        percentiles.append(String.format("  max=%.2f", count > 0 ? sorted[count - 1] / 1e6 : 0));
+        out.println(percentiles);
+        out.println("Outcomes:");
+        new TreeMap<>(outcomes).forEach((outcome, total) -> out.printf("  %-28s %d%n", outcome, total.sum()));
+    }
+
+    private void record(String outcome, boolean error, long latencyNanos) {
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
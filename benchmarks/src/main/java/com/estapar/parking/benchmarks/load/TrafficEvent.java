@@ -0,0 +1,14 @@
+package com.estapar.parking.benchmarks.load;
+
+/**
+ * One webhook request of a traffic stream: when to send it, relative to the first request, and
+ * what to send. {@code garageId} and {@code idempotencyKey} are the recorded headers and may be null.
+ */
+record TrafficEvent(
+        long offsetMillis,
+        String garageId,
+        String idempotencyKey,
+        String eventType,
+        String licensePlate,
+        String body) {
+}
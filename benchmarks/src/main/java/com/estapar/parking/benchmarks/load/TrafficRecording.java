@@ -0,0 +1,83 @@
+package com.estapar.parking.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads and writes the newline-delimited JSON files produced by the service's
+ * {@code WebhookTrafficRecorder}: one request per line with {@code received_at_millis},
+ * {@code garage_id}, {@code idempotency_key} and the {@code event} body.
+ */
+final class TrafficRecording {
+
+    private TrafficRecording() {
+    }
+
+    static List<TrafficEvent> read(Path file, ObjectMapper objectMapper) throws IOException {
+        List<TrafficEvent> events = new ArrayList<>();
+        long firstReceivedAt = Long.MIN_VALUE;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                JsonNode event = node.get("event");
+                if (event == null || !node.hasNonNull("received_at_millis")) {
+                    throw new IOException("Malformed recording line " + lineNumber + " in " + file);
+                }
+                long receivedAt = node.get("received_at_millis").asLong();
+                if (firstReceivedAt == Long.MIN_VALUE) {
+                    firstReceivedAt = receivedAt;
+                }
+                events.add(new TrafficEvent(
+                        Math.max(0, receivedAt - firstReceivedAt),
+                        textOrNull(node, "garage_id"),
+                        textOrNull(node, "idempotency_key"),
+                        textOrNull(event, "event_type"),
+                        textOrNull(event, "license_plate"),
+                        objectMapper.writeValueAsString(event)));
+            }
+        }
+        events.sort(Comparator.comparingLong(TrafficEvent::offsetMillis));
+        return events;
+    }
+
+    static void write(Path file, List<TrafficEvent> events, long startMillis, ObjectMapper objectMapper)
+            throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (TrafficEvent event : events) {
+                ObjectNode line = objectMapper.createObjectNode();
+                line.put("received_at_millis", startMillis + event.offsetMillis());
+                line.put("garage_id", event.garageId());
+                line.put("idempotency_key", event.idempotencyKey());
+                line.set("event", objectMapper.readTree(event.body()));
+                writer.write(objectMapper.writeValueAsString(line));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
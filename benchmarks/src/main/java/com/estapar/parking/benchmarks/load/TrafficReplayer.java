@@ -0,0 +1,95 @@
+package com.estapar.parking.benchmarks.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a traffic stream to {@code POST /webhook} on the recorded schedule divided by {@code speed}
+ * ({@code 0} sends as fast as the service answers). Requests run on virtual threads, so slow
+ * responses do not hold back the schedule; events of the same license plate are still sent one
+ * after the other, in stream order, the way a gate controller would send them.
+ */
+final class TrafficReplayer implements AutoCloseable {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final URI webhookUri;
+    private final String garageId;
+    private final Duration requestTimeout;
+
+    /**
+     * @param garageId sent as {@code X-Garage-Id} instead of the recorded header, or {@code null}
+     *                 to keep the recorded one
+     */
+    TrafficReplayer(URI baseUri, String garageId, Duration requestTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.webhookUri = baseUri.resolve("/webhook");
+        this.garageId = garageId;
+        this.requestTimeout = requestTimeout;
+    }
+
+    LoadReport replay(List<TrafficEvent> events, double speed) {
+        LoadReport report = new LoadReport(events.size());
+        Map<String, CompletableFuture<Void>> lanes = new HashMap<>();
+        long start = System.nanoTime();
+
+        for (TrafficEvent event : events) {
+            long due = speed > 0 ? start + (long) (event.offsetMillis() * 1_000_000 / speed) : System.nanoTime();
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            String lane = event.licensePlate() != null ? event.licensePlate() : "";
+            lanes.put(lane, lanes.getOrDefault(lane, DONE).thenRunAsync(() -> send(event, due, report), executor));
+        }
+
+        CompletableFuture.allOf(lanes.values().toArray(CompletableFuture[]::new)).join();
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void send(TrafficEvent event, long due, LoadReport report) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(webhookUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(event.body()));
+        String garage = garageId != null ? garageId : event.garageId();
+        if (garage != null) {
+            request.header("X-Garage-Id", garage);
+        }
+        if (event.idempotencyKey() != null) {
+            request.header("Idempotency-Key", event.idempotencyKey());
+        }
+
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            report.recordStatus(event.eventType(), response.statusCode(), System.nanoTime() - due);
+        } catch (IOException e) {
+            report.recordFailure(event.eventType(), e, System.nanoTime() - due);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.recordFailure(event.eventType(), e, System.nanoTime() - due);
+        }
+    }
+}
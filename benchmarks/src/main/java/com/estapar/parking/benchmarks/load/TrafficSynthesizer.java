@@ -0,0 +1,171 @@
+package com.estapar.parking.benchmarks.load;
+
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SectorConfigDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SpotConfigDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Generates a garage layout and a plausible ENTRY/PARKED/EXIT stream for it. Vehicles arrive as a
+ * Poisson process over {@code durationSeconds}, park on a random free spot 30 s to 3 min after
+ * entering and stay for an exponentially distributed time. One vehicle in twenty drives out again
+ * without parking, and a vehicle arriving at a full garage sends only its ENTRY, which the service
+ * answers with 409 like it would for the simulator.
+ * <p>
+ * Event timestamps follow the simulated clock, in the simulator's {@code yyyy-MM-dd'T'HH:mm:ss}
+ * local-time format, so fees are computed over the simulated stay whatever the replay speed.
+ * The same seed always yields the same layout and stream.
+ */
+final class TrafficSynthesizer {
+
+    private static final DateTimeFormatter WEBHOOK_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.parse("2025-01-01T08:00:00");
+    private static final BigDecimal ORIGIN_LATITUDE = new BigDecimal("-23.56100000");
+    private static final BigDecimal ORIGIN_LONGITUDE = new BigDecimal("-46.65500000");
+    private static final BigDecimal SPOT_PITCH = new BigDecimal("0.00001000");
+    private static final int SPOTS_PER_ROW = 100;
+    private static final double DRIVE_THROUGH_RATIO = 0.05;
+
+    private final int spots;
+    private final int sectors;
+    private final int vehicles;
+    private final long durationMillis;
+    private final long meanStayMillis;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final List<SpotConfigDto> spotLayout = new ArrayList<>();
+    private final GarageSimulatorResponseDto layout;
+
+    TrafficSynthesizer(int spots, int sectors, int vehicles, long durationSeconds, long meanStayMinutes, long seed,
+                       ObjectMapper objectMapper) {
+        if (spots < 1 || sectors < 1 || sectors > 26 || sectors > spots || vehicles < 1 || durationSeconds < 1) {
+            throw new IllegalArgumentException(
+                    "Need spots >= sectors, 1 <= sectors <= 26, vehicles >= 1 and duration-seconds >= 1");
+        }
+        this.spots = spots;
+        this.sectors = sectors;
+        this.vehicles = vehicles;
+        this.durationMillis = durationSeconds * 1000;
+        this.meanStayMillis = meanStayMinutes * 60_000;
+        this.objectMapper = objectMapper;
+        this.random = new Random(seed);
+        this.layout = buildLayout();
+    }
+
+    GarageSimulatorResponseDto layout() {
+        return layout;
+    }
+
+    List<TrafficEvent> events() {
+        List<TrafficEvent> events = new ArrayList<>(vehicles * 3);
+        PriorityQueue<long[]> departures = new PriorityQueue<>(Comparator.comparingLong(departure -> departure[0]));
+        int[] freeSpots = new int[spots];
+        for (int i = 0; i < spots; i++) {
+            freeSpots[i] = i;
+        }
+        int free = spots;
+        int inside = 0;
+        double arrivalRate = (double) vehicles / durationMillis;
+        double now = 0;
+
+        for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+            now += -Math.log(1 - random.nextDouble()) / arrivalRate;
+            long entryAt = (long) now;
+            while (!departures.isEmpty() && departures.peek()[0] <= entryAt) {
+                long[] departure = departures.poll();
+                inside--;
+                if (departure[1] >= 0) {
+                    freeSpots[free++] = (int) departure[1];
+                }
+            }
+
+            String licensePlate = String.format("SIM%05d", vehicle);
+            events.add(entry(entryAt, licensePlate));
+            if (inside >= spots) {
+                continue;
+            }
+            inside++;
+
+            if (random.nextDouble() < DRIVE_THROUGH_RATIO || free == 0) {
+                long exitAt = entryAt + 120_000 + (long) (random.nextDouble() * 480_000);
+                events.add(exit(exitAt, licensePlate));
+                departures.add(new long[]{exitAt, -1});
+                continue;
+            }
+
+            int slot = random.nextInt(free);
+            int spot = freeSpots[slot];
+            freeSpots[slot] = freeSpots[--free];
+
+            long parkedAt = entryAt + 30_000 + (long) (random.nextDouble() * 150_000);
+            long stay = Math.max(300_000, (long) (-Math.log(1 - random.nextDouble()) * meanStayMillis));
+            long exitAt = parkedAt + stay;
+            events.add(parked(parkedAt, licensePlate, spotLayout.get(spot)));
+            events.add(exit(exitAt, licensePlate));
+            departures.add(new long[]{exitAt, spot});
+        }
+
+        events.sort(Comparator.comparingLong(TrafficEvent::offsetMillis));
+        return events;
+    }
+
+    private GarageSimulatorResponseDto buildLayout() {
+        List<SectorConfigDto> sectorLayout = new ArrayList<>(sectors);
+        int assigned = 0;
+        for (int sector = 0; sector < sectors; sector++) {
+            String code = String.valueOf((char) ('A' + sector));
+            int capacity = spots / sectors + (sector < spots % sectors ? 1 : 0);
+            sectorLayout.add(new SectorConfigDto(code, BigDecimal.valueOf(10 + 2L * sector).setScale(2), capacity));
+            for (int i = 0; i < capacity; i++, assigned++) {
+                BigDecimal lat = ORIGIN_LATITUDE.add(SPOT_PITCH.multiply(BigDecimal.valueOf(assigned / SPOTS_PER_ROW)));
+                BigDecimal lng = ORIGIN_LONGITUDE.add(SPOT_PITCH.multiply(BigDecimal.valueOf(assigned % SPOTS_PER_ROW)));
+                spotLayout.add(new SpotConfigDto(assigned + 1, code, lat, lng));
+            }
+        }
+        return new GarageSimulatorResponseDto(sectorLayout, spotLayout);
+    }
+
+    private TrafficEvent entry(long offsetMillis, String licensePlate) {
+        ObjectNode body = event("ENTRY", licensePlate);
+        body.put("entry_time", timestamp(offsetMillis));
+        return traffic(offsetMillis, "ENTRY", licensePlate, body);
+    }
+
+    private TrafficEvent parked(long offsetMillis, String licensePlate, SpotConfigDto spot) {
+        ObjectNode body = event("PARKED", licensePlate);
+        body.put("lat", spot.lat());
+        body.put("lng", spot.lng());
+        return traffic(offsetMillis, "PARKED", licensePlate, body);
+    }
+
+    private TrafficEvent exit(long offsetMillis, String licensePlate) {
+        ObjectNode body = event("EXIT", licensePlate);
+        body.put("exit_time", timestamp(offsetMillis));
+        return traffic(offsetMillis, "EXIT", licensePlate, body);
+    }
+
+    private ObjectNode event(String eventType, String licensePlate) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("license_plate", licensePlate);
+        body.put("event_type", eventType);
+        return body;
+    }
+
+    private static TrafficEvent traffic(long offsetMillis, String eventType, String licensePlate, ObjectNode body) {
+        return new TrafficEvent(offsetMillis, null, null, eventType, licensePlate, body.toString());
+    }
+
+    private static String timestamp(long offsetMillis) {
+        return START.plusNanos(offsetMillis * 1_000_000).format(WEBHOOK_DATE_FORMAT);
+    }
+}
@@ -0,0 +1,14 @@
+-- Same ranges and multipliers as the V6/V8 migrations
+INSERT INTO pricing_strategy (id, occupancy_min_percentage, occupancy_max_percentage, multiplier, is_active, created_at)
+VALUES (RANDOM_UUID(), 0.00, 25.00, 0.90, TRUE, CURRENT_TIMESTAMP),
+       (RANDOM_UUID(), 25.00, 50.00, 1.00, TRUE, CURRENT_TIMESTAMP),
+       (RANDOM_UUID(), 50.00, 75.00, 1.10, TRUE, CURRENT_TIMESTAMP),
+       (RANDOM_UUID(), 75.00, 100.00, 1.25, TRUE, CURRENT_TIMESTAMP);
+
+-- Tables written with JDBC only, so not generated from the entities (same columns as V12)
+CREATE TABLE IF NOT EXISTS webhook_idempotency (
+    idempotency_key BINARY(32) NOT NULL PRIMARY KEY,
+    status SMALLINT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_webhook_idempotency_created_at ON webhook_idempotency (created_at);
@@ -1,14 +1,17 @@
 package com.estapar.parking;
 
 import com.estapar.parking.config.DecimalConfig;
+import com.estapar.parking.config.WebhookIngestionConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
-@EnableConfigurationProperties(DecimalConfig.class)
+@EnableScheduling
+@EnableConfigurationProperties({DecimalConfig.class, WebhookIngestionConfig.class})
 public class ParkingServiceApplication {
 
     public static void main(String[] args) {
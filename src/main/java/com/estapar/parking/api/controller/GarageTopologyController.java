@@ -0,0 +1,27 @@
+package com.estapar.parking.api.controller;
+
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/topology")
+@RequiredArgsConstructor
+public class GarageTopologyController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GarageTopologyController.class);
+    
+    private final GarageTopologyCache topologyCache;
+    
+    @PostMapping("/reload")
+    public ResponseEntity<String> reload() {
+        logger.info("Received garage topology reload request");
+        int garages = topologyCache.reloadAll();
+        return ResponseEntity.ok("Garage topology reloaded: " + garages + " garages");
+    }
+}
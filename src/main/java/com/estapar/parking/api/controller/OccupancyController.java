@@ -0,0 +1,79 @@
+package com.estapar.parking.api.controller;
+
+import com.estapar.parking.api.dto.OccupancySnapshotDto;
+import com.estapar.parking.service.OccupancyBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/occupancy")
+@Tag(name = "Occupancy", description = "API for reading and following garage and sector occupancy")
+@RequiredArgsConstructor
+public class OccupancyController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyController.class);
+    
+    private final OccupancyBroadcaster occupancyBroadcaster;
+    
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Get current occupancy",
+        description = "Returns garage occupancy, the pricing multiplier a vehicle entering now would get, " +
+                      "and occupied and available spots per sector"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Occupancy retrieved successfully",
+            content = @Content(schema = @Schema(implementation = OccupancySnapshotDto.class))
+        ),
+        @ApiResponse(responseCode = "404", description = "Garage not found", content = @Content)
+    })
+    public ResponseEntity<OccupancySnapshotDto> getOccupancy(
+            @Parameter(description = "Optional garage ID. If not provided, uses default garage")
+            @RequestHeader(value = "X-Garage-Id", required = false) UUID garageId) {
+        
+        return ResponseEntity.ok(occupancyBroadcaster.currentSnapshot(garageId));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Follow occupancy",
+        description = "Server-sent events named 'occupancy' carrying the same body as GET /occupancy. " +
+                      "The current snapshot is sent first, then a new one whenever ENTRY, PARKED or EXIT " +
+                      "events change it, at most once per tick. Clients that fall behind receive only the latest snapshot."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream opened", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Garage not found", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Subscriber limit reached", content = @Content)
+    })
+    public SseEmitter streamOccupancy(
+            @Parameter(description = "Optional garage ID. If not provided, uses default garage")
+            @RequestHeader(value = "X-Garage-Id", required = false) UUID garageId,
+            @Parameter(description = "Garage ID for clients that cannot set headers, such as browser EventSource")
+            @RequestParam(value = "garageId", required = false) UUID garageIdParam) {
+        
+        UUID requestedGarageId = garageId != null ? garageId : garageIdParam;
+        logger.info("Occupancy stream requested: garageId={}", requestedGarageId);
+        return occupancyBroadcaster.subscribe(requestedGarageId);
+    }
+}
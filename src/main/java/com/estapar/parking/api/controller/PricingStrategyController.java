@@ -0,0 +1,27 @@
+package com.estapar.parking.api.controller;
+
+import com.estapar.parking.service.PricingStrategyResolver;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/pricing-strategies")
+@RequiredArgsConstructor
+public class PricingStrategyController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PricingStrategyController.class);
+    
+    private final PricingStrategyResolver pricingStrategyResolver;
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refresh() {
+        logger.info("Received pricing strategy refresh request");
+        int ranges = pricingStrategyResolver.refresh();
+        return ResponseEntity.ok("Pricing strategies refreshed: " + ranges + " ranges");
+    }
+}
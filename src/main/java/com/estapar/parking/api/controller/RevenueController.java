@@ -1,10 +1,15 @@
 package com.estapar.parking.api.controller;
 
+import com.estapar.parking.api.dto.RevenueQueryRequestDto;
+import com.estapar.parking.api.dto.RevenueReportRowDto;
 import com.estapar.parking.api.dto.RevenueRequestDto;
 import com.estapar.parking.api.dto.RevenueResponseDto;
 import com.estapar.parking.service.PricingService;
+import com.estapar.parking.service.RevenueReportQuery;
+import com.estapar.parking.service.RevenueReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,8 +19,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -28,6 +36,7 @@ public class RevenueController {
     private static final Logger logger = LoggerFactory.getLogger(RevenueController.class);
     
     private final PricingService pricingService;
+    private final RevenueReportService revenueReportService;
 
     
     @PostMapping
@@ -62,4 +71,41 @@ public class RevenueController {
         
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping(value = "/query", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Query revenue over a date range",
+        description = "Returns revenue for a date range (inclusive), optionally restricted to a list of sectors, " +
+                      "grouped by DAY (one row per day and sector), WEEK (one row per week starting on Monday " +
+                      "and sector) or SECTOR (one row per sector for the whole range). " +
+                      "Rows are streamed as they are read: a JSON array by default, or newline-delimited JSON " +
+                      "when the request accepts application/x-ndjson."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Revenue rows streamed",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = RevenueReportRowDto.class)))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid request or date range too long", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Garage or sector not found", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> queryRevenue(
+            @Parameter(description = "Optional garage ID. If not provided, uses default garage")
+            @RequestHeader(value = "X-Garage-Id", required = false) UUID garageId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @Valid @RequestBody RevenueQueryRequestDto requestDto) {
+        
+        logger.info("Revenue range query: startDate={}, endDate={}, sectors={}, groupBy={}, garageId={}",
+                   requestDto.getStartDate(), requestDto.getEndDate(), requestDto.getSectors(),
+                   requestDto.getGroupBy(), garageId);
+        
+        RevenueReportQuery query = revenueReportService.prepare(garageId, requestDto);
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        
+        StreamingResponseBody body = out -> revenueReportService.stream(query, ndjson, out);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
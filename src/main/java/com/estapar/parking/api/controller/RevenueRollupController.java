@@ -0,0 +1,33 @@
+package com.estapar.parking.api.controller;
+
+import com.estapar.parking.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/internal/revenue-rollup")
+@RequiredArgsConstructor
+public class RevenueRollupController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupController.class);
+    
+    private final RevenueRollupService revenueRollupService;
+    
+    @PostMapping("/backfill")
+    public ResponseEntity<String> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Received revenue rollup backfill request: from={}, to={}", from, to);
+        int days = revenueRollupService.backfill(from, to);
+        return ResponseEntity.ok("Revenue rollup rebuilt: " + days + " days");
+    }
+}
@@ -0,0 +1,27 @@
+package com.estapar.parking.api.controller;
+
+import com.estapar.parking.service.tariff.TariffEngine;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/tariffs")
+@RequiredArgsConstructor
+public class TariffController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TariffController.class);
+    
+    private final TariffEngine tariffEngine;
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refresh() {
+        logger.info("Received tariff refresh request");
+        int sectors = tariffEngine.refresh();
+        return ResponseEntity.ok("Tariff plans refreshed: " + sectors + " sectors");
+    }
+}
@@ -1,7 +1,11 @@
 package com.estapar.parking.api.controller;
 
+import com.estapar.parking.api.dto.WebhookBatchResponseDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.service.WebhookEventService;
+import com.estapar.parking.service.PlateOrderedEventDispatcher;
+import com.estapar.parking.service.WebhookBatchService;
+import com.estapar.parking.service.WebhookIdempotencyService;
+import com.estapar.parking.service.ingestion.WebhookEventJournal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +16,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.OptionalInt;
 import java.util.UUID;
 
 @RestController
@@ -24,8 +32,12 @@ import java.util.UUID;
 public class WebhookController {
     
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
     
-    private final WebhookEventService webhookEventService;
+    private final PlateOrderedEventDispatcher eventDispatcher;
+    private final WebhookEventJournal webhookEventJournal;
+    private final WebhookBatchService webhookBatchService;
+    private final WebhookIdempotencyService idempotencyService;
     
     @PostMapping
     @Operation(
@@ -35,10 +47,16 @@ public class WebhookController {
                       "PARKED event: requires lat and lng coordinates for exact spot matching. " +
                       "EXIT event: requires exit_time. " +
                       "All events require license_plate and event_type. " +
-                      "Sector is determined automatically on PARKED event when spot is matched."
+                      "Sector is determined automatically on PARKED event when spot is matched. " +
+                      "In ASYNC ingestion mode the event is validated, appended to the local event log and " +
+                      "acknowledged with 202; it is processed in the background. " +
+                      "A retried event (same Idempotency-Key header or, for ENTRY and EXIT, same plate and " +
+                      "timestamp) that was already applied gets the original status again, marked with " +
+                      "Idempotent-Replayed: true, without being processed twice."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Event processed successfully"),
+        @ApiResponse(responseCode = "202", description = "Event accepted for asynchronous processing"),
         @ApiResponse(responseCode = "400", description = "Invalid request or validation error", content = @Content),
         @ApiResponse(responseCode = "404", description = "Resource not found (e.g., garage not found)", content = @Content),
         @ApiResponse(responseCode = "409", description = "Conflict (e.g., garage full, spot occupied, vehicle already has active session)", content = @Content)
@@ -46,15 +64,72 @@ public class WebhookController {
     public ResponseEntity<Void> handleWebhookEvent(
             @Parameter(description = "Optional garage ID. If not provided, uses default garage")
             @RequestHeader(value = "X-Garage-Id", required = false) UUID garageId,
+            @Parameter(description = "Optional key identifying this event across retries")
+            @RequestHeader(value = WebhookIdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody WebhookEventDto eventDto) {
         
         logger.info("Received webhook event: type={}, licensePlate={}, garageId={}", 
                    eventDto.getEventType(), eventDto.getLicensePlate(), garageId);
 
-        webhookEventService.processEvent(garageId, eventDto);
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, idempotencyKey, eventDto);
+
+        if (webhookEventJournal.isEnabled()) {
+            // Memory only: the consumer claims the key in the table when it applies the event
+            OptionalInt replayed = key != null ? idempotencyService.replayFromMemory(key) : OptionalInt.empty();
+            if (replayed.isPresent()) {
+                return replay(eventDto, replayed.getAsInt());
+            }
+            long offset = webhookEventJournal.append(garageId, eventDto, key != null ? key.hash() : null);
+            logger.info("Event queued: eventType={}, licensePlate={}, offset={}",
+                       eventDto.getEventType(), eventDto.getLicensePlate(), offset);
+            return ResponseEntity.accepted().build();
+        }
+
+        if (key == null) {
+            eventDispatcher.process(garageId, eventDto);
+        } else {
+            OptionalInt replayed = idempotencyService.processOnce(garageId, key, eventDto);
+            if (replayed.isPresent()) {
+                return replay(eventDto, replayed.getAsInt());
+            }
+        }
 
         logger.info("Event processed successfully: eventType={}, licensePlate={}", 
                    eventDto.getEventType(), eventDto.getLicensePlate());
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Handle a batch of parking events",
+        description = "Accepts a JSON array or newline-delimited JSON (application/x-ndjson) of parking events. " +
+                      "Events for the same license plate are applied in submission order; events for different " +
+                      "plates are applied concurrently in grouped transactions. " +
+                      "The response carries one result per event, in submission order, with the status and " +
+                      "error code the single-event endpoint would have returned."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Batch processed; see per-event results"),
+        @ApiResponse(responseCode = "202", description = "Batch accepted for asynchronous processing"),
+        @ApiResponse(responseCode = "400", description = "Malformed payload or batch too large", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Resource not found (e.g., garage not found)", content = @Content)
+    })
+    public ResponseEntity<WebhookBatchResponseDto> handleWebhookBatch(
+            @Parameter(description = "Optional garage ID. If not provided, uses default garage")
+            @RequestHeader(value = "X-Garage-Id", required = false) UUID garageId,
+            InputStream body) {
+
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId, body);
+
+        logger.info("Webhook batch completed: total={}, succeeded={}, failed={}, garageId={}",
+                   response.getTotal(), response.getSucceeded(), response.getFailed(), garageId);
+        HttpStatus status = webhookEventJournal.isEnabled() ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private ResponseEntity<Void> replay(WebhookEventDto eventDto, int status) {
+        logger.info("Duplicate event replayed: eventType={}, licensePlate={}, status={}",
+                   eventDto.getEventType(), eventDto.getLicensePlate(), status);
+        return ResponseEntity.status(status).header(REPLAYED_HEADER, "true").build();
+    }
 }
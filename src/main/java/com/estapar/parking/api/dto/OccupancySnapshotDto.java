@@ -0,0 +1,39 @@
+package com.estapar.parking.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancySnapshotDto {
+    
+    @JsonProperty("garage_id")
+    private UUID garageId;
+    
+    private long occupied;
+    
+    @JsonProperty("max_capacity")
+    private int maxCapacity;
+    
+    @JsonProperty("occupancy_percentage")
+    private BigDecimal occupancyPercentage;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("pricing_multiplier")
+    private BigDecimal pricingMultiplier;
+    
+    private List<SectorOccupancyDto> sectors;
+    
+    private Instant timestamp;
+}
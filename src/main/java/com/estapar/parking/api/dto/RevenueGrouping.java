@@ -0,0 +1,7 @@
+package com.estapar.parking.api.dto;
+
+public enum RevenueGrouping {
+    DAY,
+    WEEK,
+    SECTOR
+}
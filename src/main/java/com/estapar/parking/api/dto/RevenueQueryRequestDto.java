@@ -0,0 +1,32 @@
+package com.estapar.parking.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueQueryRequestDto {
+    
+    @NotNull(message = "Start date is required")
+    @JsonProperty("start_date")
+    private LocalDate startDate;
+    
+    @NotNull(message = "End date is required")
+    @JsonProperty("end_date")
+    private LocalDate endDate;
+    
+    private List<@NotBlank(message = "Sector code cannot be blank") String> sectors;
+    
+    @JsonProperty("group_by")
+    private RevenueGrouping groupBy = RevenueGrouping.DAY;
+}
@@ -0,0 +1,29 @@
+package com.estapar.parking.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportRowDto {
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("period_start")
+    private LocalDate periodStart;
+    
+    private String sector;
+    
+    private BigDecimal amount;
+    
+    @JsonProperty("session_count")
+    private long sessionCount;
+}
@@ -0,0 +1,23 @@
+package com.estapar.parking.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SectorOccupancyDto {
+    
+    private String sector;
+    
+    private int occupied;
+    
+    @JsonProperty("max_capacity")
+    private int maxCapacity;
+    
+    private int available;
+}
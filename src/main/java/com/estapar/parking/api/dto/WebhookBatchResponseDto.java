@@ -0,0 +1,20 @@
+package com.estapar.parking.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookBatchResponseDto {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<WebhookEventResultDto> results;
+}
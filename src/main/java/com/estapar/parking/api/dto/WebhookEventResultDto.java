@@ -0,0 +1,29 @@
+package com.estapar.parking.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEventResultDto {
+
+    private int index;
+
+    @JsonProperty("license_plate")
+    private String licensePlate;
+
+    @JsonProperty("event_type")
+    private EventType eventType;
+
+    private int status;
+    private String code;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+}
@@ -16,6 +16,10 @@ public final class ErrorMessages {
     public static final String NO_DEFAULT_GARAGE = "No default garage found. System must be initialized.";
     public static final String SECTOR_NOT_FOUND = "Sector not found: %s";
     public static final String PRICING_STRATEGY_NOT_FOUND = "No active pricing strategy found for occupancy percentage: %.2f";
+    public static final String OCCUPANCY_STREAM_FULL = "Occupancy stream subscriber limit reached: %d";
+    public static final String ADMISSION_LIMIT_REACHED = "Too many concurrent requests, retry later: limit %d";
+    public static final String GARAGE_NOT_OWNED = "Shard %s does not own this garage (owner %s), shard membership is changing";
+    public static final String GARAGE_OWNER_UNREACHABLE = "Garage owner shard %s is not reachable";
     
     public static ResponseStatusException notFound(String message, Object... args) {
         return new ResponseStatusException(HttpStatus.NOT_FOUND, String.format(message, args));
@@ -28,4 +32,8 @@ public final class ErrorMessages {
     public static ResponseStatusException conflict(String message) {
         return new ResponseStatusException(HttpStatus.CONFLICT, message);
     }
+    
+    public static ResponseStatusException serviceUnavailable(String message, Object... args) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, String.format(message, args));
+    }
 }
@@ -14,6 +14,8 @@ import org.mapstruct.MappingTarget;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
 public interface ParkingMapper {
@@ -57,12 +59,14 @@ public interface ParkingMapper {
     
     @AfterMapping
     default void configureGarageRelationships(@MappingTarget Garage garage, GarageSimulatorResponseDto config) {
+        Map<String, List<GarageSimulatorResponseDto.SpotConfigDto>> spotsBySector = config.spots().stream()
+            .collect(Collectors.groupingBy(GarageSimulatorResponseDto.SpotConfigDto::sector));
+        
         List<Sector> sectors = config.garage().stream()
             .map(this::toSector)
             .peek(sector -> sector.setGarage(garage))
             .peek(sector -> {
-                List<ParkingSpot> spots = config.spots().stream()
-                    .filter(spotConfig -> spotConfig.sector().equals(sector.getSectorCode()))
+                List<ParkingSpot> spots = spotsBySector.getOrDefault(sector.getSectorCode(), List.of()).stream()
                     .map(this::toParkingSpot)
                     .peek(spot -> spot.setSector(sector))
                     .toList();
@@ -0,0 +1,120 @@
+package com.estapar.parking.config;
+
+import com.estapar.parking.api.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.estapar.parking.api.exception.ErrorMessages.ADMISSION_LIMIT_REACHED;
+
+/**
+ * Admits requests to the database-bound endpoints through {@link AdmissionLimiter} and answers 503
+ * with {@code Retry-After} when no permit frees up in time. A streamed response keeps its permit
+ * until the async part completes, not just until the controller returns.
+ */
+@Component
+@Order(3)
+public class AdmissionLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionLimitFilter.class);
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdmissionLimiter admissionLimiter;
+    private final ObjectMapper objectMapper;
+    private final List<String> limitedPaths;
+
+    public AdmissionLimitFilter(
+            AdmissionLimiter admissionLimiter,
+            ObjectMapper objectMapper,
+            RequestExecutionConfig config) {
+        this.admissionLimiter = admissionLimiter;
+        this.objectMapper = objectMapper;
+        this.limitedPaths = List.copyOf(config.getLimitedPaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return limitedPaths.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!admissionLimiter.tryAcquire()) {
+            reject(request, response);
+            return;
+        }
+
+        Runnable release = releaseOnce();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.warn("Request rejected by admission limit: method={}, uri={}, limit={}",
+                request.getMethod(), request.getRequestURI(), admissionLimiter.getMaxConcurrent());
+        ErrorResponse error = new ErrorResponse(
+                "ERROR", String.format(ADMISSION_LIMIT_REACHED, admissionLimiter.getMaxConcurrent()), Instant.now());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionLimiter.release();
+            }
+        };
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
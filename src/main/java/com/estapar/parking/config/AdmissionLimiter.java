@@ -0,0 +1,70 @@
+package com.estapar.parking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests that run against the database at once, sized to the connection
+ * pool. With virtual threads nothing else bounds concurrency, so without it every request would
+ * queue inside Hikari until {@code connection-timeout}. Excess requests wait up to the admission
+ * timeout in FIFO order and are then rejected, which keeps the wait short and visible.
+ */
+@Component
+public class AdmissionLimiter {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long timeoutMillis;
+    private final Counter rejected;
+
+    @Autowired
+    public AdmissionLimiter(RequestExecutionConfig config, MeterRegistry meterRegistry) {
+        this(config.getMaxConcurrentRequests(), config.getAdmissionTimeoutMillis(), meterRegistry);
+    }
+
+    public AdmissionLimiter(int maxConcurrent, long timeoutMillis, MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutMillis = timeoutMillis;
+        this.rejected = Counter.builder("parking.admission.rejected").register(meterRegistry);
+
+        Gauge.builder("parking.admission.in-flight", this, AdmissionLimiter::inFlight).register(meterRegistry);
+    }
+
+    /**
+     * Waits up to the admission timeout for a permit. Every successful call must be paired with
+     * {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        try {
+            if (permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
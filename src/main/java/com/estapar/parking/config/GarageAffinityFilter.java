@@ -0,0 +1,232 @@
+package com.estapar.parking.config;
+
+import com.estapar.parking.api.exception.GlobalExceptionHandler.ErrorResponse;
+import com.estapar.parking.service.GarageResolver;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMember;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.estapar.parking.api.exception.ErrorMessages.GARAGE_NOT_OWNED;
+import static com.estapar.parking.api.exception.ErrorMessages.GARAGE_OWNER_UNREACHABLE;
+
+/**
+ * Sends requests for garages owned by another shard to their owner, before they are admitted or
+ * touch any local cache. The garage is taken from {@code X-Garage-Id}, or is the default garage when
+ * the header is absent. With {@code parking.shard.routing=forward} the request is proxied and the
+ * owner's response relayed, with {@code redirect} the client gets a 307 to the owner. Either way
+ * {@code X-Garage-Owner} names the owning instance. Streams under {@code redirect-paths}, such as
+ * the occupancy SSE stream, are always redirected: forwarding relays the owner's body through the
+ * container's output buffer and would hold events back instead of flushing each one.
+ * <p>
+ * A forwarded request is never forwarded again: if its receiver does not own the garage either,
+ * the two instances disagree on the membership and the request is answered 503 with
+ * {@code Retry-After} until the membership files converge.
+ */
+@Component
+@Order(2)
+public class GarageAffinityFilter extends OncePerRequestFilter {
+
+    static final String GARAGE_ID_HEADER = "X-Garage-Id";
+    static final String GARAGE_OWNER_HEADER = "X-Garage-Owner";
+    static final String FORWARDED_BY_HEADER = "X-Shard-Forwarded-By";
+    static final String GARAGE_ID_PARAMETER = "garageId";
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageAffinityFilter.class);
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+    private static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    // Set by the HTTP client or the servlet container for the hop they belong to
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+
+    private final GarageShardRouter shardRouter;
+    private final GarageResolver garageResolver;
+    private final ObjectMapper objectMapper;
+    private final ShardConfig config;
+    private final List<String> shardedPaths;
+    private final List<String> redirectPaths;
+    private final HttpClient httpClient;
+    private final Counter local;
+    private final Counter forwarded;
+    private final Counter redirected;
+    private final Counter misdirected;
+    private final Counter forwardFailed;
+
+    public GarageAffinityFilter(
+            GarageShardRouter shardRouter,
+            GarageResolver garageResolver,
+            ObjectMapper objectMapper,
+            ShardConfig config,
+            MeterRegistry meterRegistry) {
+        this.shardRouter = shardRouter;
+        this.garageResolver = garageResolver;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.shardedPaths = List.copyOf(config.getPaths());
+        this.redirectPaths = List.copyOf(config.getRedirectPaths());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(config.getForwardTimeoutMillis()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.local = requestCounter(meterRegistry, "local");
+        this.forwarded = requestCounter(meterRegistry, "forwarded");
+        this.redirected = requestCounter(meterRegistry, "redirected");
+        this.misdirected = requestCounter(meterRegistry, "misdirected");
+        this.forwardFailed = requestCounter(meterRegistry, "forward_failed");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!shardRouter.isEnabled()) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return shardedPaths.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<ShardMember> owner = resolveGarageId(request).flatMap(shardRouter::ownerOf);
+        if (owner.isEmpty()) {
+            local.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(GARAGE_OWNER_HEADER, owner.get().id());
+        if (request.getHeader(FORWARDED_BY_HEADER) != null) {
+            misdirected.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                    String.format(GARAGE_NOT_OWNED, shardRouter.getInstanceId(), owner.get().id()));
+            return;
+        }
+        URI target = targetOf(request, owner.get());
+        if (config.isRedirect() || redirectPaths.stream().anyMatch(request.getRequestURI()::startsWith)) {
+            redirected.increment();
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, target.toString());
+            return;
+        }
+        forward(request, response, owner.get(), target);
+    }
+
+    /**
+     * Returns the garage the request is for. Like the occupancy stream, a GET without the header may
+     * name it in {@code ?garageId=}. A malformed value or a missing default garage is left to the
+     * controller, which answers it locally.
+     */
+    private Optional<UUID> resolveGarageId(HttpServletRequest request) {
+        String header = request.getHeader(GARAGE_ID_HEADER);
+        if ((header == null || header.isBlank()) && HttpMethod.GET.matches(request.getMethod())) {
+            header = request.getParameter(GARAGE_ID_PARAMETER);
+        }
+        try {
+            if (header != null && !header.isBlank()) {
+                return Optional.of(UUID.fromString(header.strip()));
+            }
+            return Optional.of(garageResolver.getDefaultGarage().getId());
+        } catch (IllegalArgumentException | ResponseStatusException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, ShardMember owner, URI target)
+            throws IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder forwardedRequest = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofMillis(config.getForwardTimeoutMillis()))
+                .method(request.getMethod(), body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                Collections.list(request.getHeaders(name)).forEach(value -> forwardedRequest.header(name, value));
+            }
+        }
+        if (request.getHeader(CORRELATION_ID_HEADER) == null && MDC.get(CORRELATION_ID_MDC_KEY) != null) {
+            forwardedRequest.header(CORRELATION_ID_HEADER, MDC.get(CORRELATION_ID_MDC_KEY));
+        }
+        forwardedRequest.header(FORWARDED_BY_HEADER, shardRouter.getInstanceId());
+
+        HttpResponse<InputStream> ownerResponse;
+        try {
+            ownerResponse = httpClient.send(forwardedRequest.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            forwardFailed.increment();
+            logger.warn("Request not forwarded to garage owner: method={}, uri={}, owner={}, error={}",
+                    request.getMethod(), request.getRequestURI(), owner.id(), e.toString());
+            reject(request, response, HttpStatus.BAD_GATEWAY, String.format(GARAGE_OWNER_UNREACHABLE, owner.id()));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            forwardFailed.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, String.format(GARAGE_OWNER_UNREACHABLE, owner.id()));
+            return;
+        }
+
+        forwarded.increment();
+        response.setStatus(ownerResponse.statusCode());
+        ownerResponse.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        try (InputStream ownerBody = ownerResponse.body()) {
+            ownerBody.transferTo(response.getOutputStream());
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        logger.warn("Sharded request rejected: method={}, uri={}, status={}, reason={}",
+                request.getMethod(), request.getRequestURI(), status.value(), message);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("ERROR", message, Instant.now()));
+    }
+
+    private static URI targetOf(HttpServletRequest request, ShardMember owner) {
+        String query = request.getQueryString();
+        return owner.baseUrl().resolve(request.getRequestURI() + (query != null ? "?" + query : ""));
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("parking.shard.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.estapar.parking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "parking.datasource.replica")
+@Getter
+@Setter
+public class ReadReplicaConfig {
+
+    private boolean enabled = false;
+    private String url = "";
+    private String username = "";
+    private String password = "";
+    private String driverClassName = "";
+    private int maximumPoolSize = 5;
+    private int minimumIdle = 1;
+    private long connectionTimeoutMillis = 2000;
+    private long maxLagSeconds = 5;
+    private String lagQuery = "";
+    private long lagCheckIntervalMillis = 1000;
+}
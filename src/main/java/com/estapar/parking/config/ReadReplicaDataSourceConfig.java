@@ -0,0 +1,78 @@
+package com.estapar.parking.config;
+
+import com.estapar.parking.infrastructure.persistence.routing.ReadReplicaRoutingDataSource;
+import com.estapar.parking.infrastructure.persistence.routing.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the auto-configured pool with two: {@code primary}, configured by {@code spring.datasource}
+ * as before, and {@code replica}, sized separately by {@code parking.datasource.replica}. The
+ * application's {@link DataSource} routes read-only transactions, such as revenue reads and
+ * exports, to the replica, so they do not compete with webhook processing for primary connections.
+ * Both pools report {@code hikaricp.*} metrics under their pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "parking.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaDataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReadReplicaConfig config) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(config.getUrl());
+        dataSource.setUsername(config.getUsername());
+        dataSource.setPassword(config.getPassword());
+        if (!config.getDriverClassName().isBlank()) {
+            dataSource.setDriverClassName(config.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(config.getMaximumPoolSize());
+        dataSource.setMinimumIdle(config.getMinimumIdle());
+        dataSource.setConnectionTimeout(config.getConnectionTimeoutMillis());
+        // A replica that is down at startup is retried by the lag monitor instead of failing the application
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReadReplicaConfig config,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaDataSource, config.getLagQuery(), config.getMaxLagSeconds(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry) {
+        logger.info("Read-only transactions routed to the replica: maxLag={}s", replicaLagMonitor.getMaxLagSeconds());
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry));
+    }
+}
@@ -0,0 +1,29 @@
+package com.estapar.parking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "parking.execution")
+@Getter
+@Setter
+public class RequestExecutionConfig {
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.PLATFORM;
+    private int maxConcurrentRequests = 10;
+    private long admissionTimeoutMillis = 1000;
+    private List<String> limitedPaths = List.of("/webhook", "/revenue");
+
+    public boolean isVirtual() {
+        return mode == Mode.VIRTUAL;
+    }
+}
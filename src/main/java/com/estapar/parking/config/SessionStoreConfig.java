@@ -0,0 +1,29 @@
+package com.estapar.parking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "parking.session.store")
+@Getter
+@Setter
+public class SessionStoreConfig {
+
+    public enum Mode {
+        TRANSACTIONAL,
+        WRITE_BEHIND
+    }
+
+    private Mode mode = Mode.TRANSACTIONAL;
+    private String directory = "data/session-journal";
+    private int segmentSizeBytes = 64 * 1024 * 1024;
+    private boolean fsync = false;
+    private long flushIntervalMillis = 5;
+    private int maxBatchSize = 1000;
+
+    public boolean isWriteBehind() {
+        return mode == Mode.WRITE_BEHIND;
+    }
+}
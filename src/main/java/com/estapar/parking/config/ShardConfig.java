@@ -0,0 +1,37 @@
+package com.estapar.parking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "parking.shard")
+@Getter
+@Setter
+public class ShardConfig {
+
+    public enum Routing {
+        FORWARD,
+        REDIRECT
+    }
+
+    private boolean enabled = false;
+    private String instanceId = "";
+    private Map<String, String> members = new LinkedHashMap<>();
+    private String membershipFile = "";
+    private long refreshIntervalMillis = 5000;
+    private int virtualNodes = 128;
+    private Routing routing = Routing.FORWARD;
+    private long forwardTimeoutMillis = 10000;
+    private List<String> paths = List.of("/webhook", "/revenue", "/occupancy");
+    private List<String> redirectPaths = List.of("/occupancy/stream");
+
+    public boolean isRedirect() {
+        return routing == Routing.REDIRECT;
+    }
+}
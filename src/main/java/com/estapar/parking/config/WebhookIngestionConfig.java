@@ -0,0 +1,32 @@
+package com.estapar.parking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "parking.webhook.ingestion")
+@Getter
+@Setter
+public class WebhookIngestionConfig {
+
+    public enum Mode {
+        SYNC,
+        ASYNC
+    }
+
+    private Mode mode = Mode.SYNC;
+    private String directory = "data/webhook-log";
+    private int segmentSizeBytes = 64 * 1024 * 1024;
+    private boolean fsync = false;
+    private int batchSize = 256;
+    private long pollTimeoutMillis = 500;
+    private int maxAttempts = 5;
+    private long retryInitialIntervalMillis = 200;
+    private long retryMaxIntervalMillis = 10000;
+
+    public boolean isAsync() {
+        return mode == Mode.ASYNC;
+    }
+}
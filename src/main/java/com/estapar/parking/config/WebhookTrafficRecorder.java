@@ -0,0 +1,225 @@
+package com.estapar.parking.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends every {@code POST /webhook} request to a newline-delimited JSON file when
+ * {@code parking.webhook.recording.file} is set, so simulator or production traffic can be replayed
+ * later by the load generator in the {@code benchmarks} module. Each line holds the arrival time,
+ * the {@code X-Garage-Id} and {@code Idempotency-Key} headers and the event as received.
+ * <p>
+ * The body is read before the rest of the chain runs and handed on from memory, so requests that
+ * admission control or shard routing reject without reading them are recorded too: the file
+ * reflects what was sent rather than what was accepted. Lines are buffered and flushed every second
+ * and on shutdown.
+ */
+@Component
+@Order(0)
+public class WebhookTrafficRecorder extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookTrafficRecorder.class);
+    private static final String WEBHOOK_PATH = "/webhook";
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public WebhookTrafficRecorder(
+            ObjectMapper objectMapper,
+            @Value("${parking.webhook.recording.file:}") String file) {
+        this.objectMapper = objectMapper;
+        this.writer = file.isBlank() ? null : open(Path.of(file));
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !WEBHOOK_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long receivedAt = System.currentTimeMillis();
+        byte[] body = request.getInputStream().readAllBytes();
+        try {
+            chain.doFilter(new BufferedBodyRequest(request, body), response);
+        } finally {
+            record(receivedAt, request, body);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Webhook recording flush failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Webhook recording close failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void record(long receivedAt, HttpServletRequest request, byte[] body) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(body);
+        } catch (IOException e) {
+            logger.debug("Webhook request not recorded, body is not JSON: bytes={}", body.length);
+            return;
+        }
+        if (event == null || event.isMissingNode()) {
+            return;
+        }
+
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("received_at_millis", receivedAt);
+        line.put("garage_id", request.getHeader("X-Garage-Id"));
+        line.put("idempotency_key", request.getHeader("Idempotency-Key"));
+        line.set("event", event);
+        try {
+            String json = objectMapper.writeValueAsString(line);
+            writeLock.lock();
+            try {
+                writer.write(json);
+                writer.newLine();
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Webhook request not recorded", e);
+        } catch (IOException e) {
+            logger.warn("Webhook recording write failed", e);
+        }
+    }
+
+    private static BufferedWriter open(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            logger.info("Recording webhook traffic: file={}", file.toAbsolutePath());
+            return Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open webhook recording file " + file, e);
+        }
+    }
+
+    /**
+     * Serves a body that was already read from the request.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Buffered request body is read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
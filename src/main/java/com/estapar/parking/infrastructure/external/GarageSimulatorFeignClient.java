@@ -1,6 +1,7 @@
 package com.estapar.parking.infrastructure.external;
 
 import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 
@@ -13,4 +14,11 @@ public interface GarageSimulatorFeignClient {
     
     @GetMapping("/garage")
     GarageSimulatorResponseDto getGarageConfiguration();
+    
+    /**
+     * Same layout as {@link #getGarageConfiguration()}, undecoded, so large layouts can be parsed
+     * while they are read. The caller must close the response.
+     */
+    @GetMapping("/garage")
+    Response streamGarageConfiguration();
 }
@@ -0,0 +1,4 @@
+package com.estapar.parking.infrastructure.journal;
+
+public record LogRecord(long offset, long nextOffset, byte[] payload) {
+}
@@ -0,0 +1,315 @@
+package com.estapar.parking.infrastructure.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log stored in fixed-size memory-mapped segment files.
+ * <p>
+ * Each record is written as {@code [length][crc32c][payload]}; the length is written last, so a record is
+ * only visible once it is complete. Offsets are logical ({@code segment base + position}) and survive
+ * restarts. Readers acknowledge progress through {@link #commit(long)}, which is persisted in a mapped
+ * checkpoint file; segments entirely below the committed offset are deleted.
+ */
+public class MappedSegmentLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedSegmentLog.class);
+
+    private static final int HEADER_SIZE = 8;
+    private static final int ROLL_MARKER = -1;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+
+    private Segment active;
+    private long committedOffset;
+
+    public MappedSegmentLog(Path directory, int segmentSize, boolean fsync) throws IOException {
+        if (segmentSize < HEADER_SIZE * 2) {
+            throw new IllegalArgumentException("Segment size must be at least " + HEADER_SIZE * 2 + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        committedOffset = checkpoint.getLong(0);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                Segment segment = Segment.open(path, baseOffsetOf(path), segmentSize);
+                segments.put(segment.baseOffset, segment);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(committedOffset);
+        } else {
+            for (Segment segment : segments.values()) {
+                segment.recover();
+            }
+            active = segments.lastEntry().getValue();
+            if (committedOffset < segments.firstKey()) {
+                committedOffset = segments.firstKey();
+            }
+        }
+
+        logger.info("Log opened: directory={}, segments={}, committedOffset={}, endOffset={}",
+                directory, segments.size(), committedOffset, endOffset());
+    }
+
+    public long append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+
+        lock.lock();
+        try {
+            if (active.writePosition + recordSize > active.capacity - HEADER_SIZE) {
+                roll();
+            }
+
+            int position = active.writePosition;
+            MappedByteBuffer buffer = active.buffer;
+            buffer.put(position + HEADER_SIZE, payload);
+            buffer.putInt(position + Integer.BYTES, checksum(payload));
+            buffer.putInt(position, payload.length);
+            if (fsync) {
+                buffer.force(position, recordSize);
+            }
+
+            active.writePosition = position + recordSize;
+            appended.signalAll();
+            return active.baseOffset + position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<LogRecord> read(long fromOffset, int maxRecords, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (fromOffset >= endOffset() && remainingNanos > 0) {
+                remainingNanos = appended.awaitNanos(remainingNanos);
+            }
+
+            List<LogRecord> records = new ArrayList<>();
+            long offset = fromOffset;
+            while (records.size() < maxRecords && offset < endOffset()) {
+                Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+                if (entry == null) {
+                    offset = segments.firstKey();
+                    continue;
+                }
+
+                Segment segment = entry.getValue();
+                int position = (int) (offset - segment.baseOffset);
+                int length = position + HEADER_SIZE <= segment.capacity ? segment.buffer.getInt(position) : 0;
+                if (length <= 0) {
+                    Long next = segments.higherKey(segment.baseOffset);
+                    if (next == null) {
+                        break;
+                    }
+                    offset = next;
+                    continue;
+                }
+
+                byte[] payload = new byte[length];
+                segment.buffer.get(position + HEADER_SIZE, payload);
+                records.add(new LogRecord(offset, offset + HEADER_SIZE + length, payload));
+                offset += HEADER_SIZE + length;
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void commit(long offset) {
+        lock.lock();
+        try {
+            if (offset <= committedOffset) {
+                return;
+            }
+            checkpoint.putLong(0, offset);
+            if (fsync) {
+                checkpoint.force();
+            }
+            committedOffset = offset;
+            deleteSegmentsBelow(offset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long committedOffset() {
+        lock.lock();
+        try {
+            return committedOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long endOffset() {
+        lock.lock();
+        try {
+            return active.baseOffset + active.writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            checkpoint.force();
+            checkpointChannel.close();
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() {
+        active.buffer.putInt(active.writePosition, ROLL_MARKER);
+        active.buffer.force();
+        active = createSegment(active.baseOffset + active.capacity);
+    }
+
+    private Segment createSegment(long baseOffset) {
+        try {
+            Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+            Segment segment = Segment.open(path, baseOffset, segmentSize);
+            segments.put(baseOffset, segment);
+            logger.debug("Log segment created: path={}", path);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create log segment at offset " + baseOffset, e);
+        }
+    }
+
+    private void deleteSegmentsBelow(long offset) {
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.baseOffset + oldest.capacity > offset) {
+                return;
+            }
+            segments.pollFirstEntry();
+            try {
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+                logger.debug("Log segment deleted: path={}", oldest.path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete log segment: path={}, error={}", oldest.path, e.getMessage());
+            }
+        }
+    }
+
+    private static long baseOffsetOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int writePosition;
+
+        private Segment(Path path, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment open(Path path, long baseOffset, int defaultSize) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size() > 0 ? channel.size() : defaultSize;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(path, baseOffset, channel, buffer);
+        }
+
+        void recover() {
+            int position = 0;
+            while (position + HEADER_SIZE <= capacity) {
+                int length = buffer.getInt(position);
+                if (length == 0 || length == ROLL_MARKER) {
+                    writePosition = position;
+                    return;
+                }
+                if (length < 0 || position + HEADER_SIZE + length > capacity
+                        || buffer.getInt(position + Integer.BYTES) != checksumAt(position + HEADER_SIZE, length)) {
+                    logger.warn("Truncating torn log record: segment={}, position={}", path, position);
+                    truncate(position);
+                    writePosition = position;
+                    return;
+                }
+                position += HEADER_SIZE + length;
+            }
+            writePosition = position;
+        }
+
+        private int checksumAt(int position, int length) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(position, length));
+            return (int) crc.getValue();
+        }
+
+        private void truncate(int position) {
+            for (int index = position; index < capacity; index++) {
+                buffer.put(index, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+}
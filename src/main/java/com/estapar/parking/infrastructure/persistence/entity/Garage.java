@@ -1,5 +1,6 @@
 package com.estapar.parking.infrastructure.persistence.entity;
 
+import com.estapar.parking.infrastructure.persistence.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class Garage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(nullable = false)
@@ -1,5 +1,6 @@
 package com.estapar.parking.infrastructure.persistence.entity;
 
+import com.estapar.parking.infrastructure.persistence.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,7 +17,8 @@ import java.util.UUID;
            @Index(name = "idx_spot_exit", columnList = "spot_id,exit_time"),
            @Index(name = "idx_spot_vehicle_exit", columnList = "spot_id,vehicle_license_plate,exit_time"),
            @Index(name = "idx_spot_entry_time", columnList = "spot_id,entry_time"),
-           @Index(name = "idx_garage_vehicle_exit", columnList = "garage_id,vehicle_license_plate,exit_time")
+           @Index(name = "idx_garage_vehicle_exit", columnList = "garage_id,vehicle_license_plate,exit_time"),
+           @Index(name = "idx_session_exit_time", columnList = "exit_time")
        })
 @Getter
 @Setter
@@ -25,7 +27,7 @@ import java.util.UUID;
 public class ParkingSession {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,58 @@
+package com.estapar.parking.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Closed session moved out of {@code parking_session} once it is older than the retention window.
+ * Rows are written with JDBC by {@code SessionArchiver} and only read through JPA.
+ */
+@Entity
+@Table(name = "parking_session_archive",
+       indexes = {
+           @Index(name = "idx_archive_entry_time", columnList = "entry_time"),
+           @Index(name = "idx_archive_garage_vehicle", columnList = "garage_id,vehicle_license_plate")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSessionArchive {
+    
+    @Id
+    private UUID id;
+    
+    @Column(nullable = false)
+    private UUID garageId;
+    
+    @Column
+    private UUID sectorId;
+    
+    @Column
+    private UUID spotId;
+    
+    @Column(nullable = false, length = 20)
+    private String vehicleLicensePlate;
+    
+    @Column(nullable = false)
+    private Instant entryTime;
+    
+    @Column(nullable = false)
+    private Instant exitTime;
+    
+    @Column(precision = 5, scale = 2)
+    private BigDecimal pricingMultiplier;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal finalPrice;
+    
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
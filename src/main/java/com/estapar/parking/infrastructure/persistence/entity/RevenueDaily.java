@@ -0,0 +1,28 @@
+package com.estapar.parking.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "revenue_daily",
+       indexes = @Index(name = "idx_revenue_daily_garage_date", columnList = "garage_id,local_date"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueDaily {
+    
+    @EmbeddedId
+    private RevenueDailyId id;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(nullable = false)
+    private Integer sessionCount;
+}
@@ -0,0 +1,31 @@
+package com.estapar.parking.infrastructure.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RevenueDailyId implements Serializable {
+    
+    @Column(name = "garage_id", nullable = false)
+    private UUID garageId;
+    
+    @Column(name = "sector_id", nullable = false)
+    private UUID sectorId;
+    
+    @Column(name = "local_date", nullable = false)
+    private LocalDate localDate;
+}
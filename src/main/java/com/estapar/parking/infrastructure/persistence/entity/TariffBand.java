@@ -0,0 +1,47 @@
+package com.estapar.parking.infrastructure.persistence.entity;
+
+import com.estapar.parking.infrastructure.persistence.id.TimeOrderedUuid;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tariff_band",
+       indexes = @Index(name = "idx_tariff_band_plan", columnList = "tariff_plan_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffBand {
+    
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tariff_plan_id", nullable = false)
+    private TariffPlan tariffPlan;
+    
+    @Column(nullable = false)
+    private LocalTime startTime;
+    
+    @Column(nullable = false)
+    private LocalTime endTime;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal hourlyRate;
+    
+    @Column(nullable = false)
+    private Instant createdAt;
+    
+    @Column
+    private Instant updatedAt;
+
+}
@@ -0,0 +1,63 @@
+package com.estapar.parking.infrastructure.persistence.entity;
+
+import com.estapar.parking.infrastructure.persistence.id.TimeOrderedUuid;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+@Entity
+@Table(name = "tariff_plan",
+       indexes = @Index(name = "idx_tariff_plan_active_sector", columnList = "is_active,sector_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TariffPlan {
+    
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sector_id", nullable = false)
+    private Sector sector;
+    
+    @OneToMany(mappedBy = "tariffPlan", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    private List<TariffBand> bands;
+    
+    @Column
+    private Integer freeMinutes;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal dailyCap;
+    
+    @Column
+    private LocalTime overnightStart;
+    
+    @Column
+    private LocalTime overnightEnd;
+    
+    @Column(precision = 19, scale = 2)
+    private BigDecimal overnightFlatRate;
+    
+    @Column
+    private String description;
+    
+    @Column(nullable = false)
+    private Boolean isActive = true;
+    
+    @Column(nullable = false)
+    private Instant createdAt;
+    
+    @Column
+    private Instant updatedAt;
+
+}
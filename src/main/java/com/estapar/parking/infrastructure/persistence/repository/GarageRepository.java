@@ -19,7 +19,7 @@ public interface GarageRepository extends JpaRepository<Garage, UUID> {
     @Query(value = "SELECT " +
            "((SELECT COALESCE(SUM(s.occupied_count), 0) FROM sector s WHERE s.garage_id = :garageId) + " +
            "(SELECT COALESCE(COUNT(ps.id), 0) FROM parking_session ps " +
-           " WHERE ps.garage_id = :garageId AND ps.exit_time IS NULL))",
+           " WHERE ps.garage_id = :garageId AND ps.exit_time IS NULL AND ps.spot_id IS NULL))",
            nativeQuery = true)
     long calcOccupancy(@Param("garageId") UUID garageId);
     
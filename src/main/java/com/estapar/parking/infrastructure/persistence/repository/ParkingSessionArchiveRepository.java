@@ -0,0 +1,20 @@
+package com.estapar.parking.infrastructure.persistence.repository;
+
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSessionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ParkingSessionArchiveRepository extends JpaRepository<ParkingSessionArchive, UUID> {
+    
+    @Query("SELECT MIN(psa.entryTime) FROM ParkingSessionArchive psa")
+    Optional<Instant> findFirstEntryTime();
+    
+    @Query("SELECT MAX(psa.entryTime) FROM ParkingSessionArchive psa")
+    Optional<Instant> findLastEntryTime();
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,10 +19,23 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, UUID>
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT ps FROM ParkingSpot ps " +
             "INNER JOIN FETCH ps.sector sector " +
-            "WHERE ps.sector.garage.id = :garageId " +
-           "AND ps.latitude = :latitude AND ps.longitude = :longitude")
-    Optional<ParkingSpot> findByGarageIdAndLatitudeAndLongitude(
-            @Param("garageId") UUID garageId,
-            @Param("latitude") BigDecimal latitude,
-            @Param("longitude") BigDecimal longitude);
+            "WHERE ps.id = :id")
+    Optional<ParkingSpot> findWithSectorById(@Param("id") UUID id);
+    
+    long countBySectorIdAndIsOccupiedTrue(UUID sectorId);
+    
+    @Query("SELECT ps.id AS id, ps.sector.id AS sectorId, ps.latitude AS latitude, ps.longitude AS longitude " +
+            "FROM ParkingSpot ps " +
+            "WHERE ps.sector.garage.id = :garageId")
+    List<SpotLocation> findLocationsByGarageId(@Param("garageId") UUID garageId);
+    
+    interface SpotLocation {
+        UUID getId();
+        
+        UUID getSectorId();
+        
+        BigDecimal getLatitude();
+        
+        BigDecimal getLongitude();
+    }
 }
@@ -3,19 +3,24 @@ package com.estapar.parking.infrastructure.persistence.repository;
 import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PricingStrategyRepository extends JpaRepository<PricingStrategy, UUID> {
     
-    @Query("SELECT ps FROM PricingStrategy ps WHERE ps.isActive = true " +
-           "AND ps.occupancyMinPercentage <= :occupancyPercentage " +
-           "AND ps.occupancyMaxPercentage > :occupancyPercentage")
-    Optional<PricingStrategy> findActiveStrategyByOccupancyRange(
-            @Param("occupancyPercentage") BigDecimal occupancyPercentage);
+    List<PricingStrategy> findByIsActiveTrueOrderByOccupancyMinPercentageAsc();
+    
+    @Query("SELECT COUNT(ps) AS count, MAX(COALESCE(ps.updatedAt, ps.createdAt)) AS lastModified " +
+           "FROM PricingStrategy ps")
+    StrategyVersion findVersion();
+    
+    interface StrategyVersion {
+        long getCount();
+        
+        Instant getLastModified();
+    }
 }
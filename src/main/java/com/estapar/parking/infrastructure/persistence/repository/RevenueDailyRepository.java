@@ -0,0 +1,90 @@
+package com.estapar.parking.infrastructure.persistence.repository;
+
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDaily;
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, RevenueDailyId> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (garage_id, sector_id, local_date, amount, session_count) " +
+           "VALUES (:garageId, :sectorId, :localDate, :amount, 1) " +
+           "ON DUPLICATE KEY UPDATE amount = amount + :amount, session_count = session_count + 1",
+           nativeQuery = true)
+    void addSession(
+            @Param("garageId") UUID garageId,
+            @Param("sectorId") UUID sectorId,
+            @Param("localDate") LocalDate localDate,
+            @Param("amount") BigDecimal amount);
+    
+    /**
+     * Brings the day's rows to the totals of its closed sessions by adding the difference, so an
+     * EXIT upsert that commits while the day is rebuilt is kept instead of being overwritten. The
+     * sessions and current rows are read with the locking reads of {@code INSERT ... SELECT}, so a
+     * concurrent EXIT is counted either here or by its own upsert, never by both.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (garage_id, sector_id, local_date, amount, session_count) " +
+           "SELECT diff.garage_id, diff.sector_id, :localDate, diff.amount_delta, diff.count_delta " +
+           "FROM (" +
+           "SELECT sessions.garage_id, sessions.sector_id, " +
+           "SUM(sessions.final_price) - COALESCE(MAX(rd.amount), 0) AS amount_delta, " +
+           "COUNT(sessions.id) - COALESCE(MAX(rd.session_count), 0) AS count_delta " +
+           "FROM (" +
+           "SELECT s.garage_id, s.id AS sector_id, ps.id, ps.final_price " +
+           "FROM parking_session ps " +
+           "INNER JOIN parking_spot pspot ON ps.spot_id = pspot.id " +
+           "INNER JOIN sector s ON pspot.sector_id = s.id " +
+           "WHERE ps.entry_time >= :startOfDay AND ps.entry_time < :endOfDay " +
+           "AND ps.exit_time IS NOT NULL " +
+           "AND ps.final_price IS NOT NULL " +
+           "UNION ALL " +
+           "SELECT s.garage_id, s.id AS sector_id, psa.id, psa.final_price " +
+           "FROM parking_session_archive psa " +
+           "INNER JOIN sector s ON psa.sector_id = s.id " +
+           "WHERE psa.entry_time >= :startOfDay AND psa.entry_time < :endOfDay " +
+           "AND psa.final_price IS NOT NULL" +
+           ") sessions " +
+           "LEFT JOIN revenue_daily rd ON rd.garage_id = sessions.garage_id " +
+           "AND rd.sector_id = sessions.sector_id AND rd.local_date = :localDate " +
+           "GROUP BY sessions.garage_id, sessions.sector_id" +
+           ") diff " +
+           "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), " +
+           "session_count = session_count + VALUES(session_count)", nativeQuery = true)
+    int upsertDifferenceFromSessions(
+            @Param("localDate") LocalDate localDate,
+            @Param("startOfDay") Instant startOfDay,
+            @Param("endOfDay") Instant endOfDay);
+    
+    /**
+     * Deletes the day's rows of sectors that no longer have a closed session that day.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily WHERE local_date = :localDate " +
+           "AND NOT EXISTS (" +
+           "SELECT 1 FROM parking_session ps " +
+           "INNER JOIN parking_spot pspot ON ps.spot_id = pspot.id " +
+           "WHERE pspot.sector_id = revenue_daily.sector_id " +
+           "AND ps.entry_time >= :startOfDay AND ps.entry_time < :endOfDay " +
+           "AND ps.exit_time IS NOT NULL " +
+           "AND ps.final_price IS NOT NULL) " +
+           "AND NOT EXISTS (" +
+           "SELECT 1 FROM parking_session_archive psa " +
+           "WHERE psa.sector_id = revenue_daily.sector_id " +
+           "AND psa.entry_time >= :startOfDay AND psa.entry_time < :endOfDay " +
+           "AND psa.final_price IS NOT NULL)", nativeQuery = true)
+    int deleteWithoutSessions(
+            @Param("localDate") LocalDate localDate,
+            @Param("startOfDay") Instant startOfDay,
+            @Param("endOfDay") Instant endOfDay);
+}
@@ -2,8 +2,12 @@ package com.estapar.parking.infrastructure.persistence.repository;
 
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,5 +15,47 @@ import java.util.UUID;
 public interface SectorRepository extends JpaRepository<Sector, UUID> {
 
     Optional<Sector> findByGarageIdAndSectorCode(UUID garageId, String sectorCode);
-
+    
+    List<Sector> findByGarageId(UUID garageId);
+    
+    @Query("SELECT s.id AS id, s.garage.id AS garageId, s.occupiedCount AS occupiedCount FROM Sector s")
+    List<SectorOccupancy> findAllOccupancy();
+    
+    @Query("SELECT s.id AS id, s.garage.id AS garageId, s.occupiedCount AS occupiedCount FROM Sector s WHERE s.id = :id")
+    Optional<SectorOccupancy> findOccupancyById(@Param("id") UUID id);
+    
+    /**
+     * Applies an occupancy delta without reading the row first and without bumping its version.
+     */
+    @Modifying
+    @Query(value = "UPDATE sector SET occupied_count = GREATEST(0, occupied_count + :delta) WHERE id = :id",
+           nativeQuery = true)
+    int addOccupiedCount(@Param("id") UUID id, @Param("delta") int delta);
+    
+    /**
+     * Resets every sector's occupied_count to its number of occupied spots.
+     */
+    @Modifying
+    @Query(value = "UPDATE sector s SET s.occupied_count = " +
+                   "(SELECT COUNT(*) FROM parking_spot ps WHERE ps.sector_id = s.id AND ps.is_occupied = TRUE)",
+           nativeQuery = true)
+    int recountOccupied();
+    
+    /**
+     * Resets the occupied_count of the garage's sectors to their number of occupied spots.
+     */
+    @Modifying
+    @Query(value = "UPDATE sector s SET s.occupied_count = " +
+                   "(SELECT COUNT(*) FROM parking_spot ps WHERE ps.sector_id = s.id AND ps.is_occupied = TRUE) " +
+                   "WHERE s.garage_id = :garageId",
+           nativeQuery = true)
+    int recountOccupiedByGarageId(@Param("garageId") UUID garageId);
+    
+    interface SectorOccupancy {
+        UUID getId();
+        
+        UUID getGarageId();
+        
+        int getOccupiedCount();
+    }
 }
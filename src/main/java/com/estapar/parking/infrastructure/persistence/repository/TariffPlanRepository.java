@@ -0,0 +1,31 @@
+package com.estapar.parking.infrastructure.persistence.repository;
+
+import com.estapar.parking.infrastructure.persistence.entity.TariffPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TariffPlanRepository extends JpaRepository<TariffPlan, UUID> {
+    
+    @Query("SELECT DISTINCT tp FROM TariffPlan tp LEFT JOIN FETCH tp.bands WHERE tp.isActive = true")
+    List<TariffPlan> findActiveWithBands();
+    
+    @Query("SELECT COUNT(tp) AS count, MAX(COALESCE(tp.updatedAt, tp.createdAt)) AS lastModified " +
+           "FROM TariffPlan tp")
+    TariffVersion findVersion();
+    
+    @Query("SELECT COUNT(tb) AS count, MAX(COALESCE(tb.updatedAt, tb.createdAt)) AS lastModified " +
+           "FROM TariffBand tb")
+    TariffVersion findBandVersion();
+    
+    interface TariffVersion {
+        long getCount();
+        
+        Instant getLastModified();
+    }
+}
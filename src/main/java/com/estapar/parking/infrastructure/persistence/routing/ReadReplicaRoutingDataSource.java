@@ -0,0 +1,60 @@
+package com.estapar.parking.infrastructure.persistence.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions while {@link ReplicaLagMonitor} reports
+ * the replica usable, and primary connections to everything else. The transaction's read-only
+ * flag is only known once it has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching
+ * the connection to the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primary;
+    private final Counter replica;
+    private final Counter fallback;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                        MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primary = routeCounter(meterRegistry, "primary");
+        this.replica = routeCounter(meterRegistry, "replica");
+        this.fallback = routeCounter(meterRegistry, "primary_fallback");
+        setTargetDataSources(Map.<Object, Object>of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primary.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isUsable()) {
+            fallback.increment();
+            return Route.PRIMARY;
+        }
+        replica.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("parking.datasource.connections")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
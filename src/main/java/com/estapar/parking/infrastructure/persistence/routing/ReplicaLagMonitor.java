@@ -0,0 +1,91 @@
+package com.estapar.parking.infrastructure.persistence.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how far the read replica is behind the primary. The replica is usable while the lag
+ * is known and at most {@code max-lag-seconds}; when replication stops, lags further behind or the
+ * replica cannot be reached, read-only transactions go to the primary until it catches up.
+ * <p>
+ * The lag is read from {@code SHOW REPLICA STATUS}, or from {@code lag-query} when set, which must
+ * return the lag in seconds (e.g. from a heartbeat table).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String REPLICA_STATUS = "SHOW REPLICA STATUS";
+    private static final String SECONDS_BEHIND_SOURCE = "Seconds_Behind_Source";
+    private static final long UNKNOWN_LAG = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final AtomicLong lagSeconds = new AtomicLong(UNKNOWN_LAG);
+
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        Gauge.builder("parking.datasource.replica.lag.seconds", lagSeconds, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("parking.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether read-only transactions may use the replica. False until the first check.
+     */
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${parking.datasource.replica.lag-check-interval-millis:1000}")
+    public void check() {
+        Long lag;
+        try {
+            lag = measure();
+        } catch (DataAccessException e) {
+            if (usable) {
+                logger.warn("Replica lag not measured, reads fall back to the primary: error={}", e.getMessage());
+            }
+            lag = null;
+        }
+        lagSeconds.set(lag != null ? lag : UNKNOWN_LAG);
+
+        boolean nowUsable = lag != null && lag <= maxLagSeconds;
+        if (nowUsable != usable) {
+            logger.info("Replica {} for reads: lagSeconds={}, maxLagSeconds={}",
+                    nowUsable ? "enabled" : "disabled", lag, maxLagSeconds);
+        }
+        usable = nowUsable;
+    }
+
+    private Long measure() {
+        if (!lagQuery.isBlank()) {
+            return jdbcTemplate.queryForObject(lagQuery, Long.class);
+        }
+        // No row when the server is not a replica, NULL when replication is stopped
+        List<Long> lags = jdbcTemplate.query(REPLICA_STATUS, (rs, rowNum) -> {
+            long lag = rs.getLong(SECONDS_BEHIND_SOURCE);
+            return rs.wasNull() ? null : lag;
+        });
+        return lags.isEmpty() ? null : lags.get(0);
+    }
+}
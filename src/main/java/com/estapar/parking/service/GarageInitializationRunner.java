@@ -6,9 +6,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+/**
+ * Loads the garage layout from the simulator before the other runners, which build caches and
+ * counters from it.
+ */
 @Component
+@Order(GarageInitializationRunner.ORDER)
 @ConditionalOnProperty(
     name = "parking.initialization.enabled",
     havingValue = "true",
@@ -17,6 +24,8 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class GarageInitializationRunner implements ApplicationRunner {
     
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+    
     private static final Logger logger = LoggerFactory.getLogger(GarageInitializationRunner.class);
     
     private final GarageInitializationService initializationService;
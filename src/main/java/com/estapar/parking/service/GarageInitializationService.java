@@ -1,17 +1,21 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.api.mapper.ParkingMapper;
 import com.estapar.parking.infrastructure.external.GarageSimulatorFeignClient;
-import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.GarageLayoutLoader.LoadedLayout;
+import feign.Response;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
 @Service
 @RequiredArgsConstructor
 public class GarageInitializationService {
@@ -20,7 +24,8 @@ public class GarageInitializationService {
     
     private final GarageSimulatorFeignClient simulatorClient;
     private final GarageRepository garageRepository;
-    private final ParkingMapper parkingMapper;
+    private final GarageLayoutLoader layoutLoader;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional(isolation = Isolation.REPEATABLE_READ, timeout = 60)
     public void initializeFromSimulator() {
@@ -31,18 +36,28 @@ public class GarageInitializationService {
             return;
         }
         
-        GarageSimulatorResponseDto config = simulatorClient.getGarageConfiguration();
-        
-        if (config == null) {
-            throw new IllegalStateException("Simulator returned null garage configuration");
+        long startNanos = System.nanoTime();
+        LoadedLayout layout;
+        try (Response response = simulatorClient.streamGarageConfiguration()) {
+            if (response.status() >= 300) {
+                throw new IllegalStateException("Simulator returned HTTP " + response.status() + " for garage configuration");
+            }
+            if (response.body() == null) {
+                throw new IllegalStateException("Simulator returned null garage configuration");
+            }
+            try (InputStream body = response.body().asInputStream()) {
+                layout = layoutLoader.load(body);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read garage configuration from simulator", e);
         }
         
-        Garage garage = parkingMapper.toGarage(config);
-        
-        garage = garageRepository.save(garage);
-        logger.info("Garage initialization completed successfully. Garage ID: {}, Sectors: {}",
-                   garage.getId(), 
-                   garage.getSectors() != null ? garage.getSectors().size() : 0);
+        eventPublisher.publishEvent(new GarageLayoutChangedEvent(layout.garageId()));
+        logger.info("Garage initialization completed successfully. Garage ID: {}, Sectors: {}, Spots: {}, tookMillis={}",
+                   layout.garageId(),
+                   layout.sectors(),
+                   layout.spots(),
+                   (System.nanoTime() - startNanos) / 1_000_000);
     }
     
 }
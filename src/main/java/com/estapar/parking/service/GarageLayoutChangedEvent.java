@@ -0,0 +1,10 @@
+package com.estapar.parking.service;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that stores a garage layout (sectors and spots); in-memory
+ * views of the layout rebuild themselves once it commits.
+ */
+public record GarageLayoutChangedEvent(UUID garageId) {
+}
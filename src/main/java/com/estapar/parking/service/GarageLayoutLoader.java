@@ -0,0 +1,211 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SectorConfigDto;
+import com.estapar.parking.infrastructure.external.dto.GarageSimulatorResponseDto.SpotConfigDto;
+import com.estapar.parking.util.UuidUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes a simulator garage layout while it is being parsed. Sectors are few and read whole;
+ * spots are read one at a time, matched to their sector through a map keyed by sector code and
+ * inserted in JDBC batches, so memory stays bounded by the batch size however many spots the
+ * layout has. With {@code rewriteBatchedStatements=true} on the MySQL URL every batch becomes one
+ * multi-row INSERT.
+ * <p>
+ * The simulator sends {@code garage} before {@code spots}. Spots that arrive before their sectors
+ * are kept in memory until the sectors have been written.
+ */
+@Component
+public class GarageLayoutLoader {
+
+    private static final String INSERT_GARAGE =
+            "INSERT INTO garage (id, is_default, created_at, max_capacity) VALUES (?, TRUE, ?, ?)";
+    private static final String INSERT_SECTOR =
+            "INSERT INTO sector (id, garage_id, sector_code, base_price, max_capacity, occupied_count, version) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0)";
+    private static final String INSERT_SPOT =
+            "INSERT INTO parking_spot (id, sector_id, latitude, longitude, is_occupied, version) " +
+            "VALUES (?, ?, ?, ?, FALSE, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    @Autowired
+    public GarageLayoutLoader(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${parking.initialization.batch-size:1000}") int batchSize) {
+        this(new JdbcTemplate(dataSource), objectMapper, batchSize);
+    }
+
+    GarageLayoutLoader(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LoadedLayout load(InputStream layout) throws IOException {
+        Load load = new Load();
+        try (JsonParser parser = objectMapper.createParser(layout)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Simulator returned null garage configuration");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "garage" -> readSectors(parser, load);
+                    case "spots" -> readSpots(parser, load);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return load.finish();
+    }
+
+    private void readSectors(JsonParser parser, Load load) throws IOException {
+        expectArray(parser, "garage");
+        List<SectorConfigDto> sectors = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            sectors.add(parser.readValueAs(SectorConfigDto.class));
+        }
+        load.writeSectors(sectors);
+    }
+
+    private void readSpots(JsonParser parser, Load load) throws IOException {
+        expectArray(parser, "spots");
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            load.addSpot(parser.readValueAs(SpotConfigDto.class));
+        }
+    }
+
+    private static void expectArray(JsonParser parser, String field) {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalStateException("Simulator field '" + field + "' must be an array");
+        }
+    }
+
+    public record LoadedLayout(UUID garageId, int sectors, long spots, int maxCapacity) {
+    }
+
+    /**
+     * State of one load: sector ids by code, per-sector spot counts and the pending spot batch.
+     */
+    private final class Load {
+
+        private final UUID garageId = UuidUtils.timeOrdered();
+        private final Map<String, UUID> sectorIds = new LinkedHashMap<>();
+        private final Map<String, Long> spotCounts = new LinkedHashMap<>();
+        private final List<SpotConfigDto> early = new ArrayList<>();
+        private List<Object[]> batch = new ArrayList<>();
+        private boolean sectorsWritten;
+        private int maxCapacity;
+        private long spots;
+
+        void writeSectors(List<SectorConfigDto> sectors) {
+            if (sectorsWritten) {
+                throw new IllegalStateException("Simulator garage configuration lists sectors twice");
+            }
+            if (sectors.isEmpty()) {
+                throw new IllegalStateException("Garage must have at least one sector");
+            }
+            List<Object[]> rows = new ArrayList<>(sectors.size());
+            for (SectorConfigDto sector : sectors) {
+                validate(sector);
+                UUID sectorId = UuidUtils.timeOrdered();
+                if (sectorIds.putIfAbsent(sector.sector(), sectorId) != null) {
+                    throw new IllegalStateException("Sector " + sector.sector() + " is listed more than once");
+                }
+                spotCounts.put(sector.sector(), 0L);
+                maxCapacity += sector.maxCapacity();
+                rows.add(new Object[]{UuidUtils.toBytes(sectorId), UuidUtils.toBytes(garageId),
+                        sector.sector(), sector.basePrice(), sector.maxCapacity()});
+            }
+
+            jdbcTemplate.update(INSERT_GARAGE, UuidUtils.toBytes(garageId), Timestamp.from(Instant.now()), maxCapacity);
+            jdbcTemplate.batchUpdate(INSERT_SECTOR, rows);
+            sectorsWritten = true;
+
+            early.forEach(this::addSpot);
+            early.clear();
+        }
+
+        void addSpot(SpotConfigDto spot) {
+            if (!sectorsWritten) {
+                early.add(spot);
+                return;
+            }
+            validate(spot);
+            UUID sectorId = sectorIds.get(spot.sector());
+            if (sectorId == null) {
+                throw new IllegalStateException("Spot " + spot.id() + " references unknown sector " + spot.sector());
+            }
+            spotCounts.merge(spot.sector(), 1L, Long::sum);
+            batch.add(new Object[]{UuidUtils.toBytes(UuidUtils.timeOrdered()), UuidUtils.toBytes(sectorId),
+                    spot.lat(), spot.lng()});
+            if (batch.size() >= batchSize) {
+                flushSpots();
+            }
+        }
+
+        LoadedLayout finish() {
+            if (!sectorsWritten) {
+                throw new IllegalStateException("Garage must have at least one sector");
+            }
+            flushSpots();
+            spotCounts.forEach((sector, count) -> {
+                if (count == 0) {
+                    throw new IllegalStateException("Sector " + sector + " must have at least one spot");
+                }
+            });
+            return new LoadedLayout(garageId, sectorIds.size(), spots, maxCapacity);
+        }
+
+        private void flushSpots() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            // A new list per batch: the written one is handed over, not reused
+            jdbcTemplate.batchUpdate(INSERT_SPOT, batch);
+            spots += batch.size();
+            batch = new ArrayList<>(batchSize);
+        }
+
+        private void validate(SectorConfigDto sector) {
+            if (sector.sector() == null || sector.sector().isEmpty() || sector.basePrice() == null
+                    || sector.basePrice().signum() <= 0 || sector.maxCapacity() == null || sector.maxCapacity() <= 0) {
+                throw new IllegalStateException("Invalid sector configuration: " + sector);
+            }
+        }
+
+        private void validate(SpotConfigDto spot) {
+            if (spot.sector() == null || spot.lat() == null || spot.lng() == null) {
+                throw new IllegalStateException("Invalid spot configuration: " + spot);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory occupancy per garage, so the capacity check of an ENTRY is a compare-and-set instead of
+ * a locking count in the database. A reservation is counted at once and undone if its transaction
+ * rolls back; a release is applied when its transaction commits.
+ * <p>
+ * {@link #reconcile()} compares the ledger with the database under the garage's write lock. Every
+ * transaction that reserved or released takes the read lock from {@code beforeCommit} to
+ * {@code afterCompletion}, so no such commit lands between the database count and the correction,
+ * and reservations whose transaction is still open are left out of the comparison.
+ */
+@Service
+@RequiredArgsConstructor
+public class GarageOccupancyLedger {
+
+    public static final long NO_CAPACITY = -1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageOccupancyLedger.class);
+
+    private final GarageRepository garageRepository;
+    private final SectorCapacityService sectorCapacityService;
+    private final MeterRegistry meterRegistry;
+    private final GarageShardRouter shardRouter;
+    private final SessionWriteBehindStore sessionStore;
+
+    private final ConcurrentMap<UUID, GarageOccupancy> occupancies = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Garage garage : garageRepository.findAll()) {
+            if (shardRouter.isLocal(garage.getId())) {
+                occupancy(garage.getId());
+            }
+        }
+        logger.info("Occupancy ledger loaded: garages={}", occupancies.size());
+    }
+
+    /**
+     * Drops garages now owned by another shard, so a garage this instance gains later is loaded from
+     * the database again on first use instead of resuming from a stale count.
+     */
+    @EventListener
+    public void onShardMembershipChanged(ShardMembershipChangedEvent event) {
+        occupancies.keySet().stream()
+                .filter(garageId -> !shardRouter.isLocal(garageId))
+                .toList()
+                .forEach(garageId -> {
+                    occupancies.remove(garageId);
+                    String garageTag = garageId.toString();
+                    meterRegistry.getMeters().stream()
+                            .filter(meter -> meter.getId().getName().startsWith("parking.occupancy.")
+                                    && garageTag.equals(meter.getId().getTag("garage")))
+                            .forEach(meterRegistry::remove);
+                });
+        logger.info("Occupancy ledger shard ownership updated: garages={}", occupancies.size());
+    }
+
+    public long getOccupied(UUID garageId) {
+        return occupancy(garageId).occupied.get();
+    }
+
+    public boolean isFull(UUID garageId, int maxCapacity) {
+        return getOccupied(garageId) >= maxCapacity;
+    }
+
+    public long tryReserve(UUID garageId, int maxCapacity) {
+        GarageOccupancy occupancy = occupancy(garageId);
+        AtomicLong occupied = occupancy.occupied;
+        long current;
+        do {
+            current = occupied.get();
+            if (current >= maxCapacity) {
+                return NO_CAPACITY;
+            }
+        } while (!occupied.compareAndSet(current, current + 1));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            occupancy.pending.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new Completion(occupancy) {
+                @Override
+                void complete(boolean committed) {
+                    occupancy.pending.decrementAndGet();
+                    if (!committed) {
+                        occupied.decrementAndGet();
+                    }
+                }
+            });
+        }
+        return current;
+    }
+
+    public void release(UUID garageId) {
+        GarageOccupancy occupancy = occupancy(garageId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            occupancy.lock.readLock().lock();
+            try {
+                occupancy.decrement();
+            } finally {
+                occupancy.lock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new Completion(occupancy) {
+            @Override
+            void complete(boolean committed) {
+                if (committed) {
+                    occupancy.decrement();
+                }
+            }
+        });
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.occupancy.reconcile-interval-millis:60000}",
+            fixedDelayString = "${parking.occupancy.reconcile-interval-millis:60000}")
+    public void reconcile() {
+        occupancies.forEach(this::reconcile);
+    }
+
+    private void reconcile(UUID garageId, GarageOccupancy occupancy) {
+        occupancy.lock.writeLock().lock();
+        try {
+            // Open sessions and sector counts are part of the database occupancy and may be written behind
+            if (sessionStore.isEnabled()) {
+                sessionStore.flush();
+                if (!sessionStore.isFlushed()) {
+                    logger.warn("Occupancy ledger reconcile skipped, session store not flushed: garageId={}",
+                            garageId);
+                    return;
+                }
+            }
+            sectorCapacityService.flush();
+
+            long actual = garageRepository.calcOccupancy(garageId);
+            long drift = actual - (occupancy.occupied.get() - occupancy.pending.get());
+            occupancy.drift.set(drift);
+
+            if (drift == 0) {
+                occupancy.inSync.increment();
+                return;
+            }
+
+            occupancy.occupied.addAndGet(drift);
+            occupancy.corrected.increment();
+            logger.warn("Occupancy ledger drift corrected: garageId={}, drift={}, occupied={}",
+                    garageId, drift, actual);
+        } finally {
+            occupancy.lock.writeLock().unlock();
+        }
+    }
+
+    private GarageOccupancy occupancy(UUID garageId) {
+        GarageOccupancy occupancy = occupancies.get(garageId);
+        if (occupancy != null) {
+            return occupancy;
+        }
+        return occupancies.computeIfAbsent(garageId, this::load);
+    }
+
+    private GarageOccupancy load(UUID garageId) {
+        long occupied = garageRepository.calcOccupancy(garageId);
+        String garageTag = garageId.toString();
+
+        GarageOccupancy occupancy = new GarageOccupancy(
+                new AtomicLong(occupied),
+                new AtomicLong(),
+                new AtomicLong(),
+                new ReentrantReadWriteLock(),
+                Counter.builder("parking.occupancy.reconciliations")
+                        .tag("garage", garageTag)
+                        .tag("outcome", "in_sync")
+                        .register(meterRegistry),
+                Counter.builder("parking.occupancy.reconciliations")
+                        .tag("garage", garageTag)
+                        .tag("outcome", "corrected")
+                        .register(meterRegistry));
+
+        Gauge.builder("parking.occupancy.occupied", occupancy.occupied, AtomicLong::get)
+                .tag("garage", garageTag)
+                .register(meterRegistry);
+        Gauge.builder("parking.occupancy.drift", occupancy.drift, AtomicLong::get)
+                .tag("garage", garageTag)
+                .register(meterRegistry);
+
+        logger.debug("Occupancy ledger initialized: garageId={}, occupied={}", garageId, occupied);
+        return occupancy;
+    }
+
+    /**
+     * Holds the garage's read lock from {@code beforeCommit} to {@code afterCompletion}, so a
+     * reconcile never counts the database between a commit and its ledger update. Ordered last,
+     * after the write-behind session store has journaled the commit.
+     */
+    private abstract static class Completion implements TransactionSynchronization {
+
+        private final GarageOccupancy occupancy;
+        private boolean locked;
+
+        Completion(GarageOccupancy occupancy) {
+            this.occupancy = occupancy;
+        }
+
+        @Override
+        public int getOrder() {
+            return LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            occupancy.lock.readLock().lock();
+            locked = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                complete(status == STATUS_COMMITTED);
+            } finally {
+                if (locked) {
+                    occupancy.lock.readLock().unlock();
+                }
+            }
+        }
+
+        abstract void complete(boolean committed);
+    }
+
+    /**
+     * {@code pending} counts reservations whose transaction has not completed yet; they are in
+     * {@code occupied} but not in the database.
+     */
+    private record GarageOccupancy(AtomicLong occupied, AtomicLong pending, AtomicLong drift,
+                                   ReentrantReadWriteLock lock, Counter inSync, Counter corrected) {
+
+        void decrement() {
+            occupied.updateAndGet(current -> Math.max(0, current - 1));
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
-import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.GarageTopologyCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -16,20 +15,18 @@ import static com.estapar.parking.api.exception.ErrorMessages.notFound;
 @RequiredArgsConstructor
 public class GarageResolver {
     
-    private final GarageRepository garageRepository;
+    private final GarageTopologyCache topologyCache;
     
-    @Transactional(readOnly = true)
-    public Garage getGarage(UUID garageId) {
+    public GarageTopology getGarage(UUID garageId) {
         if (garageId != null) {
-            return garageRepository.findById(garageId)
+            return topologyCache.find(garageId)
                     .orElseThrow(() -> notFound(GARAGE_NOT_FOUND, garageId));
         }
         return getDefaultGarage();
     }
     
-    @Transactional(readOnly = true)
-    public Garage getDefaultGarage() {
-        return garageRepository.findByIsDefaultTrue()
+    public GarageTopology getDefaultGarage() {
+        return topologyCache.findDefault()
                 .orElseThrow(() -> notFound(NO_DEFAULT_GARAGE));
     }
 }
@@ -0,0 +1,302 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.OccupancySnapshotDto;
+import com.estapar.parking.api.dto.SectorOccupancyDto;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import com.estapar.parking.util.BigDecimalUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.estapar.parking.api.exception.ErrorMessages.OCCUPANCY_STREAM_FULL;
+import static com.estapar.parking.api.exception.ErrorMessages.serviceUnavailable;
+import static java.math.BigDecimal.valueOf;
+
+/**
+ * Pushes per-sector occupancy and the current pricing multiplier of a garage to SSE subscribers.
+ * Webhook processing only marks the garage dirty after its transaction commits. A scheduled tick
+ * builds one snapshot per dirty garage that has subscribers, from the in-memory occupancy
+ * counters, and skips it when nothing changed. It serializes the snapshot once and leaves it in
+ * each subscriber's mailbox. Every subscriber drains its mailbox on a virtual thread, so a slow
+ * client only skips intermediate snapshots and never delays webhooks or other subscribers.
+ */
+@Service
+public class OccupancyBroadcaster {
+
+    static final String EVENT_NAME = "occupancy";
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyBroadcaster.class);
+
+    private final GarageResolver garageResolver;
+    private final GarageTopologyCache topologyCache;
+    private final GarageOccupancyLedger occupancyLedger;
+    private final SectorCapacityService sectorCapacityService;
+    private final PricingStrategyResolver pricingStrategyResolver;
+    private final BigDecimalUtils bigDecimalUtils;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final ConcurrentMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<UUID> dirtyGarages = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<UUID, OccupancyState> publishedStates = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService pushExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("occupancy-push-", 0).factory());
+
+    private final Counter snapshots;
+    private final Counter coalesced;
+    private final Counter rejected;
+
+    public OccupancyBroadcaster(
+            GarageResolver garageResolver,
+            GarageTopologyCache topologyCache,
+            GarageOccupancyLedger occupancyLedger,
+            SectorCapacityService sectorCapacityService,
+            PricingStrategyResolver pricingStrategyResolver,
+            BigDecimalUtils bigDecimalUtils,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${parking.occupancy.stream.timeout-millis:1800000}") long timeoutMillis,
+            @Value("${parking.occupancy.stream.max-subscribers:10000}") int maxSubscribers) {
+        this.garageResolver = garageResolver;
+        this.topologyCache = topologyCache;
+        this.occupancyLedger = occupancyLedger;
+        this.sectorCapacityService = sectorCapacityService;
+        this.pricingStrategyResolver = pricingStrategyResolver;
+        this.bigDecimalUtils = bigDecimalUtils;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+
+        this.snapshots = Counter.builder("parking.occupancy.stream.snapshots").register(meterRegistry);
+        this.coalesced = Counter.builder("parking.occupancy.stream.coalesced").register(meterRegistry);
+        this.rejected = Counter.builder("parking.occupancy.stream.rejected").register(meterRegistry);
+        Gauge.builder("parking.occupancy.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public OccupancySnapshotDto currentSnapshot(UUID garageId) {
+        return snapshot(garageResolver.getGarage(garageId));
+    }
+
+    /**
+     * Opens a stream for the garage and queues its current snapshot as the first event.
+     */
+    public SseEmitter subscribe(UUID garageId) {
+        GarageTopology garage = garageResolver.getGarage(garageId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(garage, emitter);
+        return emitter;
+    }
+
+    void register(GarageTopology garage, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejected.increment();
+            throw serviceUnavailable(OCCUPANCY_STREAM_FULL, maxSubscribers);
+        }
+
+        Subscriber subscriber = new Subscriber(garage.getId(), emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.computeIfAbsent(garage.getId(), id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        subscriber.offer(event(snapshot(garage)));
+        logger.debug("Occupancy subscriber added: garageId={}, subscribers={}", garage.getId(), subscriberCount.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        dirtyGarages.add(event.garageId());
+    }
+
+    @Scheduled(fixedDelayString = "${parking.occupancy.stream.tick-millis:1000}")
+    public void tick() {
+        for (Iterator<UUID> iterator = dirtyGarages.iterator(); iterator.hasNext(); ) {
+            UUID garageId = iterator.next();
+            iterator.remove();
+
+            Set<Subscriber> garageSubscribers = subscribers.get(garageId);
+            if (garageSubscribers == null || garageSubscribers.isEmpty()) {
+                publishedStates.remove(garageId);
+                continue;
+            }
+            topologyCache.find(garageId).ifPresent(garage -> publish(garage, garageSubscribers));
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects subscribers that went away without
+     * closing the stream. Never replaces a snapshot that is still waiting to be sent.
+     */
+    @Scheduled(fixedDelayString = "${parking.occupancy.stream.heartbeat-millis:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> payload = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(garageSubscribers -> garageSubscribers.forEach(
+                subscriber -> subscriber.offerIfIdle(payload)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(garageSubscribers -> garageSubscribers.forEach(
+                subscriber -> subscriber.emitter.complete()));
+        pushExecutor.shutdown();
+    }
+
+    private void publish(GarageTopology garage, Set<Subscriber> garageSubscribers) {
+        OccupancySnapshotDto snapshot = snapshot(garage);
+        OccupancyState state = OccupancyState.of(snapshot);
+        if (state.equals(publishedStates.put(garage.getId(), state))) {
+            return;
+        }
+
+        Set<DataWithMediaType> payload = event(snapshot);
+        garageSubscribers.forEach(subscriber -> subscriber.offer(payload));
+        snapshots.increment();
+    }
+
+    private OccupancySnapshotDto snapshot(GarageTopology garage) {
+        List<SectorOccupancyDto> sectors = garage.getSectors().stream()
+                .map(sector -> {
+                    int occupied = sectorCapacityService.getOccupied(sector.id());
+                    return new SectorOccupancyDto(sector.sectorCode(), occupied, sector.maxCapacity(),
+                            Math.max(0, sector.maxCapacity() - occupied));
+                })
+                .toList();
+
+        long occupied = occupancyLedger.getOccupied(garage.getId());
+        BigDecimal occupancyPercentage = bigDecimalUtils.calculatePercentage(
+                valueOf(occupied),
+                valueOf(garage.getMaxCapacity()));
+
+        return new OccupancySnapshotDto(garage.getId(), occupied, garage.getMaxCapacity(), occupancyPercentage,
+                pricingMultiplier(occupancyPercentage), sectors, Instant.now());
+    }
+
+    private BigDecimal pricingMultiplier(BigDecimal occupancyPercentage) {
+        try {
+            return pricingStrategyResolver.findStrategy(occupancyPercentage).getMultiplier();
+        } catch (ResponseStatusException e) {
+            // No tier covers a full garage; ENTRY is rejected there anyway
+            return null;
+        }
+    }
+
+    private Set<DataWithMediaType> event(OccupancySnapshotDto snapshot) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(sequence.incrementAndGet()))
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(snapshot))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize occupancy snapshot", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> garageSubscribers = subscribers.get(subscriber.garageId);
+        if (garageSubscribers != null && garageSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            logger.debug("Occupancy subscriber removed: garageId={}, subscribers={}",
+                    subscriber.garageId, subscriberCount.get());
+        }
+    }
+
+    /**
+     * One open stream with a single-slot mailbox: a newer snapshot replaces one that was not sent
+     * yet, and at most one drain task writes to the emitter at a time, which keeps events in order.
+     */
+    private final class Subscriber {
+
+        private final UUID garageId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Set<DataWithMediaType>> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(UUID garageId, SseEmitter emitter) {
+            this.garageId = garageId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> payload) {
+            if (pending.getAndSet(payload) != null) {
+                coalesced.increment();
+            }
+            schedule();
+        }
+
+        void offerIfIdle(Set<DataWithMediaType> payload) {
+            if (pending.compareAndSet(null, payload)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                pushExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<DataWithMediaType> next;
+                while ((next = pending.getAndSet(null)) != null) {
+                    try {
+                        emitter.send(next);
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away; leave draining set so nothing else is scheduled for it
+                        remove(this);
+                        return;
+                    }
+                }
+                draining.set(false);
+                if (pending.get() == null || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private record OccupancyState(long occupied, BigDecimal pricingMultiplier, List<Integer> sectorOccupied) {
+
+        static OccupancyState of(OccupancySnapshotDto snapshot) {
+            return new OccupancyState(
+                    snapshot.getOccupied(),
+                    snapshot.getPricingMultiplier(),
+                    snapshot.getSectors().stream().map(SectorOccupancyDto::getOccupied).toList());
+        }
+    }
+}
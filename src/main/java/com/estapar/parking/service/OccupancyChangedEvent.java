@@ -0,0 +1,10 @@
+package com.estapar.parking.service;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that processes an ENTRY, PARKED or EXIT event; occupancy
+ * subscribers of the garage are refreshed once it commits.
+ */
+public record OccupancyChangedEvent(UUID garageId) {
+}
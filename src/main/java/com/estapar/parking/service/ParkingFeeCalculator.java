@@ -1,41 +1,93 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.util.BigDecimalUtils;
+import com.estapar.parking.util.FixedPointMoney;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Duration;
 import java.time.Instant;
 
+/**
+ * Charges every started hour after the free period. Fees are computed in {@link FixedPointMoney}
+ * minor units; the {@code BigDecimal} overloads convert at the edges and fall back to
+ * {@code BigDecimal} arithmetic for prices with more decimals than the currency scale.
+ */
 @Component
 @RequiredArgsConstructor
 public class ParkingFeeCalculator {
     
+    private static final int SECONDS_PER_MINUTE = 60;
     private static final int MINUTES_PER_HOUR = 60;
     
     @Value("${parking.fee.free-minutes:30}")
     private int freeMinutes;
     
     private final BigDecimalUtils bigDecimalUtils;
+    private final FixedPointMoney fixedPointMoney;
+    
+    public BigDecimal calculateFee(Instant entryTime, Instant exitTime, BigDecimal basePrice, BigDecimal multiplier) {
+        long chargeableHours = chargeableHours(entryTime, exitTime);
+        if (chargeableHours == 0 || basePrice == null) {
+            return fixedPointMoney.toAmount(0);
+        }
+        
+        long effectivePrice;
+        try {
+            effectivePrice = fixedPointMoney.applyMultiplier(
+                    fixedPointMoney.toMinorUnits(basePrice), fixedPointMoney.toBasisPoints(multiplier));
+        } catch (ArithmeticException e) {
+            return bigDecimalUtils.multiplyAndSetCurrencyScale(BigDecimal.valueOf(chargeableHours),
+                    bigDecimalUtils.multiplyAndSetCurrencyScale(basePrice, multiplier));
+        }
+        return fixedPointMoney.toAmount(Math.multiplyExact(chargeableHours, effectivePrice));
+    }
     
     public BigDecimal calculateFee(Instant entryTime, Instant exitTime, BigDecimal basePrice) {
+        long chargeableHours = chargeableHours(entryTime, exitTime);
+        if (chargeableHours == 0 || basePrice == null) {
+            return fixedPointMoney.toAmount(0);
+        }
+        
+        long price;
+        try {
+            price = fixedPointMoney.toMinorUnits(basePrice);
+        } catch (ArithmeticException e) {
+            return bigDecimalUtils.multiplyAndSetCurrencyScale(BigDecimal.valueOf(chargeableHours), basePrice);
+        }
+        return fixedPointMoney.toAmount(Math.multiplyExact(chargeableHours, price));
+    }
+    
+    public long calculateFeeMinorUnits(Instant entryTime, Instant exitTime, long effectivePriceMinorUnits) {
+        return Math.multiplyExact(chargeableHours(entryTime, exitTime), effectivePriceMinorUnits);
+    }
+    
+    /**
+     * Started hours after the free period, 0 while still inside it.
+     */
+    long chargeableHours(Instant entryTime, Instant exitTime) {
+        long totalMinutes = stayMinutes(entryTime, exitTime);
+        if (totalMinutes <= freeMinutes) {
+            return 0;
+        }
+        return FixedPointMoney.divide(totalMinutes, MINUTES_PER_HOUR, RoundingMode.CEILING);
+    }
+    
+    /**
+     * Whole minutes between entry and exit, truncated the way
+     * {@code Duration.between(entryTime, exitTime).toMinutes()} truncates them.
+     */
+    public long stayMinutes(Instant entryTime, Instant exitTime) {
         if (exitTime.isBefore(entryTime)) {
             throw new IllegalArgumentException("Exit time must be after entry time");
         }
-
-        Duration duration = Duration.between(entryTime, exitTime);
-        long totalMinutes = duration.toMinutes();
-
-        if (totalMinutes <= freeMinutes || basePrice == null) {
-            return bigDecimalUtils.zeroWithCurrencyScale();
-        }
-
-        BigDecimal chargeableHours = BigDecimal.valueOf(totalMinutes)
-                .divide(BigDecimal.valueOf(MINUTES_PER_HOUR), 0, RoundingMode.CEILING);
         
-        return bigDecimalUtils.multiplyAndSetCurrencyScale(chargeableHours, basePrice);
+        long seconds = exitTime.getEpochSecond() - entryTime.getEpochSecond();
+        if (exitTime.getNano() < entryTime.getNano()) {
+            seconds--;
+        }
+        return seconds / SECONDS_PER_MINUTE;
     }
 }
@@ -1,12 +1,17 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.service.session.ActiveSessionIndex;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
+import com.estapar.parking.service.topology.GarageTopology;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 import static com.estapar.parking.api.exception.ErrorMessages.NO_ACTIVE_SESSION;
 import static com.estapar.parking.api.exception.ErrorMessages.notFound;
 
@@ -15,16 +20,85 @@ import static com.estapar.parking.api.exception.ErrorMessages.notFound;
 public class ParkingSessionService {
     
     private final ParkingSessionRepository sessionRepository;
+    private final SessionWriteBehindStore writeBehindStore;
+    private final RevenueRollupService revenueRollupService;
+    private final ActiveSessionIndex activeSessionIndex;
     
     @Transactional(readOnly = true)
-    public ParkingSession findActiveSession(Garage garage, String licensePlate) {
-        return sessionRepository
-                .findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(garage.getId(), licensePlate)
-                .orElseThrow(() -> notFound(NO_ACTIVE_SESSION, licensePlate));
+    public ParkingSession findActiveSession(GarageTopology garage, String licensePlate) {
+        Optional<ParkingSession> session;
+        if (writeBehindStore.isEnabled()) {
+            session = writeBehindStore.findActive(garage.getId(), licensePlate);
+        } else if (activeSessionIndex.covers(garage.getId())) {
+            session = findIndexed(garage, licensePlate);
+        } else {
+            session = sessionRepository.findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(garage.getId(), licensePlate);
+            session.ifPresent(activeSessionIndex::repair);
+        }
+        return session.orElseThrow(() -> notFound(NO_ACTIVE_SESSION, licensePlate));
     }
     
     @Transactional(readOnly = true)
-    public boolean existsActiveSession(Garage garage, String licensePlate) {
+    public boolean existsActiveSession(GarageTopology garage, String licensePlate) {
+        if (writeBehindStore.isEnabled()) {
+            return writeBehindStore.findActive(garage.getId(), licensePlate).isPresent();
+        }
+        if (activeSessionIndex.covers(garage.getId())) {
+            return activeSessionIndex.find(garage.getId(), licensePlate).isPresent();
+        }
         return sessionRepository.existsActiveSession(garage.getId(), licensePlate);
     }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void open(ParkingSession session) {
+        if (writeBehindStore.isEnabled()) {
+            writeBehindStore.open(session);
+            return;
+        }
+        sessionRepository.save(session);
+        activeSessionIndex.opened(session);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void park(ParkingSession session) {
+        if (writeBehindStore.isEnabled()) {
+            writeBehindStore.park(session);
+            return;
+        }
+        sessionRepository.save(session);
+        activeSessionIndex.parked(session);
+    }
+    
+    /**
+     * Persists a session whose exit time and final price are set and adds it to the revenue rollup.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void close(ParkingSession session) {
+        if (writeBehindStore.isEnabled()) {
+            writeBehindStore.close(session);
+            return;
+        }
+        sessionRepository.save(session);
+        activeSessionIndex.closed(session);
+        revenueRollupService.addSession(session);
+    }
+    
+    /**
+     * Loads the indexed session by primary key. The garage is covered, so a plate that is not
+     * indexed has no open session and is answered without a query, as in
+     * {@link #existsActiveSession}. An indexed session that is closed or gone in the database is
+     * evicted.
+     */
+    private Optional<ParkingSession> findIndexed(GarageTopology garage, String licensePlate) {
+        Optional<ActiveSessionIndex.Entry> entry = activeSessionIndex.find(garage.getId(), licensePlate);
+        if (entry.isPresent()) {
+            Optional<ParkingSession> session = sessionRepository.findById(entry.get().sessionId())
+                    .filter(ParkingSession::isActive);
+            if (session.isEmpty()) {
+                activeSessionIndex.evict(garage.getId(), licensePlate);
+            }
+            return session;
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,68 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SpotTopology;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves PARKED coordinates to a spot id against the garage topology snapshot, without touching
+ * the database. With a positive {@code parking.spot.coordinate-tolerance} an inexact coordinate
+ * snaps to the nearest spot within the tolerance.
+ */
+@Service
+public class ParkingSpotIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingSpotIndex.class);
+
+    private final long toleranceUnits;
+    private final Counter exactHits;
+    private final Counter snappedHits;
+    private final Counter misses;
+
+    public ParkingSpotIndex(
+            MeterRegistry meterRegistry,
+            @Value("${parking.spot.coordinate-tolerance:0}") BigDecimal coordinateTolerance) {
+        this.toleranceUnits = GarageTopology.toCoordinateUnits(coordinateTolerance);
+        this.exactHits = lookupCounter(meterRegistry, "exact");
+        this.snappedHits = lookupCounter(meterRegistry, "snapped");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    public Optional<UUID> resolve(GarageTopology garage, BigDecimal latitude, BigDecimal longitude) {
+        long lat = GarageTopology.toCoordinateUnits(latitude);
+        long lng = GarageTopology.toCoordinateUnits(longitude);
+
+        Optional<SpotTopology> exact = garage.findSpotAt(lat, lng);
+        if (exact.isPresent()) {
+            exactHits.increment();
+            return exact.map(SpotTopology::id);
+        }
+
+        Optional<SpotTopology> nearest = toleranceUnits > 0
+                ? garage.findNearestSpot(lat, lng, toleranceUnits)
+                : Optional.empty();
+        if (nearest.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        snappedHits.increment();
+        logger.debug("Coordinates ({}, {}) snapped to spot {} in garage {}",
+                latitude, longitude, nearest.get().id(), garage.getId());
+        return nearest.map(SpotTopology::id);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("parking.spot.index.lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
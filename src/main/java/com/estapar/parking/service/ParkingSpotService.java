@@ -4,6 +4,7 @@ import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -15,11 +16,23 @@ public class ParkingSpotService {
     
     private final ParkingSpotRepository spotRepository;
     private final SectorCapacityService sectorCapacityService;
+    private final SessionWriteBehindStore writeBehindStore;
+    
+    public boolean isOccupied(ParkingSpot spot) {
+        if (writeBehindStore.isEnabled()) {
+            return writeBehindStore.isSpotOccupied(spot.getId());
+        }
+        return spot.getIsOccupied();
+    }
     
     @Transactional(propagation = Propagation.MANDATORY)
     public void assignSpot(ParkingSession session, ParkingSpot spot) {
-        spot.setIsOccupied(true);
-        spotRepository.save(spot);
+        if (writeBehindStore.isEnabled()) {
+            writeBehindStore.occupySpot(spot.getId());
+        } else {
+            spot.setIsOccupied(true);
+            spotRepository.save(spot);
+        }
         
         session.setSpot(spot);
     }
@@ -33,8 +46,12 @@ public class ParkingSpotService {
         ParkingSpot spot = session.getSpot();
         Sector sector = spot.getSector();
         
-        spot.setIsOccupied(false);
-        spotRepository.save(spot);
+        if (writeBehindStore.isEnabled()) {
+            writeBehindStore.releaseSpot(spot.getId());
+        } else {
+            spot.setIsOccupied(false);
+            spotRepository.save(spot);
+        }
         
         sectorCapacityService.decrementCapacity(sector);
     }
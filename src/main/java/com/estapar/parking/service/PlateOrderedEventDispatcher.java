@@ -0,0 +1,145 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.WebhookEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class PlateOrderedEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlateOrderedEventDispatcher.class);
+
+    private final WebhookEventService webhookEventService;
+    private final int maxOptimisticLockRetries;
+    private final ThreadPoolExecutor[] lanes;
+    private final Counter optimisticLockRetries;
+
+    public PlateOrderedEventDispatcher(
+            WebhookEventService webhookEventService,
+            MeterRegistry meterRegistry,
+            @Value("${parking.webhook.dispatch.lanes:0}") int laneCount,
+            @Value("${parking.webhook.dispatch.max-optimistic-lock-retries:3}") int maxOptimisticLockRetries) {
+        this.webhookEventService = webhookEventService;
+        this.maxOptimisticLockRetries = maxOptimisticLockRetries;
+
+        int size = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.lanes = new ThreadPoolExecutor[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    Thread.ofVirtual().name("plate-lane-" + i + "-", 0).factory());
+        }
+
+        this.optimisticLockRetries = Counter.builder("parking.webhook.dispatch.optimistic_lock_retries")
+                .register(meterRegistry);
+        Gauge.builder("parking.webhook.dispatch.queued", lanes,
+                        executors -> Arrays.stream(executors).mapToInt(lane -> lane.getQueue().size()).sum())
+                .register(meterRegistry);
+
+        logger.info("Plate-ordered dispatcher started: lanes={}", size);
+    }
+
+    public void process(UUID garageId, WebhookEventDto event) {
+        call(event.getLicensePlate(), () -> {
+            processWithRetry(garageId, event);
+            return null;
+        });
+    }
+
+    /**
+     * Runs the task on the plate's lane and waits for its result, rethrowing the task's own
+     * runtime exception instead of a {@link CompletionException}.
+     */
+    public <T> T call(String licensePlate, Supplier<T> task) {
+        try {
+            return supply(licensePlate, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Void> dispatch(UUID garageId, WebhookEventDto event) {
+        return submit(event.getLicensePlate(), () -> processWithRetry(garageId, event));
+    }
+
+    public CompletableFuture<Void> submit(String licensePlate, Runnable task) {
+        return supply(licensePlate, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> supply(String licensePlate, Supplier<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                return task.get();
+            } finally {
+                MDC.clear();
+            }
+        }, lanes[laneOf(licensePlate)]);
+    }
+
+    public int laneOf(String licensePlate) {
+        return Math.floorMod(licensePlate.hashCode(), lanes.length);
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Processes the event on the calling thread. Only call from a task already running on the
+     * event's lane; calling {@link #process} from a lane would wait on its own queue.
+     */
+    public void processWithRetry(UUID garageId, WebhookEventDto event) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                webhookEventService.processEvent(garageId, event);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxOptimisticLockRetries) {
+                    throw e;
+                }
+                optimisticLockRetries.increment();
+                logger.debug("Optimistic lock conflict, retrying: eventType={}, licensePlate={}, attempt={}",
+                        event.getEventType(), event.getLicensePlate(), attempt + 1);
+            }
+        }
+    }
+}
@@ -2,20 +2,18 @@ package com.estapar.parking.service;
 
 import com.estapar.parking.api.dto.RevenueResponseDto;
 import com.estapar.parking.api.mapper.ParkingMapper;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
-import com.estapar.parking.infrastructure.persistence.entity.Sector;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
-import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDaily;
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDailyId;
+import com.estapar.parking.infrastructure.persistence.repository.RevenueDailyRepository;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.UUID;
 
 import static com.estapar.parking.api.exception.ErrorMessages.SECTOR_NOT_FOUND;
@@ -25,30 +23,22 @@ import static com.estapar.parking.api.exception.ErrorMessages.notFound;
 @RequiredArgsConstructor
 public class PricingService {
 
-    @Value("${parking.application.timezone:America/Sao_Paulo}")
-    private String applicationTimezone;
-    
     private final BigDecimalUtils bigDecimalUtils;
-    private final ParkingSessionRepository sessionRepository;
-    private final SectorRepository sectorRepository;
+    private final RevenueDailyRepository revenueDailyRepository;
     private final GarageResolver garageResolver;
     private final ParkingMapper parkingMapper;
 
     @Transactional(readOnly = true)
     public RevenueResponseDto getRevenue(UUID garageId, LocalDate date, String sectorCode) {
-        Garage garage = garageResolver.getGarage(garageId);
+        GarageTopology garage = garageResolver.getGarage(garageId);
         
-        Sector sector = sectorRepository.findByGarageIdAndSectorCode(garage.getId(), sectorCode)
+        SectorTopology sector = garage.findSector(sectorCode)
                 .orElseThrow(() -> notFound(SECTOR_NOT_FOUND, sectorCode));
         
-        Instant startOfDay = date.atStartOfDay(ZoneId.of(applicationTimezone)).toInstant();
-        
-        BigDecimal totalRevenue = sessionRepository
-                .sumRevenueByGarageAndSectorAndDate(garage.getId(), sector.getId(), startOfDay);
-        
-        if (totalRevenue == null) {
-            totalRevenue = bigDecimalUtils.zeroWithCurrencyScale();
-        }
+        BigDecimal totalRevenue = revenueDailyRepository
+                .findById(new RevenueDailyId(garage.getId(), sector.id(), date))
+                .map(RevenueDaily::getAmount)
+                .orElseGet(bigDecimalUtils::zeroWithCurrencyScale);
         
         return parkingMapper.toRevenueResponseDto(bigDecimalUtils.setCurrencyScale(totalRevenue));
     }
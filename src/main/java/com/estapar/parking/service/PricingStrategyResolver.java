@@ -2,24 +2,112 @@ package com.estapar.parking.service;
 
 import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
 import com.estapar.parking.infrastructure.persistence.repository.PricingStrategyRepository;
-import lombok.RequiredArgsConstructor;
+import com.estapar.parking.infrastructure.persistence.repository.PricingStrategyRepository.StrategyVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.estapar.parking.api.exception.ErrorMessages.PRICING_STRATEGY_NOT_FOUND;
 import static com.estapar.parking.api.exception.ErrorMessages.notFound;
 
 @Service
-@RequiredArgsConstructor
 public class PricingStrategyResolver {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingStrategyResolver.class);
+
     private final PricingStrategyRepository repository;
-    
-    @Transactional(readOnly = true)
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile LoadedSnapshot loaded;
+
+    public PricingStrategyResolver(PricingStrategyRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.hits = Counter.builder("parking.pricing.strategy.lookups").tag("outcome", "hit").register(meterRegistry);
+        this.misses = Counter.builder("parking.pricing.strategy.lookups").tag("outcome", "miss").register(meterRegistry);
+    }
+
     public PricingStrategy findStrategy(BigDecimal occupancyPercentage) {
-        return repository.findActiveStrategyByOccupancyRange(occupancyPercentage)
-                .orElseThrow(() -> notFound(PRICING_STRATEGY_NOT_FOUND, occupancyPercentage));
+        LoadedSnapshot current = loaded;
+        if (current == null) {
+            refresh();
+            current = loaded;
+        }
+        PricingStrategy strategy = current.snapshot().find(occupancyPercentage).orElse(null);
+        if (strategy == null) {
+            misses.increment();
+            throw notFound(PRICING_STRATEGY_NOT_FOUND, occupancyPercentage);
+        }
+        hits.increment();
+        return strategy;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * Reloads the active strategies and swaps the snapshot in one step. An invalid configuration
+     * (overlapping or gapped ranges) is rejected and the previous snapshot stays in use.
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            StrategyVersion version = repository.findVersion();
+            PricingStrategySnapshot snapshot;
+            try {
+                snapshot = PricingStrategySnapshot.of(repository.findByIsActiveTrueOrderByOccupancyMinPercentageAsc());
+            } catch (IllegalStateException e) {
+                refreshCounter("rejected").increment();
+                logger.error("Pricing strategies rejected, keeping previous snapshot: {}", e.getMessage());
+                throw e;
+            }
+            loaded = new LoadedSnapshot(snapshot, version.getCount(), version.getLastModified());
+            refreshCounter("success").increment();
+            logger.info("Pricing strategies loaded: ranges={}", snapshot.size());
+            return snapshot.size();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.pricing.refresh-interval-millis:30000}",
+            fixedDelayString = "${parking.pricing.refresh-interval-millis:30000}")
+    public void refreshIfChanged() {
+        LoadedSnapshot current = loaded;
+        StrategyVersion version = repository.findVersion();
+        if (current != null && current.count() == version.getCount()
+                && Objects.equals(current.lastModified(), version.getLastModified())) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (IllegalStateException e) {
+            // Already logged and counted; the previous snapshot keeps serving lookups
+        }
+    }
+
+    private Counter refreshCounter(String outcome) {
+        return Counter.builder("parking.pricing.strategy.refreshes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record LoadedSnapshot(PricingStrategySnapshot snapshot, long count, Instant lastModified) {
     }
 }
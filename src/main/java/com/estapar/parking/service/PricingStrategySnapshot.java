@@ -0,0 +1,91 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable view of the active pricing strategies as contiguous half-open occupancy ranges
+ * {@code [min, max)}, looked up by binary search over the lower bounds. Building a snapshot
+ * rejects overlapping or gapped ranges, so every occupancy from 0% up to the last max resolves.
+ */
+final class PricingStrategySnapshot {
+
+    private static final BigDecimal FULL_OCCUPANCY = BigDecimal.valueOf(100);
+
+    private final BigDecimal[] lowerBounds;
+    private final BigDecimal upperBound;
+    private final PricingStrategy[] strategies;
+
+    private PricingStrategySnapshot(PricingStrategy[] strategies) {
+        this.strategies = strategies;
+        this.lowerBounds = new BigDecimal[strategies.length];
+        for (int i = 0; i < strategies.length; i++) {
+            lowerBounds[i] = strategies[i].getOccupancyMinPercentage();
+        }
+        this.upperBound = strategies[strategies.length - 1].getOccupancyMaxPercentage();
+    }
+
+    static PricingStrategySnapshot of(List<PricingStrategy> activeStrategies) {
+        if (activeStrategies.isEmpty()) {
+            throw new IllegalStateException("No active pricing strategies configured");
+        }
+
+        PricingStrategy[] sorted = activeStrategies.stream()
+                .sorted(Comparator.comparing(PricingStrategy::getOccupancyMinPercentage))
+                .toArray(PricingStrategy[]::new);
+
+        BigDecimal expectedMin = BigDecimal.ZERO;
+        for (PricingStrategy strategy : sorted) {
+            BigDecimal min = strategy.getOccupancyMinPercentage();
+            BigDecimal max = strategy.getOccupancyMaxPercentage();
+            if (min.compareTo(max) >= 0) {
+                throw new IllegalStateException(String.format(
+                        "Pricing strategy %s has an empty range [%s, %s)", strategy.getId(), min, max));
+            }
+            int comparison = min.compareTo(expectedMin);
+            if (comparison < 0) {
+                throw new IllegalStateException(String.format(
+                        "Pricing strategy %s range [%s, %s) overlaps the previous range ending at %s",
+                        strategy.getId(), min, max, expectedMin));
+            }
+            if (comparison > 0) {
+                throw new IllegalStateException(String.format(
+                        "Pricing strategy ranges leave occupancy [%s, %s) uncovered", expectedMin, min));
+            }
+            expectedMin = max;
+        }
+        if (expectedMin.compareTo(FULL_OCCUPANCY) < 0) {
+            throw new IllegalStateException(String.format(
+                    "Pricing strategy ranges leave occupancy [%s, %s) uncovered", expectedMin, FULL_OCCUPANCY));
+        }
+
+        return new PricingStrategySnapshot(sorted);
+    }
+
+    Optional<PricingStrategy> find(BigDecimal occupancyPercentage) {
+        if (occupancyPercentage.compareTo(upperBound) >= 0) {
+            return Optional.empty();
+        }
+        int low = 0;
+        int high = lowerBounds.length - 1;
+        int floor = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lowerBounds[mid].compareTo(occupancyPercentage) <= 0) {
+                floor = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return floor < 0 ? Optional.empty() : Optional.of(strategies[floor]);
+    }
+
+    int size() {
+        return strategies.length;
+    }
+}
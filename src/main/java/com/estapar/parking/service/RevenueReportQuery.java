@@ -0,0 +1,19 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.RevenueGrouping;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A validated revenue report request: garage and sectors already resolved to ids, an empty
+ * sector list meaning every sector of the garage.
+ */
+public record RevenueReportQuery(
+        UUID garageId,
+        LocalDate startDate,
+        LocalDate endDate,
+        List<UUID> sectorIds,
+        RevenueGrouping groupBy) {
+}
@@ -0,0 +1,168 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.RevenueGrouping;
+import com.estapar.parking.api.dto.RevenueQueryRequestDto;
+import com.estapar.parking.api.dto.RevenueReportRowDto;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
+import com.estapar.parking.util.UuidUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.estapar.parking.api.exception.ErrorMessages.SECTOR_NOT_FOUND;
+import static com.estapar.parking.api.exception.ErrorMessages.notFound;
+
+/**
+ * Streams revenue_daily rows for a date range straight from a forward-only JDBC cursor into the
+ * response, so the report size does not affect heap usage.
+ */
+@Service
+public class RevenueReportService {
+
+    private static final String DAY_SQL =
+            "SELECT rd.local_date AS period_start, s.sector_code, rd.amount, rd.session_count " +
+            "FROM revenue_daily rd INNER JOIN sector s ON s.id = rd.sector_id " +
+            "WHERE rd.garage_id = ? AND rd.local_date BETWEEN ? AND ?%s " +
+            "ORDER BY rd.local_date, s.sector_code";
+
+    private static final String WEEK_SQL =
+            "SELECT DATE_SUB(rd.local_date, INTERVAL WEEKDAY(rd.local_date) DAY) AS period_start, s.sector_code, " +
+            "SUM(rd.amount) AS amount, SUM(rd.session_count) AS session_count " +
+            "FROM revenue_daily rd INNER JOIN sector s ON s.id = rd.sector_id " +
+            "WHERE rd.garage_id = ? AND rd.local_date BETWEEN ? AND ?%s " +
+            "GROUP BY period_start, s.sector_code " +
+            "ORDER BY period_start, s.sector_code";
+
+    private static final String SECTOR_SQL =
+            "SELECT NULL AS period_start, s.sector_code, " +
+            "SUM(rd.amount) AS amount, SUM(rd.session_count) AS session_count " +
+            "FROM revenue_daily rd INNER JOIN sector s ON s.id = rd.sector_id " +
+            "WHERE rd.garage_id = ? AND rd.local_date BETWEEN ? AND ?%s " +
+            "GROUP BY s.sector_code " +
+            "ORDER BY s.sector_code";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+    private final GarageResolver garageResolver;
+    private final int maxDays;
+
+    public RevenueReportService(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            GarageResolver garageResolver,
+            @Value("${parking.revenue.query.fetch-size:-2147483648}") int fetchSize,
+            @Value("${parking.revenue.query.max-days:366}") int maxDays) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(RevenueReportRowDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.garageResolver = garageResolver;
+        this.maxDays = maxDays;
+    }
+
+    public RevenueReportQuery prepare(UUID garageId, RevenueQueryRequestDto request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date " + request.getEndDate()
+                    + " is before start date " + request.getStartDate());
+        }
+        long days = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Date range of " + days + " days exceeds the maximum of "
+                    + maxDays + " days");
+        }
+
+        GarageTopology garage = garageResolver.getGarage(garageId);
+        RevenueGrouping groupBy = request.getGroupBy() != null ? request.getGroupBy() : RevenueGrouping.DAY;
+        return new RevenueReportQuery(garage.getId(), request.getStartDate(), request.getEndDate(),
+                resolveSectorIds(garage, request.getSectors()), groupBy);
+    }
+
+    /**
+     * Read-only, so the export runs on the read replica when one is configured.
+     */
+    @Transactional(readOnly = true)
+    public void stream(RevenueReportQuery query, boolean ndjson, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            jdbcTemplate.query(sql(query), (RowCallbackHandler) resultSet -> {
+                RevenueReportRowDto row = new RevenueReportRowDto(
+                        resultSet.getObject("period_start", LocalDate.class),
+                        resultSet.getString("sector_code"),
+                        resultSet.getBigDecimal("amount"),
+                        resultSet.getLong("session_count"));
+                try {
+                    rowWriter.writeValue(generator, row);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, arguments(query));
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static String sql(RevenueReportQuery query) {
+        String template = switch (query.groupBy()) {
+            case DAY -> DAY_SQL;
+            case WEEK -> WEEK_SQL;
+            case SECTOR -> SECTOR_SQL;
+        };
+        String sectorFilter = query.sectorIds().isEmpty()
+                ? ""
+                : " AND rd.sector_id IN (" + String.join(", ", Collections.nCopies(query.sectorIds().size(), "?")) + ")";
+        return String.format(template, sectorFilter);
+    }
+
+    private static Object[] arguments(RevenueReportQuery query) {
+        List<Object> arguments = new ArrayList<>(3 + query.sectorIds().size());
+        arguments.add(UuidUtils.toBytes(query.garageId()));
+        arguments.add(Date.valueOf(query.startDate()));
+        arguments.add(Date.valueOf(query.endDate()));
+        query.sectorIds().forEach(sectorId -> arguments.add(UuidUtils.toBytes(sectorId)));
+        return arguments.toArray();
+    }
+
+    private List<UUID> resolveSectorIds(GarageTopology garage, List<String> sectorCodes) {
+        if (sectorCodes == null || sectorCodes.isEmpty()) {
+            return List.of();
+        }
+        return sectorCodes.stream()
+                .distinct()
+                .map(sectorCode -> garage.findSector(sectorCode)
+                        .orElseThrow(() -> notFound(SECTOR_NOT_FOUND, sectorCode)))
+                .map(SectorTopology::id)
+                .toList();
+    }
+}
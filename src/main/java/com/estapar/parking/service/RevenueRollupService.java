@@ -0,0 +1,125 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionArchiveRepository;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.infrastructure.persistence.repository.RevenueDailyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains {@code revenue_daily}: revenue of closed sessions per garage, sector and local entry
+ * date, so revenue queries read one row instead of scanning parking_session. Backfills read both
+ * parking_session and parking_session_archive, so archived history is never lost from the rollup.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    private final RevenueDailyRepository revenueDailyRepository;
+    private final ParkingSessionRepository sessionRepository;
+    private final ParkingSessionArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zoneId;
+
+    public RevenueRollupService(
+            RevenueDailyRepository revenueDailyRepository,
+            ParkingSessionRepository sessionRepository,
+            ParkingSessionArchiveRepository archiveRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${parking.application.timezone:America/Sao_Paulo}") String applicationTimezone) {
+        this.revenueDailyRepository = revenueDailyRepository;
+        this.sessionRepository = sessionRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zoneId = ZoneId.of(applicationTimezone);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSession(ParkingSession session) {
+        if (session.getSpot() == null || session.getFinalPrice() == null) {
+            return;
+        }
+        addSession(
+                session.getGarage().getId(),
+                session.getSpot().getSector().getId(),
+                session.getEntryTime(),
+                session.getFinalPrice());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSession(UUID garageId, UUID sectorId, Instant entryTime, BigDecimal finalPrice) {
+        revenueDailyRepository.addSession(garageId, sectorId, LocalDate.ofInstant(entryTime, zoneId), finalPrice);
+    }
+
+    /**
+     * Recomputes the rollup for every date in {@code [from, to]} from parking_session and
+     * parking_session_archive, one transaction per day. Rows are corrected by the difference rather
+     * than deleted and reinserted, so EXITs keep upserting into the day while it is rebuilt.
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Backfill start date " + from + " is after end date " + to);
+        }
+        int days = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            rebuildDay(date);
+            days++;
+        }
+        logger.info("Revenue rollup backfilled: from={}, to={}, days={}", from, to, days);
+        return days;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (revenueDailyRepository.count() > 0) {
+            return;
+        }
+        Optional<Instant> first = earliest(sessionRepository.findFirstClosedEntryTime(), archiveRepository.findFirstEntryTime());
+        Optional<Instant> last = latest(sessionRepository.findLastClosedEntryTime(), archiveRepository.findLastEntryTime());
+        if (first.isEmpty() || last.isEmpty()) {
+            return;
+        }
+        logger.info("Revenue rollup is empty, backfilling from existing sessions");
+        backfill(LocalDate.ofInstant(first.get(), zoneId), LocalDate.ofInstant(last.get(), zoneId));
+    }
+
+    private void rebuildDay(LocalDate date) {
+        Instant startOfDay = date.atStartOfDay(zoneId).toInstant();
+        Instant endOfDay = date.plusDays(1).atStartOfDay(zoneId).toInstant();
+        transactionTemplate.executeWithoutResult(status -> {
+            revenueDailyRepository.upsertDifferenceFromSessions(date, startOfDay, endOfDay);
+            revenueDailyRepository.deleteWithoutSessions(date, startOfDay, endOfDay);
+        });
+    }
+
+    private static Optional<Instant> earliest(Optional<Instant> hot, Optional<Instant> archived) {
+        if (hot.isEmpty() || archived.isEmpty()) {
+            return hot.or(() -> archived);
+        }
+        return Optional.of(hot.get().isBefore(archived.get()) ? hot.get() : archived.get());
+    }
+
+    private static Optional<Instant> latest(Optional<Instant> hot, Optional<Instant> archived) {
+        if (hot.isEmpty() || archived.isEmpty()) {
+            return hot.or(() -> archived);
+        }
+        return Optional.of(hot.get().isAfter(archived.get()) ? hot.get() : archived.get());
+    }
+}
@@ -1,28 +1,256 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
 import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
-import lombok.RequiredArgsConstructor;
+import com.estapar.parking.infrastructure.persistence.repository.SectorRepository.SectorOccupancy;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks sector occupancy in striped in-memory counters instead of read-modify-write updates of
+ * the versioned {@code sector} row, so PARKED and EXIT events in the same sector no longer
+ * conflict. Committed changes accumulate as per-sector deltas that are written behind with
+ * {@code occupied_count = occupied_count + delta}. At startup every count is rebuilt from the
+ * occupied spots, which also repairs deltas lost by a crash before their flush.
+ * <p>
+ * In a sharded deployment only the sectors of owned garages are recounted and loaded, since other
+ * instances still hold unflushed deltas of theirs. A counter whose garage changed owner since it
+ * was loaded is dropped by the next flush, once its deltas are written, and a gained garage is
+ * counted from its occupied spots on first use rather than from a column its previous owner may
+ * not have flushed yet.
+ */
 @Service
-@RequiredArgsConstructor
-public class SectorCapacityService {
-    
+public class SectorCapacityService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SectorCapacityService.class);
+
     private final SectorRepository sectorRepository;
-    
+    private final ParkingSpotRepository spotRepository;
+    private final GarageShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<UUID, SectorCounter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public SectorCapacityService(
+            SectorRepository sectorRepository,
+            ParkingSpotRepository spotRepository,
+            GarageShardRouter shardRouter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.sectorRepository = sectorRepository;
+        this.spotRepository = spotRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("parking.sector.occupancy.pending", counters,
+                        values -> values.values().stream().mapToLong(counter -> Math.abs(counter.pending.sum())).sum())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int recounted;
+        if (shardRouter.isEnabled()) {
+            Set<UUID> ownedGarages = sectorRepository.findAllOccupancy().stream()
+                    .map(SectorOccupancy::getGarageId)
+                    .filter(shardRouter::isLocal)
+                    .collect(Collectors.toSet());
+            recounted = transactionTemplate.execute(status -> ownedGarages.stream()
+                    .mapToInt(sectorRepository::recountOccupiedByGarageId)
+                    .sum());
+        } else {
+            recounted = transactionTemplate.execute(status -> sectorRepository.recountOccupied());
+        }
+        for (SectorOccupancy sector : sectorRepository.findAllOccupancy()) {
+            if (shardRouter.isLocal(sector.getGarageId())) {
+                counters.putIfAbsent(sector.getId(),
+                        new SectorCounter(sector.getGarageId(), sector.getOccupiedCount(), true));
+            }
+        }
+        logger.info("Sector occupancy counters loaded: sectors={}, recounted={}", counters.size(), recounted);
+    }
+
+    /**
+     * Writes the deltas of garages this instance may have lost before another instance counts them,
+     * and drops the counters of garages whose owner changed.
+     */
+    @EventListener
+    public void onShardMembershipChanged(ShardMembershipChangedEvent event) {
+        flush();
+    }
+
     @Transactional(propagation = Propagation.MANDATORY)
     public void incrementCapacity(Sector sector) {
-        sector.setOccupiedCount(sector.getOccupiedCount() + 1);
-        sectorRepository.save(sector);
+        add(sector.getId(), 1);
     }
     
     @Transactional(propagation = Propagation.MANDATORY)
     public void decrementCapacity(Sector sector) {
-        int currentCount = sector.getOccupiedCount();
-        sector.setOccupiedCount(Math.max(0, currentCount - 1));
-        sectorRepository.save(sector);
+        add(sector.getId(), -1);
+    }
+
+    public int getOccupied(UUID sectorId) {
+        return (int) Math.max(0, counter(sectorId).occupied.sum());
+    }
+
+    /**
+     * Writes the deltas accumulated since the previous flush in one transaction. Deltas of a failed
+     * flush are put back and retried by the next one. A successful flush also drops counters whose
+     * garage changed owner and has nothing left to write.
+     */
+    @Scheduled(
+            initialDelayString = "${parking.sector.flush-interval-millis:1000}",
+            fixedDelayString = "${parking.sector.flush-interval-millis:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<UUID, Integer> deltas = new HashMap<>();
+            counters.forEach((sectorId, counter) -> {
+                long delta = counter.pending.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(sectorId, Math.toIntExact(delta));
+                }
+            });
+            if (!deltas.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(
+                            status -> deltas.forEach(sectorRepository::addOccupiedCount));
+                } catch (RuntimeException e) {
+                    deltas.forEach((sectorId, delta) -> counters.get(sectorId).pending.add(delta));
+                    flushCounter("failed").increment();
+                    logger.warn("Sector occupancy flush failed, retrying next interval: sectors={}", deltas.size(), e);
+                    return 0;
+                }
+                flushCounter("success").increment();
+                logger.debug("Sector occupancy flushed: sectors={}", deltas.size());
+            }
+            dropReassignedCounters();
+            return deltas.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void add(UUID sectorId, int delta) {
+        SectorCounter counter = counter(sectorId);
+        afterCommit(() -> {
+            counter.occupied.add(delta);
+            counter.pending.add(delta);
+        });
+    }
+
+    private SectorCounter counter(UUID sectorId) {
+        SectorCounter counter = counters.get(sectorId);
+        if (counter != null) {
+            return counter;
+        }
+        SectorCounter loaded = load(sectorId);
+        SectorCounter existing = counters.putIfAbsent(sectorId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private SectorCounter load(UUID sectorId) {
+        Optional<SectorOccupancy> sector = sectorRepository.findOccupancyById(sectorId);
+        if (sector.isEmpty()) {
+            return new SectorCounter(null, 0, true);
+        }
+        UUID garageId = sector.get().getGarageId();
+        int occupied = shardRouter.isEnabled()
+                ? Math.toIntExact(spotRepository.countBySectorIdAndIsOccupiedTrue(sectorId))
+                : sector.get().getOccupiedCount();
+        return new SectorCounter(garageId, occupied, shardRouter.isLocal(garageId));
+    }
+
+    /**
+     * Only called under the flush lock, after the deltas were written. A delta committed on a
+     * dropped counter between the check and the removal is lost from the column; it belongs to a
+     * garage this instance no longer owns, and the next startup recount repairs the column.
+     */
+    private void dropReassignedCounters() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        counters.forEach((sectorId, counter) -> {
+            if (counter.garageId != null
+                    && counter.owned != shardRouter.isLocal(counter.garageId)
+                    && counter.pending.sum() == 0) {
+                counters.remove(sectorId, counter);
+            }
+        });
+    }
+
+    private Counter flushCounter(String outcome) {
+        return Counter.builder("parking.sector.occupancy.flushes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * {@code occupied} is the current count as seen by this instance; {@code pending} is the part
+     * of it not yet written to the database. {@code owned} is whether the garage was this
+     * instance's when the counter was loaded.
+     */
+    private static final class SectorCounter {
+
+        private final UUID garageId;
+        private final boolean owned;
+        private final LongAdder occupied = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+
+        private SectorCounter(UUID garageId, int initial, boolean owned) {
+            this.garageId = garageId;
+            this.owned = owned;
+            occupied.add(initial);
+        }
     }
 }
@@ -0,0 +1,186 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.WebhookBatchResponseDto;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.api.dto.WebhookEventResultDto;
+import com.estapar.parking.service.ingestion.WebhookEventJournal;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Service
+public class WebhookBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookBatchService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final GarageResolver garageResolver;
+    private final WebhookEventService webhookEventService;
+    private final PlateOrderedEventDispatcher eventDispatcher;
+    private final WebhookEventJournal webhookEventJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxEvents;
+    private final int chunkSize;
+
+    public WebhookBatchService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            GarageResolver garageResolver,
+            WebhookEventService webhookEventService,
+            PlateOrderedEventDispatcher eventDispatcher,
+            WebhookEventJournal webhookEventJournal,
+            PlatformTransactionManager transactionManager,
+            @Value("${parking.webhook.batch.max-events:10000}") int maxEvents,
+            @Value("${parking.webhook.batch.chunk-size:50}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.garageResolver = garageResolver;
+        this.webhookEventService = webhookEventService;
+        this.eventDispatcher = eventDispatcher;
+        this.webhookEventJournal = webhookEventJournal;
+        this.maxEvents = maxEvents;
+        this.chunkSize = chunkSize;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setTimeout(30);
+    }
+
+    public WebhookBatchResponseDto processBatch(UUID garageId, InputStream body) {
+        garageResolver.getGarage(garageId);
+
+        List<WebhookEventDto> events = read(body);
+        WebhookEventResultDto[] results = new WebhookEventResultDto[events.size()];
+        Map<Integer, List<Integer>> lanes = new LinkedHashMap<>();
+
+        for (int index = 0; index < events.size(); index++) {
+            WebhookEventDto event = events.get(index);
+            String violations = validate(event);
+            if (violations != null) {
+                results[index] = result(index, event, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", violations);
+            } else if (webhookEventJournal.isEnabled()) {
+                webhookEventJournal.append(garageId, event);
+                results[index] = result(index, event, HttpStatus.ACCEPTED, "ACCEPTED", null);
+            } else {
+                lanes.computeIfAbsent(eventDispatcher.laneOf(event.getLicensePlate()), lane -> new ArrayList<>())
+                        .add(index);
+            }
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>(lanes.size());
+        for (List<Integer> indexes : lanes.values()) {
+            String licensePlate = events.get(indexes.get(0)).getLicensePlate();
+            pending.add(eventDispatcher.submit(licensePlate, () -> processLane(garageId, events, indexes, results)));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+
+        int succeeded = (int) Arrays.stream(results).filter(result -> result.getStatus() < 300).count();
+        logger.info("Webhook batch processed: total={}, succeeded={}, lanes={}",
+                results.length, succeeded, lanes.size());
+        return new WebhookBatchResponseDto(results.length, succeeded, results.length - succeeded, List.of(results));
+    }
+
+    private List<WebhookEventDto> read(InputStream body) {
+        List<WebhookEventDto> events = new ArrayList<>();
+        try (MappingIterator<WebhookEventDto> iterator =
+                     objectMapper.readerFor(WebhookEventDto.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (events.size() >= maxEvents) {
+                    throw new IllegalArgumentException("Batch exceeds the maximum of " + maxEvents + " events");
+                }
+                events.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                    "Malformed batch payload at event " + events.size() + ": " + e.getMessage(), e);
+        }
+        return events;
+    }
+
+    private String validate(WebhookEventDto event) {
+        Set<ConstraintViolation<WebhookEventDto>> violations = validator.validate(event);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void processLane(UUID garageId, List<WebhookEventDto> events, List<Integer> indexes,
+                             WebhookEventResultDto[] results) {
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + chunkSize, indexes.size()));
+            if (chunk.size() > 1 && processChunk(garageId, events, chunk)) {
+                chunk.forEach(index -> results[index] = result(index, events.get(index), HttpStatus.OK, "OK", null));
+                continue;
+            }
+            chunk.forEach(index -> results[index] = processIndividually(garageId, index, events.get(index)));
+        }
+    }
+
+    private boolean processChunk(UUID garageId, List<WebhookEventDto> events, List<Integer> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    chunk.forEach(index -> webhookEventService.processEvent(garageId, events.get(index))));
+            return true;
+        } catch (RuntimeException e) {
+            logger.debug("Batch chunk rolled back, processing events individually: size={}, error={}",
+                    chunk.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private WebhookEventResultDto processIndividually(UUID garageId, int index, WebhookEventDto event) {
+        try {
+            eventDispatcher.processWithRetry(garageId, event);
+            return result(index, event, HttpStatus.OK, "OK", null);
+        } catch (ResponseStatusException e) {
+            return new WebhookEventResultDto(index, event.getLicensePlate(), event.getEventType(),
+                    e.getStatusCode().value(), "ERROR", e.getReason());
+        } catch (OptimisticLockingFailureException e) {
+            return result(index, event, HttpStatus.CONFLICT, "CONCURRENT_MODIFICATION",
+                    "The resource was modified by another transaction. Please retry.");
+        } catch (IllegalArgumentException e) {
+            return result(index, event, HttpStatus.BAD_REQUEST, "INVALID_ARGUMENT", e.getMessage());
+        } catch (IllegalStateException e) {
+            return result(index, event, HttpStatus.BAD_REQUEST, "INVALID_STATE", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error in batch event: index={}, licensePlate={}",
+                    index, event.getLicensePlate(), e);
+            return result(index, event, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR",
+                    "An unexpected error occurred");
+        }
+    }
+
+    private static WebhookEventResultDto result(int index, WebhookEventDto event, HttpStatus status,
+                                                String code, String message) {
+        return new WebhookEventResultDto(index, event.getLicensePlate(), event.getEventType(),
+                status.value(), code, message);
+    }
+}
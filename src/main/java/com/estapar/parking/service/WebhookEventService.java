@@ -1,27 +1,59 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.service.event.EventHandler;
+import com.estapar.parking.service.event.EventStageMetrics;
+import com.estapar.parking.service.topology.GarageTopology;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.UUID;
 
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.GARAGE_RESOLVE;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.HANDLER;
+
 @Service
 @RequiredArgsConstructor
 public class WebhookEventService {
     
     private final GarageResolver garageResolver;
     private final List<EventHandler> eventHandlers;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventStageMetrics stageMetrics;
     
     public void processEvent(UUID garageId, WebhookEventDto eventDto) {
-        Garage garage = garageResolver.getGarage(garageId);
+        long start = stageMetrics.start();
+        GarageTopology garage = garageResolver.getGarage(garageId);
+        long resolved = stageMetrics.record(GARAGE_RESOLVE, eventDto.getEventType(), garage.getId(), start);
         
-        eventHandlers.stream()
-                .filter(eventHandler -> eventHandler.supports(eventDto))
-                .findFirst()
-                .ifPresent(handler -> handler.handle(garage, eventDto));
+        for (EventHandler handler : eventHandlers) {
+            if (handler.supports(eventDto)) {
+                handle(handler, garage, eventDto);
+                stageMetrics.record(HANDLER, eventDto.getEventType(), garage.getId(), resolved);
+                eventPublisher.publishEvent(new OccupancyChangedEvent(garage.getId()));
+                return;
+            }
+        }
+    }
+
+    private void handle(EventHandler handler, GarageTopology garage, WebhookEventDto eventDto) {
+        try {
+            handler.handle(garage, eventDto);
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)) {
+                stageMetrics.conflict(eventDto.getEventType());
+            } else if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                stageMetrics.notFound(eventDto.getEventType());
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            stageMetrics.optimisticLockFailure(eventDto.getEventType());
+            throw e;
+        }
     }
 }
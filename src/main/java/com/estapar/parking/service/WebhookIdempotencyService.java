@@ -0,0 +1,482 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.ExitEventDto;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers webhook events that were already applied, so a gate controller retrying after a
+ * timeout gets the original response replayed instead of a 409 or 404 from the handlers.
+ * <p>
+ * An event is identified by the SHA-256 of its garage and {@code Idempotency-Key} header or, without
+ * the header, of its garage, type, plate and timestamp. PARKED carries no timestamp, so it is only
+ * deduplicated with the header. Only successful outcomes are remembered: a rejected event is
+ * evaluated again on retry, because garage capacity or session state may have changed since.
+ * <p>
+ * Keys live in a bounded in-memory map for {@code ttl-millis} and are written behind in JDBC batches
+ * to {@code webhook_idempotency}. The keys still inside the TTL are loaded from the table at startup,
+ * before the web server starts, and each garage has a single writer, so memory is authoritative:
+ * a derived key it does not hold was never applied, and a new event costs no query. Only an
+ * explicit {@code Idempotency-Key} is looked up in the table, and only while memory may be
+ * incomplete: the startup load failed or was cut at {@code max-entries}, a live key was evicted,
+ * or the shard membership changed. Keys the table did not have are remembered for
+ * {@code negative-ttl-millis}, so an event rejected and retried in a loop does not query it on
+ * every attempt; recording a key clears its entry. A crash before the flush forgets the keys of
+ * the last interval.
+ * <p>
+ * In async mode the request path only checks memory. The journal record carries the key, and the
+ * consumer {@linkplain #claim claims} it in the table in the transaction that applies the event.
+ */
+@Service
+public class WebhookIdempotencyService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookIdempotencyService.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String SELECT_STATUS =
+            "SELECT status FROM webhook_idempotency WHERE idempotency_key = ? AND created_at >= ?";
+    private static final String SELECT_LIVE_KEYS =
+            "SELECT idempotency_key, status, created_at FROM webhook_idempotency WHERE created_at >= ? " +
+            "ORDER BY created_at DESC LIMIT ?";
+    private static final String DELETE_EXPIRED_KEY =
+            "DELETE FROM webhook_idempotency WHERE idempotency_key = ? AND created_at < ?";
+    private static final String INSERT_KEY =
+            "INSERT IGNORE INTO webhook_idempotency (idempotency_key, status, created_at) VALUES (?, ?, ?)";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM webhook_idempotency WHERE created_at < ? LIMIT ?";
+    private static final int PURGE_BATCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GarageResolver garageResolver;
+    private final PlateOrderedEventDispatcher eventDispatcher;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter absentHits;
+    private final Counter misses;
+    private final long negativeTtlMillis;
+
+    private final Map<String, RecordedOutcome> recent;
+    private final Map<String, Instant> absent;
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<PendingKey> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile boolean complete;
+    private volatile boolean running;
+
+    @Autowired
+    public WebhookIdempotencyService(
+            DataSource dataSource,
+            GarageResolver garageResolver,
+            PlateOrderedEventDispatcher eventDispatcher,
+            MeterRegistry meterRegistry,
+            @Value("${parking.webhook.idempotency.ttl-millis:86400000}") long ttlMillis,
+            @Value("${parking.webhook.idempotency.negative-ttl-millis:5000}") long negativeTtlMillis,
+            @Value("${parking.webhook.idempotency.max-entries:100000}") int maxEntries) {
+        this(new JdbcTemplate(dataSource), garageResolver, eventDispatcher, meterRegistry, ttlMillis,
+                negativeTtlMillis, maxEntries);
+    }
+
+    WebhookIdempotencyService(JdbcTemplate jdbcTemplate, GarageResolver garageResolver,
+                              PlateOrderedEventDispatcher eventDispatcher, MeterRegistry meterRegistry,
+                              long ttlMillis, long negativeTtlMillis, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.garageResolver = garageResolver;
+        this.eventDispatcher = eventDispatcher;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.recent = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecordedOutcome> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                if (eldest.getValue().expiresAt().isAfter(Instant.now())) {
+                    complete = false;
+                }
+                return true;
+            }
+        };
+        this.absent = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.memoryHits = lookupCounter(meterRegistry, "memory");
+        this.databaseHits = lookupCounter(meterRegistry, "database");
+        this.absentHits = lookupCounter(meterRegistry, "absent");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        Gauge.builder("parking.webhook.idempotency.entries", this, WebhookIdempotencyService::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * An event's key: the hex SHA-256, and whether it came from an {@code Idempotency-Key} header
+     * rather than from the event itself.
+     */
+    public record Key(String hash, boolean explicit) {
+    }
+
+    /**
+     * Returns the key identifying this event, or {@code null} when it cannot be deduplicated.
+     */
+    public Key keyOf(UUID garageId, String idempotencyKey, WebhookEventDto event) {
+        UUID garage = garageResolver.getGarage(garageId).getId();
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return new Key(hash(garage + "|key|" + idempotencyKey.strip()), true);
+        }
+        Instant timestamp = timestampOf(event);
+        if (timestamp == null) {
+            return null;
+        }
+        return new Key(hash(garage + "|" + event.getEventType() + "|" + event.getLicensePlate() + "|" + timestamp),
+                false);
+    }
+
+    /**
+     * Processes the event on its plate lane unless the key was already applied. Runs the lookup on
+     * the lane too, so two concurrent copies of an event cannot both miss.
+     *
+     * @return the status of the original response when the event is a duplicate, empty otherwise
+     */
+    public OptionalInt processOnce(UUID garageId, Key key, WebhookEventDto event) {
+        return eventDispatcher.call(event.getLicensePlate(), () -> {
+            OptionalInt replayed = replay(key);
+            if (replayed.isEmpty()) {
+                eventDispatcher.processWithRetry(garageId, event);
+                record(key.hash(), HttpStatus.OK.value());
+            }
+            return replayed;
+        });
+    }
+
+    /**
+     * Returns the status recorded for the key, asking the table only for an explicit key while
+     * memory may be incomplete.
+     */
+    public OptionalInt replay(Key key) {
+        Instant now = Instant.now();
+        OptionalInt remembered = replayFromMemory(key, now);
+        if (remembered.isPresent()) {
+            return remembered;
+        }
+        if (!key.explicit() || complete) {
+            misses.increment();
+            return OptionalInt.empty();
+        }
+        recentLock.lock();
+        try {
+            Instant absentUntil = absent.get(key.hash());
+            if (absentUntil != null) {
+                if (absentUntil.isAfter(now)) {
+                    absentHits.increment();
+                    return OptionalInt.empty();
+                }
+                absent.remove(key.hash());
+            }
+        } finally {
+            recentLock.unlock();
+        }
+
+        String hash = key.hash();
+        List<Integer> statuses = jdbcTemplate.queryForList(SELECT_STATUS, Integer.class,
+                HexFormat.of().parseHex(hash), Timestamp.from(now.minusMillis(ttlMillis)));
+        if (statuses.isEmpty()) {
+            misses.increment();
+            rememberAbsent(hash, now);
+            return OptionalInt.empty();
+        }
+        databaseHits.increment();
+        remember(hash, statuses.get(0), now);
+        return OptionalInt.of(statuses.get(0));
+    }
+
+    /**
+     * Returns the status recorded for the key if memory holds it. Never queries the table, so it is
+     * what the async request path uses.
+     */
+    public OptionalInt replayFromMemory(Key key) {
+        return replayFromMemory(key, Instant.now());
+    }
+
+    /**
+     * Claims the key for an event applied in the current transaction, writing it to the table
+     * there so it commits or rolls back with the event. A row of an expired key is replaced.
+     * Memory learns the key once the transaction commits.
+     *
+     * @return false when the key was already applied
+     */
+    public boolean claim(String hash, int status) {
+        Instant now = Instant.now();
+        if (replayFromMemory(new Key(hash, false), now).isPresent()) {
+            return false;
+        }
+        byte[] key = HexFormat.of().parseHex(hash);
+        jdbcTemplate.update(DELETE_EXPIRED_KEY, key, Timestamp.from(now.minusMillis(ttlMillis)));
+        if (jdbcTemplate.update(INSERT_KEY, key, status, Timestamp.from(now)) == 0) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(hash, status, now);
+                }
+            });
+        } else {
+            remember(hash, status, now);
+        }
+        return true;
+    }
+
+    public void record(String key, int status) {
+        Instant now = Instant.now();
+        remember(key, status, now);
+        pending.add(new PendingKey(key, status, now));
+    }
+
+    /**
+     * Loads the keys still inside the TTL, newest first up to {@code max-entries}. When the table
+     * cannot be read or holds more keys, memory is marked incomplete and explicit keys fall back
+     * to the table.
+     */
+    @Override
+    public void start() {
+        Instant now = Instant.now();
+        List<Object[]> rows = new ArrayList<>();
+        try {
+            jdbcTemplate.query(SELECT_LIVE_KEYS, rs -> {
+                rows.add(new Object[]{
+                        HexFormat.of().formatHex(rs.getBytes("idempotency_key")),
+                        rs.getInt("status"),
+                        rs.getTimestamp("created_at").toInstant()});
+            }, Timestamp.from(now.minusMillis(ttlMillis)), maxEntries + 1);
+        } catch (DataAccessException e) {
+            logger.warn("Idempotency keys not loaded, explicit keys will be looked up in the table: error={}",
+                    e.getMessage());
+            running = true;
+            return;
+        }
+        boolean truncated = rows.size() > maxEntries;
+        recentLock.lock();
+        try {
+            // Oldest first, so the map evicts in age order
+            for (int i = Math.min(rows.size(), maxEntries) - 1; i >= 0; i--) {
+                Object[] row = rows.get(i);
+                recent.put((String) row[0], new RecordedOutcome((Integer) row[1],
+                        ((Instant) row[2]).plusMillis(ttlMillis)));
+            }
+        } finally {
+            recentLock.unlock();
+        }
+        complete = !truncated;
+        running = true;
+        logger.info("Idempotency keys loaded: keys={}, complete={}", Math.min(rows.size(), maxEntries), complete);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Loads before the event log consumer and the web server, which use the default last phase.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * A garage gained from another shard has keys this instance never saw.
+     */
+    @EventListener
+    public void onShardMembershipChanged(ShardMembershipChangedEvent event) {
+        complete = false;
+    }
+
+    /**
+     * Writes the keys recorded since the previous flush in one JDBC batch. Keys of a failed flush
+     * are put back and retried by the next one.
+     */
+    @Scheduled(
+            initialDelayString = "${parking.webhook.idempotency.flush-interval-millis:200}",
+            fixedDelayString = "${parking.webhook.idempotency.flush-interval-millis:200}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<PendingKey> keys = new ArrayList<>();
+            for (PendingKey key = pending.poll(); key != null; key = pending.poll()) {
+                keys.add(key);
+            }
+            if (keys.isEmpty()) {
+                return 0;
+            }
+
+            List<Object[]> rows = new ArrayList<>(keys.size());
+            for (PendingKey key : keys) {
+                rows.add(new Object[]{HexFormat.of().parseHex(key.key()), key.status(), Timestamp.from(key.createdAt())});
+            }
+            try {
+                jdbcTemplate.batchUpdate(INSERT_KEY, rows);
+            } catch (RuntimeException e) {
+                pending.addAll(keys);
+                logger.warn("Idempotency key flush failed, retrying next interval: keys={}", keys.size(), e);
+                return 0;
+            }
+            logger.debug("Idempotency keys flushed: keys={}", keys.size());
+            return keys.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.webhook.idempotency.purge-interval-millis:600000}",
+            fixedDelayString = "${parking.webhook.idempotency.purge-interval-millis:600000}")
+    public int purgeExpired() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minusMillis(ttlMillis));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED, cutoff, PURGE_BATCH_SIZE);
+            purged += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        if (purged > 0) {
+            logger.info("Expired idempotency keys purged: keys={}", purged);
+        }
+        return purged;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int size() {
+        recentLock.lock();
+        try {
+            return recent.size();
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private OptionalInt replayFromMemory(Key key, Instant now) {
+        recentLock.lock();
+        try {
+            RecordedOutcome outcome = recent.get(key.hash());
+            if (outcome != null) {
+                if (outcome.expiresAt().isAfter(now)) {
+                    memoryHits.increment();
+                    return OptionalInt.of(outcome.status());
+                }
+                recent.remove(key.hash());
+            }
+            return OptionalInt.empty();
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private void remember(String key, int status, Instant now) {
+        recentLock.lock();
+        try {
+            absent.remove(key);
+            recent.put(key, new RecordedOutcome(status, now.plusMillis(ttlMillis)));
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private void rememberAbsent(String key, Instant now) {
+        if (negativeTtlMillis <= 0) {
+            return;
+        }
+        recentLock.lock();
+        try {
+            absent.put(key, now.plusMillis(negativeTtlMillis));
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("parking.webhook.idempotency.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Instant timestampOf(WebhookEventDto event) {
+        if (event instanceof EntryEventDto entry) {
+            return entry.getEntryTime();
+        }
+        if (event instanceof ExitEventDto exit) {
+            return exit.getExitTime();
+        }
+        return null;
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record RecordedOutcome(int status, Instant expiresAt) {
+    }
+
+    private record PendingKey(String key, int status, Instant createdAt) {
+    }
+}
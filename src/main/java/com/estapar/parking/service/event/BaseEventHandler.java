@@ -1,6 +1,7 @@
 package com.estapar.parking.service.event;
 
 import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.service.topology.GarageTopology;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -8,7 +9,7 @@ public abstract class BaseEventHandler implements EventHandler {
     
     @Override
     @Transactional(isolation = Isolation.REPEATABLE_READ, timeout = 30)
-    public abstract void handle(com.estapar.parking.infrastructure.persistence.entity.Garage garage, WebhookEventDto event);
+    public abstract void handle(GarageTopology garage, WebhookEventDto event);
     
     protected <T> T requireEventType(WebhookEventDto event, Class<T> expectedType) {
         if (!expectedType.isInstance(event)) {
@@ -4,12 +4,12 @@ import com.estapar.parking.api.dto.EntryEventDto;
 import com.estapar.parking.api.dto.EventType;
 import com.estapar.parking.api.dto.WebhookEventDto;
 import com.estapar.parking.api.mapper.ParkingMapper;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.service.GarageOccupancyLedger;
 import com.estapar.parking.service.ParkingSessionService;
 import com.estapar.parking.service.PricingStrategyResolver;
+import com.estapar.parking.service.topology.GarageTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -20,6 +20,10 @@ import static com.estapar.parking.api.dto.EventType.ENTRY;
 import static com.estapar.parking.api.exception.ErrorMessages.GARAGE_FULL;
 import static com.estapar.parking.api.exception.ErrorMessages.VEHICLE_ALREADY_HAS_ACTIVE_SESSION;
 import static com.estapar.parking.api.exception.ErrorMessages.conflict;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.OCCUPANCY;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SAVE;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SESSION_LOOKUP;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.STRATEGY_LOOKUP;
 import static java.math.BigDecimal.valueOf;
 
 @Component
@@ -28,40 +32,51 @@ public class EntryEventHandler extends BaseEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(EntryEventHandler.class);
     
+    private final GarageOccupancyLedger occupancyLedger;
     private final GarageRepository garageRepository;
-    private final ParkingSessionRepository sessionRepository;
     private final ParkingMapper parkingMapper;
     private final ParkingSessionService parkingSessionService;
     private final PricingStrategyResolver pricingStrategyResolver;
     private final BigDecimalUtils bigDecimalUtils;
+    private final EventStageMetrics stageMetrics;
     
     @Override
-    public void handle(Garage garage, WebhookEventDto event) {
+    public void handle(GarageTopology garage, WebhookEventDto event) {
         EntryEventDto entryEvent = requireEventType(event, EntryEventDto.class);
 
         if (isGarageFull(garage)) {
             throw conflict(GARAGE_FULL);
         }
 
+        long stage = stageMetrics.start();
         if (parkingSessionService.existsActiveSession(garage, entryEvent.getLicensePlate())) {
             throw conflict(VEHICLE_ALREADY_HAS_ACTIVE_SESSION, entryEvent.getLicensePlate());
         }
 
-        long occupied = garageRepository.calcOccupancy(garage.getId());
+        stage = stageMetrics.record(SESSION_LOOKUP, ENTRY, garage.getId(), stage);
+
+        long occupied = occupancyLedger.tryReserve(garage.getId(), garage.getMaxCapacity());
+        if (occupied == GarageOccupancyLedger.NO_CAPACITY) {
+            throw conflict(GARAGE_FULL);
+        }
+
         var occupancyPercentage = bigDecimalUtils.calculatePercentage(
                 valueOf(occupied), 
                 valueOf(garage.getMaxCapacity()));
+        stage = stageMetrics.record(OCCUPANCY, ENTRY, garage.getId(), stage);
         
         var strategy = pricingStrategyResolver.findStrategy(occupancyPercentage);
+        stage = stageMetrics.record(STRATEGY_LOOKUP, ENTRY, garage.getId(), stage);
 
         ParkingSession session = parkingMapper.toParkingSession(
                 entryEvent.getLicensePlate(),
                 entryEvent.getEntryTime(),
-                garage,
+                garageRepository.getReferenceById(garage.getId()),
                 strategy.getMultiplier()
         );
         
-        sessionRepository.save(session);
+        parkingSessionService.open(session);
+        stageMetrics.record(SAVE, ENTRY, garage.getId(), stage);
 
         logger.info("Entry event processed: vehicle={}, multiplier={}, entryTime={}",
                    entryEvent.getLicensePlate(), strategy.getMultiplier(), entryEvent.getEntryTime());
@@ -72,8 +87,7 @@ public class EntryEventHandler extends BaseEventHandler {
         return ENTRY.equals(event.getEventType());
     }
     
-    private boolean isGarageFull(Garage garage) {
-        long availableCapacity = garage.getMaxCapacity() - garageRepository.calcOccupancy(garage.getId());
-        return availableCapacity <= 0;
+    private boolean isGarageFull(GarageTopology garage) {
+        return occupancyLedger.isFull(garage.getId(), garage.getMaxCapacity());
     }
 }
@@ -1,10 +1,10 @@
 package com.estapar.parking.service.event;
 
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.service.topology.GarageTopology;
 
 public interface EventHandler {
-    void handle(Garage garage, WebhookEventDto event);
+    void handle(GarageTopology garage, WebhookEventDto event);
 
     boolean supports(WebhookEventDto event);
 }
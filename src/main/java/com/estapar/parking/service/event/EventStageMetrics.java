@@ -0,0 +1,162 @@
+package com.estapar.parking.service.event;
+
+import com.estapar.parking.api.dto.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters for the stages of webhook event processing, tagged by stage and event type.
+ * <p>
+ * Meters are registered up front and kept in an array indexed by stage and event type, so
+ * recording a stage is an array read with no allocation. Timings are taken with
+ * {@link System#nanoTime()} rather than {@link Timer.Sample} for the same reason. Stage timers publish
+ * a percentile histogram bounded to 100µs-10s, so p99 can be computed across instances in Prometheus.
+ * They carry no garage tag: with dozens of buckets per timer that would be about a thousand series
+ * per garage. With {@code parking.metrics.event.per-garage} the whole handler is also timed per
+ * garage, without a histogram, which is three series per garage and event type.
+ */
+@Component
+public class EventStageMetrics {
+
+    public enum Stage {
+        GARAGE_RESOLVE("garage_resolve"),
+        SESSION_LOOKUP("session_lookup"),
+        OCCUPANCY("occupancy"),
+        STRATEGY_LOOKUP("strategy_lookup"),
+        SPOT_LOOKUP("spot_lookup"),
+        FEE_CALCULATION("fee_calculation"),
+        SAVE("save"),
+        HANDLER("handler");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean perGarage;
+    private final Timer[] timers = new Timer[STAGES.length * EVENT_TYPES.length];
+    private final ConcurrentMap<UUID, Timer[]> garageTimers = new ConcurrentHashMap<>();
+    private final Map<EventType, Counter> conflicts = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> notFound = new EnumMap<>(EventType.class);
+    private final Map<EventType, Counter> optimisticLockFailures = new EnumMap<>(EventType.class);
+    private final Counter spotNotFound;
+    private final Counter duplicateParked;
+
+    public EventStageMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${parking.metrics.event.per-garage:false}") boolean perGarage) {
+        this.meterRegistry = meterRegistry;
+        this.perGarage = perGarage;
+        for (Stage stage : STAGES) {
+            for (EventType eventType : EVENT_TYPES) {
+                timers[index(stage, eventType)] = Timer.builder("parking.event.stage")
+                        .tag("stage", stage.tag)
+                        .tag("event_type", eventType.name())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(100_000))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry);
+            }
+        }
+        for (EventType eventType : EVENT_TYPES) {
+            conflicts.put(eventType, rejection(eventType, "conflict"));
+            notFound.put(eventType, rejection(eventType, "not_found"));
+            optimisticLockFailures.put(eventType, Counter.builder("parking.event.optimistic_lock_failures")
+                    .tag("event_type", eventType.name())
+                    .register(meterRegistry));
+        }
+        this.spotNotFound = skipped("spot_not_found");
+        this.duplicateParked = skipped("duplicate");
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time since {@code startNanos} for the stage and returns the current time, so
+     * consecutive stages can be chained without another clock read.
+     */
+    public long record(Stage stage, EventType eventType, UUID garageId, long startNanos) {
+        long now = System.nanoTime();
+        timers[index(stage, eventType)].record(now - startNanos, TimeUnit.NANOSECONDS);
+        if (perGarage && stage == Stage.HANDLER) {
+            timersOf(garageId)[eventType.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return now;
+    }
+
+    public void conflict(EventType eventType) {
+        conflicts.get(eventType).increment();
+    }
+
+    public void notFound(EventType eventType) {
+        notFound.get(eventType).increment();
+    }
+
+    public void optimisticLockFailure(EventType eventType) {
+        optimisticLockFailures.get(eventType).increment();
+    }
+
+    public void spotNotFound() {
+        spotNotFound.increment();
+    }
+
+    public void duplicateParked() {
+        duplicateParked.increment();
+    }
+
+    private static int index(Stage stage, EventType eventType) {
+        return stage.ordinal() * EVENT_TYPES.length + eventType.ordinal();
+    }
+
+    private Timer[] timersOf(UUID garageId) {
+        Timer[] timersOfGarage = garageTimers.get(garageId);
+        if (timersOfGarage != null) {
+            return timersOfGarage;
+        }
+        return garageTimers.computeIfAbsent(garageId, this::register);
+    }
+
+    private Timer[] register(UUID garageId) {
+        Timer[] timersOfGarage = new Timer[EVENT_TYPES.length];
+        String garage = garageId.toString();
+        for (EventType eventType : EVENT_TYPES) {
+            timersOfGarage[eventType.ordinal()] = Timer.builder("parking.event.garage.handler")
+                    .tag("event_type", eventType.name())
+                    .tag("garage", garage)
+                    .register(meterRegistry);
+        }
+        return timersOfGarage;
+    }
+
+    private Counter rejection(EventType eventType, String reason) {
+        return Counter.builder("parking.event.rejections")
+                .tag("event_type", eventType.name())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Counter skipped(String reason) {
+        return Counter.builder("parking.event.spot_assignment_skipped")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
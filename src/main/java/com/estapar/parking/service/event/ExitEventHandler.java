@@ -3,12 +3,13 @@ package com.estapar.parking.service.event;
 import com.estapar.parking.api.dto.EventType;
 import com.estapar.parking.api.dto.ExitEventDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.service.GarageOccupancyLedger;
 import com.estapar.parking.service.ParkingSessionService;
 import com.estapar.parking.service.ParkingSpotService;
-import com.estapar.parking.service.ParkingFeeCalculator;
+import com.estapar.parking.service.tariff.TariffEngine;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -16,9 +17,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import static com.estapar.parking.api.dto.EventType.EXIT;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.FEE_CALCULATION;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SAVE;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SESSION_LOOKUP;
 
 import java.math.BigDecimal;
-import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -26,38 +31,37 @@ public class ExitEventHandler extends BaseEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ExitEventHandler.class);
     
-    private final ParkingSessionRepository sessionRepository;
     private final ParkingSessionService parkingSessionService;
     private final ParkingSpotService parkingSpotService;
-    private final ParkingFeeCalculator feeCalculator;
+    private final TariffEngine tariffEngine;
     private final BigDecimalUtils bigDecimalUtils;
+    private final GarageOccupancyLedger occupancyLedger;
+    private final EventStageMetrics stageMetrics;
     
     @Override
-    public void handle(Garage garage, WebhookEventDto event) {
+    public void handle(GarageTopology garage, WebhookEventDto event) {
         ExitEventDto exitEvent = requireEventType(event, ExitEventDto.class);
         
+        long stage = stageMetrics.start();
         ParkingSession session = parkingSessionService.findActiveSession(garage, exitEvent.getLicensePlate());
+        stage = stageMetrics.record(SESSION_LOOKUP, EXIT, garage.getId(), stage);
         session.setExitTime(exitEvent.getExitTime());
         
-        BigDecimal multiplier = session.getPricingMultiplier();
-        BigDecimal basePrice;
-        if (session.getSpot() != null) {
-            basePrice = session.getSpot().getSector().getBasePrice();
-        } else {
-            basePrice = bigDecimalUtils.zeroWithCurrencyScale();
-        }
-        
-        BigDecimal effectivePrice = bigDecimalUtils.multiplyAndSetCurrencyScale(basePrice, multiplier);
-        BigDecimal finalPrice = feeCalculator.calculateFee(
+        BigDecimal finalPrice = tariffEngine.calculateFee(
+                sectorIdOf(garage, session),
                 session.getEntryTime(), 
                 session.getExitTime(), 
-                effectivePrice
+                basePriceOf(garage, session),
+                session.getPricingMultiplier()
         );
+        stage = stageMetrics.record(FEE_CALCULATION, EXIT, garage.getId(), stage);
         
         parkingSpotService.freeSpot(session);
         
         session.setFinalPrice(finalPrice);
-        sessionRepository.save(session);
+        parkingSessionService.close(session);
+        occupancyLedger.release(garage.getId());
+        stageMetrics.record(SAVE, EXIT, garage.getId(), stage);
         
         logger.info("Exit event processed: vehicle={}, finalPrice={},  exitTime={}",
                 exitEvent.getLicensePlate(), finalPrice, exitEvent.getExitTime());
@@ -67,4 +71,27 @@ public class ExitEventHandler extends BaseEventHandler {
     public boolean supports(WebhookEventDto event) {
         return EXIT.equals(event.getEventType());
     }
+    
+    private UUID sectorIdOf(GarageTopology garage, ParkingSession session) {
+        if (session.getSpot() == null) {
+            return null;
+        }
+        return sectorOf(garage, session)
+                .map(SectorTopology::id)
+                .orElseGet(() -> session.getSpot().getSector().getId());
+    }
+    
+    private BigDecimal basePriceOf(GarageTopology garage, ParkingSession session) {
+        if (session.getSpot() == null) {
+            return bigDecimalUtils.zeroWithCurrencyScale();
+        }
+        return sectorOf(garage, session)
+                .map(SectorTopology::basePrice)
+                .orElseGet(() -> session.getSpot().getSector().getBasePrice());
+    }
+    
+    private Optional<SectorTopology> sectorOf(GarageTopology garage, ParkingSession session) {
+        return garage.findSpot(session.getSpot().getId())
+                .flatMap(spot -> garage.findSector(spot.sectorId()));
+    }
 }
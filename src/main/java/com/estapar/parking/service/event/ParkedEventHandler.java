@@ -2,15 +2,15 @@ package com.estapar.parking.service.event;
 
 import com.estapar.parking.api.dto.ParkedEventDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
 import com.estapar.parking.service.ParkingSessionService;
+import com.estapar.parking.service.ParkingSpotIndex;
 import com.estapar.parking.service.ParkingSpotService;
 import com.estapar.parking.service.SectorCapacityService;
+import com.estapar.parking.service.topology.GarageTopology;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +19,9 @@ import org.springframework.stereotype.Component;
 import static com.estapar.parking.api.dto.EventType.PARKED;
 import static com.estapar.parking.api.exception.ErrorMessages.SPOT_ALREADY_OCCUPIED;
 import static com.estapar.parking.api.exception.ErrorMessages.conflict;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SAVE;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SESSION_LOOKUP;
+import static com.estapar.parking.service.event.EventStageMetrics.Stage.SPOT_LOOKUP;
 
 import java.util.Optional;
 
@@ -28,32 +31,40 @@ public class ParkedEventHandler extends BaseEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ParkedEventHandler.class);
     
-    private final ParkingSessionRepository sessionRepository;
     private final ParkingSpotRepository spotRepository;
+    private final ParkingSpotIndex spotIndex;
     private final ParkingSessionService parkingSessionService;
     private final ParkingSpotService parkingSpotService;
     private final SectorCapacityService sectorCapacityService;
+    private final EventStageMetrics stageMetrics;
     
     @Override
-    public void handle(Garage garage, WebhookEventDto event) {
+    public void handle(GarageTopology garage, WebhookEventDto event) {
         ParkedEventDto parkedEvent = requireEventType(event, ParkedEventDto.class);
         
+        long stage = stageMetrics.start();
         ParkingSession session = parkingSessionService.findActiveSession(garage, parkedEvent.getLicensePlate());
+        long sessionFound = stageMetrics.record(SESSION_LOOKUP, PARKED, garage.getId(), stage);
         
         if (session.getSpot() != null) {
+            stageMetrics.duplicateParked();
             logger.warn("Vehicle {} already has spot assigned (spot_id: {}). Duplicate PARKED event ignored.", 
                        parkedEvent.getLicensePlate(), session.getSpot().getId());
             return;
         }
         
-        findSpot(garage, parkedEvent).ifPresent(
+        Optional<ParkingSpot> found = findSpot(garage, parkedEvent);
+        long spotFound = stageMetrics.record(SPOT_LOOKUP, PARKED, garage.getId(), sessionFound);
+        
+        found.ifPresent(
             spot -> {
                 Sector sector = spot.getSector();
                 parkingSpotService.assignSpot(session, spot);
                 
                 sectorCapacityService.incrementCapacity(sector);
                 
-                sessionRepository.save(session);
+                parkingSessionService.park(session);
+                stageMetrics.record(SAVE, PARKED, garage.getId(), spotFound);
                 logger.info("Parked event processed: vehicle={}, spot_id={}, sector={}", 
                            parkedEvent.getLicensePlate(), spot.getId(), sector.getSectorCode());
             }
@@ -65,20 +76,18 @@ public class ParkedEventHandler extends BaseEventHandler {
         return PARKED.equals(event.getEventType());
     }
     
-    private Optional<ParkingSpot> findSpot(Garage garage, ParkedEventDto parkedEvent) {
-        return spotRepository
-                .findByGarageIdAndLatitudeAndLongitude(
-                        garage.getId(), 
-                        parkedEvent.getLat(), 
-                        parkedEvent.getLng())
+    private Optional<ParkingSpot> findSpot(GarageTopology garage, ParkedEventDto parkedEvent) {
+        return spotIndex.resolve(garage, parkedEvent.getLat(), parkedEvent.getLng())
+                .flatMap(spotRepository::findWithSectorById)
                 .map(spot -> {
-                    if (spot.getIsOccupied()) {
+                    if (parkingSpotService.isOccupied(spot)) {
                         throw conflict(SPOT_ALREADY_OCCUPIED, spot.getId());
                     }
                     return spot;
                 })
                 .or(() -> {
-                    logger.warn("No parking spot found for exact coordinates ({}, {}) in garage {}. " +
+                    stageMetrics.spotNotFound();
+                    logger.warn("No parking spot found for coordinates ({}, {}) in garage {}. " +
                                "Spot assignment skipped (graceful degradation).", 
                                parkedEvent.getLat(), parkedEvent.getLng(), garage.getId());
                     return Optional.empty();
@@ -0,0 +1,12 @@
+package com.estapar.parking.service.ingestion;
+
+import com.estapar.parking.api.dto.WebhookEventDto;
+
+import java.util.UUID;
+
+/**
+ * An event read back from the journal. {@code idempotencyKey} is the hex key the request path
+ * derived for it, or {@code null} when the event cannot be deduplicated.
+ */
+public record QueuedWebhookEvent(UUID garageId, WebhookEventDto event, String idempotencyKey) {
+}
@@ -0,0 +1,97 @@
+package com.estapar.parking.service.ingestion;
+
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.ExitEventDto;
+import com.estapar.parking.api.dto.ParkedEventDto;
+import com.estapar.parking.api.dto.WebhookEventDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public final class WebhookEventCodec {
+
+    // Version 2 added the idempotency key; version 1 records are still read
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte FORMAT_VERSION_WITHOUT_KEY = 1;
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private WebhookEventCodec() {
+    }
+
+    public static byte[] encode(UUID garageId, WebhookEventDto event) {
+        return encode(garageId, event, null);
+    }
+
+    public static byte[] encode(UUID garageId, WebhookEventDto event, String idempotencyKey) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeBoolean(garageId != null);
+            if (garageId != null) {
+                out.writeLong(garageId.getMostSignificantBits());
+                out.writeLong(garageId.getLeastSignificantBits());
+            }
+            out.writeBoolean(idempotencyKey != null);
+            if (idempotencyKey != null) {
+                out.writeUTF(idempotencyKey);
+            }
+            out.writeByte(event.getEventType().ordinal());
+            out.writeUTF(event.getLicensePlate());
+
+            if (event instanceof EntryEventDto entry) {
+                writeInstant(out, entry.getEntryTime());
+            } else if (event instanceof ExitEventDto exit) {
+                writeInstant(out, exit.getExitTime());
+            } else if (event instanceof ParkedEventDto parked) {
+                out.writeUTF(parked.getLat().toString());
+                out.writeUTF(parked.getLng().toString());
+            } else {
+                throw new IllegalArgumentException("Unsupported event: " + event.getClass().getSimpleName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static QueuedWebhookEvent decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_KEY) {
+                throw new IllegalArgumentException("Unsupported webhook event format version: " + version);
+            }
+            UUID garageId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+            String idempotencyKey = version != FORMAT_VERSION_WITHOUT_KEY && in.readBoolean() ? in.readUTF() : null;
+            EventType eventType = EVENT_TYPES[in.readByte()];
+            String licensePlate = in.readUTF();
+
+            WebhookEventDto event = switch (eventType) {
+                case ENTRY -> new EntryEventDto(readInstant(in));
+                case EXIT -> new ExitEventDto(readInstant(in));
+                case PARKED -> new ParkedEventDto(new BigDecimal(in.readUTF()), new BigDecimal(in.readUTF()));
+            };
+            event.setEventType(eventType);
+            event.setLicensePlate(licensePlate);
+            return new QueuedWebhookEvent(garageId, event, idempotencyKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
@@ -0,0 +1,94 @@
+package com.estapar.parking.service.ingestion;
+
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.config.WebhookIngestionConfig;
+import com.estapar.parking.infrastructure.journal.LogRecord;
+import com.estapar.parking.infrastructure.journal.MappedSegmentLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class WebhookEventJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookEventJournal.class);
+
+    private final WebhookIngestionConfig ingestionConfig;
+    private final MeterRegistry meterRegistry;
+
+    private MappedSegmentLog log;
+    private Counter appendedCounter;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!ingestionConfig.isAsync()) {
+            return;
+        }
+
+        log = new MappedSegmentLog(
+                Path.of(ingestionConfig.getDirectory()),
+                ingestionConfig.getSegmentSizeBytes(),
+                ingestionConfig.isFsync());
+
+        appendedCounter = Counter.builder("parking.webhook.ingestion.appended").register(meterRegistry);
+        Gauge.builder("parking.webhook.ingestion.backlog.bytes", log, l -> l.endOffset() - l.committedOffset())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+            logger.info("Webhook event journal closed");
+        }
+    }
+
+    public boolean isEnabled() {
+        return log != null;
+    }
+
+    public long append(UUID garageId, WebhookEventDto event) {
+        return append(garageId, event, null);
+    }
+
+    public long append(UUID garageId, WebhookEventDto event, String idempotencyKey) {
+        long offset = requireLog().append(WebhookEventCodec.encode(garageId, event, idempotencyKey));
+        appendedCounter.increment();
+        return offset;
+    }
+
+    public List<LogRecord> read(long fromOffset, int maxRecords, long timeoutMillis) throws InterruptedException {
+        return requireLog().read(fromOffset, maxRecords, timeoutMillis);
+    }
+
+    public void commit(long offset) {
+        requireLog().commit(offset);
+    }
+
+    public long committedOffset() {
+        return requireLog().committedOffset();
+    }
+
+    public long endOffset() {
+        return requireLog().endOffset();
+    }
+
+    private MappedSegmentLog requireLog() {
+        if (log == null) {
+            throw new IllegalStateException("Webhook event journal is only available in ASYNC ingestion mode");
+        }
+        return log;
+    }
+}
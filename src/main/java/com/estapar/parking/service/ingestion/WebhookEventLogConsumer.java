@@ -0,0 +1,265 @@
+package com.estapar.parking.service.ingestion;
+
+import com.estapar.parking.config.WebhookIngestionConfig;
+import com.estapar.parking.infrastructure.journal.LogRecord;
+import com.estapar.parking.service.PlateOrderedEventDispatcher;
+import com.estapar.parking.service.WebhookEventService;
+import com.estapar.parking.service.WebhookIdempotencyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the events of the webhook journal on their plate lanes. The journal is committed per
+ * batch, so after a crash the tail of the last batch is read again. Each record's offset is
+ * claimed in {@code webhook_log_applied} in the same transaction as the event's effects, and a
+ * record whose offset is already claimed is skipped, so a replayed ENTRY does not open a second
+ * session and a replayed EXIT does not add its revenue twice. Claims below the committed offset
+ * can no longer be read again and are deleted as the journal advances. A record that carries an
+ * idempotency key also claims the key in that transaction, so a client retry that was appended
+ * before its first copy was applied is skipped too, without the request path querying the table
+ * before it answers 202. In write-behind mode the
+ * session changes are journaled right after the commit, so a crash between the two loses the
+ * event instead of applying it twice.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.webhook.ingestion.mode", havingValue = "async")
+public class WebhookEventLogConsumer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookEventLogConsumer.class);
+
+    private static final String CLAIM_OFFSET =
+            "INSERT IGNORE INTO webhook_log_applied (log_offset, applied_at) VALUES (?, ?)";
+    private static final String DELETE_COMMITTED =
+            "DELETE FROM webhook_log_applied WHERE log_offset < ?";
+    // Claims outside the journal's offsets were left by a journal that has since been replaced
+    private static final String DELETE_OUTSIDE_JOURNAL =
+            "DELETE FROM webhook_log_applied WHERE log_offset < ? OR log_offset >= ?";
+
+    private final WebhookEventJournal journal;
+    private final WebhookEventService webhookEventService;
+    private final WebhookIdempotencyService idempotencyService;
+    private final PlateOrderedEventDispatcher eventDispatcher;
+    private final WebhookIngestionConfig ingestionConfig;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean running;
+    private Thread reader;
+    private Counter processedCounter;
+    private Counter duplicateCounter;
+    private Counter rejectedCounter;
+    private Counter deadLetterCounter;
+
+    public WebhookEventLogConsumer(
+            WebhookEventJournal journal,
+            WebhookEventService webhookEventService,
+            WebhookIdempotencyService idempotencyService,
+            PlateOrderedEventDispatcher eventDispatcher,
+            WebhookIngestionConfig ingestionConfig,
+            MeterRegistry meterRegistry,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.journal = journal;
+        this.webhookEventService = webhookEventService;
+        this.idempotencyService = idempotencyService;
+        this.eventDispatcher = eventDispatcher;
+        this.ingestionConfig = ingestionConfig;
+        this.meterRegistry = meterRegistry;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setTimeout(30);
+    }
+
+    @Override
+    public void start() {
+        processedCounter = outcomeCounter("processed");
+        duplicateCounter = outcomeCounter("duplicate");
+        rejectedCounter = outcomeCounter("rejected");
+        deadLetterCounter = outcomeCounter("dead_letter");
+
+        int stale = jdbcTemplate.update(DELETE_OUTSIDE_JOURNAL, journal.committedOffset(), journal.endOffset());
+        if (stale > 0) {
+            logger.info("Stale webhook log claims deleted: claims={}", stale);
+        }
+
+        running = true;
+        reader = new Thread(this::drain, "webhook-log-reader");
+        reader.start();
+        logger.info("Webhook log consumer started: lanes={}, committedOffset={}",
+                eventDispatcher.laneCount(), journal.committedOffset());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (reader != null) {
+            reader.interrupt();
+            try {
+                reader.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("Webhook log consumer stopped: committedOffset={}", journal.committedOffset());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        long offset = journal.committedOffset();
+        while (running) {
+            try {
+                List<LogRecord> batch = journal.read(offset, ingestionConfig.getBatchSize(),
+                        ingestionConfig.getPollTimeoutMillis());
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                process(batch);
+                if (!running) {
+                    return;
+                }
+                offset = batch.get(batch.size() - 1).nextOffset();
+                journal.commit(offset);
+                jdbcTemplate.update(DELETE_COMMITTED, offset);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Webhook log consumer failed, retrying batch: offset={}, error={}",
+                        offset, e.getMessage(), e);
+                pause(ingestionConfig.getRetryMaxIntervalMillis());
+            }
+        }
+    }
+
+    private void process(List<LogRecord> batch) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(batch.size());
+        for (LogRecord record : batch) {
+            QueuedWebhookEvent queued;
+            try {
+                queued = WebhookEventCodec.decode(record.payload());
+            } catch (RuntimeException e) {
+                deadLetterCounter.increment();
+                logger.error("Skipping undecodable webhook log record: offset={}, error={}",
+                        record.offset(), e.getMessage());
+                continue;
+            }
+            pending.add(eventDispatcher.submit(queued.event().getLicensePlate(),
+                    () -> processWithRetry(record.offset(), queued)));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void processWithRetry(long offset, QueuedWebhookEvent queued) {
+        long backoff = ingestionConfig.getRetryInitialIntervalMillis();
+        int attempt = 0;
+        while (running) {
+            attempt++;
+            try {
+                if (applyOnce(offset, queued)) {
+                    processedCounter.increment();
+                } else {
+                    duplicateCounter.increment();
+                    logger.debug("Skipping already applied webhook log record: offset={}, licensePlate={}",
+                            offset, queued.event().getLicensePlate());
+                }
+                return;
+            } catch (ResponseStatusException | IllegalArgumentException | IllegalStateException e) {
+                rejectedCounter.increment();
+                logger.warn("Queued event rejected: type={}, licensePlate={}, reason={}",
+                        queued.event().getEventType(), queued.event().getLicensePlate(), e.getMessage());
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= ingestionConfig.getMaxAttempts()) {
+                    deadLetter(queued, attempt, e);
+                    return;
+                }
+                logger.debug("Optimistic lock conflict on queued event, retrying: licensePlate={}",
+                        queued.event().getLicensePlate());
+            } catch (TransientDataAccessException | RecoverableDataAccessException | CannotCreateTransactionException e) {
+                logger.warn("Database unavailable while processing queued event, retrying in {}ms: error={}",
+                        backoff, e.getMessage());
+                pause(backoff);
+                backoff = Math.min(backoff * 2, ingestionConfig.getRetryMaxIntervalMillis());
+                attempt = 0;
+            } catch (RuntimeException e) {
+                if (attempt >= ingestionConfig.getMaxAttempts()) {
+                    deadLetter(queued, attempt, e);
+                    return;
+                }
+                pause(backoff);
+                backoff = Math.min(backoff * 2, ingestionConfig.getRetryMaxIntervalMillis());
+            }
+        }
+    }
+
+    /**
+     * Claims the record's offset and idempotency key and applies the event in one transaction. A
+     * rejected or failed event rolls its claims back with it.
+     *
+     * @return false when the record, or an earlier copy of its event, was applied before
+     */
+    private boolean applyOnce(long offset, QueuedWebhookEvent queued) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(CLAIM_OFFSET, offset, Timestamp.from(Instant.now())) == 0) {
+                return false;
+            }
+            if (queued.idempotencyKey() != null
+                    && !idempotencyService.claim(queued.idempotencyKey(), HttpStatus.ACCEPTED.value())) {
+                return false;
+            }
+            webhookEventService.processEvent(queued.garageId(), queued.event());
+            return true;
+        }));
+    }
+
+    private void deadLetter(QueuedWebhookEvent queued, int attempts, RuntimeException cause) {
+        deadLetterCounter.increment();
+        logger.error("Dropping queued event after {} attempts: type={}, licensePlate={}",
+                attempts, queued.event().getEventType(), queued.event().getLicensePlate(), cause);
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder("parking.webhook.ingestion.consumed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
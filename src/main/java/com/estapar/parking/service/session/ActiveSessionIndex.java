@@ -0,0 +1,329 @@
+package com.estapar.parking.service.session;
+
+import com.estapar.parking.config.SessionStoreConfig;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import com.estapar.parking.util.UuidUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Open sessions per garage, keyed by license plate, so the duplicate-ENTRY check is a hash probe
+ * and EXIT and PARKED load their session by primary key instead of searching
+ * {@code idx_garage_vehicle_exit}. Loaded at startup with one streaming query, before the web
+ * server and the event log consumer start, and kept current by {@link #opened}, {@link #parked}
+ * and {@link #closed}.
+ * <p>
+ * Changes made in a transaction are visible to later lookups in the same transaction and applied
+ * to the shared index only when it commits. Like the occupancy ledger, the index assumes it sees
+ * every session change, i.e. one instance writes each garage. In a sharded deployment only the
+ * garages this instance owns are kept. A garage with no open session at startup, or gained from
+ * another shard since, is loaded with its own query the first time one of its sessions changes;
+ * until then {@link #covers} is false and callers ask the database.
+ * It is off in write-behind mode, where {@link SessionWriteBehindStore} already keeps open sessions
+ * in memory.
+ */
+@Component
+public class ActiveSessionIndex implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveSessionIndex.class);
+
+    private static final String SELECT_OPEN_SESSIONS =
+            "SELECT id, garage_id, vehicle_license_plate, spot_id, entry_time, pricing_multiplier " +
+            "FROM parking_session WHERE exit_time IS NULL";
+    private static final String SELECT_GARAGE_OPEN_SESSIONS =
+            "SELECT id, garage_id, vehicle_license_plate, spot_id, entry_time, pricing_multiplier " +
+            "FROM parking_session WHERE garage_id = ? AND exit_time IS NULL";
+
+    /**
+     * What the index knows about an open session. {@code spotId} is null until the vehicle parks.
+     */
+    public record Entry(UUID sessionId, UUID spotId, Instant entryTime, BigDecimal pricingMultiplier) {
+
+        static Entry of(ParkingSession session) {
+            return new Entry(
+                    session.getId(),
+                    session.getSpot() != null ? session.getSpot().getId() : null,
+                    session.getEntryTime(),
+                    session.getPricingMultiplier());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GarageShardRouter shardRouter;
+    private final boolean enabled;
+    private final ConcurrentMap<UUID, ConcurrentMap<String, Entry>> garages = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile boolean running;
+
+    @Autowired
+    public ActiveSessionIndex(
+            SessionStoreConfig sessionStoreConfig,
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            GarageShardRouter shardRouter,
+            @Value("${parking.session.index.enabled:true}") boolean enabled,
+            @Value("${parking.session.index.fetch-size:-2147483648}") int fetchSize) {
+        this(streaming(dataSource, fetchSize), meterRegistry, shardRouter,
+                enabled && !sessionStoreConfig.isWriteBehind());
+    }
+
+    ActiveSessionIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, GarageShardRouter shardRouter,
+                       boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        Gauge.builder("parking.session.index.entries", this, ActiveSessionIndex::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether lookups can be answered from the index. False when disabled and until it is loaded.
+     */
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * Whether the open sessions of the garage are loaded, so a lookup that finds nothing means the
+     * plate has no open session.
+     */
+    public boolean covers(UUID garageId) {
+        return isEnabled() && garages.containsKey(garageId);
+    }
+
+    public Optional<Entry> find(UUID garageId, String licensePlate) {
+        Pending pending = currentPending();
+        Key key = new Key(garageId, licensePlate);
+        if (pending != null && pending.entries.containsKey(key)) {
+            return countLookup(pending.entries.get(key));
+        }
+        ConcurrentMap<String, Entry> garage = garage(garageId);
+        return countLookup(garage != null ? garage.get(licensePlate) : null);
+    }
+
+    public void opened(ParkingSession session) {
+        stage(key(session), Entry.of(session));
+    }
+
+    public void parked(ParkingSession session) {
+        stage(key(session), Entry.of(session));
+    }
+
+    public void closed(ParkingSession session) {
+        stage(key(session), null);
+    }
+
+    /**
+     * Adds a session that was found in the database but not in the index.
+     */
+    public void repair(ParkingSession session) {
+        if (session.isActive()) {
+            stage(key(session), Entry.of(session));
+        }
+    }
+
+    /**
+     * Drops an entry whose session turned out to be closed or gone in the database.
+     */
+    public void evict(UUID garageId, String licensePlate) {
+        stage(new Key(garageId, licensePlate), null);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        int[] loaded = {0};
+        jdbcTemplate.query(SELECT_OPEN_SESSIONS, rs -> {
+            UUID garageId = UuidUtils.fromBytes(rs.getBytes("garage_id"));
+            if (shardRouter.isLocal(garageId)) {
+                garages.computeIfAbsent(garageId, id -> new ConcurrentHashMap<>())
+                        .put(rs.getString("vehicle_license_plate"), entryOf(rs));
+                loaded[0]++;
+            }
+        });
+        running = true;
+        logger.info("Active session index loaded: garages={}, sessions={}", garages.size(), loaded[0]);
+    }
+
+    /**
+     * Drops garages now owned by another shard. Should one come back, it is loaded again on first use.
+     */
+    @EventListener
+    public void onShardMembershipChanged(ShardMembershipChangedEvent event) {
+        garages.keySet().removeIf(garageId -> !shardRouter.isLocal(garageId));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        garages.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Loads before the event log consumer and the web server, which use the default last phase.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    int size() {
+        return garages.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void stage(Key key, Entry entry) {
+        if (!isEnabled()) {
+            return;
+        }
+        Pending pending = requirePending();
+        if (pending == null) {
+            apply(key, entry);
+            return;
+        }
+        pending.entries.put(key, entry);
+    }
+
+    private void apply(Key key, Entry entry) {
+        // Removals load the garage too: a load that started before this commit must not publish it back
+        ConcurrentMap<String, Entry> garage = garage(key.garageId());
+        if (garage == null) {
+            return;
+        }
+        if (entry == null) {
+            garage.remove(key.licensePlate());
+        } else {
+            garage.put(key.licensePlate(), entry);
+        }
+    }
+
+    /**
+     * Returns the open sessions of the garage, loading them if the garage had none at startup or was
+     * gained from another shard since, or {@code null} for a garage another shard owns. The query
+     * runs outside the map, so a slow load blocks neither other garages nor the lookups that share
+     * its bin; when two threads load the same garage, the first to publish wins.
+     */
+    private ConcurrentMap<String, Entry> garage(UUID garageId) {
+        ConcurrentMap<String, Entry> garage = garages.get(garageId);
+        if (garage != null || !shardRouter.isLocal(garageId)) {
+            return garage;
+        }
+        ConcurrentMap<String, Entry> loaded = load(garageId);
+        ConcurrentMap<String, Entry> existing = garages.putIfAbsent(garageId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private ConcurrentMap<String, Entry> load(UUID garageId) {
+        ConcurrentMap<String, Entry> garage = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_GARAGE_OPEN_SESSIONS,
+                rs -> {
+                    garage.put(rs.getString("vehicle_license_plate"), entryOf(rs));
+                },
+                UuidUtils.toBytes(garageId));
+        logger.debug("Active session index garage loaded: garageId={}, sessions={}", garageId, garage.size());
+        return garage;
+    }
+
+    private static Entry entryOf(ResultSet rs) throws SQLException {
+        byte[] spotId = rs.getBytes("spot_id");
+        return new Entry(
+                UuidUtils.fromBytes(rs.getBytes("id")),
+                spotId != null ? UuidUtils.fromBytes(spotId) : null,
+                rs.getTimestamp("entry_time").toInstant(),
+                rs.getBigDecimal("pricing_multiplier"));
+    }
+
+    private static Key key(ParkingSession session) {
+        return new Key(session.getGarage().getId(), session.getVehicleLicensePlate());
+    }
+
+    private Optional<Entry> countLookup(Entry entry) {
+        (entry != null ? hits : misses).increment();
+        return Optional.ofNullable(entry);
+    }
+
+    private Pending currentPending() {
+        return (Pending) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Returns the pending changes of the current transaction, creating them on first use, or
+     * {@code null} outside a transaction, where changes apply immediately.
+     */
+    private Pending requirePending() {
+        Pending pending = currentPending();
+        if (pending != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return pending;
+        }
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ActiveSessionIndex.this);
+                if (status == STATUS_COMMITTED) {
+                    created.entries.forEach(ActiveSessionIndex.this::apply);
+                }
+            }
+        });
+        return created;
+    }
+
+    private static JdbcTemplate streaming(DataSource dataSource, int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        return jdbcTemplate;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("parking.session.index.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Key(UUID garageId, String licensePlate) {
+    }
+
+    /**
+     * Changes of one transaction. A {@code null} entry marks a plate whose session was closed.
+     */
+    private static final class Pending {
+
+        private final Map<Key, Entry> entries = new HashMap<>();
+    }
+}
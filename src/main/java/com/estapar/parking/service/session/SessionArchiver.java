@@ -0,0 +1,184 @@
+package com.estapar.parking.service.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves sessions closed more than {@code retention-days} ago from {@code parking_session} into
+ * {@code parking_session_archive}, so the hot table only holds open and recent sessions and its
+ * indexes stay the same depth however much history accumulates.
+ * <p>
+ * Each batch of {@code batch-size} sessions is copied and deleted in its own short transaction.
+ * Rows are locked with {@code SKIP LOCKED}, so several instances can archive at the same time
+ * without waiting on each other. The archive is partitioned by month of entry. Before copying, the
+ * monthly partitions the batch can land in are split off the empty {@code p_max} partition, which
+ * is a metadata-only change. A run stops after {@code max-batches-per-run} batches and the next
+ * run continues from there.
+ */
+@Service
+public class SessionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionArchiver.class);
+
+    private static final String SELECT_ARCHIVABLE =
+            "SELECT id FROM parking_session WHERE exit_time < ? ORDER BY exit_time LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String COPY_TO_ARCHIVE =
+            "INSERT IGNORE INTO parking_session_archive " +
+            "(id, garage_id, sector_id, spot_id, vehicle_license_plate, entry_time, exit_time, " +
+            "pricing_multiplier, final_price, archived_at) " +
+            "SELECT ps.id, ps.garage_id, pspot.sector_id, ps.spot_id, ps.vehicle_license_plate, ps.entry_time, " +
+            "ps.exit_time, ps.pricing_multiplier, ps.final_price, ? " +
+            "FROM parking_session ps LEFT JOIN parking_spot pspot ON pspot.id = ps.spot_id " +
+            "WHERE ps.id IN (%s)";
+    private static final String DELETE_ARCHIVED = "DELETE FROM parking_session WHERE id IN (%s)";
+    private static final String SELECT_PARTITION_BOUNDS =
+            "SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'parking_session_archive' " +
+            "AND PARTITION_DESCRIPTION <> 'MAXVALUE'";
+    private static final String ADD_PARTITION =
+            "ALTER TABLE parking_session_archive REORGANIZE PARTITION p_max INTO (" +
+            "PARTITION %s VALUES LESS THAN (%d), PARTITION p_max VALUES LESS THAN MAXVALUE)";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter archived;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Autowired
+    public SessionArchiver(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${parking.session.archive.enabled:true}") boolean enabled,
+            @Value("${parking.session.archive.retention-days:30}") int retentionDays,
+            @Value("${parking.session.archive.batch-size:1000}") int batchSize,
+            @Value("${parking.session.archive.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this(new JdbcTemplate(dataSource), transactionManager, meterRegistry,
+                enabled, retentionDays, batchSize, maxBatchesPerRun);
+    }
+
+    SessionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry, boolean enabled, int retentionDays, int batchSize,
+                    int maxBatchesPerRun) {
+        if (retentionDays < 1 || batchSize < 1 || maxBatchesPerRun < 1) {
+            throw new IllegalArgumentException("Session archive retention-days, batch-size and " +
+                    "max-batches-per-run must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.archived = Counter.builder("parking.session.archive.archived").register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.session.archive.interval-millis:300000}",
+            fixedDelayString = "${parking.session.archive.interval-millis:300000}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        return archive(Instant.now());
+    }
+
+    /**
+     * Archives sessions that exited before {@code now} minus the retention window.
+     *
+     * @return the number of sessions moved
+     */
+    int archive(Instant now) {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        try {
+            Instant cutoff = now.minus(retention);
+            ensurePartitionsUntil(cutoff);
+
+            int total = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff, now));
+                int count = moved != null ? moved : 0;
+                total += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                archived.increment(total);
+                logger.info("Closed sessions archived: sessions={}, cutoff={}", total, cutoff);
+            }
+            return total;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private int archiveBatch(Instant cutoff, Instant now) {
+        List<byte[]> ids = jdbcTemplate.queryForList(SELECT_ARCHIVABLE, byte[].class, Timestamp.from(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+        List<Object> copyArgs = new ArrayList<>(ids.size() + 1);
+        copyArgs.add(Timestamp.from(now));
+        copyArgs.addAll(ids);
+        jdbcTemplate.update(String.format(COPY_TO_ARCHIVE, placeholders), copyArgs.toArray());
+        jdbcTemplate.update(String.format(DELETE_ARCHIVED, placeholders), ids.toArray());
+        return ids.size();
+    }
+
+    /**
+     * Splits monthly partitions off {@code p_max} until one ends after {@code cutoff}, so every
+     * session archived in this run lands in its own month. Another instance adding the same
+     * partition first is not an error.
+     */
+    private void ensurePartitionsUntil(Instant cutoff) {
+        long upperBound = jdbcTemplate.queryForList(SELECT_PARTITION_BOUNDS, String.class).stream()
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElseThrow(() -> new IllegalStateException("parking_session_archive has no bounded partition"));
+
+        while (upperBound <= cutoff.getEpochSecond()) {
+            YearMonth month = YearMonth.from(Instant.ofEpochSecond(upperBound).atZone(ZoneOffset.UTC));
+            long nextBound = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+            String name = month.format(PARTITION_NAME);
+            try {
+                jdbcTemplate.execute(String.format(ADD_PARTITION, name, nextBound));
+                logger.info("Archive partition added: partition={}, lessThan={}", name, Instant.ofEpochSecond(nextBound));
+            } catch (DataAccessException e) {
+                logger.debug("Archive partition not added, assuming it already exists: partition={}", name, e);
+            }
+            upperBound = nextBound;
+        }
+    }
+}
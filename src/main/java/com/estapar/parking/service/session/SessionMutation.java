@@ -0,0 +1,55 @@
+package com.estapar.parking.service.session;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One committed change of the write-behind session store, as journaled and later flushed.
+ * {@code id} is the session id, or the spot id for {@code SPOT_OCCUPIED} and {@code SPOT_RELEASED};
+ * fields a type does not use are {@code null}.
+ */
+public record SessionMutation(
+        Type type,
+        UUID id,
+        UUID garageId,
+        String licensePlate,
+        UUID spotId,
+        UUID sectorId,
+        Instant entryTime,
+        Instant exitTime,
+        BigDecimal pricingMultiplier,
+        BigDecimal finalPrice) {
+
+    public enum Type {
+        OPENED,
+        PARKED,
+        CLOSED,
+        SPOT_OCCUPIED,
+        SPOT_RELEASED
+    }
+
+    public static SessionMutation opened(UUID sessionId, UUID garageId, String licensePlate,
+                                         Instant entryTime, BigDecimal pricingMultiplier) {
+        return new SessionMutation(Type.OPENED, sessionId, garageId, licensePlate, null, null,
+                entryTime, null, pricingMultiplier, null);
+    }
+
+    public static SessionMutation parked(UUID sessionId, UUID spotId) {
+        return new SessionMutation(Type.PARKED, sessionId, null, null, spotId, null, null, null, null, null);
+    }
+
+    public static SessionMutation closed(UUID sessionId, UUID garageId, UUID sectorId,
+                                         Instant entryTime, Instant exitTime, BigDecimal finalPrice) {
+        return new SessionMutation(Type.CLOSED, sessionId, garageId, null, null, sectorId,
+                entryTime, exitTime, null, finalPrice);
+    }
+
+    public static SessionMutation spotOccupied(UUID spotId) {
+        return new SessionMutation(Type.SPOT_OCCUPIED, spotId, null, null, null, null, null, null, null, null);
+    }
+
+    public static SessionMutation spotReleased(UUID spotId) {
+        return new SessionMutation(Type.SPOT_RELEASED, spotId, null, null, null, null, null, null, null, null);
+    }
+}
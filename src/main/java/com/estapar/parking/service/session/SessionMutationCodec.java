@@ -0,0 +1,95 @@
+package com.estapar.parking.service.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public final class SessionMutationCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final SessionMutation.Type[] TYPES = SessionMutation.Type.values();
+
+    private SessionMutationCodec() {
+    }
+
+    public static byte[] encode(SessionMutation mutation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(mutation.type().ordinal());
+            writeUuid(out, mutation.id());
+            writeUuid(out, mutation.garageId());
+            out.writeBoolean(mutation.licensePlate() != null);
+            if (mutation.licensePlate() != null) {
+                out.writeUTF(mutation.licensePlate());
+            }
+            writeUuid(out, mutation.spotId());
+            writeUuid(out, mutation.sectorId());
+            writeInstant(out, mutation.entryTime());
+            writeInstant(out, mutation.exitTime());
+            writeDecimal(out, mutation.pricingMultiplier());
+            writeDecimal(out, mutation.finalPrice());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SessionMutation decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported session mutation format version: " + version);
+            }
+            SessionMutation.Type type = TYPES[in.readByte()];
+            UUID id = readUuid(in);
+            UUID garageId = readUuid(in);
+            String licensePlate = in.readBoolean() ? in.readUTF() : null;
+            return new SessionMutation(type, id, garageId, licensePlate,
+                    readUuid(in), readUuid(in), readInstant(in), readInstant(in), readDecimal(in), readDecimal(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value.toPlainString());
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new BigDecimal(in.readUTF()) : null;
+    }
+}
@@ -0,0 +1,532 @@
+package com.estapar.parking.service.session;
+
+import com.estapar.parking.config.SessionStoreConfig;
+import com.estapar.parking.infrastructure.journal.LogRecord;
+import com.estapar.parking.infrastructure.journal.MappedSegmentLog;
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
+import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.service.RevenueRollupService;
+import com.estapar.parking.util.UuidUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind store for parking sessions and spot occupancy
+ * ({@code parking.session.store.mode=write-behind}).
+ * <p>
+ * Open sessions and occupied spots are held in memory. Changes made inside an event transaction
+ * are kept in a transaction-local overlay, so later events of the same transaction (a batch chunk)
+ * see them. Sessions are handed out as per-transaction copies, so a change to one that is rolled
+ * back leaves the shared state untouched. On commit the changes are appended to a local
+ * memory-mapped journal and applied to the in-memory state before the event is acknowledged, so
+ * the next event on the same plate reads its own writes. A background thread flushes the journal every {@code flush-interval-millis} into
+ * {@code parking_session} and {@code parking_spot} in JDBC batches, one database transaction per
+ * group of up to {@code max-batch-size} changes, and only then advances the journal checkpoint.
+ * Sector counts are already written behind by {@code SectorCapacityService}.
+ * <p>
+ * At startup the unflushed part of the journal is applied again (every statement is idempotent),
+ * then open sessions and occupied spots are loaded from the database. The in-memory state is owned
+ * by this instance, so the mode requires a single instance writing to the schema.
+ */
+@Component
+public class SessionWriteBehindStore implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionWriteBehindStore.class);
+
+    private static final String INSERT_SESSION =
+            "INSERT IGNORE INTO parking_session " +
+            "(id, garage_id, vehicle_license_plate, entry_time, pricing_multiplier, version, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?)";
+    private static final String UPDATE_SESSION_SPOT =
+            "UPDATE parking_session SET spot_id = ?, version = version + 1 WHERE id = ?";
+    private static final String CLOSE_SESSION =
+            "UPDATE parking_session SET exit_time = ?, final_price = ?, version = version + 1 " +
+            "WHERE id = ? AND exit_time IS NULL";
+    private static final String UPDATE_SPOT_OCCUPIED =
+            "UPDATE parking_spot SET is_occupied = ?, version = version + 1 WHERE id = ?";
+    private static final String SELECT_OPEN_SESSION_IDS =
+            "SELECT id FROM parking_session WHERE exit_time IS NULL AND id IN (%s)";
+    private static final String SELECT_OPEN_SESSIONS =
+            "SELECT ps.id, ps.garage_id, ps.vehicle_license_plate, ps.entry_time, ps.pricing_multiplier, " +
+            "ps.spot_id, pspot.sector_id, s.base_price " +
+            "FROM parking_session ps " +
+            "LEFT JOIN parking_spot pspot ON ps.spot_id = pspot.id " +
+            "LEFT JOIN sector s ON pspot.sector_id = s.id " +
+            "WHERE ps.exit_time IS NULL";
+    private static final String SELECT_OCCUPIED_SPOTS =
+            "SELECT id FROM parking_spot WHERE is_occupied = TRUE";
+
+    private final SessionStoreConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RevenueRollupService revenueRollupService;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<ActiveKey, ParkingSession> active = new ConcurrentHashMap<>();
+    private final Set<UUID> occupiedSpots = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private MappedSegmentLog log;
+    private volatile boolean running;
+    private Thread flusher;
+    private long flushedOffset;
+
+    @Autowired
+    public SessionWriteBehindStore(
+            SessionStoreConfig config,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            RevenueRollupService revenueRollupService,
+            MeterRegistry meterRegistry) {
+        this(config, new JdbcTemplate(dataSource), transactionManager, revenueRollupService, meterRegistry);
+    }
+
+    SessionWriteBehindStore(SessionStoreConfig config, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            RevenueRollupService revenueRollupService, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revenueRollupService = revenueRollupService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return config.isWriteBehind();
+    }
+
+    /**
+     * Returns the open session of the plate. The shared instance is never handed out: inside a
+     * transaction the caller gets the transaction's own copy, which it may change freely, since the
+     * change only reaches the shared state through {@link #park} or {@link #close} and a commit.
+     */
+    public Optional<ParkingSession> findActive(UUID garageId, String licensePlate) {
+        ActiveKey key = new ActiveKey(garageId, licensePlate);
+        Overlay overlay = currentOverlay();
+        if (overlay != null && overlay.sessions.containsKey(key)) {
+            return Optional.ofNullable(overlay.sessions.get(key));
+        }
+        if (overlay != null && overlay.copies.containsKey(key)) {
+            return Optional.of(overlay.copies.get(key));
+        }
+        ParkingSession shared = active.get(key);
+        if (shared == null) {
+            return Optional.empty();
+        }
+        ParkingSession copy = copyOf(shared);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            requireOverlay().copies.put(key, copy);
+        }
+        return Optional.of(copy);
+    }
+
+    public boolean isSpotOccupied(UUID spotId) {
+        Overlay overlay = currentOverlay();
+        if (overlay != null && overlay.spots.containsKey(spotId)) {
+            return overlay.spots.get(spotId);
+        }
+        return occupiedSpots.contains(spotId);
+    }
+
+    public void open(ParkingSession session) {
+        if (session.getId() == null) {
+            session.setId(UuidUtils.timeOrdered());
+        }
+        if (session.getCreatedAt() == null) {
+            session.setCreatedAt(Instant.now());
+        }
+        Overlay overlay = requireOverlay();
+        overlay.sessions.put(keyOf(session), session);
+        overlay.mutations.add(SessionMutation.opened(session.getId(), session.getGarage().getId(),
+                session.getVehicleLicensePlate(), session.getEntryTime(), session.getPricingMultiplier()));
+    }
+
+    public void park(ParkingSession session) {
+        Overlay overlay = requireOverlay();
+        overlay.sessions.put(keyOf(session), session);
+        overlay.mutations.add(SessionMutation.parked(session.getId(), session.getSpot().getId()));
+    }
+
+    public void close(ParkingSession session) {
+        Overlay overlay = requireOverlay();
+        overlay.sessions.put(keyOf(session), null);
+        UUID sectorId = session.getSpot() != null ? session.getSpot().getSector().getId() : null;
+        overlay.mutations.add(SessionMutation.closed(session.getId(), session.getGarage().getId(), sectorId,
+                session.getEntryTime(), session.getExitTime(), session.getFinalPrice()));
+    }
+
+    public void occupySpot(UUID spotId) {
+        Overlay overlay = requireOverlay();
+        overlay.spots.put(spotId, true);
+        overlay.mutations.add(SessionMutation.spotOccupied(spotId));
+    }
+
+    public void releaseSpot(UUID spotId) {
+        Overlay overlay = requireOverlay();
+        overlay.spots.put(spotId, false);
+        overlay.mutations.add(SessionMutation.spotReleased(spotId));
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            log = new MappedSegmentLog(Path.of(config.getDirectory()), config.getSegmentSizeBytes(), config.isFsync());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open session journal in " + config.getDirectory(), e);
+        }
+        flushedOffset = log.committedOffset();
+        int replayed = flush();
+        load();
+        Gauge.builder("parking.session.store.backlog.bytes", log, l -> l.endOffset() - l.committedOffset())
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::flushContinuously, "session-write-behind");
+        flusher.start();
+        logger.info("Write-behind session store started: openSessions={}, occupiedSpots={}, replayed={}",
+                active.size(), occupiedSpots.size(), replayed);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Session journal close failed", e);
+        }
+        logger.info("Write-behind session store stopped: flushedOffset={}", flushedOffset);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server accepts requests and stops after it, so no event is handled
+     * against an unloaded store and the last changes are flushed on shutdown.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Whether every journaled change has been written to the database.
+     */
+    public boolean isFlushed() {
+        return log.committedOffset() >= log.endOffset();
+    }
+
+    /**
+     * Writes every journaled change not yet in the database, in groups of {@code max-batch-size}.
+     * A failed group is left in the journal and retried by the next flush.
+     *
+     * @return the number of changes written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int flushed = 0;
+            while (true) {
+                List<LogRecord> records = log.read(flushedOffset, config.getMaxBatchSize(), 0);
+                if (records.isEmpty()) {
+                    return flushed;
+                }
+                List<SessionMutation> mutations = new ArrayList<>(records.size());
+                for (LogRecord record : records) {
+                    mutations.add(SessionMutationCodec.decode(record.payload()));
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(mutations));
+                } catch (RuntimeException e) {
+                    flushCounter("failed").increment();
+                    logger.warn("Session flush failed, retrying next interval: changes={}", mutations.size(), e);
+                    return flushed;
+                }
+                flushedOffset = records.get(records.size() - 1).nextOffset();
+                log.commit(flushedOffset);
+                flushCounter("success").increment();
+                flushed += mutations.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    int openSessionCount() {
+        return active.size();
+    }
+
+    private void flushContinuously() {
+        while (running) {
+            try {
+                Thread.sleep(config.getFlushIntervalMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Applies one group in a single transaction. Sessions are inserted, parked and closed in that
+     * order, which is also their order within the group; spots get the last state the group gives
+     * them. Revenue is only added for sessions this group actually closes, so replaying a group that
+     * was already written does not count it twice.
+     */
+    private void apply(List<SessionMutation> mutations) {
+        List<Object[]> opened = new ArrayList<>();
+        List<Object[]> parked = new ArrayList<>();
+        List<SessionMutation> closed = new ArrayList<>();
+        Map<UUID, Boolean> spots = new LinkedHashMap<>();
+
+        for (SessionMutation mutation : mutations) {
+            switch (mutation.type()) {
+                case OPENED -> opened.add(new Object[]{
+                        UuidUtils.toBytes(mutation.id()), UuidUtils.toBytes(mutation.garageId()),
+                        mutation.licensePlate(), Timestamp.from(mutation.entryTime()),
+                        mutation.pricingMultiplier(), Timestamp.from(Instant.now())});
+                case PARKED -> parked.add(new Object[]{
+                        UuidUtils.toBytes(mutation.spotId()), UuidUtils.toBytes(mutation.id())});
+                case CLOSED -> closed.add(mutation);
+                case SPOT_OCCUPIED -> spots.put(mutation.id(), true);
+                case SPOT_RELEASED -> spots.put(mutation.id(), false);
+            }
+        }
+
+        if (!opened.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SESSION, opened);
+        }
+        if (!parked.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SESSION_SPOT, parked);
+        }
+        if (!closed.isEmpty()) {
+            Set<UUID> stillOpen = findOpen(closed);
+            List<Object[]> rows = new ArrayList<>(stillOpen.size());
+            for (SessionMutation mutation : closed) {
+                if (!stillOpen.contains(mutation.id())) {
+                    continue;
+                }
+                rows.add(new Object[]{Timestamp.from(mutation.exitTime()), mutation.finalPrice(),
+                        UuidUtils.toBytes(mutation.id())});
+                if (mutation.sectorId() != null && mutation.finalPrice() != null) {
+                    revenueRollupService.addSession(mutation.garageId(), mutation.sectorId(),
+                            mutation.entryTime(), mutation.finalPrice());
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(CLOSE_SESSION, rows);
+            }
+        }
+        if (!spots.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(spots.size());
+            spots.forEach((spotId, occupied) -> rows.add(new Object[]{occupied, UuidUtils.toBytes(spotId)}));
+            jdbcTemplate.batchUpdate(UPDATE_SPOT_OCCUPIED, rows);
+        }
+    }
+
+    private Set<UUID> findOpen(List<SessionMutation> closed) {
+        String placeholders = String.join(", ", Collections.nCopies(closed.size(), "?"));
+        Object[] ids = closed.stream().map(mutation -> UuidUtils.toBytes(mutation.id())).toArray();
+        return new HashSet<>(jdbcTemplate.query(SELECT_OPEN_SESSION_IDS.formatted(placeholders),
+                (rs, rowNum) -> UuidUtils.fromBytes(rs.getBytes(1)), ids));
+    }
+
+    private void load() {
+        Map<UUID, Garage> garages = new HashMap<>();
+        Map<UUID, Sector> sectors = new HashMap<>();
+        jdbcTemplate.query(SELECT_OPEN_SESSIONS, rs -> {
+            ParkingSession session = toSession(rs, garages, sectors);
+            active.put(keyOf(session), session);
+        });
+        jdbcTemplate.query(SELECT_OCCUPIED_SPOTS, rs -> {
+            occupiedSpots.add(UuidUtils.fromBytes(rs.getBytes(1)));
+        });
+    }
+
+    private static ParkingSession toSession(ResultSet rs, Map<UUID, Garage> garages, Map<UUID, Sector> sectors)
+            throws SQLException {
+        ParkingSession session = new ParkingSession();
+        session.setId(UuidUtils.fromBytes(rs.getBytes("id")));
+        session.setGarage(garages.computeIfAbsent(UuidUtils.fromBytes(rs.getBytes("garage_id")), id -> {
+            Garage garage = new Garage();
+            garage.setId(id);
+            return garage;
+        }));
+        session.setVehicleLicensePlate(rs.getString("vehicle_license_plate"));
+        session.setEntryTime(rs.getTimestamp("entry_time").toInstant());
+        session.setPricingMultiplier(rs.getBigDecimal("pricing_multiplier"));
+
+        byte[] spotId = rs.getBytes("spot_id");
+        byte[] sectorId = rs.getBytes("sector_id");
+        if (spotId != null && sectorId != null) {
+            Sector sector = sectors.computeIfAbsent(UuidUtils.fromBytes(sectorId), id -> new Sector());
+            sector.setId(UuidUtils.fromBytes(sectorId));
+            sector.setBasePrice(rs.getBigDecimal("base_price"));
+
+            ParkingSpot spot = new ParkingSpot();
+            spot.setId(UuidUtils.fromBytes(spotId));
+            spot.setSector(sector);
+            spot.setIsOccupied(true);
+            session.setSpot(spot);
+        }
+        return session;
+    }
+
+    private Overlay currentOverlay() {
+        return (Overlay) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Returns the overlay of the current transaction, creating it on first use. On commit its
+     * changes are journaled and then applied to the shared state; on rollback they are dropped.
+     */
+    private Overlay requireOverlay() {
+        Overlay overlay = currentOverlay();
+        if (overlay != null) {
+            return overlay;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Write-behind session changes require an active transaction");
+        }
+        Overlay created = new Overlay();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            /**
+             * Journals the commit before the occupancy ledger, ordered last, lets a reconcile count it.
+             */
+            @Override
+            public int getOrder() {
+                return LOWEST_PRECEDENCE - 1;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SessionWriteBehindStore.this);
+                if (status == STATUS_COMMITTED) {
+                    publish(created);
+                }
+            }
+        });
+        return created;
+    }
+
+    private void publish(Overlay overlay) {
+        for (SessionMutation mutation : overlay.mutations) {
+            log.append(SessionMutationCodec.encode(mutation));
+        }
+        overlay.sessions.forEach((key, session) -> {
+            if (session == null) {
+                active.remove(key);
+            } else {
+                active.put(key, copyOf(session));
+            }
+        });
+        overlay.spots.forEach((spotId, occupied) -> {
+            if (occupied) {
+                occupiedSpots.add(spotId);
+            } else {
+                occupiedSpots.remove(spotId);
+            }
+        });
+    }
+
+    /**
+     * Copies the session's own fields. Garage and spot are shared: write-behind mode never changes
+     * them through a session, spot occupancy is tracked by id.
+     */
+    private static ParkingSession copyOf(ParkingSession session) {
+        ParkingSession copy = new ParkingSession();
+        copy.setId(session.getId());
+        copy.setGarage(session.getGarage());
+        copy.setSpot(session.getSpot());
+        copy.setVehicleLicensePlate(session.getVehicleLicensePlate());
+        copy.setEntryTime(session.getEntryTime());
+        copy.setExitTime(session.getExitTime());
+        copy.setPricingMultiplier(session.getPricingMultiplier());
+        copy.setFinalPrice(session.getFinalPrice());
+        copy.setVersion(session.getVersion());
+        copy.setCreatedAt(session.getCreatedAt());
+        return copy;
+    }
+
+    private Counter flushCounter(String outcome) {
+        return Counter.builder("parking.session.store.flushes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ActiveKey keyOf(ParkingSession session) {
+        return new ActiveKey(session.getGarage().getId(), session.getVehicleLicensePlate());
+    }
+
+    private record ActiveKey(UUID garageId, String licensePlate) {
+    }
+
+    /**
+     * Changes of one transaction. A {@code null} session marks a plate whose session was closed.
+     * {@code copies} holds the sessions the transaction read, which are dropped with it unless
+     * also written.
+     */
+    private static final class Overlay {
+
+        private final Map<ActiveKey, ParkingSession> sessions = new HashMap<>();
+        private final Map<ActiveKey, ParkingSession> copies = new HashMap<>();
+        private final Map<UUID, Boolean> spots = new HashMap<>();
+        private final List<SessionMutation> mutations = new ArrayList<>();
+    }
+}
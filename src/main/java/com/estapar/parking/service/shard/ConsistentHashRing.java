@@ -0,0 +1,64 @@
+package com.estapar.parking.service.shard;
+
+import com.estapar.parking.util.UuidUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable consistent-hash ring assigning garages to shard members. Each member is placed at
+ * {@code virtualNodes} points on the ring and a garage belongs to the first point at or after its
+ * own hash, so adding or removing a member only moves the garages between it and its neighbours.
+ * Every instance builds the same ring from the same membership, so they agree on owners without
+ * talking to each other.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, ShardMember> points = new TreeMap<>();
+    private final Set<String> memberIds;
+
+    public ConsistentHashRing(Collection<ShardMember> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Shard virtual-nodes must be positive");
+        }
+        for (ShardMember member : members) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.putIfAbsent(hash((member.id() + "#" + node).getBytes(StandardCharsets.UTF_8)), member);
+            }
+        }
+        this.memberIds = members.stream().map(ShardMember::id).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Returns the owner of the garage, or empty when the ring has no members.
+     */
+    public Optional<ShardMember> owner(UUID garageId) {
+        if (points.isEmpty()) {
+            return Optional.empty();
+        }
+        Map.Entry<Long, ShardMember> point = points.ceilingEntry(hash(UuidUtils.toBytes(garageId)));
+        return Optional.of(point != null ? point.getValue() : points.firstEntry().getValue());
+    }
+
+    public Set<String> getMemberIds() {
+        return memberIds;
+    }
+
+    private static long hash(byte[] key) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(key)).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.estapar.parking.service.shard;
+
+import com.estapar.parking.config.SessionStoreConfig;
+import com.estapar.parking.config.ShardConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides which instance owns each garage in a sharded deployment ({@code parking.shard.enabled}).
+ * Members come from {@code parking.shard.members} or, when set, from {@code membership-file}, a
+ * properties file of {@code instance-id=base-url} lines that is re-read when it changes. When
+ * sharding is off, or the membership is empty, every garage is local.
+ * <p>
+ * Each instance reads the membership on its own, so ownership is only eventually consistent: until
+ * every instance has picked up a change, two of them can both consider a garage theirs and process
+ * its events, and counters of a garage that moved may be off until the next reconciliation. The
+ * write-behind session store keeps state that only one instance may hold, so it cannot be combined
+ * with sharding.
+ */
+@Component
+public class GarageShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageShardRouter.class);
+
+    private final ShardConfig config;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile ConsistentHashRing ring;
+    private long membershipFileModified = -1;
+
+    @Autowired
+    public GarageShardRouter(
+            ShardConfig config,
+            SessionStoreConfig sessionStoreConfig,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this(config, eventPublisher, meterRegistry);
+        if (config.isEnabled() && sessionStoreConfig.isWriteBehind()) {
+            throw new IllegalStateException(
+                    "parking.shard.enabled cannot be combined with parking.session.store.mode=write-behind");
+        }
+    }
+
+    public GarageShardRouter(ShardConfig config, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.eventPublisher = eventPublisher;
+        this.ring = new ConsistentHashRing(List.of(), Math.max(1, config.getVirtualNodes()));
+        if (config.isEnabled()) {
+            if (config.getInstanceId().isBlank()) {
+                throw new IllegalStateException("parking.shard.instance-id must be set when sharding is enabled");
+            }
+            this.ring = new ConsistentHashRing(readMembers(), config.getVirtualNodes());
+            if (!ring.getMemberIds().contains(config.getInstanceId())) {
+                logger.warn("Shard instance is not a member, every garage will be routed elsewhere: instanceId={}, members={}",
+                        config.getInstanceId(), ring.getMemberIds());
+            }
+            logger.info("Shard membership loaded: instanceId={}, members={}", config.getInstanceId(), ring.getMemberIds());
+        }
+        Gauge.builder("parking.shard.members", this, router -> router.ring.getMemberIds().size())
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public String getInstanceId() {
+        return config.getInstanceId();
+    }
+
+    public boolean isLocal(UUID garageId) {
+        return ownerOf(garageId).isEmpty();
+    }
+
+    /**
+     * Returns the member owning the garage, or empty when this instance owns it.
+     */
+    public Optional<ShardMember> ownerOf(UUID garageId) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        return ring.owner(garageId).filter(owner -> !owner.id().equals(config.getInstanceId()));
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.shard.refresh-interval-millis:5000}",
+            fixedDelayString = "${parking.shard.refresh-interval-millis:5000}")
+    public void refresh() {
+        if (!config.isEnabled() || config.getMembershipFile().isBlank() || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(Path.of(config.getMembershipFile())).toMillis() == membershipFileModified) {
+                return;
+            }
+            ConsistentHashRing updated = new ConsistentHashRing(readMembers(), config.getVirtualNodes());
+            if (updated.getMemberIds().equals(ring.getMemberIds())) {
+                return;
+            }
+            ring = updated;
+            logger.info("Shard membership changed: instanceId={}, members={}", config.getInstanceId(), updated.getMemberIds());
+            eventPublisher.publishEvent(new ShardMembershipChangedEvent(updated.getMemberIds()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Shard membership file not reloaded, keeping current members: file={}",
+                    config.getMembershipFile(), e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private List<ShardMember> readMembers() {
+        Map<String, String> members = config.getMembers();
+        if (!config.getMembershipFile().isBlank()) {
+            members = readMembershipFile(Path.of(config.getMembershipFile()));
+        }
+        List<ShardMember> result = new ArrayList<>(members.size());
+        members.forEach((id, baseUrl) -> result.add(new ShardMember(id, URI.create(baseUrl.strip()))));
+        return result;
+    }
+
+    private Map<String, String> readMembershipFile(Path file) {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            membershipFileModified = Files.getLastModifiedTime(file).toMillis();
+            Properties properties = new Properties();
+            properties.load(reader);
+            Map<String, String> members = new LinkedHashMap<>();
+            properties.stringPropertyNames().stream()
+                    .sorted()
+                    .forEach(id -> members.put(id, properties.getProperty(id)));
+            return members;
+        } catch (IOException e) {
+            throw new IllegalStateException("Shard membership file could not be read: " + file, e);
+        }
+    }
+}
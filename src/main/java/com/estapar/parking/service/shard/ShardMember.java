@@ -0,0 +1,10 @@
+package com.estapar.parking.service.shard;
+
+import java.net.URI;
+
+/**
+ * One instance of a sharded deployment: its {@code parking.shard.instance-id} and the base URL
+ * other instances forward or redirect its garages' requests to.
+ */
+public record ShardMember(String id, URI baseUrl) {
+}
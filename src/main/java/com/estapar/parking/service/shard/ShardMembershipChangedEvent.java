@@ -0,0 +1,10 @@
+package com.estapar.parking.service.shard;
+
+import java.util.Set;
+
+/**
+ * Published when the shard membership is replaced. Per-garage caches drop the garages this instance
+ * no longer owns and load the ones it gained on first use.
+ */
+public record ShardMembershipChangedEvent(Set<String> memberIds) {
+}
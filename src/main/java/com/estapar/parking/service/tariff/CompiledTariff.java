@@ -0,0 +1,234 @@
+package com.estapar.parking.service.tariff;
+
+import com.estapar.parking.infrastructure.persistence.entity.TariffBand;
+import com.estapar.parking.infrastructure.persistence.entity.TariffPlan;
+import com.estapar.parking.util.FixedPointMoney;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One {@link TariffPlan} compiled into flat arrays of minor units and minutes of the local day.
+ * Every started hour after the free period is charged at the rate of the band its start falls
+ * in, or at the sector base price outside all bands, after applying the pricing multiplier.
+ * Hours starting inside the overnight window are replaced by one flat rate per night, and the
+ * hourly charges of one local day never exceed the daily cap. Flat rates and caps are absolute
+ * amounts and are not multiplied.
+ */
+final class CompiledTariff {
+
+    static final long NONE = -1;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 60 * 60;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final UUID planId;
+    private final FixedPointMoney fixedPointMoney;
+    private final ZoneRules zoneRules;
+    private final int fixedOffsetSeconds;
+    private final long freeMinutes;
+    private final int[] bandStarts;
+    private final int[] bandEnds;
+    private final long[] bandRates;
+    private final long dailyCap;
+    private final int overnightStart;
+    private final int overnightEnd;
+    private final long overnightFlatRate;
+
+    private CompiledTariff(UUID planId, FixedPointMoney fixedPointMoney, ZoneRules zoneRules, long freeMinutes,
+                           List<Segment> bands, long dailyCap, int overnightStart, int overnightEnd,
+                           long overnightFlatRate) {
+        this.planId = planId;
+        this.fixedPointMoney = fixedPointMoney;
+        this.zoneRules = zoneRules;
+        this.fixedOffsetSeconds = zoneRules.isFixedOffset()
+                ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds()
+                : 0;
+        this.freeMinutes = freeMinutes;
+        this.bandStarts = new int[bands.size()];
+        this.bandEnds = new int[bands.size()];
+        this.bandRates = new long[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            bandStarts[i] = bands.get(i).start();
+            bandEnds[i] = bands.get(i).end();
+            bandRates[i] = bands.get(i).rate();
+        }
+        this.dailyCap = dailyCap;
+        this.overnightStart = overnightStart;
+        this.overnightEnd = overnightEnd;
+        this.overnightFlatRate = overnightFlatRate;
+    }
+
+    /**
+     * Validates and compiles a plan. Rejects overlapping bands, negative amounts and a partially
+     * configured overnight window with {@link IllegalStateException}.
+     */
+    static CompiledTariff compile(TariffPlan plan, int defaultFreeMinutes,
+                                  FixedPointMoney fixedPointMoney, ZoneRules zoneRules) {
+        int freeMinutes = plan.getFreeMinutes() != null ? plan.getFreeMinutes() : defaultFreeMinutes;
+        if (freeMinutes < 0) {
+            throw invalid(plan, "free minutes must not be negative");
+        }
+
+        List<Segment> bands = new ArrayList<>();
+        for (TariffBand band : plan.getBands() != null ? plan.getBands() : List.<TariffBand>of()) {
+            int start = minuteOfDay(band.getStartTime());
+            int end = minuteOfDay(band.getEndTime());
+            long rate = amount(plan, band.getHourlyRate(), fixedPointMoney, "band hourly rate");
+            if (end > start) {
+                bands.add(new Segment(start, end, rate));
+            } else {
+                bands.add(new Segment(start, MINUTES_PER_DAY, rate));
+                if (end > 0) {
+                    bands.add(new Segment(0, end, rate));
+                }
+            }
+        }
+        bands.sort(Comparator.comparingInt(Segment::start));
+        for (int i = 1; i < bands.size(); i++) {
+            if (bands.get(i).start() < bands.get(i - 1).end()) {
+                throw invalid(plan, String.format("bands overlap at %s",
+                        LocalTime.ofSecondOfDay((long) bands.get(i).start() * SECONDS_PER_MINUTE)));
+            }
+        }
+
+        long dailyCap = plan.getDailyCap() == null
+                ? NONE
+                : amount(plan, plan.getDailyCap(), fixedPointMoney, "daily cap");
+
+        int overnightStart = (int) NONE;
+        int overnightEnd = (int) NONE;
+        long overnightFlatRate = NONE;
+        boolean hasStart = plan.getOvernightStart() != null;
+        boolean hasEnd = plan.getOvernightEnd() != null;
+        boolean hasRate = plan.getOvernightFlatRate() != null;
+        if (hasStart || hasEnd || hasRate) {
+            if (!(hasStart && hasEnd && hasRate)) {
+                throw invalid(plan, "overnight start, end and flat rate must be set together");
+            }
+            overnightStart = minuteOfDay(plan.getOvernightStart());
+            overnightEnd = minuteOfDay(plan.getOvernightEnd());
+            if (overnightStart == overnightEnd) {
+                throw invalid(plan, "overnight window is empty");
+            }
+            overnightFlatRate = amount(plan, plan.getOvernightFlatRate(), fixedPointMoney, "overnight flat rate");
+        }
+
+        return new CompiledTariff(plan.getId(), fixedPointMoney, zoneRules, freeMinutes, bands,
+                dailyCap, overnightStart, overnightEnd, overnightFlatRate);
+    }
+
+    UUID getPlanId() {
+        return planId;
+    }
+
+    /**
+     * Fee in minor units for a stay of {@code stayMinutes} whole minutes starting at
+     * {@code entryTime}, with the sector base price and pricing multiplier of the session.
+     */
+    long feeMinorUnits(Instant entryTime, long stayMinutes, long basePriceMinorUnits, int multiplierBasisPoints) {
+        if (stayMinutes <= freeMinutes) {
+            return 0;
+        }
+        long hours = FixedPointMoney.divide(stayMinutes, MINUTES_PER_HOUR, RoundingMode.CEILING);
+        long effectiveBasePrice = fixedPointMoney.applyMultiplier(basePriceMinorUnits, multiplierBasisPoints);
+
+        long fee = 0;
+        long dayFee = 0;
+        long currentDay = Long.MIN_VALUE;
+        long chargedNight = Long.MIN_VALUE;
+        long hourStart = entryTime.getEpochSecond();
+        for (long hour = 0; hour < hours; hour++, hourStart += SECONDS_PER_HOUR) {
+            long local = hourStart + offsetSeconds(hourStart);
+            long day = Math.floorDiv(local, SECONDS_PER_DAY);
+            int minute = (int) (Math.floorMod(local, SECONDS_PER_DAY) / SECONDS_PER_MINUTE);
+
+            if (isOvernight(minute)) {
+                long night = overnightStart > overnightEnd && minute < overnightEnd ? day - 1 : day;
+                if (night != chargedNight) {
+                    fee = Math.addExact(fee, overnightFlatRate);
+                    chargedNight = night;
+                }
+                continue;
+            }
+            if (day != currentDay) {
+                fee = Math.addExact(fee, capped(dayFee));
+                dayFee = 0;
+                currentDay = day;
+            }
+            int band = bandAt(minute);
+            dayFee = Math.addExact(dayFee, band < 0
+                    ? effectiveBasePrice
+                    : fixedPointMoney.applyMultiplier(bandRates[band], multiplierBasisPoints));
+        }
+        return Math.addExact(fee, capped(dayFee));
+    }
+
+    private int offsetSeconds(long epochSecond) {
+        if (zoneRules.isFixedOffset()) {
+            return fixedOffsetSeconds;
+        }
+        return zoneRules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    private boolean isOvernight(int minute) {
+        if (overnightFlatRate == NONE) {
+            return false;
+        }
+        return overnightStart < overnightEnd
+                ? minute >= overnightStart && minute < overnightEnd
+                : minute >= overnightStart || minute < overnightEnd;
+    }
+
+    private int bandAt(int minute) {
+        int low = 0;
+        int high = bandStarts.length - 1;
+        int floor = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (bandStarts[mid] <= minute) {
+                floor = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return floor >= 0 && minute < bandEnds[floor] ? floor : -1;
+    }
+
+    private long capped(long dayFee) {
+        return dailyCap == NONE ? dayFee : Math.min(dayFee, dailyCap);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * MINUTES_PER_HOUR + time.getMinute();
+    }
+
+    private static long amount(TariffPlan plan, BigDecimal value, FixedPointMoney fixedPointMoney, String name) {
+        if (value.signum() < 0) {
+            throw invalid(plan, name + " must not be negative");
+        }
+        try {
+            return fixedPointMoney.toMinorUnits(value);
+        } catch (ArithmeticException e) {
+            throw invalid(plan, name + " " + value + " does not fit the currency scale");
+        }
+    }
+
+    private static IllegalStateException invalid(TariffPlan plan, String reason) {
+        return new IllegalStateException(String.format("Tariff plan %s is invalid: %s", plan.getId(), reason));
+    }
+
+    private record Segment(int start, int end, long rate) {
+    }
+}
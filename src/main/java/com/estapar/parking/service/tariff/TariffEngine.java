@@ -0,0 +1,192 @@
+package com.estapar.parking.service.tariff;
+
+import com.estapar.parking.infrastructure.persistence.entity.TariffPlan;
+import com.estapar.parking.infrastructure.persistence.repository.TariffPlanRepository;
+import com.estapar.parking.infrastructure.persistence.repository.TariffPlanRepository.TariffVersion;
+import com.estapar.parking.service.ParkingFeeCalculator;
+import com.estapar.parking.util.FixedPointMoney;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Calculates EXIT fees from the active tariff plans, compiled once per refresh into
+ * {@link CompiledTariff}s keyed by sector. Sectors without a plan keep the default
+ * {@link ParkingFeeCalculator} rule. Evaluating a fee never touches the database.
+ */
+@Service
+public class TariffEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(TariffEngine.class);
+
+    private final TariffPlanRepository repository;
+    private final ParkingFeeCalculator feeCalculator;
+    private final FixedPointMoney fixedPointMoney;
+    private final MeterRegistry meterRegistry;
+    private final int defaultFreeMinutes;
+    private final ZoneRules zoneRules;
+    private final Counter compiledEvaluations;
+    private final Counter defaultEvaluations;
+    private final Counter fallbackEvaluations;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile LoadedTariffs loaded;
+
+    public TariffEngine(
+            TariffPlanRepository repository,
+            ParkingFeeCalculator feeCalculator,
+            FixedPointMoney fixedPointMoney,
+            MeterRegistry meterRegistry,
+            @Value("${parking.fee.free-minutes:30}") int defaultFreeMinutes,
+            @Value("${parking.application.timezone:America/Sao_Paulo}") String applicationTimezone) {
+        this.repository = repository;
+        this.feeCalculator = feeCalculator;
+        this.fixedPointMoney = fixedPointMoney;
+        this.meterRegistry = meterRegistry;
+        this.defaultFreeMinutes = defaultFreeMinutes;
+        this.zoneRules = ZoneId.of(applicationTimezone).getRules();
+        this.compiledEvaluations = Counter.builder("parking.tariff.evaluations").tag("tariff", "compiled").register(meterRegistry);
+        this.defaultEvaluations = Counter.builder("parking.tariff.evaluations").tag("tariff", "default").register(meterRegistry);
+        this.fallbackEvaluations = Counter.builder("parking.tariff.evaluations").tag("tariff", "fallback").register(meterRegistry);
+    }
+
+    /**
+     * Falls back to the default {@link ParkingFeeCalculator} rule when no tariffs could be loaded
+     * or when an amount does not fit the fixed-point arithmetic of the compiled tariff.
+     */
+    public BigDecimal calculateFee(UUID sectorId, Instant entryTime, Instant exitTime,
+                                   BigDecimal basePrice, BigDecimal multiplier) {
+        LoadedTariffs current = loaded();
+        CompiledTariff tariff = current != null && sectorId != null ? current.bySector().get(sectorId) : null;
+        if (tariff == null || basePrice == null) {
+            (current != null ? defaultEvaluations : fallbackEvaluations).increment();
+            return feeCalculator.calculateFee(entryTime, exitTime, basePrice, multiplier);
+        }
+
+        try {
+            long fee = tariff.feeMinorUnits(
+                    entryTime,
+                    feeCalculator.stayMinutes(entryTime, exitTime),
+                    fixedPointMoney.toMinorUnits(basePrice),
+                    fixedPointMoney.toBasisPoints(multiplier));
+            compiledEvaluations.increment();
+            return fixedPointMoney.toAmount(fee);
+        } catch (ArithmeticException e) {
+            fallbackEvaluations.increment();
+            logger.warn("Compiled tariff overflowed, using default rule: sectorId={}, planId={}, basePrice={}, multiplier={}",
+                    sectorId, tariff.getPlanId(), basePrice, multiplier, e);
+            return feeCalculator.calculateFee(entryTime, exitTime, basePrice, multiplier);
+        }
+    }
+
+    /**
+     * Returns the loaded tariffs, loading them on first use, or {@code null} if the active plans are
+     * invalid, in which case the next call and the scheduled refresh try again.
+     */
+    private LoadedTariffs loaded() {
+        LoadedTariffs current = loaded;
+        if (current != null) {
+            return current;
+        }
+        try {
+            refresh();
+        } catch (IllegalStateException e) {
+            logger.warn("Tariff plans not loaded, using default rule: {}", e.getMessage());
+        }
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * Recompiles the active plans and swaps them in one step. An invalid plan, or two active plans
+     * for the same sector, rejects the whole refresh and the previous tariffs stay in use.
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            TariffVersion planVersion = repository.findVersion();
+            TariffVersion bandVersion = repository.findBandVersion();
+            Map<UUID, CompiledTariff> bySector;
+            try {
+                bySector = compile(repository.findActiveWithBands());
+            } catch (IllegalStateException e) {
+                refreshCounter("rejected").increment();
+                logger.error("Tariff plans rejected, keeping previous tariffs: {}", e.getMessage());
+                throw e;
+            }
+            loaded = new LoadedTariffs(Map.copyOf(bySector), Version.of(planVersion), Version.of(bandVersion));
+            refreshCounter("success").increment();
+            logger.info("Tariff plans compiled: sectors={}", bySector.size());
+            return bySector.size();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${parking.tariff.refresh-interval-millis:30000}",
+            fixedDelayString = "${parking.tariff.refresh-interval-millis:30000}")
+    public void refreshIfChanged() {
+        LoadedTariffs current = loaded;
+        if (current != null && current.planVersion().equals(Version.of(repository.findVersion()))
+                && current.bandVersion().equals(Version.of(repository.findBandVersion()))) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (IllegalStateException e) {
+            // Already logged and counted; the previous tariffs keep serving fees
+        }
+    }
+
+    private Map<UUID, CompiledTariff> compile(List<TariffPlan> activePlans) {
+        Map<UUID, CompiledTariff> bySector = new HashMap<>();
+        for (TariffPlan plan : activePlans) {
+            CompiledTariff tariff = CompiledTariff.compile(plan, defaultFreeMinutes, fixedPointMoney, zoneRules);
+            CompiledTariff previous = bySector.put(plan.getSector().getId(), tariff);
+            if (previous != null) {
+                throw new IllegalStateException(String.format(
+                        "Sector %s has more than one active tariff plan: %s, %s",
+                        plan.getSector().getId(), previous.getPlanId(), plan.getId()));
+            }
+        }
+        return bySector;
+    }
+
+    private Counter refreshCounter(String outcome) {
+        return Counter.builder("parking.tariff.refreshes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Version(long count, Instant lastModified) {
+
+        static Version of(TariffVersion version) {
+            return new Version(version.getCount(), version.getLastModified());
+        }
+    }
+
+    private record LoadedTariffs(Map<UUID, CompiledTariff> bySector, Version planVersion, Version bandVersion) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.estapar.parking.service.topology;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable layout of one garage: capacity, sectors by code and id, and spots by id and
+ * coordinates. Read on the event and revenue paths without touching the database; a layout change
+ * builds a new instance instead of modifying this one.
+ */
+public final class GarageTopology {
+
+    public static final int COORDINATE_SCALE = 8;
+
+    private final UUID id;
+    private final boolean isDefault;
+    private final int maxCapacity;
+    private final List<SectorTopology> sectors;
+    private final Map<String, SectorTopology> sectorsByCode = new HashMap<>();
+    private final Map<UUID, SectorTopology> sectorsById = new HashMap<>();
+    private final Map<UUID, SpotTopology> spotsById = new HashMap<>();
+    private final SpotGrid spotGrid = new SpotGrid();
+
+    public GarageTopology(UUID id, boolean isDefault, int maxCapacity,
+                          Collection<SectorTopology> sectors, Collection<SpotTopology> spots) {
+        this.id = id;
+        this.isDefault = isDefault;
+        this.maxCapacity = maxCapacity;
+        this.sectors = List.copyOf(sectors);
+        for (SectorTopology sector : sectors) {
+            sectorsByCode.put(sector.sectorCode(), sector);
+            sectorsById.put(sector.id(), sector);
+        }
+        for (SpotTopology spot : spots) {
+            spotsById.put(spot.id(), spot);
+            spotGrid.add(spot, toCoordinateUnits(spot.latitude()), toCoordinateUnits(spot.longitude()));
+        }
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public boolean isDefault() {
+        return isDefault;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public List<SectorTopology> getSectors() {
+        return sectors;
+    }
+
+    public int getSpotCount() {
+        return spotsById.size();
+    }
+
+    public Optional<SectorTopology> findSector(String sectorCode) {
+        return Optional.ofNullable(sectorsByCode.get(sectorCode));
+    }
+
+    public Optional<SectorTopology> findSector(UUID sectorId) {
+        return Optional.ofNullable(sectorsById.get(sectorId));
+    }
+
+    public Optional<SpotTopology> findSpot(UUID spotId) {
+        return Optional.ofNullable(spotsById.get(spotId));
+    }
+
+    public Optional<SpotTopology> findSpotAt(long latitude, long longitude) {
+        return Optional.ofNullable(spotGrid.exact(latitude, longitude));
+    }
+
+    public Optional<SpotTopology> findNearestSpot(long latitude, long longitude, long maxDistance) {
+        return Optional.ofNullable(spotGrid.nearest(latitude, longitude, maxDistance));
+    }
+
+    /**
+     * Coordinate as a long at the column scale (8 decimal places), the unit used for spot lookups.
+     */
+    public static long toCoordinateUnits(BigDecimal coordinate) {
+        return coordinate.setScale(COORDINATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
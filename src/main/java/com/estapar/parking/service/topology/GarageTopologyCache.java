@@ -0,0 +1,160 @@
+package com.estapar.parking.service.topology;
+
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
+import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
+import com.estapar.parking.service.GarageInitializationRunner;
+import com.estapar.parking.service.GarageLayoutChangedEvent;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds one {@link GarageTopology} per garage. Topologies are loaded before the application
+ * reports ready and replaced as a whole when a layout changes, so readers never see a partially
+ * updated garage. In a sharded deployment only the garages this instance owns, and the default
+ * garage, are loaded up front; any other garage is loaded when first asked for. Runs right after
+ * {@link GarageInitializationRunner}, so the first load already sees the simulator's layout.
+ */
+@Service
+@Order(GarageInitializationRunner.ORDER + 1)
+public class GarageTopologyCache implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageTopologyCache.class);
+
+    private final GarageRepository garageRepository;
+    private final SectorRepository sectorRepository;
+    private final ParkingSpotRepository spotRepository;
+    private final GarageShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<UUID, GarageTopology> topologies = new ConcurrentHashMap<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile UUID defaultGarageId;
+    private volatile boolean loaded;
+
+    public GarageTopologyCache(
+            GarageRepository garageRepository,
+            SectorRepository sectorRepository,
+            ParkingSpotRepository spotRepository,
+            GarageShardRouter shardRouter,
+            PlatformTransactionManager transactionManager) {
+        this.garageRepository = garageRepository;
+        this.sectorRepository = sectorRepository;
+        this.spotRepository = spotRepository;
+        this.shardRouter = shardRouter;
+        // Not read-only, so reloads read the primary: a replica may not have the layout change yet
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Layout events are delivered after the initializing transaction commits, while it is still bound
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int garages = reloadAll();
+        logger.info("Garage topology loaded: garages={}, defaultGarageId={}", garages, defaultGarageId);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Map<UUID, GarageTopology> getTopologies() {
+        return Map.copyOf(topologies);
+    }
+
+    public Optional<GarageTopology> find(UUID garageId) {
+        GarageTopology topology = topologies.get(garageId);
+        if (topology != null) {
+            return Optional.of(topology);
+        }
+        return reload(garageId);
+    }
+
+    public Optional<GarageTopology> findDefault() {
+        UUID garageId = defaultGarageId;
+        if (garageId != null) {
+            return find(garageId);
+        }
+        return transactionTemplate.execute(status -> garageRepository.findByIsDefaultTrue().map(this::swap));
+    }
+
+    public Optional<GarageTopology> reload(UUID garageId) {
+        return transactionTemplate.execute(status -> garageRepository.findById(garageId).map(this::swap));
+    }
+
+    /**
+     * Rebuilds every owned garage and drops topologies of garages that no longer exist or are owned
+     * by another shard.
+     */
+    public int reloadAll() {
+        reloadLock.lock();
+        try {
+            List<UUID> garageIds = transactionTemplate.execute(status -> garageRepository.findAll().stream()
+                    .filter(garage -> Boolean.TRUE.equals(garage.getIsDefault()) || shardRouter.isLocal(garage.getId()))
+                    .map(this::swap)
+                    .map(GarageTopology::getId)
+                    .toList());
+            topologies.keySet().retainAll(garageIds);
+            if (defaultGarageId != null && !topologies.containsKey(defaultGarageId)) {
+                defaultGarageId = null;
+            }
+            loaded = true;
+            return garageIds.size();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onShardMembershipChanged(ShardMembershipChangedEvent event) {
+        topologies.keySet().removeIf(garageId -> !garageId.equals(defaultGarageId) && !shardRouter.isLocal(garageId));
+    }
+
+    @TransactionalEventListener
+    public void onLayoutChanged(GarageLayoutChangedEvent event) {
+        reload(event.garageId());
+    }
+
+    private GarageTopology swap(Garage garage) {
+        GarageTopology topology = new GarageTopology(
+                garage.getId(),
+                Boolean.TRUE.equals(garage.getIsDefault()),
+                garage.getMaxCapacity(),
+                sectorRepository.findByGarageId(garage.getId()).stream()
+                        .map(sector -> new SectorTopology(sector.getId(), sector.getSectorCode(),
+                                sector.getBasePrice(), sector.getMaxCapacity()))
+                        .toList(),
+                spotRepository.findLocationsByGarageId(garage.getId()).stream()
+                        .map(spot -> new SpotTopology(spot.getId(), spot.getSectorId(),
+                                spot.getLatitude(), spot.getLongitude()))
+                        .toList());
+
+        topologies.put(garage.getId(), topology);
+        if (topology.isDefault()) {
+            defaultGarageId = garage.getId();
+        }
+        logger.info("Garage topology swapped: garageId={}, sectors={}, spots={}",
+                garage.getId(), topology.getSectors().size(), topology.getSpotCount());
+        return topology;
+    }
+}
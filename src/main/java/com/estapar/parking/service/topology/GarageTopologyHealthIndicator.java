@@ -0,0 +1,34 @@
+package com.estapar.parking.service.topology;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reports DOWN until the topology snapshot is loaded and holds a default garage; part of the
+ * readiness group so traffic is only routed once the hot path can run from memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class GarageTopologyHealthIndicator implements HealthIndicator {
+
+    private final GarageTopologyCache topologyCache;
+
+    @Override
+    public Health health() {
+        if (!topologyCache.isLoaded()) {
+            return Health.down().withDetail("reason", "Garage topology not loaded").build();
+        }
+        Map<UUID, GarageTopology> topologies = topologyCache.getTopologies();
+        boolean hasDefault = topologies.values().stream().anyMatch(GarageTopology::isDefault);
+        Health.Builder builder = hasDefault ? Health.up() : Health.down().withDetail("reason", "No default garage");
+        return builder
+                .withDetail("garages", topologies.size())
+                .withDetail("spots", topologies.values().stream().mapToInt(GarageTopology::getSpotCount).sum())
+                .build();
+    }
+}
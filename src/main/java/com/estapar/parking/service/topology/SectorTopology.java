@@ -0,0 +1,7 @@
+package com.estapar.parking.service.topology;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record SectorTopology(UUID id, String sectorCode, BigDecimal basePrice, int maxCapacity) {
+}
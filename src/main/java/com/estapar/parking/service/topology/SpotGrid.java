@@ -0,0 +1,88 @@
+package com.estapar.parking.service.topology;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spots bucketed into square cells of {@link #CELL_SIZE} coordinate units (1e-5 degrees, about a
+ * metre). A nearest-spot search only visits the cells that can hold a spot within the distance, or
+ * every occupied cell when that is fewer, so a large tolerance costs at most one pass over the spots.
+ * Built once and only read afterwards.
+ */
+final class SpotGrid {
+
+    static final long CELL_SIZE = 1_000;
+
+    private final Map<Cell, SpotTopology> byCoordinates = new HashMap<>();
+    private final Map<Cell, List<IndexedSpot>> byCell = new HashMap<>();
+
+    void add(SpotTopology spot, long latitude, long longitude) {
+        byCoordinates.put(new Cell(latitude, longitude), spot);
+        byCell.computeIfAbsent(cellOf(latitude, longitude), cell -> new ArrayList<>())
+                .add(new IndexedSpot(spot, latitude, longitude));
+    }
+
+    SpotTopology exact(long latitude, long longitude) {
+        return byCoordinates.get(new Cell(latitude, longitude));
+    }
+
+    SpotTopology nearest(long latitude, long longitude, long maxDistance) {
+        Cell center = cellOf(latitude, longitude);
+        long rings = Math.max(1, (maxDistance + CELL_SIZE - 1) / CELL_SIZE);
+        Nearest nearest = new Nearest(latitude, longitude, (double) maxDistance * maxDistance);
+        long side = 2 * rings + 1;
+        if ((double) side * side > byCell.size()) {
+            // More cells to probe than occupied cells: scanning the occupied ones is cheaper
+            byCell.values().forEach(nearest::visit);
+            return nearest.spot;
+        }
+        for (long row = center.row() - rings; row <= center.row() + rings; row++) {
+            for (long column = center.column() - rings; column <= center.column() + rings; column++) {
+                nearest.visit(byCell.getOrDefault(new Cell(row, column), List.of()));
+            }
+        }
+        return nearest.spot;
+    }
+
+    private static Cell cellOf(long latitude, long longitude) {
+        return new Cell(Math.floorDiv(latitude, CELL_SIZE), Math.floorDiv(longitude, CELL_SIZE));
+    }
+
+    private record Cell(long row, long column) {
+    }
+
+    private record IndexedSpot(SpotTopology spot, long latitude, long longitude) {
+    }
+
+    /**
+     * Closest candidate seen so far within the distance limit.
+     */
+    private static final class Nearest {
+
+        private final long latitude;
+        private final long longitude;
+        private final double limit;
+        private double best = Double.MAX_VALUE;
+        private SpotTopology spot;
+
+        Nearest(long latitude, long longitude, double limit) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.limit = limit;
+        }
+
+        void visit(List<IndexedSpot> candidates) {
+            for (IndexedSpot candidate : candidates) {
+                double dLat = candidate.latitude() - latitude;
+                double dLng = candidate.longitude() - longitude;
+                double distance = dLat * dLat + dLng * dLng;
+                if (distance <= limit && distance < best) {
+                    best = distance;
+                    spot = candidate.spot();
+                }
+            }
+        }
+    }
+}
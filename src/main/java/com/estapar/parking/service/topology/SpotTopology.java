@@ -0,0 +1,7 @@
+package com.estapar.parking.service.topology;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record SpotTopology(UUID id, UUID sectorId, BigDecimal latitude, BigDecimal longitude) {
+}
@@ -0,0 +1,69 @@
+package com.estapar.parking.util;
+
+import com.estapar.parking.config.DecimalConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a {@code long} count of minor units (centavos at the default currency scale) and
+ * multipliers as {@code int} basis points (1.10 = 11000). Arithmetic on these values does not
+ * allocate and rounds exactly like {@link BigDecimalUtils} with the same {@link DecimalConfig}.
+ * Conversions throw {@link ArithmeticException} when a value has more decimals than fit.
+ */
+@Component
+@RequiredArgsConstructor
+public class FixedPointMoney {
+
+    public static final int BASIS_POINT_SCALE = 4;
+    private static final long BASIS_POINTS_PER_UNIT = 10_000L;
+
+    private final DecimalConfig decimalConfig;
+
+    public long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(decimalConfig.getCurrencyScale()).longValueExact();
+    }
+
+    public int toBasisPoints(BigDecimal multiplier) {
+        return Math.toIntExact(multiplier.movePointRight(BASIS_POINT_SCALE).longValueExact());
+    }
+
+    public BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, decimalConfig.getCurrencyScale());
+    }
+
+    /**
+     * {@code minorUnits x multiplier}, rounded back to minor units with the configured rounding mode.
+     */
+    public long applyMultiplier(long minorUnits, int basisPoints) {
+        return divide(Math.multiplyExact(minorUnits, basisPoints), BASIS_POINTS_PER_UNIT, decimalConfig.getRoundingMode());
+    }
+
+    /**
+     * Integer division rounded with the same rules as {@link BigDecimal#divide(BigDecimal, RoundingMode)}.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long absRemainder = Math.abs(remainder);
+        int comparedToHalf = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+        boolean awayFromZero = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP -> comparedToHalf >= 0;
+            case HALF_DOWN -> comparedToHalf > 0;
+            case HALF_EVEN -> comparedToHalf > 0 || (comparedToHalf == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + signum : quotient;
+    }
+}
@@ -0,0 +1,3 @@
+-- Date-range scans over a garage's rollup (revenue reports across sectors)
+ALTER TABLE revenue_daily
+ADD INDEX idx_revenue_daily_garage_date (garage_id, local_date);
@@ -0,0 +1,29 @@
+-- Create tariff_plan table (per-sector commercial rules, compiled in memory and evaluated on EXIT)
+CREATE TABLE IF NOT EXISTS tariff_plan (
+    id BINARY(16) PRIMARY KEY,
+    sector_id BINARY(16) NOT NULL,
+    free_minutes INTEGER NULL,
+    daily_cap DECIMAL(19,2) NULL,
+    overnight_start TIME NULL,
+    overnight_end TIME NULL,
+    overnight_flat_rate DECIMAL(19,2) NULL,
+    description VARCHAR(255),
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_tariff_plan_active_sector (is_active, sector_id),
+    FOREIGN KEY fk_tariff_plan_sector (sector_id) REFERENCES sector(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create tariff_band table (hourly rate for a local time-of-day window; end_time <= start_time wraps past midnight)
+CREATE TABLE IF NOT EXISTS tariff_band (
+    id BINARY(16) PRIMARY KEY,
+    tariff_plan_id BINARY(16) NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    hourly_rate DECIMAL(19,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_tariff_band_plan (tariff_plan_id),
+    FOREIGN KEY fk_tariff_band_plan (tariff_plan_id) REFERENCES tariff_plan(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
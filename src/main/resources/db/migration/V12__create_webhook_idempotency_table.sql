@@ -0,0 +1,7 @@
+-- Create webhook_idempotency table (SHA-256 of garage and Idempotency-Key, or of the event itself, for events already applied)
+CREATE TABLE IF NOT EXISTS webhook_idempotency (
+    idempotency_key BINARY(32) PRIMARY KEY,
+    status SMALLINT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_webhook_idempotency_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
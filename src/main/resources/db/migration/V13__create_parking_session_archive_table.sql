@@ -0,0 +1,28 @@
+-- Closed sessions moved out of parking_session by SessionArchiver, partitioned by month of entry.
+-- garage_id and sector_id are copied at archive time so revenue backfills need no join through parking_spot.
+-- Partitioned tables cannot have foreign keys, and the partition column must be part of the primary key.
+-- p_history holds everything before 2025-01-01 UTC; SessionArchiver splits monthly partitions off p_max
+-- (bounds are UTC epoch seconds) before it archives into them, so p_max stays empty.
+CREATE TABLE IF NOT EXISTS parking_session_archive (
+    id BINARY(16) NOT NULL,
+    garage_id BINARY(16) NOT NULL,
+    sector_id BINARY(16) NULL,
+    spot_id BINARY(16) NULL,
+    vehicle_license_plate VARCHAR(20) NOT NULL,
+    entry_time TIMESTAMP NOT NULL,
+    exit_time TIMESTAMP NOT NULL,
+    pricing_multiplier DECIMAL(5,2) NULL,
+    final_price DECIMAL(19,2) NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, entry_time),
+    INDEX idx_archive_entry_time (entry_time),
+    INDEX idx_archive_garage_vehicle (garage_id, vehicle_license_plate)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+PARTITION BY RANGE (UNIX_TIMESTAMP(entry_time)) (
+    PARTITION p_history VALUES LESS THAN (1735689600),
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+-- Lets the archiver find closed sessions past the retention window without scanning open ones
+ALTER TABLE parking_session
+ADD INDEX idx_session_exit_time (exit_time);
@@ -0,0 +1,6 @@
+-- Create webhook_log_applied table (journal offsets of async webhook events already applied, written in the
+-- event's own transaction so a journal tail read again after a crash is not applied twice)
+CREATE TABLE IF NOT EXISTS webhook_log_applied (
+    log_offset BIGINT PRIMARY KEY,
+    applied_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
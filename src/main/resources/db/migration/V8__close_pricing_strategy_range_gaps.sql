@@ -0,0 +1,5 @@
+-- Make pricing strategy ranges contiguous.
+-- Ranges are half-open [min, max), so a max of 24.99 next to a min of 25.00 left 24.99% without a strategy.
+UPDATE pricing_strategy SET occupancy_max_percentage = 25.00 WHERE occupancy_min_percentage = 0.00 AND occupancy_max_percentage = 24.99;
+UPDATE pricing_strategy SET occupancy_max_percentage = 50.00 WHERE occupancy_min_percentage = 25.00 AND occupancy_max_percentage = 49.99;
+UPDATE pricing_strategy SET occupancy_max_percentage = 75.00 WHERE occupancy_min_percentage = 50.00 AND occupancy_max_percentage = 74.99;
@@ -0,0 +1,11 @@
+-- Create revenue_daily rollup table (revenue per sector and local entry date, maintained on EXIT)
+CREATE TABLE IF NOT EXISTS revenue_daily (
+    garage_id BINARY(16) NOT NULL,
+    sector_id BINARY(16) NOT NULL,
+    local_date DATE NOT NULL,
+    amount DECIMAL(19,2) NOT NULL DEFAULT 0,
+    session_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (garage_id, sector_id, local_date),
+    FOREIGN KEY fk_revenue_daily_garage (garage_id) REFERENCES garage(id) ON DELETE CASCADE,
+    FOREIGN KEY fk_revenue_daily_sector (sector_id) REFERENCES sector(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
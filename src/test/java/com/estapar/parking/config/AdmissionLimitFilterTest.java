@@ -0,0 +1,84 @@
+package com.estapar.parking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionLimiter admissionLimiter;
+    private AdmissionLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RequestExecutionConfig config = new RequestExecutionConfig();
+        config.setMaxConcurrentRequests(1);
+        config.setAdmissionTimeoutMillis(10);
+
+        meterRegistry = new SimpleMeterRegistry();
+        admissionLimiter = new AdmissionLimiter(config, meterRegistry);
+        filter = new AdmissionLimitFilter(admissionLimiter,
+                new ObjectMapper().registerModule(new JavaTimeModule()), config);
+    }
+
+    @Test
+    void doFilter_ShouldReleasePermitAfterRequest() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/webhook"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(admissionLimiter.inFlight()).isZero();
+    }
+
+    @Test
+    void doFilter_WithLimitReached_ShouldRejectWithServiceUnavailable() throws Exception {
+        assertThat(admissionLimiter.tryAcquire()).isTrue();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/revenue"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("Too many concurrent requests");
+        assertThat(meterRegistry.get("parking.admission.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void doFilter_ForUnlimitedPath_ShouldNotTakePermit() throws Exception {
+        assertThat(admissionLimiter.tryAcquire()).isTrue();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/occupancy/stream"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(admissionLimiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WithAsyncResponse_ShouldHoldPermitUntilComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/revenue/query");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, response, chain);
+        assertThat(admissionLimiter.inFlight()).isEqualTo(1);
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(admissionLimiter.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,208 @@
+package com.estapar.parking.config;
+
+import com.estapar.parking.service.GarageResolver;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GarageAffinityFilterTest {
+
+    @Mock
+    private GarageResolver garageResolver;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ShardConfig config;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new ShardConfig();
+        config.setEnabled(true);
+        config.setInstanceId("a");
+        config.setMembers(Map.of("a", "http://a:3003", "b", "http://b:3003"));
+        config.setRouting(ShardConfig.Routing.REDIRECT);
+    }
+
+    @Test
+    void doFilter_ForOwnedGarage_ShouldContinueChain() throws Exception {
+        GarageShardRouter router = router();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(router).doFilter(webhook(garageOwnedBy(router, true)), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(meterRegistry.get("parking.shard.requests").tag("outcome", "local").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WithRedirectRouting_ShouldRedirectToOwner() throws Exception {
+        GarageShardRouter router = router();
+        MockHttpServletRequest request = webhook(garageOwnedBy(router, false));
+        request.setQueryString("source=simulator");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(router).doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(307);
+        assertThat(response.getHeader("Location")).isEqualTo("http://b:3003/webhook?source=simulator");
+        assertThat(response.getHeader(GarageAffinityFilter.GARAGE_OWNER_HEADER)).isEqualTo("b");
+    }
+
+    @Test
+    void doFilter_WithoutGarageHeader_ShouldRouteDefaultGarage() throws Exception {
+        GarageShardRouter router = router();
+        UUID garageId = garageOwnedBy(router, false);
+        when(garageResolver.getDefaultGarage()).thenReturn(new GarageTopology(garageId, true, 10, List.of(), List.of()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(router).doFilter(new MockHttpServletRequest("POST", "/webhook"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(307);
+    }
+
+    @Test
+    void doFilter_WhenAlreadyForwarded_ShouldRejectInsteadOfForwardingAgain() throws Exception {
+        GarageShardRouter router = router();
+        MockHttpServletRequest request = webhook(garageOwnedBy(router, false));
+        request.addHeader(GarageAffinityFilter.FORWARDED_BY_HEADER, "c");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(router).doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.get("parking.shard.requests").tag("outcome", "misdirected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WithForwardRouting_ShouldRelayOwnerResponse() throws Exception {
+        AtomicReference<String> forwardedBy = new AtomicReference<>();
+        AtomicReference<String> forwardedBody = new AtomicReference<>();
+        HttpServer owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext("/webhook", exchange -> {
+            forwardedBy.set(exchange.getRequestHeaders().getFirst(GarageAffinityFilter.FORWARDED_BY_HEADER));
+            forwardedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = "{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        owner.start();
+        try {
+            config.setRouting(ShardConfig.Routing.FORWARD);
+            config.setMembers(Map.of("a", "http://a:3003", "b", "http://localhost:" + owner.getAddress().getPort()));
+            GarageShardRouter router = router();
+            MockHttpServletRequest request = webhook(garageOwnedBy(router, false));
+            request.setContent("{\"event_type\":\"ENTRY\"}".getBytes(StandardCharsets.UTF_8));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter(router).doFilter(request, response, new MockFilterChain());
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentAsString()).isEqualTo("{\"status\":\"OK\"}");
+            assertThat(forwardedBy.get()).isEqualTo("a");
+            assertThat(forwardedBody.get()).isEqualTo("{\"event_type\":\"ENTRY\"}");
+        } finally {
+            owner.stop(0);
+        }
+    }
+
+    @Test
+    void doFilter_ForOccupancyStreamWithForwardRouting_ShouldRedirectToOwner() throws Exception {
+        config.setRouting(ShardConfig.Routing.FORWARD);
+        GarageShardRouter router = router();
+        UUID garageId = garageOwnedBy(router, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/occupancy/stream");
+        request.setQueryString("garageId=" + garageId);
+        request.addParameter(GarageAffinityFilter.GARAGE_ID_PARAMETER, garageId.toString());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(router).doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(307);
+        assertThat(response.getHeader("Location")).isEqualTo("http://b:3003/occupancy/stream?garageId=" + garageId);
+        assertThat(meterRegistry.get("parking.shard.requests").tag("outcome", "redirected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_ForOccupancyOfOwnedGarage_ShouldContinueChain() throws Exception {
+        GarageShardRouter router = router();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/occupancy");
+        request.addHeader(GarageAffinityFilter.GARAGE_ID_HEADER, garageOwnedBy(router, true).toString());
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(router).doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(meterRegistry.get("parking.shard.requests").tag("outcome", "local").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_WhenOwnerIsUnreachable_ShouldAnswerBadGateway() throws Exception {
+        config.setRouting(ShardConfig.Routing.FORWARD);
+        config.setForwardTimeoutMillis(500);
+        config.setMembers(Map.of("a", "http://a:3003", "b", "http://localhost:1"));
+        GarageShardRouter router = router();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(router).doFilter(webhook(garageOwnedBy(router, false)), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(502);
+        assertThat(meterRegistry.get("parking.shard.requests").tag("outcome", "forward_failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    private GarageShardRouter router() {
+        return new GarageShardRouter(config, event -> { }, meterRegistry);
+    }
+
+    private GarageAffinityFilter filter(GarageShardRouter router) {
+        return new GarageAffinityFilter(router, garageResolver,
+                new ObjectMapper().registerModule(new JavaTimeModule()), config, meterRegistry);
+    }
+
+    private static MockHttpServletRequest webhook(UUID garageId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/webhook");
+        request.addHeader(GarageAffinityFilter.GARAGE_ID_HEADER, garageId.toString());
+        request.setContentType("application/json");
+        return request;
+    }
+
+    private static UUID garageOwnedBy(GarageShardRouter router, boolean local) {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> new UUID(i, i))
+                .filter(garageId -> router.isLocal(garageId) == local)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,156 @@
+package com.estapar.parking.config;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the MySQL driver does not pin the carrier thread of a virtual thread blocked on the
+ * database, which {@code parking.execution.mode=virtual} relies on. Connector/J 8.x held
+ * {@code synchronized} connection mutexes across socket reads; 9.x uses {@code ReentrantLock}s.
+ * The test JVM runs with {@code -Djdk.tracePinnedThreads=short}, so any pinning is also printed.
+ */
+class MySqlDriverPinningTest {
+
+    private static final List<String> DRIVER_CLASSES = List.of(
+            "com.mysql.cj.jdbc.ConnectionImpl",
+            "com.mysql.cj.jdbc.StatementImpl",
+            "com.mysql.cj.jdbc.ClientPreparedStatement",
+            "com.mysql.cj.jdbc.result.ResultSetImpl",
+            "com.mysql.cj.NativeSession",
+            "com.mysql.cj.protocol.a.NativeProtocol");
+
+    @Test
+    void connect_OnVirtualThreadBlockedOnSocketRead_ShouldNotPinCarrier() throws Exception {
+        List<String> pinnedFrames = new CopyOnWriteArrayList<>();
+        List<Socket> accepted = new CopyOnWriteArrayList<>();
+
+        // A server that accepts and never sends the handshake, so the driver blocks in its socket read
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             RecordingStream recording = new RecordingStream()) {
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    while (true) {
+                        accepted.add(server.accept());
+                    }
+                } catch (IOException e) {
+                    // Server closed
+                }
+            });
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> event.getStackTrace().getFrames().stream()
+                    .map(RecordedFrame::getMethod)
+                    .map(method -> method.getType().getName() + "." + method.getName())
+                    .filter(frame -> frame.startsWith("com.mysql."))
+                    .findFirst()
+                    .ifPresent(pinnedFrames::add));
+            recording.startAsync();
+
+            String url = "jdbc:mysql://127.0.0.1:" + server.getLocalPort()
+                    + "/parking?connectTimeout=1000&socketTimeout=300";
+            List<Throwable> failures = new ArrayList<>();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    DriverManager.getConnection(url, "parking", "parking").close();
+                } catch (SQLException e) {
+                    failures.add(e);
+                }
+            }).join();
+
+            recording.stop();
+            for (Socket socket : accepted) {
+                socket.close();
+            }
+
+            assertThat(failures).as("the driver should time out waiting for the handshake").hasSize(1);
+            assertThat(pinnedFrames).isEmpty();
+        }
+    }
+
+    @Test
+    void driverClasses_ShouldNotUseMonitors() throws IOException {
+        List<String> monitors = new ArrayList<>();
+        for (String className : DRIVER_CLASSES) {
+            try (InputStream bytecode = getClass().getClassLoader()
+                    .getResourceAsStream(className.replace('.', '/') + ".class")) {
+                assertThat(bytecode).as(className).isNotNull();
+                new ClassReader(bytecode).accept(new MonitorCollector(className, monitors), ClassReader.SKIP_DEBUG);
+            }
+        }
+
+        assertThat(monitors).isEmpty();
+    }
+
+    @Test
+    void monitorCollector_WithSynchronizedCode_ShouldReportIt() throws IOException {
+        List<String> monitors = new ArrayList<>();
+        try (InputStream bytecode = getClass().getResourceAsStream("MySqlDriverPinningTest$Synchronized.class")) {
+            new ClassReader(bytecode).accept(new MonitorCollector("Synchronized", monitors), ClassReader.SKIP_DEBUG);
+        }
+
+        assertThat(monitors).containsExactlyInAnyOrder("Synchronized.method", "Synchronized.block");
+    }
+
+    /**
+     * Collects methods that are {@code synchronized} or contain a {@code synchronized} block.
+     */
+    private static class MonitorCollector extends ClassVisitor {
+
+        private final String className;
+        private final List<String> monitors;
+
+        MonitorCollector(String className, List<String> monitors) {
+            super(Opcodes.ASM9);
+            this.className = className;
+            this.monitors = monitors;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                         String[] exceptions) {
+            String method = className + "." + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                monitors.add(method);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER && !monitors.contains(method)) {
+                        monitors.add(method);
+                    }
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class Synchronized {
+
+        synchronized void method() {
+        }
+
+        void block() {
+            synchronized (this) {
+                method();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.estapar.parking.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookTrafficRecorderTest {
+
+    private static final String ENTRY =
+            "{\"license_plate\":\"ABC1234\",\"entry_time\":\"2025-01-01T12:00:00\",\"event_type\":\"ENTRY\"}";
+
+    @TempDir
+    private Path directory;
+
+    private ObjectMapper objectMapper;
+    private Path file;
+    private FilterChain readingChain;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        file = directory.resolve("recordings/traffic.ndjson");
+        readingChain = (request, response) -> request.getInputStream().readAllBytes();
+    }
+
+    @Test
+    void doFilter_ShouldAppendWebhookRequestWithHeaders() throws Exception {
+        WebhookTrafficRecorder recorder = new WebhookTrafficRecorder(objectMapper, file.toString());
+        MockHttpServletRequest request = webhookRequest("/webhook");
+        request.addHeader("X-Garage-Id", "00000000-0000-0000-0000-000000000001");
+
+        recorder.doFilter(request, new MockHttpServletResponse(), readingChain);
+        recorder.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(1);
+        JsonNode line = objectMapper.readTree(lines.get(0));
+        assertThat(line.get("received_at_millis").asLong()).isPositive();
+        assertThat(line.get("garage_id").asText()).isEqualTo("00000000-0000-0000-0000-000000000001");
+        assertThat(line.get("idempotency_key").isNull()).isTrue();
+        assertThat(line.get("event")).isEqualTo(objectMapper.readTree(ENTRY));
+    }
+
+    @Test
+    void doFilter_WhenLaterFilterRejectsWithoutReadingBody_ShouldStillRecord() throws Exception {
+        WebhookTrafficRecorder recorder = new WebhookTrafficRecorder(objectMapper, file.toString());
+        FilterChain rejectingChain = (request, response) -> ((HttpServletResponse) response).setStatus(503);
+
+        recorder.doFilter(webhookRequest("/webhook"), new MockHttpServletResponse(), rejectingChain);
+        recorder.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(1);
+        assertThat(objectMapper.readTree(lines.get(0)).get("event")).isEqualTo(objectMapper.readTree(ENTRY));
+    }
+
+    @Test
+    void doFilter_ShouldHandBodyOnToChain() throws Exception {
+        WebhookTrafficRecorder recorder = new WebhookTrafficRecorder(objectMapper, file.toString());
+        StringBuilder received = new StringBuilder();
+        FilterChain chain = (request, response) ->
+                received.append(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        recorder.doFilter(webhookRequest("/webhook"), new MockHttpServletResponse(), chain);
+        recorder.close();
+
+        assertThat(received.toString()).isEqualTo(ENTRY);
+    }
+
+    @Test
+    void doFilter_ForOtherPath_ShouldNotRecord() throws Exception {
+        WebhookTrafficRecorder recorder = new WebhookTrafficRecorder(objectMapper, file.toString());
+
+        recorder.doFilter(webhookRequest("/webhook/batch"), new MockHttpServletResponse(), readingChain);
+        recorder.close();
+
+        assertThat(Files.readAllLines(file)).isEmpty();
+    }
+
+    @Test
+    void doFilter_WithoutFile_ShouldBeDisabled() throws Exception {
+        WebhookTrafficRecorder recorder = new WebhookTrafficRecorder(objectMapper, "");
+
+        recorder.doFilter(webhookRequest("/webhook"), new MockHttpServletResponse(), readingChain);
+
+        assertThat(recorder.isEnabled()).isFalse();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    private static MockHttpServletRequest webhookRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("application/json");
+        request.setContent(ENTRY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
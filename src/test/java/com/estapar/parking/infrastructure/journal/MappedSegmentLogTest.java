@@ -0,0 +1,153 @@
+package com.estapar.parking.infrastructure.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedSegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnRecordsInAppendOrder() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+
+            List<LogRecord> records = log.read(0, 10, 0);
+
+            assertThat(records).extracting(record -> text(record.payload())).containsExactly("first", "second");
+            assertThat(records.get(1).offset()).isEqualTo(records.get(0).nextOffset());
+        }
+    }
+
+    @Test
+    void read_ShouldRespectMaxRecords() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            log.append(bytes("a"));
+            log.append(bytes("b"));
+            log.append(bytes("c"));
+
+            List<LogRecord> first = log.read(0, 2, 0);
+            List<LogRecord> rest = log.read(first.get(1).nextOffset(), 10, 0);
+
+            assertThat(first).hasSize(2);
+            assertThat(rest).extracting(record -> text(record.payload())).containsExactly("c");
+        }
+    }
+
+    @Test
+    void append_WhenSegmentIsFull_ShouldRollToNextSegment() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 64, false)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(bytes("record-" + i));
+            }
+
+            List<LogRecord> records = log.read(0, 100, 0);
+
+            assertThat(records).hasSize(10);
+            assertThat(text(records.get(9).payload())).isEqualTo("record-9");
+            assertThat(segmentCount()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void reopen_ShouldResumeFromCommittedOffset() throws Exception {
+        long committed;
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            log.append(bytes("processed"));
+            log.append(bytes("pending"));
+            committed = log.read(0, 1, 0).get(0).nextOffset();
+            log.commit(committed);
+        }
+
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            assertThat(log.committedOffset()).isEqualTo(committed);
+
+            log.append(bytes("new"));
+            List<LogRecord> records = log.read(log.committedOffset(), 10, 0);
+
+            assertThat(records).extracting(record -> text(record.payload())).containsExactly("pending", "new");
+        }
+    }
+
+    @Test
+    void commit_ShouldDeleteFullyConsumedSegments() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 64, false)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(bytes("record-" + i));
+            }
+            int segmentsBefore = segmentCount();
+
+            log.commit(log.endOffset());
+
+            assertThat(segmentCount()).isLessThan(segmentsBefore);
+            assertThat(log.read(log.committedOffset(), 10, 0)).isEmpty();
+        }
+    }
+
+    @Test
+    void reopen_WithTornRecord_ShouldTruncateIt() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            log.append(bytes("complete"));
+            log.append(bytes("torn"));
+        }
+        corruptLastByteOf("torn");
+
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 1024, false)) {
+            assertThat(log.read(0, 10, 0)).extracting(record -> text(record.payload())).containsExactly("complete");
+
+            log.append(bytes("after"));
+
+            assertThat(log.read(0, 10, 0)).extracting(record -> text(record.payload()))
+                    .containsExactly("complete", "after");
+        }
+    }
+
+    @Test
+    void append_WithRecordLargerThanSegment_ShouldThrowException() throws Exception {
+        try (MappedSegmentLog log = new MappedSegmentLog(directory, 32, false)) {
+            assertThatThrownBy(() -> log.append(new byte[64]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private int segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+
+    private void corruptLastByteOf(String payload) throws Exception {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        byte[] needle = bytes(payload);
+        for (int i = content.length - needle.length; i >= 0; i--) {
+            if (content[i] == needle[0] && new String(content, i, needle.length, StandardCharsets.UTF_8).equals(payload)) {
+                content[i + needle.length - 1] ^= 0x7F;
+                break;
+            }
+        }
+        Files.write(segment, content);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,178 @@
+package com.estapar.parking.infrastructure.persistence.repository;
+
+import com.estapar.parking.util.UuidUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native backfill statements of {@link RevenueDailyRepository} against H2 in MySQL mode.
+ */
+class RevenueDailyRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+    private static final Instant START_OF_DAY = DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+    private static final Instant END_OF_DAY = DAY.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private UUID garageId;
+    private UUID staleSector;
+    private UUID missingSector;
+    private UUID orphanedSector;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:revenue-daily-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sector (id BINARY(16) PRIMARY KEY, garage_id BINARY(16) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE parking_spot (id BINARY(16) PRIMARY KEY, sector_id BINARY(16) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE parking_session (id BINARY(16) PRIMARY KEY, spot_id BINARY(16), " +
+                "entry_time TIMESTAMP NOT NULL, exit_time TIMESTAMP, final_price DECIMAL(19,2))");
+        jdbcTemplate.execute("CREATE TABLE parking_session_archive (id BINARY(16) NOT NULL, " +
+                "garage_id BINARY(16) NOT NULL, sector_id BINARY(16), entry_time TIMESTAMP NOT NULL, " +
+                "final_price DECIMAL(19,2), PRIMARY KEY (id, entry_time))");
+        jdbcTemplate.execute("CREATE TABLE revenue_daily (garage_id BINARY(16) NOT NULL, sector_id BINARY(16) NOT NULL, " +
+                "local_date DATE NOT NULL, amount DECIMAL(19,2) NOT NULL DEFAULT 0, " +
+                "session_count INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (garage_id, sector_id, local_date))");
+
+        garageId = UUID.randomUUID();
+        staleSector = sector();
+        missingSector = sector();
+        orphanedSector = sector();
+    }
+
+    @Test
+    void rebuildDay_WithStaleRow_ShouldBringItToSessionTotals() {
+        UUID spot = spot(staleSector);
+        closedSession(spot, START_OF_DAY.plusSeconds(3600), "10.00");
+        closedSession(spot, START_OF_DAY.plusSeconds(7200), "20.00");
+        archivedSession(staleSector, START_OF_DAY.plusSeconds(600), "5.00");
+        revenueRow(staleSector, DAY, "10.00", 1);
+
+        rebuildDay();
+
+        assertRow(staleSector, DAY, "35.00", 3);
+    }
+
+    @Test
+    void rebuildDay_WithMissingRow_ShouldInsertIt() {
+        closedSession(spot(missingSector), START_OF_DAY.plusSeconds(60), "12.50");
+        archivedSession(missingSector, END_OF_DAY.minusSeconds(60), "7.50");
+        // Open sessions and sessions of other days are not the day's revenue
+        openSession(spot(missingSector), START_OF_DAY.plusSeconds(120));
+        closedSession(spot(missingSector), END_OF_DAY, "100.00");
+
+        rebuildDay();
+
+        assertRow(missingSector, DAY, "20.00", 2);
+        assertThat(rowCount(DAY.plusDays(1))).isZero();
+    }
+
+    @Test
+    void rebuildDay_WithOrphanedRow_ShouldDeleteItAndKeepOtherDays() {
+        revenueRow(orphanedSector, DAY, "40.00", 2);
+        revenueRow(orphanedSector, DAY.minusDays(1), "15.00", 1);
+        closedSession(spot(staleSector), START_OF_DAY.plusSeconds(60), "8.00");
+
+        rebuildDay();
+
+        assertThat(rowCount(DAY)).isEqualTo(1);
+        assertRow(staleSector, DAY, "8.00", 1);
+        assertRow(orphanedSector, DAY.minusDays(1), "15.00", 1);
+    }
+
+    @Test
+    void rebuildDay_WhenRowsAreCurrent_ShouldLeaveThemUnchanged() {
+        closedSession(spot(staleSector), START_OF_DAY.plusSeconds(60), "8.00");
+        revenueRow(staleSector, DAY, "8.00", 1);
+
+        rebuildDay();
+        rebuildDay();
+
+        assertRow(staleSector, DAY, "8.00", 1);
+    }
+
+    private void rebuildDay() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("localDate", DAY)
+                .addValue("startOfDay", Timestamp.from(START_OF_DAY))
+                .addValue("endOfDay", Timestamp.from(END_OF_DAY));
+        namedJdbcTemplate.update(query("upsertDifferenceFromSessions"), parameters);
+        namedJdbcTemplate.update(query("deleteWithoutSessions"), parameters);
+    }
+
+    private static String query(String method) {
+        try {
+            return RevenueDailyRepository.class
+                    .getMethod(method, LocalDate.class, Instant.class, Instant.class)
+                    .getAnnotation(Query.class)
+                    .value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UUID sector() {
+        UUID sectorId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO sector VALUES (?, ?)", UuidUtils.toBytes(sectorId), UuidUtils.toBytes(garageId));
+        return sectorId;
+    }
+
+    private UUID spot(UUID sectorId) {
+        UUID spotId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO parking_spot VALUES (?, ?)", UuidUtils.toBytes(spotId), UuidUtils.toBytes(sectorId));
+        return spotId;
+    }
+
+    private void closedSession(UUID spotId, Instant entryTime, String finalPrice) {
+        jdbcTemplate.update("INSERT INTO parking_session VALUES (?, ?, ?, ?, ?)",
+                UuidUtils.toBytes(UUID.randomUUID()), UuidUtils.toBytes(spotId), Timestamp.from(entryTime),
+                Timestamp.from(entryTime.plusSeconds(1800)), new BigDecimal(finalPrice));
+    }
+
+    private void openSession(UUID spotId, Instant entryTime) {
+        jdbcTemplate.update("INSERT INTO parking_session VALUES (?, ?, ?, NULL, NULL)",
+                UuidUtils.toBytes(UUID.randomUUID()), UuidUtils.toBytes(spotId), Timestamp.from(entryTime));
+    }
+
+    private void archivedSession(UUID sectorId, Instant entryTime, String finalPrice) {
+        jdbcTemplate.update("INSERT INTO parking_session_archive VALUES (?, ?, ?, ?, ?)",
+                UuidUtils.toBytes(UUID.randomUUID()), UuidUtils.toBytes(garageId), UuidUtils.toBytes(sectorId),
+                Timestamp.from(entryTime), new BigDecimal(finalPrice));
+    }
+
+    private void revenueRow(UUID sectorId, LocalDate date, String amount, int sessionCount) {
+        jdbcTemplate.update("INSERT INTO revenue_daily VALUES (?, ?, ?, ?, ?)",
+                UuidUtils.toBytes(garageId), UuidUtils.toBytes(sectorId), date, new BigDecimal(amount), sessionCount);
+    }
+
+    private void assertRow(UUID sectorId, LocalDate date, String amount, int sessionCount) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT amount, session_count FROM revenue_daily WHERE garage_id = ? AND sector_id = ? AND local_date = ?",
+                UuidUtils.toBytes(garageId), UuidUtils.toBytes(sectorId), date);
+        assertThat((BigDecimal) row.get("AMOUNT")).isEqualByComparingTo(amount);
+        assertThat(((Number) row.get("SESSION_COUNT")).intValue()).isEqualTo(sessionCount);
+    }
+
+    private int rowCount(LocalDate date) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revenue_daily WHERE local_date = ?", Integer.class, date);
+    }
+}
@@ -0,0 +1,105 @@
+package com.estapar.parking.infrastructure.persistence.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final String SELECT_NAME = "SELECT name FROM database_name";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DataSource primaryDataSource = database("primary");
+        DataSource replicaDataSource = database("replica");
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replicaDataSource, "SELECT seconds FROM replica_lag", 5, meterRegistry);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, lagMonitor, meterRegistry));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransaction_WithUsableReplica_ShouldUseReplica() {
+        lagMonitor.check();
+
+        assertThat(readOnly.<String>execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class)))
+                .isEqualTo("replica");
+        assertThat(meterRegistry.get("parking.datasource.connections").tag("route", "replica").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        lagMonitor.check();
+
+        assertThat(readWrite.<String>execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class)))
+                .isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject(SELECT_NAME, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaLagsTooFar_ShouldFallBackToPrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isUsable()).isFalse();
+        assertThat(readOnly.<String>execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class)))
+                .isEqualTo("primary");
+        assertThat(meterRegistry.get("parking.datasource.connections").tag("route", "primary_fallback").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("parking.datasource.replica.lag.seconds").gauge().value()).isEqualTo(30);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaCatchesUp_ShouldUseReplicaAgain() {
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.check();
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        lagMonitor.check();
+
+        assertThat(readOnly.<String>execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class)))
+                .isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyTransaction_BeforeFirstLagCheck_ShouldUsePrimary() {
+        assertThat(readOnly.<String>execute(status -> jdbcTemplate.queryForObject(SELECT_NAME, String.class)))
+                .isEqualTo("primary");
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE database_name (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO database_name VALUES (?)", name);
+        return dataSource;
+    }
+}
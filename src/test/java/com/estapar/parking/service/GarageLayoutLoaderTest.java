@@ -0,0 +1,120 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.service.GarageLayoutLoader.LoadedLayout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GarageLayoutLoaderTest {
+
+    private static final String SECTORS = "\"garage\":[" +
+            "{\"sector\":\"A\",\"base_price\":10.0,\"max_capacity\":3}," +
+            "{\"sector\":\"B\",\"base_price\":4.0,\"max_capacity\":2}]";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private GarageLayoutLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new GarageLayoutLoader(jdbcTemplate, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void load_ShouldWriteSpotsInBatches() throws Exception {
+        LoadedLayout layout = loader.load(json("{" + SECTORS + "," + spots("A", "A", "B", "A", "B") + "}"));
+
+        assertThat(layout.sectors()).isEqualTo(2);
+        assertThat(layout.spots()).isEqualTo(5);
+        assertThat(layout.maxCapacity()).isEqualTo(5);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO garage"), any(), any(), eq(5));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO sector"), anyList());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO parking_spot"), batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void load_WithSpotsBeforeSectors_ShouldWriteSpotsAfterSectors() throws Exception {
+        LoadedLayout layout = loader.load(json("{" + spots("B", "A") + "," + SECTORS + "}"));
+
+        assertThat(layout.spots()).isEqualTo(2);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO parking_spot"), anyList());
+    }
+
+    @Test
+    void load_WithUnknownFields_ShouldSkipThem() throws Exception {
+        LoadedLayout layout = loader.load(json("{\"levels\":[{\"id\":1}]," + SECTORS + "," + spots("A", "B") + "}"));
+
+        assertThat(layout.spots()).isEqualTo(2);
+    }
+
+    @Test
+    void load_WithSpotOfUnknownSector_ShouldThrowException() {
+        assertThatThrownBy(() -> loader.load(json("{" + SECTORS + "," + spots("A", "C") + "}")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown sector C");
+    }
+
+    @Test
+    void load_WithSectorWithoutSpots_ShouldThrowException() {
+        assertThatThrownBy(() -> loader.load(json("{" + SECTORS + "," + spots("A") + "}")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Sector B must have at least one spot");
+    }
+
+    @Test
+    void load_WithoutSectors_ShouldThrowException() {
+        assertThatThrownBy(() -> loader.load(json("{" + spots("A") + "}")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least one sector");
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+    }
+
+    @Test
+    void load_WithDuplicateSector_ShouldThrowException() {
+        String sectors = "\"garage\":[{\"sector\":\"A\",\"base_price\":10.0,\"max_capacity\":3}," +
+                "{\"sector\":\"A\",\"base_price\":4.0,\"max_capacity\":2}]";
+
+        assertThatThrownBy(() -> loader.load(json("{" + sectors + "," + spots("A") + "}")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("listed more than once");
+    }
+
+    private static String spots(String... sectors) {
+        return IntStream.range(0, sectors.length)
+                .mapToObj(i -> "{\"id\":" + (i + 1) + ",\"sector\":\"" + sectors[i] + "\"," +
+                        "\"lat\":-23.56" + i + ",\"lng\":-46.65" + i + "}")
+                .collect(Collectors.joining(",", "\"spots\":[", "]"));
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
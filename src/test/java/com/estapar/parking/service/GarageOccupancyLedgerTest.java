@@ -0,0 +1,237 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.ShardConfig;
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GarageOccupancyLedgerTest {
+
+    @Mock
+    private GarageRepository garageRepository;
+
+    @Mock
+    private SectorCapacityService sectorCapacityService;
+
+    @Mock
+    private SessionWriteBehindStore sessionStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GarageOccupancyLedger ledger;
+    private UUID garageId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new GarageOccupancyLedger(garageRepository, sectorCapacityService, meterRegistry,
+                new GarageShardRouter(new ShardConfig(), event -> { }, meterRegistry), sessionStore);
+        garageId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getOccupied_ShouldLoadFromDatabaseOnlyOnce() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(7L);
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(7L);
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(7L);
+
+        verify(garageRepository, times(1)).calcOccupancy(garageId);
+    }
+
+    @Test
+    void warmUp_ShouldLoadEveryGarage() {
+        Garage garage = new Garage();
+        garage.setId(garageId);
+        when(garageRepository.findAll()).thenReturn(List.of(garage));
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(3L);
+
+        ledger.warmUp();
+
+        assertThat(meterRegistry.get("parking.occupancy.occupied").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void tryReserve_WithAvailableCapacity_ShouldReturnPreviousOccupancy() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(4L);
+
+        long occupied = ledger.tryReserve(garageId, 10);
+
+        assertThat(occupied).isEqualTo(4L);
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(5L);
+    }
+
+    @Test
+    void tryReserve_WithGarageFull_ShouldReturnNoCapacity() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(10L);
+
+        long occupied = ledger.tryReserve(garageId, 10);
+
+        assertThat(occupied).isEqualTo(GarageOccupancyLedger.NO_CAPACITY);
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(10L);
+        assertThat(ledger.isFull(garageId, 10)).isTrue();
+    }
+
+    @Test
+    void tryReserve_WithRolledBackTransaction_ShouldReleaseReservation() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.tryReserve(garageId, 10);
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(3L);
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(2L);
+    }
+
+    @Test
+    void release_WithinTransaction_ShouldApplyOnlyAfterCommit() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.release(garageId);
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(2L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(1L);
+    }
+
+    @Test
+    void release_WithZeroOccupancy_ShouldNotGoNegative() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(0L);
+
+        ledger.release(garageId);
+
+        assertThat(ledger.getOccupied(garageId)).isZero();
+    }
+
+    @Test
+    void reconcile_WithDrift_ShouldCorrectLedgerAndRecordDrift() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L, 8L);
+        ledger.getOccupied(garageId);
+
+        ledger.reconcile();
+
+        verify(sectorCapacityService).flush();
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(8L);
+        assertThat(meterRegistry.get("parking.occupancy.drift").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("parking.occupancy.reconciliations")
+                .tag("outcome", "corrected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reconcile_WithoutDrift_ShouldKeepLedger() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L);
+        ledger.getOccupied(garageId);
+
+        ledger.reconcile();
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(5L);
+        assertThat(meterRegistry.get("parking.occupancy.reconciliations")
+                .tag("outcome", "in_sync").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reconcile_WithReservationNotYetCommitted_ShouldNotCountItAsDrift() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.tryReserve(garageId, 10);
+
+        ledger.reconcile();
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(6L);
+        assertThat(meterRegistry.get("parking.occupancy.reconciliations")
+                .tag("outcome", "in_sync").counter().count()).isEqualTo(1.0);
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(5L);
+    }
+
+    @Test
+    void reconcile_WhileReservationCommits_ShouldWaitForLedgerUpdate() throws Exception {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L, 6L);
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.tryReserve(garageId, 10);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        CompletableFuture<Void> reconcile = CompletableFuture.runAsync(ledger::reconcile);
+        Thread.sleep(100);
+        assertThat(reconcile).isNotDone();
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        reconcile.get(5, TimeUnit.SECONDS);
+
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(6L);
+        assertThat(meterRegistry.get("parking.occupancy.reconciliations")
+                .tag("outcome", "in_sync").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reconcile_WithWriteBehindSessions_ShouldFlushSessionsBeforeCounting() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L);
+        when(sessionStore.isEnabled()).thenReturn(true);
+        when(sessionStore.isFlushed()).thenReturn(true);
+        ledger.getOccupied(garageId);
+
+        ledger.reconcile();
+
+        InOrder order = inOrder(sessionStore, sectorCapacityService, garageRepository);
+        order.verify(sessionStore).flush();
+        order.verify(sectorCapacityService).flush();
+        order.verify(garageRepository).calcOccupancy(garageId);
+    }
+
+    @Test
+    void reconcile_WhenSessionFlushFails_ShouldSkipGarage() {
+        when(garageRepository.calcOccupancy(garageId)).thenReturn(5L);
+        when(sessionStore.isEnabled()).thenReturn(true);
+        when(sessionStore.isFlushed()).thenReturn(false);
+        ledger.getOccupied(garageId);
+
+        ledger.reconcile();
+
+        verify(garageRepository, times(1)).calcOccupancy(garageId);
+        verify(sectorCapacityService, never()).flush();
+        assertThat(ledger.getOccupied(garageId)).isEqualTo(5L);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -1,7 +1,7 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
-import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.GarageTopologyCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,7 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,77 +23,67 @@ import static org.mockito.Mockito.when;
 class GarageResolverTest {
 
     @Mock
-    private GarageRepository garageRepository;
+    private GarageTopologyCache topologyCache;
 
     @InjectMocks
     private GarageResolver garageResolver;
 
-    private Garage garage;
-    private Garage defaultGarage;
+    private GarageTopology garage;
+    private GarageTopology defaultGarage;
     private UUID garageId;
 
     @BeforeEach
     void setUp() {
         garageId = UUID.randomUUID();
-
-        garage = new Garage();
-        garage.setId(garageId);
-        garage.setIsDefault(false);
-        garage.setMaxCapacity(100);
-        garage.setCreatedAt(Instant.now());
-
-        defaultGarage = new Garage();
-        defaultGarage.setId(UUID.randomUUID());
-        defaultGarage.setIsDefault(true);
-        defaultGarage.setMaxCapacity(200);
-        defaultGarage.setCreatedAt(Instant.now());
+        garage = new GarageTopology(garageId, false, 100, List.of(), List.of());
+        defaultGarage = new GarageTopology(UUID.randomUUID(), true, 200, List.of(), List.of());
     }
 
     @Test
     void getGarage_WithGarageId_ShouldReturnGarage() {
-        when(garageRepository.findById(garageId)).thenReturn(Optional.of(garage));
+        when(topologyCache.find(garageId)).thenReturn(Optional.of(garage));
 
-        Garage result = garageResolver.getGarage(garageId);
+        GarageTopology result = garageResolver.getGarage(garageId);
 
         assertThat(result).isEqualTo(garage);
-        verify(garageRepository).findById(garageId);
+        verify(topologyCache).find(garageId);
     }
 
     @Test
     void getGarage_WithNullGarageId_ShouldReturnDefaultGarage() {
-        when(garageRepository.findByIsDefaultTrue()).thenReturn(Optional.of(defaultGarage));
+        when(topologyCache.findDefault()).thenReturn(Optional.of(defaultGarage));
 
-        Garage result = garageResolver.getGarage(null);
+        GarageTopology result = garageResolver.getGarage(null);
 
         assertThat(result).isEqualTo(defaultGarage);
-        verify(garageRepository).findByIsDefaultTrue();
+        verify(topologyCache).findDefault();
     }
 
     @Test
     void getGarage_WithNonExistentGarageId_ShouldThrowException() {
-        when(garageRepository.findById(garageId)).thenReturn(Optional.empty());
+        when(topologyCache.find(garageId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> garageResolver.getGarage(garageId))
                 .isInstanceOf(ResponseStatusException.class);
-        verify(garageRepository).findById(garageId);
+        verify(topologyCache).find(garageId);
     }
 
     @Test
     void getDefaultGarage_WithDefaultGarage_ShouldReturnDefaultGarage() {
-        when(garageRepository.findByIsDefaultTrue()).thenReturn(Optional.of(defaultGarage));
+        when(topologyCache.findDefault()).thenReturn(Optional.of(defaultGarage));
 
-        Garage result = garageResolver.getDefaultGarage();
+        GarageTopology result = garageResolver.getDefaultGarage();
 
         assertThat(result).isEqualTo(defaultGarage);
-        verify(garageRepository).findByIsDefaultTrue();
+        verify(topologyCache).findDefault();
     }
 
     @Test
     void getDefaultGarage_WithNoDefaultGarage_ShouldThrowException() {
-        when(garageRepository.findByIsDefaultTrue()).thenReturn(Optional.empty());
+        when(topologyCache.findDefault()).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> garageResolver.getDefaultGarage())
                 .isInstanceOf(ResponseStatusException.class);
-        verify(garageRepository).findByIsDefaultTrue();
+        verify(topologyCache).findDefault();
     }
 }
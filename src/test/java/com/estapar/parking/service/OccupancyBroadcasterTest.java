@@ -0,0 +1,211 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.OccupancySnapshotDto;
+import com.estapar.parking.config.DecimalConfig;
+import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.GarageTopologyCache;
+import com.estapar.parking.service.topology.SectorTopology;
+import com.estapar.parking.util.BigDecimalUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyBroadcasterTest {
+
+    @Mock
+    private GarageResolver garageResolver;
+
+    @Mock
+    private GarageTopologyCache topologyCache;
+
+    @Mock
+    private GarageOccupancyLedger occupancyLedger;
+
+    @Mock
+    private SectorCapacityService sectorCapacityService;
+
+    @Mock
+    private PricingStrategyResolver pricingStrategyResolver;
+
+    private OccupancyBroadcaster broadcaster;
+
+    private GarageTopology garage;
+    private UUID sectorId;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new OccupancyBroadcaster(garageResolver, topologyCache, occupancyLedger, sectorCapacityService,
+                pricingStrategyResolver, new BigDecimalUtils(new DecimalConfig()),
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), 60_000, 2);
+
+        sectorId = UUID.randomUUID();
+        garage = new GarageTopology(UUID.randomUUID(), true, 10,
+                List.of(new SectorTopology(sectorId, "A", new BigDecimal("10.00"), 4)), List.of());
+
+        PricingStrategy strategy = new PricingStrategy();
+        strategy.setMultiplier(new BigDecimal("1.10"));
+        lenient().when(pricingStrategyResolver.findStrategy(any())).thenReturn(strategy);
+        lenient().when(topologyCache.find(garage.getId())).thenReturn(Optional.of(garage));
+    }
+
+    @Test
+    void currentSnapshot_ShouldReturnGarageAndSectorOccupancy() {
+        when(garageResolver.getGarage(null)).thenReturn(garage);
+        givenOccupancy(6, 3);
+
+        OccupancySnapshotDto snapshot = broadcaster.currentSnapshot(null);
+
+        assertThat(snapshot.getGarageId()).isEqualTo(garage.getId());
+        assertThat(snapshot.getOccupied()).isEqualTo(6);
+        assertThat(snapshot.getOccupancyPercentage()).isEqualByComparingTo("60.00");
+        assertThat(snapshot.getPricingMultiplier()).isEqualByComparingTo("1.10");
+        assertThat(snapshot.getSectors()).singleElement().satisfies(sector -> {
+            assertThat(sector.getSector()).isEqualTo("A");
+            assertThat(sector.getOccupied()).isEqualTo(3);
+            assertThat(sector.getAvailable()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void currentSnapshot_WithFullGarage_ShouldOmitPricingMultiplier() {
+        when(garageResolver.getGarage(null)).thenReturn(garage);
+        when(pricingStrategyResolver.findStrategy(any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        givenOccupancy(10, 4);
+
+        assertThat(broadcaster.currentSnapshot(null).getPricingMultiplier()).isNull();
+    }
+
+    @Test
+    void register_ShouldSendCurrentSnapshot() throws Exception {
+        givenOccupancy(1, 1);
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        broadcaster.register(garage, emitter);
+
+        awaitSends(emitter, 1);
+    }
+
+    @Test
+    void register_BeyondSubscriberLimit_ShouldThrowException() {
+        givenOccupancy(1, 1);
+        broadcaster.register(garage, mock(SseEmitter.class));
+        broadcaster.register(garage, mock(SseEmitter.class));
+
+        assertThatThrownBy(() -> broadcaster.register(garage, mock(SseEmitter.class)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("subscriber limit");
+    }
+
+    @Test
+    void tick_WithChangedOccupancy_ShouldPushOnceForSeveralEvents() throws Exception {
+        givenOccupancy(1, 1);
+        SseEmitter emitter = mock(SseEmitter.class);
+        broadcaster.register(garage, emitter);
+        awaitSends(emitter, 1);
+
+        givenOccupancy(3, 2);
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+        broadcaster.tick();
+
+        awaitSends(emitter, 2);
+        verify(occupancyLedger, times(2)).getOccupied(garage.getId());
+    }
+
+    @Test
+    void tick_WithUnchangedOccupancy_ShouldNotPushAgain() throws Exception {
+        givenOccupancy(1, 1);
+        SseEmitter emitter = mock(SseEmitter.class);
+        broadcaster.register(garage, emitter);
+        // Wait for the registration snapshot, or the first tick may coalesce with it
+        awaitSends(emitter, 1);
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+        broadcaster.tick();
+        awaitSends(emitter, 2);
+
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+        broadcaster.tick();
+
+        Thread.sleep(100);
+        verify(emitter, times(2)).send(anySet());
+    }
+
+    @Test
+    void tick_WithoutSubscribers_ShouldNotBuildSnapshot() {
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+
+        broadcaster.tick();
+
+        verify(occupancyLedger, never()).getOccupied(any());
+    }
+
+    @Test
+    void tick_AfterSendFailure_ShouldDropSubscriber() throws Exception {
+        givenOccupancy(1, 1);
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(anySet());
+        broadcaster.register(garage, emitter);
+        awaitSends(emitter, 1);
+        Thread.sleep(100);
+
+        givenOccupancy(2, 2);
+        broadcaster.onOccupancyChanged(new OccupancyChangedEvent(garage.getId()));
+        broadcaster.tick();
+
+        verify(occupancyLedger, times(1)).getOccupied(garage.getId());
+    }
+
+    /**
+     * Waits for the push thread to send {@code count} events. Not {@code verify(emitter, timeout(...))}:
+     * {@code send} is synchronized, so a polling verification would hold the emitter's monitor and
+     * block the very send it waits for.
+     */
+    private static void awaitSends(SseEmitter emitter, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (sends(emitter) < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sends(emitter)).isEqualTo(count);
+    }
+
+    private static long sends(SseEmitter emitter) {
+        return mockingDetails(emitter).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("send"))
+                .count();
+    }
+
+    private void givenOccupancy(long garageOccupied, int sectorOccupied) {
+        lenient().when(sectorCapacityService.getOccupied(sectorId)).thenReturn(sectorOccupied);
+        lenient().when(occupancyLedger.getOccupied(garage.getId())).thenReturn(garageOccupied);
+    }
+}
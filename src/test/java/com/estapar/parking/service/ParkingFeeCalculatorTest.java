@@ -1,31 +1,23 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.config.DecimalConfig;
 import com.estapar.parking.util.BigDecimalUtils;
+import com.estapar.parking.util.FixedPointMoney;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 class ParkingFeeCalculatorTest {
 
-    @Mock
     private BigDecimalUtils bigDecimalUtils;
-
-    @InjectMocks
     private ParkingFeeCalculator parkingFeeCalculator;
 
     private Instant entryTime;
@@ -33,67 +25,85 @@ class ParkingFeeCalculatorTest {
 
     @BeforeEach
     void setUp() {
+        DecimalConfig decimalConfig = new DecimalConfig();
+        bigDecimalUtils = new BigDecimalUtils(decimalConfig);
+        parkingFeeCalculator = new ParkingFeeCalculator(bigDecimalUtils, new FixedPointMoney(decimalConfig));
+        ReflectionTestUtils.setField(parkingFeeCalculator, "freeMinutes", 30);
+
         entryTime = Instant.parse("2025-01-01T10:00:00.000Z");
         basePrice = new BigDecimal("10.00");
-        ReflectionTestUtils.setField(parkingFeeCalculator, "freeMinutes", 30);
     }
 
     @Test
     void calculateFee_FreePeriod_ShouldReturnZero() {
         Instant exitTime = entryTime.plusSeconds(29 * 60);
 
-        when(bigDecimalUtils.zeroWithCurrencyScale()).thenReturn(BigDecimal.ZERO.setScale(2));
-
         BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
 
-        assertThat(result).isEqualByComparingTo(BigDecimal.ZERO);
-        verify(bigDecimalUtils).zeroWithCurrencyScale();
+        assertThat(result).isEqualTo(new BigDecimal("0.00"));
     }
 
     @Test
     void calculateFee_Exactly30Minutes_ShouldReturnZero() {
         Instant exitTime = entryTime.plusSeconds(30 * 60);
 
-        when(bigDecimalUtils.zeroWithCurrencyScale()).thenReturn(BigDecimal.ZERO.setScale(2));
+        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
+
+        assertThat(result).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void calculateFee_30MinutesAnd59Seconds_ShouldReturnZero() {
+        Instant exitTime = entryTime.plusSeconds(30 * 60 + 59).plusNanos(999_999_999);
 
         BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
 
-        assertThat(result).isEqualByComparingTo(BigDecimal.ZERO);
-        verify(bigDecimalUtils).zeroWithCurrencyScale();
+        assertThat(result).isEqualTo(new BigDecimal("0.00"));
     }
 
     @Test
     void calculateFee_31Minutes_ShouldCharge1Hour() {
-        Instant exitTime = entryTime.plusSeconds(31 * 60);
+        assertThat(feeAfterMinutes(31)).isEqualTo(new BigDecimal("10.00"));
+    }
 
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
+    @Test
+    void calculateFee_58Minutes_ShouldCharge1Hour() {
+        assertThat(feeAfterMinutes(58)).isEqualTo(new BigDecimal("10.00"));
+    }
 
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
+    @Test
+    void calculateFee_60Minutes_ShouldCharge1Hour() {
+        assertThat(feeAfterMinutes(60)).isEqualTo(new BigDecimal("10.00"));
+    }
 
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.ONE), eq(basePrice));
-        assertThat(result).isNotNull();
+    @Test
+    void calculateFee_62Minutes_ShouldCharge2Hours() {
+        assertThat(feeAfterMinutes(62)).isEqualTo(new BigDecimal("20.00"));
+    }
+
+    @Test
+    void calculateFee_75Minutes_ShouldCharge2Hours() {
+        assertThat(feeAfterMinutes(75)).isEqualTo(new BigDecimal("20.00"));
     }
 
     @Test
     void calculateFee_91Minutes_ShouldCharge2Hours() {
-        Instant exitTime = entryTime.plusSeconds(91 * 60);
+        assertThat(feeAfterMinutes(91)).isEqualTo(new BigDecimal("20.00"));
+    }
 
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
+    @Test
+    void calculateFee_120Minutes_ShouldCharge2Hours() {
+        assertThat(feeAfterMinutes(120)).isEqualTo(new BigDecimal("20.00"));
+    }
 
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
+    @Test
+    void calculateFee_131Minutes_ShouldCharge3Hours() {
+        assertThat(feeAfterMinutes(131)).isEqualTo(new BigDecimal("30.00"));
+    }
 
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(2)), eq(basePrice));
-        assertThat(result).isNotNull();
+    @Test
+    void calculateFee_MultipleHours_ShouldCalculateCorrectly() {
+        assertThat(feeAfterMinutes(3 * 60 + 1)).isEqualTo(new BigDecimal("40.00"));
     }
 
     @Test
@@ -106,121 +116,71 @@ class ParkingFeeCalculatorTest {
     }
 
     @Test
-    void calculateFee_MultipleHours_ShouldCalculateCorrectly() {
-        Instant exitTime = entryTime.plusSeconds(3 * 60 * 60 + 60);
-
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
-
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
+    void calculateFee_WithNullBasePrice_ShouldReturnZero() {
+        Instant exitTime = entryTime.plusSeconds(120 * 60);
 
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(4)), eq(basePrice));
-        assertThat(result).isNotNull();
+        assertThat(parkingFeeCalculator.calculateFee(entryTime, exitTime, null)).isEqualTo(new BigDecimal("0.00"));
     }
 
     @Test
-    void calculateFee_58Minutes_ShouldCharge1Hour() {
-        Instant exitTime = entryTime.plusSeconds(58 * 60);
-
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
+    void calculateFee_WithMultiplier_ShouldRoundEffectivePriceBeforeChargingHours() {
+        Instant exitTime = entryTime.plusSeconds(150 * 60);
 
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
+        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime,
+                new BigDecimal("9.99"), new BigDecimal("1.25"));
 
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.ONE), eq(basePrice));
-        assertThat(result).isNotNull();
+        // 9.99 x 1.25 = 12.4875 -> 12.49 per hour, 3 hours
+        assertThat(result).isEqualTo(new BigDecimal("37.47"));
     }
 
     @Test
-    void calculateFee_62Minutes_ShouldCharge2Hours() {
-        Instant exitTime = entryTime.plusSeconds(62 * 60);
+    void calculateFee_WithPriceBeyondCurrencyScale_ShouldFallBackToBigDecimal() {
+        Instant exitTime = entryTime.plusSeconds(90 * 60);
 
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
+        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, new BigDecimal("10.005"));
 
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
-
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(2)), eq(basePrice));
-        assertThat(result).isNotNull();
+        assertThat(result).isEqualTo(new BigDecimal("20.01"));
     }
 
     @Test
-    void calculateFee_75Minutes_ShouldCharge2Hours() {
-        Instant exitTime = entryTime.plusSeconds(75 * 60);
-
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
-
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
-
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(2)), eq(basePrice));
-        assertThat(result).isNotNull();
+    void calculateFee_ShouldMatchBigDecimalArithmetic() {
+        String[] multipliers = {"0.90", "1.00", "1.10", "1.25", "0.8333"};
+        for (long cents = 1; cents <= 5_000; cents += 7) {
+            BigDecimal price = BigDecimal.valueOf(cents, 2);
+            for (String value : multipliers) {
+                BigDecimal multiplier = new BigDecimal(value);
+                for (long minutes : new long[]{0, 30, 31, 60, 61, 599, 1_441}) {
+                    Instant exitTime = entryTime.plus(Duration.ofMinutes(minutes));
+
+                    assertThat(parkingFeeCalculator.calculateFee(entryTime, exitTime, price, multiplier))
+                            .as("price=%s multiplier=%s minutes=%d", price, multiplier, minutes)
+                            .isEqualTo(bigDecimalFee(minutes, price, multiplier));
+                }
+            }
+        }
     }
 
     @Test
-    void calculateFee_131Minutes_ShouldCharge3Hours() {
-        Instant exitTime = entryTime.plusSeconds(131 * 60);
+    void calculateFeeMinorUnits_ShouldMultiplyChargeableHours() {
+        Instant exitTime = entryTime.plusSeconds(61 * 60);
 
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
-
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
-
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(3)), eq(basePrice));
-        assertThat(result).isNotNull();
+        assertThat(parkingFeeCalculator.calculateFeeMinorUnits(entryTime, exitTime, 1_249)).isEqualTo(2_498);
     }
 
-    @Test
-    void calculateFee_60Minutes_ShouldCharge1Hour() {
-        Instant exitTime = entryTime.plusSeconds(60 * 60);
-
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
-
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
-
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.ONE), eq(basePrice));
-        assertThat(result).isNotNull();
+    private BigDecimal feeAfterMinutes(long minutes) {
+        return parkingFeeCalculator.calculateFee(entryTime, entryTime.plusSeconds(minutes * 60), basePrice);
     }
 
-    @Test
-    void calculateFee_120Minutes_ShouldCharge2Hours() {
-        Instant exitTime = entryTime.plusSeconds(120 * 60);
-
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(any(BigDecimal.class), any(BigDecimal.class)))
-                .thenAnswer(invocation -> {
-                    BigDecimal value1 = invocation.getArgument(0);
-                    BigDecimal value2 = invocation.getArgument(1);
-                    return value1.multiply(value2).setScale(2, java.math.RoundingMode.HALF_UP);
-                });
-
-        BigDecimal result = parkingFeeCalculator.calculateFee(entryTime, exitTime, basePrice);
-
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(eq(BigDecimal.valueOf(2)), eq(basePrice));
-        assertThat(result).isNotNull();
+    /**
+     * The original BigDecimal implementation, kept as the reference the fixed-point path must match.
+     */
+    private BigDecimal bigDecimalFee(long minutes, BigDecimal price, BigDecimal multiplier) {
+        if (minutes <= 30) {
+            return bigDecimalUtils.zeroWithCurrencyScale();
+        }
+        BigDecimal effectivePrice = bigDecimalUtils.multiplyAndSetCurrencyScale(price, multiplier);
+        BigDecimal chargeableHours = BigDecimal.valueOf(minutes)
+                .divide(BigDecimal.valueOf(60), 0, RoundingMode.CEILING);
+        return bigDecimalUtils.multiplyAndSetCurrencyScale(chargeableHours, effectivePrice);
     }
 }
@@ -1,8 +1,10 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.service.session.ActiveSessionIndex;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
+import com.estapar.parking.service.topology.GarageTopology;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,12 +13,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,23 +32,30 @@ class ParkingSessionServiceTest {
     @Mock
     private ParkingSessionRepository sessionRepository;
 
+    @Mock
+    private SessionWriteBehindStore writeBehindStore;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private ActiveSessionIndex activeSessionIndex;
+
     @InjectMocks
     private ParkingSessionService parkingSessionService;
 
-    private Garage garage;
+    private GarageTopology garage;
     private ParkingSession session;
     private String licensePlate;
 
     @BeforeEach
     void setUp() {
-        garage = new Garage();
-        garage.setId(UUID.randomUUID());
+        garage = new GarageTopology(UUID.randomUUID(), true, 100, List.of(), List.of());
 
         licensePlate = "ABC1234";
 
         session = new ParkingSession();
         session.setId(UUID.randomUUID());
-        session.setGarage(garage);
         session.setVehicleLicensePlate(licensePlate);
         session.setEntryTime(Instant.now());
         session.setExitTime(null);
@@ -90,4 +103,109 @@ class ParkingSessionServiceTest {
         assertThat(result).isFalse();
         verify(sessionRepository).existsActiveSession(garage.getId(), licensePlate);
     }
+
+    @Test
+    void close_ShouldSaveSessionAndAddRevenue() {
+        parkingSessionService.close(session);
+
+        verify(sessionRepository).save(session);
+        verify(revenueRollupService).addSession(session);
+    }
+
+    @Test
+    void findActiveSession_WithWriteBehindStore_ShouldNotQueryDatabase() {
+        when(writeBehindStore.isEnabled()).thenReturn(true);
+        when(writeBehindStore.findActive(garage.getId(), licensePlate)).thenReturn(Optional.of(session));
+
+        assertThat(parkingSessionService.findActiveSession(garage, licensePlate)).isEqualTo(session);
+        assertThat(parkingSessionService.existsActiveSession(garage, licensePlate)).isTrue();
+        verify(sessionRepository, never()).findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(any(), any());
+        verify(sessionRepository, never()).existsActiveSession(any(), any());
+    }
+
+    @Test
+    void openAndClose_WithWriteBehindStore_ShouldDelegateToStore() {
+        when(writeBehindStore.isEnabled()).thenReturn(true);
+
+        parkingSessionService.open(session);
+        parkingSessionService.close(session);
+
+        verify(writeBehindStore).open(session);
+        verify(writeBehindStore).close(session);
+        verify(sessionRepository, never()).save(any());
+        verify(revenueRollupService, never()).addSession(any());
+    }
+
+    @Test
+    void existsActiveSession_WithIndex_ShouldNotQueryDatabase() {
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(true);
+        when(activeSessionIndex.find(garage.getId(), licensePlate)).thenReturn(Optional.of(indexEntry()));
+
+        assertThat(parkingSessionService.existsActiveSession(garage, licensePlate)).isTrue();
+        verify(sessionRepository, never()).existsActiveSession(any(), any());
+    }
+
+    @Test
+    void existsActiveSession_WithGarageNotYetIndexed_ShouldQueryDatabase() {
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(false);
+        when(sessionRepository.existsActiveSession(garage.getId(), licensePlate)).thenReturn(true);
+
+        assertThat(parkingSessionService.existsActiveSession(garage, licensePlate)).isTrue();
+        verify(activeSessionIndex, never()).find(any(), any());
+    }
+
+    @Test
+    void findActiveSession_WithIndexHit_ShouldLoadByPrimaryKey() {
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(true);
+        when(activeSessionIndex.find(garage.getId(), licensePlate)).thenReturn(Optional.of(indexEntry()));
+        when(sessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThat(parkingSessionService.findActiveSession(garage, licensePlate)).isEqualTo(session);
+        verify(sessionRepository, never()).findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(any(), any());
+    }
+
+    @Test
+    void findActiveSession_WithIndexMiss_ShouldThrowWithoutQueryingDatabase() {
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(true);
+        when(activeSessionIndex.find(garage.getId(), licensePlate)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> parkingSessionService.findActiveSession(garage, licensePlate))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(sessionRepository, never()).findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(any(), any());
+    }
+
+    @Test
+    void findActiveSession_WithGarageNotYetIndexed_ShouldQueryDatabaseAndRepairIndex() {
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(false);
+        when(sessionRepository.findByGarageIdAndVehicleLicensePlateAndExitTimeIsNull(
+                garage.getId(), licensePlate)).thenReturn(Optional.of(session));
+
+        assertThat(parkingSessionService.findActiveSession(garage, licensePlate)).isEqualTo(session);
+        verify(activeSessionIndex).repair(session);
+    }
+
+    @Test
+    void findActiveSession_WithStaleIndexEntry_ShouldEvictAndThrow() {
+        session.setExitTime(Instant.now());
+        when(activeSessionIndex.covers(garage.getId())).thenReturn(true);
+        when(activeSessionIndex.find(garage.getId(), licensePlate)).thenReturn(Optional.of(indexEntry()));
+        when(sessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> parkingSessionService.findActiveSession(garage, licensePlate))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(activeSessionIndex).evict(garage.getId(), licensePlate);
+    }
+
+    @Test
+    void openAndClose_ShouldUpdateIndex() {
+        parkingSessionService.open(session);
+        parkingSessionService.close(session);
+
+        verify(activeSessionIndex).opened(session);
+        verify(activeSessionIndex).closed(session);
+    }
+
+    private ActiveSessionIndex.Entry indexEntry() {
+        return new ActiveSessionIndex.Entry(session.getId(), null, session.getEntryTime(), BigDecimal.ONE);
+    }
 }
@@ -0,0 +1,118 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SpotTopology;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParkingSpotIndexTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GarageTopology garage;
+    private UUID firstSpotId;
+    private UUID secondSpotId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        firstSpotId = UUID.randomUUID();
+        secondSpotId = UUID.randomUUID();
+        UUID sectorId = UUID.randomUUID();
+        garage = new GarageTopology(UUID.randomUUID(), true, 10, List.of(), List.of(
+                new SpotTopology(firstSpotId, sectorId, new BigDecimal("-23.561684"), new BigDecimal("-46.655981")),
+                new SpotTopology(secondSpotId, sectorId, new BigDecimal("-23.561694"), new BigDecimal("-46.655981"))));
+    }
+
+    @Test
+    void resolve_WithExactCoordinates_ShouldReturnSpot() {
+        ParkingSpotIndex index = index("0");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.561684"), new BigDecimal("-46.655981")))
+                .contains(firstSpotId);
+        assertThat(lookups("exact")).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_WithDifferentScale_ShouldMatchExactCoordinates() {
+        ParkingSpotIndex index = index("0");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.56168400"), new BigDecimal("-46.65598100")))
+                .contains(firstSpotId);
+    }
+
+    @Test
+    void resolve_WithoutTolerance_ShouldNotSnap() {
+        ParkingSpotIndex index = index("0");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.5616845"), new BigDecimal("-46.655981")))
+                .isEmpty();
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_WithinTolerance_ShouldSnapToNearestSpot() {
+        ParkingSpotIndex index = index("0.000010");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.561688"), new BigDecimal("-46.655981")))
+                .contains(firstSpotId);
+        assertThat(index.resolve(garage, new BigDecimal("-23.561693"), new BigDecimal("-46.655981")))
+                .contains(secondSpotId);
+        assertThat(lookups("snapped")).isEqualTo(2);
+    }
+
+    @Test
+    void resolve_BeyondTolerance_ShouldReturnEmpty() {
+        ParkingSpotIndex index = index("0.000001");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.561700"), new BigDecimal("-46.655981")))
+                .isEmpty();
+    }
+
+    @Test
+    void resolve_WithToleranceWiderThanCell_ShouldSearchNeighbouringCells() {
+        ParkingSpotIndex index = index("0.000050");
+
+        assertThat(index.resolve(garage, new BigDecimal("-23.561730"), new BigDecimal("-46.655981")))
+                .contains(secondSpotId);
+    }
+
+    @Test
+    void resolve_InLargeGarage_ShouldSearchOnlyNeighbouringCells() {
+        List<SpotTopology> spots = new ArrayList<>();
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 20; column++) {
+                spots.add(new SpotTopology(UUID.randomUUID(), UUID.randomUUID(),
+                        new BigDecimal("-23.56").subtract(new BigDecimal("0.0001").multiply(BigDecimal.valueOf(row))),
+                        new BigDecimal("-46.65").subtract(new BigDecimal("0.0001").multiply(BigDecimal.valueOf(column)))));
+            }
+        }
+        GarageTopology large = new GarageTopology(UUID.randomUUID(), true, 400, List.of(), spots);
+
+        assertThat(index("0.000020").resolve(large, new BigDecimal("-23.560510"), new BigDecimal("-46.650705")))
+                .contains(spots.get(5 * 20 + 7).id());
+    }
+
+    @Test
+    void resolve_WithToleranceCoveringWholeGarage_ShouldScanSpotsInsteadOfCells() {
+        ParkingSpotIndex index = index("10");
+
+        assertThat(index.resolve(garage, new BigDecimal("-20.0"), new BigDecimal("-40.0")))
+                .contains(firstSpotId);
+    }
+
+    private ParkingSpotIndex index(String tolerance) {
+        return new ParkingSpotIndex(meterRegistry, new BigDecimal(tolerance));
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("parking.spot.index.lookups").tag("outcome", outcome).counter().count();
+    }
+}
@@ -4,6 +4,7 @@ import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
+import com.estapar.parking.service.session.SessionWriteBehindStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class ParkingSpotServiceTest {
     @Mock
     private SectorCapacityService sectorCapacityService;
 
+    @Mock
+    private SessionWriteBehindStore writeBehindStore;
+
     @InjectMocks
     private ParkingSpotService parkingSpotService;
 
@@ -86,4 +90,18 @@ class ParkingSpotServiceTest {
         verify(spotRepository, never()).save(any());
         verify(sectorCapacityService, never()).decrementCapacity(any());
     }
+
+    @Test
+    void assignSpot_WithWriteBehindStore_ShouldNotTouchSpotEntity() {
+        when(writeBehindStore.isEnabled()).thenReturn(true);
+        when(writeBehindStore.isSpotOccupied(spot.getId())).thenReturn(false);
+
+        assertThat(parkingSpotService.isOccupied(spot)).isFalse();
+        parkingSpotService.assignSpot(session, spot);
+
+        assertThat(spot.getIsOccupied()).isFalse();
+        assertThat(session.getSpot()).isEqualTo(spot);
+        verify(writeBehindStore).occupySpot(spot.getId());
+        verify(spotRepository, never()).save(any());
+    }
 }
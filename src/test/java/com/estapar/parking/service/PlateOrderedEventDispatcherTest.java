@@ -0,0 +1,126 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PlateOrderedEventDispatcherTest {
+
+    @Mock
+    private WebhookEventService webhookEventService;
+
+    private PlateOrderedEventDispatcher dispatcher;
+    private UUID garageId;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new PlateOrderedEventDispatcher(webhookEventService, new SimpleMeterRegistry(), 4, 2);
+        garageId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_ShouldKeepOrderForSamePlate() {
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            futures.add(dispatcher.submit("ABC1234", () -> processed.add(sequence)));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(processed).hasSize(100).isSorted();
+    }
+
+    @Test
+    void laneOf_ShouldBeStableForPlate() {
+        assertThat(dispatcher.laneOf("ABC1234")).isEqualTo(dispatcher.laneOf("ABC1234"));
+        assertThat(dispatcher.laneOf("ABC1234")).isBetween(0, dispatcher.laneCount() - 1);
+    }
+
+    @Test
+    void process_WithOptimisticLockConflict_ShouldRetry() {
+        WebhookEventDto event = entryEvent("ABC1234");
+        doThrow(new OptimisticLockingFailureException("conflict"))
+                .doNothing()
+                .when(webhookEventService).processEvent(garageId, event);
+
+        dispatcher.process(garageId, event);
+
+        verify(webhookEventService, times(2)).processEvent(garageId, event);
+    }
+
+    @Test
+    void process_WithPersistentOptimisticLockConflict_ShouldRethrowAfterRetries() {
+        WebhookEventDto event = entryEvent("ABC1234");
+        doThrow(new OptimisticLockingFailureException("conflict"))
+                .when(webhookEventService).processEvent(garageId, event);
+
+        assertThatThrownBy(() -> dispatcher.process(garageId, event))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(webhookEventService, times(3)).processEvent(garageId, event);
+    }
+
+    @Test
+    void process_WithBusinessError_ShouldRethrowOriginalException() {
+        WebhookEventDto event = entryEvent("ABC1234");
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Garage is full"))
+                .when(webhookEventService).processEvent(garageId, event);
+
+        assertThatThrownBy(() -> dispatcher.process(garageId, event))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Garage is full");
+        verify(webhookEventService, times(1)).processEvent(any(), any());
+    }
+
+    @Test
+    void process_ShouldRunOnVirtualThread() {
+        WebhookEventDto event = entryEvent("ABC1234");
+        List<Boolean> virtual = new ArrayList<>();
+        doAnswer(invocation -> virtual.add(Thread.currentThread().isVirtual()))
+                .when(webhookEventService).processEvent(garageId, event);
+
+        dispatcher.process(garageId, event);
+
+        assertThat(virtual).containsExactly(true);
+    }
+
+    private EntryEventDto entryEvent(String licensePlate) {
+        EntryEventDto event = new EntryEventDto();
+        event.setEventType(EventType.ENTRY);
+        event.setLicensePlate(licensePlate);
+        event.setEntryTime(Instant.now());
+        return event;
+    }
+}
@@ -2,10 +2,11 @@ package com.estapar.parking.service;
 
 import com.estapar.parking.api.dto.RevenueResponseDto;
 import com.estapar.parking.api.mapper.ParkingMapper;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
-import com.estapar.parking.infrastructure.persistence.entity.Sector;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
-import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDaily;
+import com.estapar.parking.infrastructure.persistence.entity.RevenueDailyId;
+import com.estapar.parking.infrastructure.persistence.repository.RevenueDailyRepository;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,19 +14,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,10 +35,7 @@ class PricingServiceTest {
     private BigDecimalUtils bigDecimalUtils;
 
     @Mock
-    private ParkingSessionRepository sessionRepository;
-
-    @Mock
-    private SectorRepository sectorRepository;
+    private RevenueDailyRepository revenueDailyRepository;
 
     @Mock
     private GarageResolver garageResolver;
@@ -50,19 +46,13 @@ class PricingServiceTest {
     @InjectMocks
     private PricingService pricingService;
 
-    private Garage garage;
-    private Sector sector;
+    private GarageTopology garage;
+    private SectorTopology sector;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(pricingService, "applicationTimezone", "America/Sao_Paulo");
-        
-        garage = new Garage();
-        garage.setId(UUID.randomUUID());
-
-        sector = new Sector();
-        sector.setId(UUID.randomUUID());
-        sector.setGarage(garage);
+        sector = new SectorTopology(UUID.randomUUID(), "A", new BigDecimal("10.00"), 10);
+        garage = new GarageTopology(UUID.randomUUID(), true, 10, List.of(sector), List.of());
     }
 
     @Test
@@ -74,14 +64,11 @@ class PricingServiceTest {
         BigDecimal scaledRevenue = new BigDecimal("150.50");
         RevenueResponseDto expectedResponse = new RevenueResponseDto(
                 scaledRevenue, "BRL", Instant.now());
-        Instant startOfDay = date.atStartOfDay(ZoneId.of("America/Sao_Paulo")).toInstant();
+        RevenueDailyId rollupId = new RevenueDailyId(garage.getId(), sector.id(), date);
 
         when(garageResolver.getGarage(garageId)).thenReturn(garage);
-        when(sectorRepository.findByGarageIdAndSectorCode(garage.getId(), sectorCode))
-                .thenReturn(Optional.of(sector));
-        when(sessionRepository.sumRevenueByGarageAndSectorAndDate(
-                eq(garage.getId()), eq(sector.getId()), eq(startOfDay)))
-                .thenReturn(totalRevenue);
+        when(revenueDailyRepository.findById(rollupId))
+                .thenReturn(Optional.of(new RevenueDaily(rollupId, totalRevenue, 3)));
         when(bigDecimalUtils.setCurrencyScale(totalRevenue)).thenReturn(scaledRevenue);
         when(parkingMapper.toRevenueResponseDto(scaledRevenue)).thenReturn(expectedResponse);
 
@@ -89,9 +76,7 @@ class PricingServiceTest {
 
         assertThat(result).isEqualTo(expectedResponse);
         verify(garageResolver).getGarage(garageId);
-        verify(sectorRepository).findByGarageIdAndSectorCode(garage.getId(), sectorCode);
-        verify(sessionRepository).sumRevenueByGarageAndSectorAndDate(
-                eq(garage.getId()), eq(sector.getId()), eq(startOfDay));
+        verify(revenueDailyRepository).findById(rollupId);
         verify(bigDecimalUtils).setCurrencyScale(totalRevenue);
         verify(parkingMapper).toRevenueResponseDto(scaledRevenue);
     }
@@ -104,14 +89,10 @@ class PricingServiceTest {
         BigDecimal zeroRevenue = BigDecimal.ZERO.setScale(2);
         RevenueResponseDto expectedResponse = new RevenueResponseDto(
                 zeroRevenue, "BRL", Instant.now());
-        Instant startOfDay = date.atStartOfDay(ZoneId.of("America/Sao_Paulo")).toInstant();
+        RevenueDailyId rollupId = new RevenueDailyId(garage.getId(), sector.id(), date);
 
         when(garageResolver.getGarage(garageId)).thenReturn(garage);
-        when(sectorRepository.findByGarageIdAndSectorCode(garage.getId(), sectorCode))
-                .thenReturn(Optional.of(sector));
-        when(sessionRepository.sumRevenueByGarageAndSectorAndDate(
-                eq(garage.getId()), eq(sector.getId()), eq(startOfDay)))
-                .thenReturn(null);
+        when(revenueDailyRepository.findById(rollupId)).thenReturn(Optional.empty());
         when(bigDecimalUtils.zeroWithCurrencyScale()).thenReturn(zeroRevenue);
         when(bigDecimalUtils.setCurrencyScale(zeroRevenue)).thenReturn(zeroRevenue);
         when(parkingMapper.toRevenueResponseDto(zeroRevenue)).thenReturn(expectedResponse);
@@ -120,9 +101,7 @@ class PricingServiceTest {
 
         assertThat(result).isEqualTo(expectedResponse);
         verify(garageResolver).getGarage(garageId);
-        verify(sectorRepository).findByGarageIdAndSectorCode(garage.getId(), sectorCode);
-        verify(sessionRepository).sumRevenueByGarageAndSectorAndDate(
-                eq(garage.getId()), eq(sector.getId()), eq(startOfDay));
+        verify(revenueDailyRepository).findById(rollupId);
         verify(bigDecimalUtils).zeroWithCurrencyScale();
         verify(bigDecimalUtils).setCurrencyScale(zeroRevenue);
         verify(parkingMapper).toRevenueResponseDto(zeroRevenue);
@@ -135,12 +114,9 @@ class PricingServiceTest {
         String sectorCode = "INVALID";
 
         when(garageResolver.getGarage(garageId)).thenReturn(garage);
-        when(sectorRepository.findByGarageIdAndSectorCode(garage.getId(), sectorCode))
-                .thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> pricingService.getRevenue(garageId, date, sectorCode))
                 .isInstanceOf(ResponseStatusException.class);
         verify(garageResolver).getGarage(garageId);
-        verify(sectorRepository).findByGarageIdAndSectorCode(garage.getId(), sectorCode);
     }
 }
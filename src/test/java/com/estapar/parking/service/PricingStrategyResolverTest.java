@@ -2,20 +2,23 @@ package com.estapar.parking.service;
 
 import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
 import com.estapar.parking.infrastructure.persistence.repository.PricingStrategyRepository;
+import com.estapar.parking.infrastructure.persistence.repository.PricingStrategyRepository.StrategyVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,42 +28,115 @@ class PricingStrategyResolverTest {
     @Mock
     private PricingStrategyRepository repository;
 
-    @InjectMocks
     private PricingStrategyResolver resolver;
 
-    private PricingStrategy pricingStrategy;
-    private BigDecimal occupancyPercentage;
+    private PricingStrategy low;
+    private PricingStrategy high;
+    private Instant lastModified;
 
     @BeforeEach
     void setUp() {
-        pricingStrategy = new PricingStrategy();
-        pricingStrategy.setId(UUID.randomUUID());
-        pricingStrategy.setMultiplier(new BigDecimal("1.5"));
-        pricingStrategy.setOccupancyMinPercentage(new BigDecimal("50.00"));
-        pricingStrategy.setOccupancyMaxPercentage(new BigDecimal("75.00"));
-        pricingStrategy.setIsActive(true);
-
-        occupancyPercentage = new BigDecimal("60.00");
+        resolver = new PricingStrategyResolver(repository, new SimpleMeterRegistry());
+
+        low = strategy("0.00", "50.00", "0.90");
+        high = strategy("50.00", "100.00", "1.25");
+        lastModified = Instant.parse("2025-01-01T00:00:00Z");
     }
 
     @Test
     void findStrategy_WithExistingStrategy_ShouldReturnStrategy() {
-        when(repository.findActiveStrategyByOccupancyRange(occupancyPercentage))
-                .thenReturn(Optional.of(pricingStrategy));
+        givenStrategies(List.of(low, high), version(2, lastModified));
+
+        PricingStrategy result = resolver.findStrategy(new BigDecimal("60.00"));
+
+        assertThat(result).isEqualTo(high);
+    }
+
+    @Test
+    void findStrategy_AtRangeBoundary_ShouldReturnUpperRange() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
+
+        assertThat(resolver.findStrategy(new BigDecimal("49.99"))).isEqualTo(low);
+        assertThat(resolver.findStrategy(new BigDecimal("50.00"))).isEqualTo(high);
+    }
 
-        PricingStrategy result = resolver.findStrategy(occupancyPercentage);
+    @Test
+    void findStrategy_ShouldQueryDatabaseOnce() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
+
+        resolver.findStrategy(new BigDecimal("10.00"));
+        resolver.findStrategy(new BigDecimal("80.00"));
 
-        assertThat(result).isEqualTo(pricingStrategy);
-        verify(repository).findActiveStrategyByOccupancyRange(occupancyPercentage);
+        verify(repository, times(1)).findByIsActiveTrueOrderByOccupancyMinPercentageAsc();
     }
 
     @Test
-    void findStrategy_WithNoStrategy_ShouldThrowException() {
-        when(repository.findActiveStrategyByOccupancyRange(occupancyPercentage))
-                .thenReturn(Optional.empty());
+    void findStrategy_WithOccupancyOutsideRanges_ShouldThrowException() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
 
-        assertThatThrownBy(() -> resolver.findStrategy(occupancyPercentage))
+        assertThatThrownBy(() -> resolver.findStrategy(new BigDecimal("100.00")))
                 .isInstanceOf(ResponseStatusException.class);
-        verify(repository).findActiveStrategyByOccupancyRange(occupancyPercentage);
+    }
+
+    @Test
+    void refreshIfChanged_WithUnchangedVersion_ShouldKeepSnapshot() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
+        resolver.refresh();
+
+        resolver.refreshIfChanged();
+
+        verify(repository, times(1)).findByIsActiveTrueOrderByOccupancyMinPercentageAsc();
+    }
+
+    @Test
+    void refreshIfChanged_WithChangedVersion_ShouldReloadSnapshot() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
+        resolver.refresh();
+
+        PricingStrategy flat = strategy("0.00", "100.00", "1.00");
+        givenStrategies(List.of(flat), version(3, lastModified.plusSeconds(60)));
+        resolver.refreshIfChanged();
+
+        assertThat(resolver.findStrategy(new BigDecimal("60.00"))).isEqualTo(flat);
+    }
+
+    @Test
+    void refreshIfChanged_WithInvalidRanges_ShouldKeepPreviousSnapshot() {
+        givenStrategies(List.of(low, high), version(2, lastModified));
+        resolver.refresh();
+
+        givenStrategies(List.of(low, strategy("60.00", "100.00", "1.25")), version(2, lastModified.plusSeconds(60)));
+        resolver.refreshIfChanged();
+
+        assertThat(resolver.findStrategy(new BigDecimal("60.00"))).isEqualTo(high);
+    }
+
+    private void givenStrategies(List<PricingStrategy> strategies, StrategyVersion version) {
+        when(repository.findVersion()).thenReturn(version);
+        when(repository.findByIsActiveTrueOrderByOccupancyMinPercentageAsc()).thenReturn(strategies);
+    }
+
+    private static StrategyVersion version(long count, Instant lastModified) {
+        return new StrategyVersion() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public Instant getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+
+    private static PricingStrategy strategy(String min, String max, String multiplier) {
+        PricingStrategy strategy = new PricingStrategy();
+        strategy.setId(UUID.randomUUID());
+        strategy.setOccupancyMinPercentage(new BigDecimal(min));
+        strategy.setOccupancyMaxPercentage(new BigDecimal(max));
+        strategy.setMultiplier(new BigDecimal(multiplier));
+        strategy.setIsActive(true);
+        return strategy;
     }
 }
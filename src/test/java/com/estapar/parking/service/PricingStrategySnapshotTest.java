@@ -0,0 +1,74 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PricingStrategySnapshotTest {
+
+    @Test
+    void of_WithContiguousRanges_ShouldResolveEveryOccupancy() {
+        PricingStrategy first = strategy("0.00", "25.00");
+        PricingStrategy second = strategy("25.00", "50.00");
+        PricingStrategy third = strategy("50.00", "75.00");
+        PricingStrategy fourth = strategy("75.00", "100.00");
+
+        PricingStrategySnapshot snapshot = PricingStrategySnapshot.of(List.of(fourth, second, first, third));
+
+        assertThat(snapshot.find(new BigDecimal("0.00"))).contains(first);
+        assertThat(snapshot.find(new BigDecimal("24.99"))).contains(first);
+        assertThat(snapshot.find(new BigDecimal("25.00"))).contains(second);
+        assertThat(snapshot.find(new BigDecimal("74.99"))).contains(third);
+        assertThat(snapshot.find(new BigDecimal("99.99"))).contains(fourth);
+        assertThat(snapshot.find(new BigDecimal("100.00"))).isEmpty();
+    }
+
+    @Test
+    void of_WithGap_ShouldThrowException() {
+        List<PricingStrategy> strategies = List.of(strategy("0.00", "24.99"), strategy("25.00", "100.00"));
+
+        assertThatThrownBy(() -> PricingStrategySnapshot.of(strategies))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("uncovered");
+    }
+
+    @Test
+    void of_WithOverlap_ShouldThrowException() {
+        List<PricingStrategy> strategies = List.of(strategy("0.00", "50.00"), strategy("40.00", "100.00"));
+
+        assertThatThrownBy(() -> PricingStrategySnapshot.of(strategies))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("overlaps");
+    }
+
+    @Test
+    void of_WithRangesNotReachingFullOccupancy_ShouldThrowException() {
+        List<PricingStrategy> strategies = List.of(strategy("0.00", "50.00"), strategy("50.00", "90.00"));
+
+        assertThatThrownBy(() -> PricingStrategySnapshot.of(strategies))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("uncovered");
+    }
+
+    @Test
+    void of_WithNoStrategies_ShouldThrowException() {
+        assertThatThrownBy(() -> PricingStrategySnapshot.of(List.of()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PricingStrategy strategy(String min, String max) {
+        PricingStrategy strategy = new PricingStrategy();
+        strategy.setId(UUID.randomUUID());
+        strategy.setOccupancyMinPercentage(new BigDecimal(min));
+        strategy.setOccupancyMaxPercentage(new BigDecimal(max));
+        strategy.setMultiplier(BigDecimal.ONE);
+        strategy.setIsActive(true);
+        return strategy;
+    }
+}
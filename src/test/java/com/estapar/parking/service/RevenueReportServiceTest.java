@@ -0,0 +1,111 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.RevenueGrouping;
+import com.estapar.parking.api.dto.RevenueQueryRequestDto;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueReportServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private GarageResolver garageResolver;
+
+    private RevenueReportService revenueReportService;
+    private GarageTopology garage;
+    private SectorTopology sector;
+
+    @BeforeEach
+    void setUp() {
+        revenueReportService = new RevenueReportService(
+                dataSource, new ObjectMapper(), garageResolver, Integer.MIN_VALUE, 31);
+
+        sector = new SectorTopology(UUID.randomUUID(), "A", new BigDecimal("10.00"), 10);
+        garage = new GarageTopology(UUID.randomUUID(), true, 10, List.of(sector), List.of());
+    }
+
+    @Test
+    void prepare_WithoutSectors_ShouldQueryAllSectorsByDay() {
+        when(garageResolver.getGarage(null)).thenReturn(garage);
+
+        RevenueReportQuery query = revenueReportService.prepare(null,
+                request(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null));
+
+        assertThat(query.garageId()).isEqualTo(garage.getId());
+        assertThat(query.sectorIds()).isEmpty();
+        assertThat(query.groupBy()).isEqualTo(RevenueGrouping.DAY);
+    }
+
+    @Test
+    void prepare_WithSectors_ShouldResolveSectorIds() {
+        when(garageResolver.getGarage(null)).thenReturn(garage);
+
+        RevenueReportQuery query = revenueReportService.prepare(null,
+                request(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 7), List.of("A", "A")));
+
+        assertThat(query.sectorIds()).containsExactly(sector.id());
+    }
+
+    @Test
+    void prepare_WithUnknownSector_ShouldThrowException() {
+        when(garageResolver.getGarage(null)).thenReturn(garage);
+
+        assertThatThrownBy(() -> revenueReportService.prepare(null,
+                request(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 7), List.of("Z"))))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Z");
+    }
+
+    @Test
+    void prepare_WithInvertedRange_ShouldThrowException() {
+        assertThatThrownBy(() -> revenueReportService.prepare(null,
+                request(LocalDate.of(2025, 1, 7), LocalDate.of(2025, 1, 1), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void prepare_WithRangeTooLong_ShouldThrowException() {
+        assertThatThrownBy(() -> revenueReportService.prepare(null,
+                request(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("32 days");
+    }
+
+    @Test
+    void sql_ShouldFilterSectorsAndGroupByRequestedPeriod() {
+        RevenueReportQuery query = new RevenueReportQuery(garage.getId(), LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 31), List.of(UUID.randomUUID(), UUID.randomUUID()), RevenueGrouping.WEEK);
+
+        String sql = RevenueReportService.sql(query);
+
+        assertThat(sql).contains("rd.sector_id IN (?, ?)").contains("GROUP BY period_start, s.sector_code");
+    }
+
+    private static RevenueQueryRequestDto request(LocalDate startDate, LocalDate endDate, List<String> sectors) {
+        RevenueQueryRequestDto request = new RevenueQueryRequestDto();
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        request.setSectors(sectors);
+        return request;
+    }
+}
@@ -0,0 +1,148 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
+import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionArchiveRepository;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.infrastructure.persistence.repository.RevenueDailyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueRollupServiceTest {
+
+    @Mock
+    private RevenueDailyRepository revenueDailyRepository;
+
+    @Mock
+    private ParkingSessionRepository sessionRepository;
+
+    @Mock
+    private ParkingSessionArchiveRepository archiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RevenueRollupService revenueRollupService;
+    private Garage garage;
+    private Sector sector;
+
+    @BeforeEach
+    void setUp() {
+        revenueRollupService = new RevenueRollupService(
+                revenueDailyRepository, sessionRepository, archiveRepository, transactionManager, "America/Sao_Paulo");
+
+        garage = new Garage();
+        garage.setId(UUID.randomUUID());
+
+        sector = new Sector();
+        sector.setId(UUID.randomUUID());
+        sector.setGarage(garage);
+    }
+
+    @Test
+    void addSession_ShouldUpsertUnderLocalEntryDate() {
+        ParkingSession session = session(Instant.parse("2025-01-16T01:30:00Z"), new BigDecimal("20.00"));
+        ParkingSpot spot = new ParkingSpot();
+        spot.setSector(sector);
+        session.setSpot(spot);
+
+        revenueRollupService.addSession(session);
+
+        verify(revenueDailyRepository).addSession(
+                garage.getId(), sector.getId(), LocalDate.of(2025, 1, 15), new BigDecimal("20.00"));
+    }
+
+    @Test
+    void addSession_WithoutSpot_ShouldNotRecordRevenue() {
+        ParkingSession session = session(Instant.parse("2025-01-15T12:00:00Z"), new BigDecimal("0.00"));
+
+        revenueRollupService.addSession(session);
+
+        verify(revenueDailyRepository, never()).addSession(any(), any(), any(), any());
+    }
+
+    @Test
+    void backfill_ShouldRebuildEachDayWithLocalBoundaries() {
+        int days = revenueRollupService.backfill(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 16));
+
+        assertThat(days).isEqualTo(2);
+        verify(revenueDailyRepository).upsertDifferenceFromSessions(LocalDate.of(2025, 1, 15),
+                Instant.parse("2025-01-15T03:00:00Z"), Instant.parse("2025-01-16T03:00:00Z"));
+        verify(revenueDailyRepository).deleteWithoutSessions(LocalDate.of(2025, 1, 15),
+                Instant.parse("2025-01-15T03:00:00Z"), Instant.parse("2025-01-16T03:00:00Z"));
+        verify(revenueDailyRepository).upsertDifferenceFromSessions(LocalDate.of(2025, 1, 16),
+                Instant.parse("2025-01-16T03:00:00Z"), Instant.parse("2025-01-17T03:00:00Z"));
+    }
+
+    @Test
+    void backfill_WithInvertedRange_ShouldThrowException() {
+        assertThatThrownBy(() -> revenueRollupService.backfill(LocalDate.of(2025, 1, 16), LocalDate.of(2025, 1, 15)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void backfillIfEmpty_WithExistingRollup_ShouldSkip() {
+        when(revenueDailyRepository.count()).thenReturn(5L);
+
+        revenueRollupService.backfillIfEmpty();
+
+        verify(sessionRepository, never()).findFirstClosedEntryTime();
+        verify(revenueDailyRepository, never()).upsertDifferenceFromSessions(any(), any(), any());
+    }
+
+    @Test
+    void backfillIfEmpty_WithEmptyRollup_ShouldBackfillSessionHistory() {
+        when(revenueDailyRepository.count()).thenReturn(0L);
+        when(sessionRepository.findFirstClosedEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-15T12:00:00Z")));
+        when(sessionRepository.findLastClosedEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-15T18:00:00Z")));
+
+        revenueRollupService.backfillIfEmpty();
+
+        verify(revenueDailyRepository).upsertDifferenceFromSessions(eq(LocalDate.of(2025, 1, 15)), any(), any());
+    }
+
+    @Test
+    void backfillIfEmpty_WithArchivedSessions_ShouldBackfillFromEarliestArchivedDay() {
+        when(revenueDailyRepository.count()).thenReturn(0L);
+        when(sessionRepository.findFirstClosedEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-16T12:00:00Z")));
+        when(sessionRepository.findLastClosedEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-16T18:00:00Z")));
+        when(archiveRepository.findFirstEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-15T12:00:00Z")));
+        when(archiveRepository.findLastEntryTime()).thenReturn(Optional.of(Instant.parse("2025-01-15T18:00:00Z")));
+
+        revenueRollupService.backfillIfEmpty();
+
+        verify(revenueDailyRepository).upsertDifferenceFromSessions(eq(LocalDate.of(2025, 1, 15)), any(), any());
+        verify(revenueDailyRepository).upsertDifferenceFromSessions(eq(LocalDate.of(2025, 1, 16)), any(), any());
+    }
+
+    private ParkingSession session(Instant entryTime, BigDecimal finalPrice) {
+        ParkingSession session = new ParkingSession();
+        session.setId(UUID.randomUUID());
+        session.setGarage(garage);
+        session.setEntryTime(entryTime);
+        session.setExitTime(entryTime.plusSeconds(3600));
+        session.setFinalPrice(finalPrice);
+        return session;
+    }
+}
@@ -1,19 +1,44 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.config.ShardConfig;
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
 import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
+import com.estapar.parking.infrastructure.persistence.repository.SectorRepository.SectorOccupancy;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.service.shard.ShardMembershipChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,61 +48,228 @@ class SectorCapacityServiceTest {
     @Mock
     private SectorRepository sectorRepository;
 
-    @InjectMocks
-    private SectorCapacityService sectorCapacityService;
+    @Mock
+    private ParkingSpotRepository spotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
 
+    private SimpleMeterRegistry meterRegistry;
+    private SectorCapacityService sectorCapacityService;
     private Sector sector;
+    private UUID garageId;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sectorCapacityService = service(new ShardConfig());
+        garageId = UUID.randomUUID();
+
         sector = new Sector();
         sector.setId(UUID.randomUUID());
-        sector.setOccupiedCount(5);
         sector.setMaxCapacity(100);
     }
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void run_ShouldRecountAndLoadCounters() {
+        SectorOccupancy occupancy = occupancy(sector.getId(), garageId, 5);
+        when(sectorRepository.recountOccupied()).thenReturn(1);
+        when(sectorRepository.findAllOccupancy()).thenReturn(List.of(occupancy));
+
+        sectorCapacityService.run(null);
+
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(5);
+        verify(sectorRepository, never()).findOccupancyById(sector.getId());
+    }
+
+    @Test
+    void run_WhenSharded_ShouldRecountAndLoadOnlyOwnedGarages() {
+        GarageShardRouter router = new GarageShardRouter(shardConfig(), event -> { }, meterRegistry);
+        sectorCapacityService = service(router);
+        UUID ownedGarageId = garageOwnedBy(router, true);
+        UUID otherGarageId = garageOwnedBy(router, false);
+        UUID otherSectorId = UUID.randomUUID();
+        List<SectorOccupancy> occupancies = List.of(
+                occupancy(sector.getId(), ownedGarageId, 5), occupancy(otherSectorId, otherGarageId, 7));
+        when(sectorRepository.findAllOccupancy()).thenReturn(occupancies);
+        when(sectorRepository.recountOccupiedByGarageId(ownedGarageId)).thenReturn(1);
+
+        sectorCapacityService.run(null);
+
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(5);
+        verify(sectorRepository, never()).recountOccupied();
+        verify(sectorRepository, never()).recountOccupiedByGarageId(otherGarageId);
+    }
+
+    @Test
+    void onShardMembershipChanged_ShouldReloadGainedGarageFromSpots() throws IOException {
+        Path membershipFile = directory.resolve("members.properties");
+        Files.writeString(membershipFile, "a=http://a:3003\nb=http://b:3003\n");
+        ShardConfig config = shardConfig();
+        config.setMembershipFile(membershipFile.toString());
+        GarageShardRouter router = new GarageShardRouter(config, event -> { }, meterRegistry);
+        sectorCapacityService = service(router);
+        UUID gainedGarageId = garageOwnedBy(router, false);
+        SectorOccupancy occupancy = occupancy(sector.getId(), gainedGarageId, 0);
+        when(sectorRepository.findOccupancyById(sector.getId())).thenReturn(Optional.of(occupancy));
+        when(spotRepository.countBySectorIdAndIsOccupiedTrue(sector.getId())).thenReturn(2L, 4L);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(2);
+
+        Files.writeString(membershipFile, "a=http://a:3003\n");
+        Files.setLastModifiedTime(membershipFile, FileTime.from(Instant.now().plusSeconds(1)));
+        router.refresh();
+        sectorCapacityService.onShardMembershipChanged(new ShardMembershipChangedEvent(Set.of("a")));
+
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(4);
+    }
+
+    @Test
+    void getOccupied_ForUnknownSector_ShouldLoadFromDatabaseOnlyOnce() {
+        stubOccupiedCount(3);
+
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(3);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(3);
+
+        verify(sectorRepository, times(1)).findOccupancyById(sector.getId());
+    }
+
     @Test
     void incrementCapacity_ShouldIncrementOccupiedCount() {
-        int initialCount = sector.getOccupiedCount();
-        when(sectorRepository.save(any(Sector.class))).thenReturn(sector);
+        stubOccupiedCount(5);
+
+        sectorCapacityService.incrementCapacity(sector);
+
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(6);
+    }
+
+    @Test
+    void incrementCapacity_WithinTransaction_ShouldApplyOnlyAfterCommit() {
+        stubOccupiedCount(5);
+        TransactionSynchronizationManager.initSynchronization();
 
         sectorCapacityService.incrementCapacity(sector);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(5);
+
+        commitTransaction();
 
-        assertThat(sector.getOccupiedCount()).isEqualTo(initialCount + 1);
-        verify(sectorRepository).save(sector);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(6);
     }
 
     @Test
-    void decrementCapacity_WithPositiveCount_ShouldDecrementOccupiedCount() {
-        sector.setOccupiedCount(5);
-        when(sectorRepository.save(any(Sector.class))).thenReturn(sector);
+    void decrementCapacity_WithinRolledBackTransaction_ShouldNotChangeCount() {
+        stubOccupiedCount(5);
+        TransactionSynchronizationManager.initSynchronization();
 
         sectorCapacityService.decrementCapacity(sector);
+        TransactionSynchronizationManager.clearSynchronization();
 
-        assertThat(sector.getOccupiedCount()).isEqualTo(4);
-        verify(sectorRepository).save(sector);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(5);
+        assertThat(sectorCapacityService.flush()).isZero();
     }
 
     @Test
     void decrementCapacity_WithZeroCount_ShouldNotGoNegative() {
-        sector.setOccupiedCount(0);
-        ArgumentCaptor<Sector> sectorCaptor = ArgumentCaptor.forClass(Sector.class);
-        when(sectorRepository.save(any(Sector.class))).thenReturn(sector);
+        stubOccupiedCount(0);
 
         sectorCapacityService.decrementCapacity(sector);
 
-        verify(sectorRepository).save(sectorCaptor.capture());
-        assertThat(sectorCaptor.getValue().getOccupiedCount()).isEqualTo(0);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isZero();
     }
 
     @Test
-    void decrementCapacity_ShouldUseMaxFunction() {
-        sector.setOccupiedCount(1);
-        when(sectorRepository.save(any(Sector.class))).thenReturn(sector);
+    void flush_ShouldWriteSummedDeltaOnce() {
+        stubOccupiedCount(5);
+        sectorCapacityService.incrementCapacity(sector);
+        sectorCapacityService.incrementCapacity(sector);
+        sectorCapacityService.decrementCapacity(sector);
+        sectorCapacityService.incrementCapacity(sector);
 
+        assertThat(sectorCapacityService.flush()).isEqualTo(1);
+        assertThat(sectorCapacityService.flush()).isZero();
+
+        verify(sectorRepository, times(1)).addOccupiedCount(sector.getId(), 2);
+        assertThat(meterRegistry.get("parking.sector.occupancy.flushes").tag("outcome", "success").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void flush_WithBalancedDeltas_ShouldNotWrite() {
+        stubOccupiedCount(5);
+        sectorCapacityService.incrementCapacity(sector);
         sectorCapacityService.decrementCapacity(sector);
 
-        assertThat(sector.getOccupiedCount()).isEqualTo(0);
-        verify(sectorRepository).save(sector);
+        assertThat(sectorCapacityService.flush()).isZero();
+
+        verify(sectorRepository, never()).addOccupiedCount(eq(sector.getId()), anyInt());
+    }
+
+    @Test
+    void flush_AfterFailure_ShouldRetryDeltas() {
+        stubOccupiedCount(5);
+        when(sectorRepository.addOccupiedCount(sector.getId(), 1))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout"))
+                .thenReturn(1);
+        sectorCapacityService.incrementCapacity(sector);
+
+        assertThat(sectorCapacityService.flush()).isZero();
+        assertThat(sectorCapacityService.flush()).isEqualTo(1);
+
+        verify(sectorRepository, times(2)).addOccupiedCount(sector.getId(), 1);
+        assertThat(sectorCapacityService.getOccupied(sector.getId())).isEqualTo(6);
+        assertThat(meterRegistry.get("parking.sector.occupancy.flushes").tag("outcome", "failed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private SectorCapacityService service(ShardConfig config) {
+        return service(new GarageShardRouter(config, event -> { }, meterRegistry));
+    }
+
+    private SectorCapacityService service(GarageShardRouter router) {
+        return new SectorCapacityService(sectorRepository, spotRepository, router, transactionManager, meterRegistry);
+    }
+
+    private void stubOccupiedCount(int occupied) {
+        SectorOccupancy occupancy = occupancy(sector.getId(), garageId, occupied);
+        when(sectorRepository.findOccupancyById(sector.getId())).thenReturn(Optional.of(occupancy));
+    }
+
+    private static SectorOccupancy occupancy(UUID sectorId, UUID garageId, int occupied) {
+        SectorOccupancy occupancy = mock(SectorOccupancy.class);
+        lenient().when(occupancy.getId()).thenReturn(sectorId);
+        lenient().when(occupancy.getGarageId()).thenReturn(garageId);
+        lenient().when(occupancy.getOccupiedCount()).thenReturn(occupied);
+        return occupancy;
+    }
+
+    private static ShardConfig shardConfig() {
+        ShardConfig config = new ShardConfig();
+        config.setEnabled(true);
+        config.setInstanceId("a");
+        config.setMembers(Map.of("a", "http://a:3003", "b", "http://b:3003"));
+        return config;
+    }
+
+    private static UUID garageOwnedBy(GarageShardRouter router, boolean local) {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> new UUID(i, i))
+                .filter(garageId -> router.isLocal(garageId) == local)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void commitTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
     }
 }
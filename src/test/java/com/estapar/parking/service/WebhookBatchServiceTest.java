@@ -0,0 +1,160 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.WebhookBatchResponseDto;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.api.dto.WebhookEventResultDto;
+import com.estapar.parking.service.ingestion.WebhookEventJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookBatchServiceTest {
+
+    private static final String ENTRY = "{\"event_type\":\"ENTRY\",\"license_plate\":\"%s\",\"entry_time\":\"2025-01-01T12:00:00Z\"}";
+    private static final String EXIT = "{\"event_type\":\"EXIT\",\"license_plate\":\"%s\",\"exit_time\":\"2025-01-01T14:00:00Z\"}";
+
+    @Mock
+    private GarageResolver garageResolver;
+
+    @Mock
+    private WebhookEventService webhookEventService;
+
+    @Mock
+    private WebhookEventJournal webhookEventJournal;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlateOrderedEventDispatcher dispatcher;
+    private WebhookBatchService webhookBatchService;
+    private UUID garageId;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new PlateOrderedEventDispatcher(webhookEventService, new SimpleMeterRegistry(), 4, 2);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        webhookBatchService = new WebhookBatchService(objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), garageResolver, webhookEventService,
+                dispatcher, webhookEventJournal, transactionManager, 100, 50);
+        garageId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void processBatch_WithNdjson_ShouldReturnResultPerEventInOrder() {
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> processed.add(invocation.<WebhookEventDto>getArgument(1).getEventType().name()))
+                .when(webhookEventService).processEvent(eq(garageId), any());
+
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId,
+                body(ENTRY.formatted("ABC1234") + "\n" + EXIT.formatted("ABC1234") + "\n"));
+
+        assertThat(response.getTotal()).isEqualTo(2);
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(WebhookEventResultDto::getIndex).containsExactly(0, 1);
+        assertThat(response.getResults()).extracting(WebhookEventResultDto::getCode).containsOnly("OK");
+        assertThat(processed).containsExactly("ENTRY", "EXIT");
+    }
+
+    @Test
+    void processBatch_WithJsonArray_ShouldProcessAllEvents() {
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId,
+                body("[" + ENTRY.formatted("ABC1234") + "," + ENTRY.formatted("XYZ9876") + "]"));
+
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        verify(webhookEventService, times(2)).processEvent(eq(garageId), any());
+    }
+
+    @Test
+    void processBatch_WithFailingEvent_ShouldRollBackChunkAndReplayIndividually() {
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            String eventType = invocation.<WebhookEventDto>getArgument(1).getEventType().name();
+            processed.add(eventType);
+            if ("EXIT".equals(eventType)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No active parking session found for vehicle");
+            }
+            return null;
+        }).when(webhookEventService).processEvent(eq(garageId), any());
+
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId,
+                body(ENTRY.formatted("ABC1234") + "\n" + EXIT.formatted("ABC1234")));
+
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(200);
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(404);
+        assertThat(response.getResults().get(1).getCode()).isEqualTo("ERROR");
+        assertThat(processed).containsExactly("ENTRY", "EXIT", "ENTRY", "EXIT");
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void processBatch_WithInvalidEvent_ShouldReportValidationErrorAndProcessOthers() {
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId,
+                body("{\"event_type\":\"ENTRY\",\"license_plate\":\"ABC1234\"}\n" + ENTRY.formatted("XYZ9876")));
+
+        assertThat(response.getResults().get(0).getStatus()).isEqualTo(400);
+        assertThat(response.getResults().get(0).getCode()).isEqualTo("VALIDATION_ERROR");
+        assertThat(response.getResults().get(0).getMessage()).contains("Entry time is required");
+        assertThat(response.getResults().get(1).getStatus()).isEqualTo(200);
+        verify(webhookEventService, times(1)).processEvent(eq(garageId), any());
+    }
+
+    @Test
+    void processBatch_WithMalformedPayload_ShouldThrowException() {
+        assertThatThrownBy(() -> webhookBatchService.processBatch(garageId, body("{\"event_type\":")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Malformed batch payload");
+        verify(webhookEventService, never()).processEvent(any(), any());
+    }
+
+    @Test
+    void processBatch_WhenAsync_ShouldAppendEventsToJournal() {
+        when(webhookEventJournal.isEnabled()).thenReturn(true);
+
+        WebhookBatchResponseDto response = webhookBatchService.processBatch(garageId,
+                body(ENTRY.formatted("ABC1234") + "\n" + ENTRY.formatted("XYZ9876")));
+
+        assertThat(response.getResults()).extracting(WebhookEventResultDto::getStatus).containsOnly(202);
+        verify(webhookEventJournal, times(2)).append(eq(garageId), any());
+        verify(webhookEventService, never()).processEvent(any(), any());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
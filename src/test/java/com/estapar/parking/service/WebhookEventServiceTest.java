@@ -4,20 +4,30 @@ import com.estapar.parking.api.dto.EntryEventDto;
 import com.estapar.parking.api.dto.EventType;
 import com.estapar.parking.api.dto.ExitEventDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.service.event.EventHandler;
+import com.estapar.parking.service.event.EventStageMetrics;
+import com.estapar.parking.service.topology.GarageTopology;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static com.estapar.parking.api.exception.ErrorMessages.GARAGE_FULL;
+import static com.estapar.parking.api.exception.ErrorMessages.conflict;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,9 +44,13 @@ class WebhookEventServiceTest {
     @Mock
     private EventHandler exitEventHandler;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private WebhookEventService webhookEventService;
+    private SimpleMeterRegistry meterRegistry;
 
-    private Garage garage;
+    private GarageTopology garage;
     private UUID garageId;
     private EntryEventDto entryEvent;
     private ExitEventDto exitEvent;
@@ -46,8 +60,7 @@ class WebhookEventServiceTest {
     void setUp() {
         garageId = UUID.randomUUID();
 
-        garage = new Garage();
-        garage.setId(garageId);
+        garage = new GarageTopology(garageId, true, 100, List.of(), List.of());
 
         entryEvent = new EntryEventDto();
         entryEvent.setEventType(EventType.ENTRY);
@@ -63,9 +76,12 @@ class WebhookEventServiceTest {
         unsupportedEvent.setEventType(EventType.ENTRY);
         unsupportedEvent.setLicensePlate("XYZ9876");
 
+        meterRegistry = new SimpleMeterRegistry();
         webhookEventService = new WebhookEventService(
                 garageResolver,
-                Arrays.asList(entryEventHandler, exitEventHandler));
+                Arrays.asList(entryEventHandler, exitEventHandler),
+                eventPublisher,
+                new EventStageMetrics(meterRegistry, true));
     }
 
     @Test
@@ -78,6 +94,7 @@ class WebhookEventServiceTest {
         verify(garageResolver).getGarage(garageId);
         verify(entryEventHandler).supports(entryEvent);
         verify(entryEventHandler).handle(garage, entryEvent);
+        verify(eventPublisher).publishEvent(new OccupancyChangedEvent(garageId));
     }
 
     @Test
@@ -93,6 +110,7 @@ class WebhookEventServiceTest {
         verify(exitEventHandler).supports(unsupportedEvent);
         verify(entryEventHandler, never()).handle(any(), any());
         verify(exitEventHandler, never()).handle(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -105,4 +123,53 @@ class WebhookEventServiceTest {
         verify(garageResolver).getGarage(null);
         verify(entryEventHandler).handle(garage, entryEvent);
     }
+
+    @Test
+    void processEvent_WithMatchingHandler_ShouldTimeResolveAndHandlerStages() {
+        when(garageResolver.getGarage(garageId)).thenReturn(garage);
+        when(entryEventHandler.supports(entryEvent)).thenReturn(true);
+
+        webhookEventService.processEvent(garageId, entryEvent);
+
+        assertThat(stageCount("garage_resolve")).isEqualTo(1);
+        assertThat(stageCount("handler")).isEqualTo(1);
+        assertThat(meterRegistry.find("parking.event.stage").tagKeys("garage").timers()).isEmpty();
+        assertThat(meterRegistry.get("parking.event.garage.handler")
+                .tag("event_type", "ENTRY").tag("garage", garageId.toString()).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void processEvent_WhenHandlerRejects_ShouldCountRejectionAndRethrow() {
+        when(garageResolver.getGarage(garageId)).thenReturn(garage);
+        when(entryEventHandler.supports(entryEvent)).thenReturn(true);
+        doThrow(conflict(GARAGE_FULL)).when(entryEventHandler).handle(garage, entryEvent);
+
+        assertThatThrownBy(() -> webhookEventService.processEvent(garageId, entryEvent))
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(meterRegistry.get("parking.event.rejections")
+                .tag("event_type", "ENTRY").tag("reason", "conflict").counter().count()).isEqualTo(1);
+        assertThat(stageCount("handler")).isZero();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void processEvent_WhenOptimisticLockFails_ShouldCountFailureAndRethrow() {
+        when(garageResolver.getGarage(garageId)).thenReturn(garage);
+        when(entryEventHandler.supports(exitEvent)).thenReturn(false);
+        when(exitEventHandler.supports(exitEvent)).thenReturn(true);
+        doThrow(new OptimisticLockingFailureException("stale")).when(exitEventHandler).handle(garage, exitEvent);
+
+        assertThatThrownBy(() -> webhookEventService.processEvent(garageId, exitEvent))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(meterRegistry.get("parking.event.optimistic_lock_failures")
+                .tag("event_type", "EXIT").counter().count()).isEqualTo(1);
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get("parking.event.stage")
+                .tag("stage", stage).tag("event_type", "ENTRY")
+                .timer().count();
+    }
 }
@@ -0,0 +1,245 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.ParkedEventDto;
+import com.estapar.parking.service.topology.GarageTopology;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookIdempotencyServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private GarageResolver garageResolver;
+
+    @Mock
+    private WebhookEventService webhookEventService;
+
+    private PlateOrderedEventDispatcher dispatcher;
+    private WebhookIdempotencyService idempotencyService;
+    private UUID garageId;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new PlateOrderedEventDispatcher(webhookEventService, meterRegistry, 2, 0);
+        idempotencyService = new WebhookIdempotencyService(
+                jdbcTemplate, garageResolver, dispatcher, meterRegistry, 60_000, 5_000, 2);
+        garageId = UUID.randomUUID();
+        when(garageResolver.getGarage(garageId))
+                .thenReturn(new GarageTopology(garageId, true, 100, List.of(), List.of()));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void keyOf_ShouldDeriveSameKeyForRetriedEntry() {
+        Instant entryTime = Instant.parse("2025-01-01T12:00:00Z");
+
+        WebhookIdempotencyService.Key first = idempotencyService.keyOf(garageId, null, entryEvent("ABC1234", entryTime));
+        WebhookIdempotencyService.Key retry = idempotencyService.keyOf(garageId, null, entryEvent("ABC1234", entryTime));
+        WebhookIdempotencyService.Key later =
+                idempotencyService.keyOf(garageId, null, entryEvent("ABC1234", entryTime.plusSeconds(1)));
+
+        assertThat(first.hash()).hasSize(64);
+        assertThat(first).isEqualTo(retry).isNotEqualTo(later);
+        assertThat(first.explicit()).isFalse();
+    }
+
+    @Test
+    void keyOf_ParkedWithoutHeader_ShouldNotDeriveKey() {
+        ParkedEventDto parked = new ParkedEventDto(new BigDecimal("-23.561684"), new BigDecimal("-46.655981"));
+        parked.setEventType(EventType.PARKED);
+        parked.setLicensePlate("ABC1234");
+
+        assertThat(idempotencyService.keyOf(garageId, null, parked)).isNull();
+        assertThat(idempotencyService.keyOf(garageId, "gate-7:42", parked).explicit()).isTrue();
+    }
+
+    @Test
+    void processOnce_DuplicateEvent_ShouldReplayFromMemoryWithoutQueryingTable() {
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, null, event);
+
+        OptionalInt first = idempotencyService.processOnce(garageId, key, event);
+        OptionalInt retry = idempotencyService.processOnce(garageId, key, event);
+
+        assertThat(first).isEmpty();
+        assertThat(retry).hasValue(HttpStatus.OK.value());
+        verify(webhookEventService, times(1)).processEvent(garageId, event);
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+    }
+
+    @Test
+    void processOnce_ExplicitKeyAfterColdStart_ShouldReplayStatusFromTable() {
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, "gate-7:42", event);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any())).thenReturn(List.of(202));
+
+        assertThat(idempotencyService.processOnce(garageId, key, event)).hasValue(HttpStatus.ACCEPTED.value());
+        verify(webhookEventService, never()).processEvent(any(), any());
+    }
+
+    @Test
+    void processOnce_ExplicitKeyAfterCompleteLoad_ShouldNotQueryTable() {
+        idempotencyService.start();
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, "gate-7:42", event);
+
+        assertThat(idempotencyService.processOnce(garageId, key, event)).isEmpty();
+        verify(webhookEventService).processEvent(garageId, event);
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+    }
+
+    @Test
+    void start_ShouldLoadLiveKeysFromTable() throws Exception {
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, null, event);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getBytes("idempotency_key")).thenReturn(HexFormat.of().parseHex(key.hash()));
+        when(row.getInt("status")).thenReturn(202);
+        when(row.getTimestamp("created_at")).thenReturn(Timestamp.from(Instant.now()));
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+
+        idempotencyService.start();
+
+        assertThat(idempotencyService.replayFromMemory(key)).hasValue(HttpStatus.ACCEPTED.value());
+    }
+
+    @Test
+    void processOnce_RejectedExplicitKey_ShouldQueryTableOnceAndNotBeRemembered() {
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, "gate-7:42", event);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any())).thenReturn(List.of());
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Garage is full"))
+                .when(webhookEventService).processEvent(garageId, event);
+
+        assertThatThrownBy(() -> idempotencyService.processOnce(garageId, key, event))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> idempotencyService.processOnce(garageId, key, event))
+                .isInstanceOf(ResponseStatusException.class);
+
+        verify(webhookEventService, times(2)).processEvent(garageId, event);
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Integer.class), any(), any());
+        assertThat(idempotencyService.flush()).isZero();
+    }
+
+    @Test
+    void processOnce_ConcurrentCopies_ShouldProcessOnce() {
+        EntryEventDto event = entryEvent("ABC1234", Instant.now());
+        WebhookIdempotencyService.Key key = idempotencyService.keyOf(garageId, null, event);
+
+        List<CompletableFuture<OptionalInt>> copies = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> idempotencyService.processOnce(garageId, key, event)))
+                .toList();
+
+        assertThat(copies.stream().map(CompletableFuture::join).filter(OptionalInt::isPresent).count()).isEqualTo(3);
+        verify(webhookEventService, times(1)).processEvent(garageId, event);
+    }
+
+    @Test
+    void claim_ShouldInsertKeyOnceAndRememberIt() {
+        String key = idempotencyService.keyOf(garageId, null, entryEvent("ABC1234", Instant.now())).hash();
+        when(jdbcTemplate.update(startsWith("DELETE"), any(byte[].class), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(byte[].class), eq(HttpStatus.ACCEPTED.value()), any()))
+                .thenReturn(1);
+
+        assertThat(idempotencyService.claim(key, HttpStatus.ACCEPTED.value())).isTrue();
+        assertThat(idempotencyService.claim(key, HttpStatus.ACCEPTED.value())).isFalse();
+
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT"), any(byte[].class), eq(HttpStatus.ACCEPTED.value()), any());
+    }
+
+    @Test
+    void claim_KeyAlreadyInTable_ShouldReturnFalse() {
+        String key = idempotencyService.keyOf(garageId, null, entryEvent("ABC1234", Instant.now())).hash();
+        when(jdbcTemplate.update(startsWith("DELETE"), any(byte[].class), any())).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(byte[].class), eq(HttpStatus.ACCEPTED.value()), any()))
+                .thenReturn(0);
+
+        assertThat(idempotencyService.claim(key, HttpStatus.ACCEPTED.value())).isFalse();
+    }
+
+    @Test
+    void record_ShouldKeepAtMostMaxEntriesInMemory() {
+        idempotencyService.record(idempotencyService.keyOf(garageId, "a", entryEvent("A", Instant.now())).hash(), 200);
+        idempotencyService.record(idempotencyService.keyOf(garageId, "b", entryEvent("B", Instant.now())).hash(), 200);
+        idempotencyService.record(idempotencyService.keyOf(garageId, "c", entryEvent("C", Instant.now())).hash(), 200);
+
+        assertThat(idempotencyService.size()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_ShouldBatchInsertRecordedKeysOnce() {
+        idempotencyService.record(idempotencyService.keyOf(garageId, "a", entryEvent("A", Instant.now())).hash(), 200);
+        idempotencyService.record(idempotencyService.keyOf(garageId, "b", entryEvent("B", Instant.now())).hash(), 202);
+
+        assertThat(idempotencyService.flush()).isEqualTo(2);
+        assertThat(idempotencyService.flush()).isZero();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldRetryKeysOnNextFlush() {
+        idempotencyService.record(idempotencyService.keyOf(garageId, "a", entryEvent("A", Instant.now())).hash(), 200);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+
+        assertThat(idempotencyService.flush()).isZero();
+        assertThat(idempotencyService.flush()).isEqualTo(1);
+    }
+
+    private EntryEventDto entryEvent(String licensePlate, Instant entryTime) {
+        EntryEventDto event = new EntryEventDto(entryTime);
+        event.setEventType(EventType.ENTRY);
+        event.setLicensePlate(licensePlate);
+        return event;
+    }
+}
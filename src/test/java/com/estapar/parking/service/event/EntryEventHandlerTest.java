@@ -8,9 +8,10 @@ import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.PricingStrategy;
 import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
+import com.estapar.parking.service.GarageOccupancyLedger;
 import com.estapar.parking.service.ParkingSessionService;
 import com.estapar.parking.service.PricingStrategyResolver;
+import com.estapar.parking.service.topology.GarageTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,13 +23,14 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,10 +38,10 @@ import static org.mockito.Mockito.when;
 class EntryEventHandlerTest {
 
     @Mock
-    private GarageRepository garageRepository;
+    private GarageOccupancyLedger occupancyLedger;
 
     @Mock
-    private ParkingSessionRepository sessionRepository;
+    private GarageRepository garageRepository;
 
     @Mock
     private ParkingMapper parkingMapper;
@@ -53,19 +55,23 @@ class EntryEventHandlerTest {
     @Mock
     private BigDecimalUtils bigDecimalUtils;
 
+    @Mock
+    private EventStageMetrics stageMetrics;
+
     @InjectMocks
     private EntryEventHandler entryEventHandler;
 
-    private Garage garage;
+    private GarageTopology garage;
+    private Garage garageReference;
     private EntryEventDto entryEvent;
     private ParkingSession session;
     private String licensePlate;
 
     @BeforeEach
     void setUp() {
-        garage = new Garage();
-        garage.setId(UUID.randomUUID());
-        garage.setMaxCapacity(100);
+        garage = new GarageTopology(UUID.randomUUID(), true, 100, List.of(), List.of());
+        garageReference = new Garage();
+        garageReference.setId(garage.getId());
 
         licensePlate = "ABC1234";
 
@@ -86,50 +92,66 @@ class EntryEventHandlerTest {
         BigDecimal multiplier = new BigDecimal("1.00");
         strategy.setMultiplier(multiplier);
 
-        when(garageRepository.calcOccupancy(garage.getId())).thenReturn(occupied);
+        when(occupancyLedger.isFull(garage.getId(), garage.getMaxCapacity())).thenReturn(false);
+        when(occupancyLedger.tryReserve(garage.getId(), garage.getMaxCapacity())).thenReturn(occupied);
         when(parkingSessionService.existsActiveSession(garage, licensePlate)).thenReturn(false);
         when(bigDecimalUtils.calculatePercentage(any(BigDecimal.class), any(BigDecimal.class)))
                 .thenReturn(occupancyPercentage);
         when(pricingStrategyResolver.findStrategy(occupancyPercentage)).thenReturn(strategy);
-        when(parkingMapper.toParkingSession(entryEvent.getLicensePlate(), entryEvent.getEntryTime(), garage, multiplier))
+        when(garageRepository.getReferenceById(garage.getId())).thenReturn(garageReference);
+        when(parkingMapper.toParkingSession(entryEvent.getLicensePlate(), entryEvent.getEntryTime(), garageReference, multiplier))
                 .thenAnswer(invocation -> {
                     session.setPricingMultiplier(multiplier);
                     return session;
                 });
-        when(sessionRepository.save(session)).thenReturn(session);
 
         entryEventHandler.handle(garage, entryEvent);
 
-        verify(garageRepository, times(2)).calcOccupancy(garage.getId());
+        verify(occupancyLedger).isFull(garage.getId(), garage.getMaxCapacity());
+        verify(occupancyLedger).tryReserve(garage.getId(), garage.getMaxCapacity());
         verify(parkingSessionService).existsActiveSession(garage, licensePlate);
         verify(bigDecimalUtils).calculatePercentage(any(BigDecimal.class), any(BigDecimal.class));
         verify(pricingStrategyResolver).findStrategy(occupancyPercentage);
-        verify(parkingMapper).toParkingSession(entryEvent.getLicensePlate(), entryEvent.getEntryTime(), garage, multiplier);
-        verify(sessionRepository).save(session);
+        verify(parkingMapper).toParkingSession(entryEvent.getLicensePlate(), entryEvent.getEntryTime(), garageReference, multiplier);
+        verify(parkingSessionService).open(session);
         assertThat(session.getPricingMultiplier()).isEqualTo(multiplier);
     }
 
     @Test
     void handle_WithGarageFull_ShouldThrowException() {
-        when(garageRepository.calcOccupancy(garage.getId())).thenReturn(100L);
+        when(occupancyLedger.isFull(garage.getId(), garage.getMaxCapacity())).thenReturn(true);
 
         assertThatThrownBy(() -> entryEventHandler.handle(garage, entryEvent))
                 .isInstanceOf(ResponseStatusException.class);
-        verify(garageRepository).calcOccupancy(garage.getId());
+        verify(occupancyLedger).isFull(garage.getId(), garage.getMaxCapacity());
         verify(parkingSessionService, never()).existsActiveSession(any(), any());
-        verify(sessionRepository, never()).save(any());
+        verify(parkingSessionService, never()).open(any());
+    }
+
+    @Test
+    void handle_WithCapacityTakenConcurrently_ShouldThrowException() {
+        when(occupancyLedger.isFull(garage.getId(), garage.getMaxCapacity())).thenReturn(false);
+        when(parkingSessionService.existsActiveSession(garage, licensePlate)).thenReturn(false);
+        when(occupancyLedger.tryReserve(garage.getId(), garage.getMaxCapacity()))
+                .thenReturn(GarageOccupancyLedger.NO_CAPACITY);
+
+        assertThatThrownBy(() -> entryEventHandler.handle(garage, entryEvent))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(pricingStrategyResolver, never()).findStrategy(any());
+        verify(parkingSessionService, never()).open(any());
     }
 
     @Test
     void handle_WithActiveSessionExists_ShouldThrowException() {
-        when(garageRepository.calcOccupancy(garage.getId())).thenReturn(50L);
+        when(occupancyLedger.isFull(garage.getId(), garage.getMaxCapacity())).thenReturn(false);
         when(parkingSessionService.existsActiveSession(garage, licensePlate)).thenReturn(true);
 
         assertThatThrownBy(() -> entryEventHandler.handle(garage, entryEvent))
                 .isInstanceOf(ResponseStatusException.class);
-        verify(garageRepository).calcOccupancy(garage.getId());
+        verify(occupancyLedger).isFull(garage.getId(), garage.getMaxCapacity());
         verify(parkingSessionService).existsActiveSession(garage, licensePlate);
-        verify(sessionRepository, never()).save(any());
+        verify(occupancyLedger, never()).tryReserve(any(), anyInt());
+        verify(parkingSessionService, never()).open(any());
     }
 
     @Test
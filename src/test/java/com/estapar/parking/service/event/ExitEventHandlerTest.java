@@ -4,14 +4,15 @@ import com.estapar.parking.api.dto.EntryEventDto;
 import com.estapar.parking.api.dto.EventType;
 import com.estapar.parking.api.dto.ExitEventDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
-import com.estapar.parking.infrastructure.persistence.entity.Sector;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
-import com.estapar.parking.service.ParkingFeeCalculator;
+import com.estapar.parking.service.GarageOccupancyLedger;
 import com.estapar.parking.service.ParkingSessionService;
 import com.estapar.parking.service.ParkingSpotService;
+import com.estapar.parking.service.tariff.TariffEngine;
+import com.estapar.parking.service.topology.GarageTopology;
+import com.estapar.parking.service.topology.SectorTopology;
+import com.estapar.parking.service.topology.SpotTopology;
 import com.estapar.parking.util.BigDecimalUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,9 +34,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ExitEventHandlerTest {
 
-    @Mock
-    private ParkingSessionRepository sessionRepository;
-
     @Mock
     private ParkingSessionService parkingSessionService;
 
@@ -42,27 +41,31 @@ class ExitEventHandlerTest {
     private ParkingSpotService parkingSpotService;
 
     @Mock
-    private ParkingFeeCalculator feeCalculator;
+    private TariffEngine tariffEngine;
 
     @Mock
     private BigDecimalUtils bigDecimalUtils;
 
+    @Mock
+    private GarageOccupancyLedger occupancyLedger;
+
+    @Mock
+    private EventStageMetrics stageMetrics;
+
     @InjectMocks
     private ExitEventHandler exitEventHandler;
 
-    private Garage garage;
+    private GarageTopology garage;
     private ExitEventDto exitEvent;
     private ParkingSession session;
     private ParkingSpot spot;
-    private Sector sector;
+    private BigDecimal basePrice;
+    private UUID sectorId;
     private String licensePlate;
     private Instant exitTime;
 
     @BeforeEach
     void setUp() {
-        garage = new Garage();
-        garage.setId(UUID.randomUUID());
-
         licensePlate = "ABC1234";
         exitTime = Instant.parse("2025-01-01T12:00:00.000Z");
 
@@ -71,13 +74,15 @@ class ExitEventHandlerTest {
         exitEvent.setLicensePlate(licensePlate);
         exitEvent.setExitTime(exitTime);
 
-        sector = new Sector();
-        sector.setId(UUID.randomUUID());
-        sector.setBasePrice(new BigDecimal("10.00"));
+        basePrice = new BigDecimal("10.00");
+        sectorId = UUID.randomUUID();
 
         spot = new ParkingSpot();
         spot.setId(UUID.randomUUID());
-        spot.setSector(sector);
+
+        garage = new GarageTopology(UUID.randomUUID(), true, 100,
+                List.of(new SectorTopology(sectorId, "A", basePrice, 10)),
+                List.of(new SpotTopology(spot.getId(), sectorId, new BigDecimal("-23.561684"), new BigDecimal("-46.655981"))));
 
         session = new ParkingSession();
         session.setId(UUID.randomUUID());
@@ -89,38 +94,33 @@ class ExitEventHandlerTest {
 
     @Test
     void handle_WithActiveSession_ShouldCalculateFeeAndSave() {
-        BigDecimal effectivePrice = new BigDecimal("10.00");
         BigDecimal finalPrice = new BigDecimal("20.00");
 
         when(parkingSessionService.findActiveSession(garage, licensePlate)).thenReturn(session);
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(sector.getBasePrice(), session.getPricingMultiplier()))
-                .thenReturn(effectivePrice);
-        when(feeCalculator.calculateFee(session.getEntryTime(), exitTime, effectivePrice)).thenReturn(finalPrice);
-        when(sessionRepository.save(session)).thenReturn(session);
+        when(tariffEngine.calculateFee(sectorId, session.getEntryTime(), exitTime, basePrice, session.getPricingMultiplier()))
+                .thenReturn(finalPrice);
 
         exitEventHandler.handle(garage, exitEvent);
 
         assertThat(session.getExitTime()).isEqualTo(exitTime);
         assertThat(session.getFinalPrice()).isEqualTo(finalPrice);
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(sector.getBasePrice(), session.getPricingMultiplier());
-        verify(feeCalculator).calculateFee(session.getEntryTime(), exitTime, effectivePrice);
+        verify(tariffEngine).calculateFee(sectorId, session.getEntryTime(), exitTime, basePrice, session.getPricingMultiplier());
         verify(parkingSpotService).freeSpot(session);
-        verify(sessionRepository).save(session);
+        verify(parkingSessionService).close(session);
+        verify(occupancyLedger).release(garage.getId());
     }
 
     @Test
     void handle_WithNoSpotAssigned_ShouldUseZeroBasePrice() {
         session.setSpot(null);
-        BigDecimal effectivePrice = BigDecimal.ZERO;
+        BigDecimal zeroBasePrice = BigDecimal.ZERO;
         BigDecimal finalPrice = BigDecimal.ZERO;
 
         when(parkingSessionService.findActiveSession(garage, licensePlate)).thenReturn(session);
-        when(bigDecimalUtils.zeroWithCurrencyScale()).thenReturn(effectivePrice);
-        when(bigDecimalUtils.multiplyAndSetCurrencyScale(effectivePrice, session.getPricingMultiplier()))
-                .thenReturn(effectivePrice);
-        when(feeCalculator.calculateFee(session.getEntryTime(), exitTime, effectivePrice)).thenReturn(finalPrice);
-        when(sessionRepository.save(session)).thenReturn(session);
+        when(bigDecimalUtils.zeroWithCurrencyScale()).thenReturn(zeroBasePrice);
+        when(tariffEngine.calculateFee(null, session.getEntryTime(), exitTime, zeroBasePrice, session.getPricingMultiplier()))
+                .thenReturn(finalPrice);
 
         exitEventHandler.handle(garage, exitEvent);
 
@@ -128,10 +128,10 @@ class ExitEventHandlerTest {
         assertThat(session.getFinalPrice()).isEqualTo(finalPrice);
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
         verify(bigDecimalUtils).zeroWithCurrencyScale();
-        verify(bigDecimalUtils).multiplyAndSetCurrencyScale(effectivePrice, session.getPricingMultiplier());
-        verify(feeCalculator).calculateFee(session.getEntryTime(), exitTime, effectivePrice);
+        verify(tariffEngine).calculateFee(null, session.getEntryTime(), exitTime, zeroBasePrice, session.getPricingMultiplier());
         verify(parkingSpotService).freeSpot(session);
-        verify(sessionRepository).save(session);
+        verify(parkingSessionService).close(session);
+        verify(occupancyLedger).release(garage.getId());
     }
 
 
@@ -4,15 +4,15 @@ import com.estapar.parking.api.dto.EntryEventDto;
 import com.estapar.parking.api.dto.EventType;
 import com.estapar.parking.api.dto.ParkedEventDto;
 import com.estapar.parking.api.dto.WebhookEventDto;
-import com.estapar.parking.infrastructure.persistence.entity.Garage;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
 import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
 import com.estapar.parking.infrastructure.persistence.entity.Sector;
-import com.estapar.parking.infrastructure.persistence.repository.ParkingSessionRepository;
 import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
 import com.estapar.parking.service.ParkingSessionService;
+import com.estapar.parking.service.ParkingSpotIndex;
 import com.estapar.parking.service.ParkingSpotService;
 import com.estapar.parking.service.SectorCapacityService;
+import com.estapar.parking.service.topology.GarageTopology;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +22,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,10 +37,10 @@ import static org.mockito.Mockito.when;
 class ParkedEventHandlerTest {
 
     @Mock
-    private ParkingSessionRepository sessionRepository;
+    private ParkingSpotRepository spotRepository;
 
     @Mock
-    private ParkingSpotRepository spotRepository;
+    private ParkingSpotIndex spotIndex;
 
     @Mock
     private ParkingSessionService parkingSessionService;
@@ -50,10 +51,13 @@ class ParkedEventHandlerTest {
     @Mock
     private SectorCapacityService sectorCapacityService;
 
+    @Mock
+    private EventStageMetrics stageMetrics;
+
     @InjectMocks
     private ParkedEventHandler parkedEventHandler;
 
-    private Garage garage;
+    private GarageTopology garage;
     private ParkedEventDto parkedEvent;
     private ParkingSession session;
     private ParkingSpot spot;
@@ -62,8 +66,7 @@ class ParkedEventHandlerTest {
 
     @BeforeEach
     void setUp() {
-        garage = new Garage();
-        garage.setId(UUID.randomUUID());
+        garage = new GarageTopology(UUID.randomUUID(), true, 100, List.of(), List.of());
 
         licensePlate = "ABC1234";
 
@@ -76,7 +79,6 @@ class ParkedEventHandlerTest {
         sector = new Sector();
         sector.setId(UUID.randomUUID());
         sector.setSectorCode("A");
-        sector.setGarage(garage);
 
         spot = new ParkingSpot();
         spot.setId(UUID.randomUUID());
@@ -93,52 +95,47 @@ class ParkedEventHandlerTest {
     @Test
     void handle_WithSpotFound_ShouldAssignSpot() {
         when(parkingSessionService.findActiveSession(garage, licensePlate)).thenReturn(session);
-        when(spotRepository.findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng()))
-                .thenReturn(Optional.of(spot));
-        when(sessionRepository.save(session)).thenReturn(session);
+        when(spotIndex.resolve(garage, parkedEvent.getLat(), parkedEvent.getLng()))
+                .thenReturn(Optional.of(spot.getId()));
+        when(spotRepository.findWithSectorById(spot.getId())).thenReturn(Optional.of(spot));
 
         parkedEventHandler.handle(garage, parkedEvent);
 
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
-        verify(spotRepository).findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng());
+        verify(spotRepository).findWithSectorById(spot.getId());
         verify(parkingSpotService).assignSpot(session, spot);
         verify(sectorCapacityService).incrementCapacity(sector);
-        verify(sessionRepository).save(session);
+        verify(parkingSessionService).park(session);
     }
 
     @Test
     void handle_WithSpotOccupied_ShouldThrowException() {
-        spot.setIsOccupied(true);
-
         when(parkingSessionService.findActiveSession(garage, licensePlate)).thenReturn(session);
-        when(spotRepository.findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng()))
-                .thenReturn(Optional.of(spot));
+        when(spotIndex.resolve(garage, parkedEvent.getLat(), parkedEvent.getLng()))
+                .thenReturn(Optional.of(spot.getId()));
+        when(spotRepository.findWithSectorById(spot.getId())).thenReturn(Optional.of(spot));
+        when(parkingSpotService.isOccupied(spot)).thenReturn(true);
 
         assertThatThrownBy(() -> parkedEventHandler.handle(garage, parkedEvent))
                 .isInstanceOf(ResponseStatusException.class);
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
-        verify(spotRepository).findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng());
+        verify(spotRepository).findWithSectorById(spot.getId());
         verify(parkingSpotService, never()).assignSpot(any(), any());
     }
 
     @Test
     void handle_WithNoSpotFound_ShouldNotAssignSpot() {
         when(parkingSessionService.findActiveSession(garage, licensePlate)).thenReturn(session);
-        when(spotRepository.findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng()))
+        when(spotIndex.resolve(garage, parkedEvent.getLat(), parkedEvent.getLng()))
                 .thenReturn(Optional.empty());
 
         parkedEventHandler.handle(garage, parkedEvent);
 
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
-        verify(spotRepository).findByGarageIdAndLatitudeAndLongitude(
-                garage.getId(), parkedEvent.getLat(), parkedEvent.getLng());
+        verify(spotIndex).resolve(garage, parkedEvent.getLat(), parkedEvent.getLng());
+        verify(spotRepository, never()).findWithSectorById(any());
         verify(parkingSpotService, never()).assignSpot(any(), any());
-        verify(sessionRepository, never()).save(any());
+        verify(parkingSessionService, never()).park(any());
     }
 
     @Test
@@ -152,9 +149,9 @@ class ParkedEventHandlerTest {
         parkedEventHandler.handle(garage, parkedEvent);
 
         verify(parkingSessionService).findActiveSession(garage, licensePlate);
-        verify(spotRepository, never()).findByGarageIdAndLatitudeAndLongitude(any(), any(), any());
+        verify(spotIndex, never()).resolve(any(), any(), any());
         verify(parkingSpotService, never()).assignSpot(any(), any());
-        verify(sessionRepository, never()).save(any());
+        verify(parkingSessionService, never()).park(any());
     }
 
     @Test
@@ -0,0 +1,159 @@
+package com.estapar.parking.service.ingestion;
+
+import com.estapar.parking.api.dto.EntryEventDto;
+import com.estapar.parking.api.dto.EventType;
+import com.estapar.parking.api.dto.WebhookEventDto;
+import com.estapar.parking.config.WebhookIngestionConfig;
+import com.estapar.parking.service.PlateOrderedEventDispatcher;
+import com.estapar.parking.service.WebhookEventService;
+import com.estapar.parking.service.WebhookIdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventLogConsumerTest {
+
+    @Mock
+    private WebhookEventService webhookEventService;
+
+    @Mock
+    private WebhookIdempotencyService idempotencyService;
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookIngestionConfig config;
+    private WebhookEventJournal journal;
+    private PlateOrderedEventDispatcher dispatcher;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private WebhookEventLogConsumer consumer;
+    private UUID garageId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new WebhookIngestionConfig();
+        config.setMode(WebhookIngestionConfig.Mode.ASYNC);
+        config.setDirectory(directory.toString());
+        config.setSegmentSizeBytes(64 * 1024);
+        config.setPollTimeoutMillis(50);
+        config.setRetryInitialIntervalMillis(10);
+        journal = new WebhookEventJournal(config, meterRegistry);
+        journal.open();
+        dispatcher = new PlateOrderedEventDispatcher(webhookEventService, meterRegistry, 4, 2);
+
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:webhook-log-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE webhook_log_applied (log_offset BIGINT PRIMARY KEY, applied_at TIMESTAMP(3) NOT NULL)");
+        garageId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (consumer != null) {
+            consumer.stop();
+        }
+        dispatcher.shutdown();
+        journal.close();
+    }
+
+    @Test
+    void start_WhenTailWasAlreadyApplied_ShouldSkipClaimedRecords() {
+        long appliedOffset = journal.append(garageId, entry("ABC1234"));
+        journal.append(garageId, entry("XYZ9876"));
+        jdbcTemplate.update("INSERT INTO webhook_log_applied VALUES (?, CURRENT_TIMESTAMP)", appliedOffset);
+
+        start();
+
+        verify(webhookEventService, timeout(5000))
+                .processEvent(eq(garageId), argThat(event -> "XYZ9876".equals(event.getLicensePlate())));
+        awaitCommitted();
+        verify(webhookEventService, times(1)).processEvent(any(), any());
+        assertThat(meterRegistry.get("parking.webhook.ingestion.consumed").tag("outcome", "duplicate").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void start_WhenEventIsRejected_ShouldRollBackItsClaim() {
+        long rejectedOffset = journal.append(garageId, entry("ABC1234"));
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Vehicle already has an active session"))
+                .when(webhookEventService).processEvent(eq(garageId), any());
+
+        start();
+
+        verify(webhookEventService, timeout(5000)).processEvent(eq(garageId), any());
+        awaitCommitted();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_log_applied WHERE log_offset = ?",
+                Integer.class, rejectedOffset)).isZero();
+        assertThat(meterRegistry.get("parking.webhook.ingestion.consumed").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void start_WhenKeyWasClaimedByEarlierCopy_ShouldSkipRecord() {
+        journal.append(garageId, entry("ABC1234"), "retried-key");
+        journal.append(garageId, entry("XYZ9876"), "new-key");
+        when(idempotencyService.claim("retried-key", HttpStatus.ACCEPTED.value())).thenReturn(false);
+        when(idempotencyService.claim("new-key", HttpStatus.ACCEPTED.value())).thenReturn(true);
+
+        start();
+
+        verify(webhookEventService, timeout(5000))
+                .processEvent(eq(garageId), argThat(event -> "XYZ9876".equals(event.getLicensePlate())));
+        awaitCommitted();
+        verify(webhookEventService, times(1)).processEvent(any(), any());
+        assertThat(meterRegistry.get("parking.webhook.ingestion.consumed").tag("outcome", "duplicate").counter().count())
+                .isEqualTo(1);
+    }
+
+    private void start() {
+        consumer = new WebhookEventLogConsumer(journal, webhookEventService, idempotencyService, dispatcher, config,
+                meterRegistry, dataSource, new DataSourceTransactionManager(dataSource));
+        consumer.start();
+    }
+
+    private void awaitCommitted() {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.committedOffset() < journal.endOffset() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(journal.committedOffset()).isEqualTo(journal.endOffset());
+    }
+
+    private static WebhookEventDto entry(String licensePlate) {
+        EntryEventDto event = new EntryEventDto();
+        event.setEventType(EventType.ENTRY);
+        event.setLicensePlate(licensePlate);
+        event.setEntryTime(Instant.now());
+        return event;
+    }
+}
@@ -0,0 +1,225 @@
+package com.estapar.parking.service.session;
+
+import com.estapar.parking.config.ShardConfig;
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import com.estapar.parking.util.UuidUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GarageShardRouter shardRouter;
+    private ActiveSessionIndex index;
+    private Garage garage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        shardRouter = new GarageShardRouter(new ShardConfig(), event -> { }, meterRegistry);
+        index = new ActiveSessionIndex(jdbcTemplate, meterRegistry, shardRouter, true);
+
+        garage = new Garage();
+        garage.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void start_ShouldLoadOpenSessions() throws Exception {
+        UUID sessionId = UUID.randomUUID();
+        Instant entryTime = Instant.parse("2025-01-01T12:00:00Z");
+        ResultSet row = mock(ResultSet.class);
+        when(row.getBytes("id")).thenReturn(UuidUtils.toBytes(sessionId));
+        when(row.getBytes("garage_id")).thenReturn(UuidUtils.toBytes(garage.getId()));
+        when(row.getBytes("spot_id")).thenReturn(null);
+        when(row.getString("vehicle_license_plate")).thenReturn("ABC1234");
+        when(row.getTimestamp("entry_time")).thenReturn(Timestamp.from(entryTime));
+        when(row.getBigDecimal("pricing_multiplier")).thenReturn(BigDecimal.ONE);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        index.start();
+
+        assertThat(index.isEnabled()).isTrue();
+        assertThat(index.find(garage.getId(), "ABC1234"))
+                .contains(new ActiveSessionIndex.Entry(sessionId, null, entryTime, BigDecimal.ONE));
+        assertThat(meterRegistry.get("parking.session.index.entries").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void opened_ShouldBeVisibleInTransactionAndToOthersOnlyAfterCommit() {
+        index.start();
+        ParkingSession session = session("ABC1234");
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.opened(session);
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isPresent();
+        assertThat(index.size()).isZero();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isPresent();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void opened_WhenTransactionRollsBack_ShouldDiscardChanges() {
+        index.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.opened(session("ABC1234"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(meterRegistry.get("parking.session.index.lookups").tag("result", "miss").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void closed_ShouldHideSessionInTransactionAndRemoveItOnCommit() {
+        index.start();
+        ParkingSession session = session("ABC1234");
+        index.opened(session);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.closed(session);
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void covers_GarageWithoutOpenSessionsAtStartup_ShouldLoadItOnFirstChange() {
+        index.start();
+
+        assertThat(index.covers(garage.getId())).isFalse();
+
+        index.opened(session("ABC1234"));
+
+        assertThat(index.covers(garage.getId())).isTrue();
+        assertThat(index.find(garage.getId(), "ABC1234")).isPresent();
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(UuidUtils.toBytes(garage.getId())));
+    }
+
+    @Test
+    void closed_WhileGarageIsLoading_ShouldNotBePublishedBack() throws Exception {
+        index.start();
+        ParkingSession session = session("ABC1234");
+        ResultSet row = sessionRow(session);
+        // The first load reads the session before the close commits; the close then loads the garage itself
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            index.closed(session);
+            return null;
+        }).doAnswer(invocation -> null)
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(byte[].class));
+
+        assertThat(index.find(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void find_ForGarageOwnedByAnotherShard_ShouldNotLoadIt() throws Exception {
+        ShardConfig config = new ShardConfig();
+        config.setEnabled(true);
+        config.setInstanceId("a");
+        config.setMembers(Map.of("a", "http://a:3003", "b", "http://b:3003"));
+        GarageShardRouter router = new GarageShardRouter(config, event -> { }, meterRegistry);
+        UUID foreignGarage = IntStream.range(0, 1000)
+                .mapToObj(i -> new UUID(i, i))
+                .filter(garageId -> !router.isLocal(garageId))
+                .findFirst()
+                .orElseThrow();
+        ActiveSessionIndex sharded = new ActiveSessionIndex(jdbcTemplate, new SimpleMeterRegistry(), router, true);
+        sharded.start();
+
+        assertThat(sharded.find(foreignGarage, "ABC1234")).isEmpty();
+        assertThat(sharded.covers(foreignGarage)).isFalse();
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(byte[].class));
+    }
+
+    @Test
+    void opened_WhenDisabled_ShouldIgnoreChanges() {
+        ActiveSessionIndex disabled = new ActiveSessionIndex(jdbcTemplate, new SimpleMeterRegistry(), shardRouter, false);
+        disabled.start();
+
+        disabled.opened(session("ABC1234"));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.size()).isZero();
+    }
+
+    private ParkingSession session(String licensePlate) {
+        ParkingSession session = new ParkingSession();
+        session.setId(UUID.randomUUID());
+        session.setGarage(garage);
+        session.setVehicleLicensePlate(licensePlate);
+        session.setEntryTime(Instant.now());
+        session.setPricingMultiplier(BigDecimal.ONE);
+        return session;
+    }
+
+    private ResultSet sessionRow(ParkingSession session) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getBytes("id")).thenReturn(UuidUtils.toBytes(session.getId()));
+        when(row.getBytes("spot_id")).thenReturn(null);
+        when(row.getString("vehicle_license_plate")).thenReturn(session.getVehicleLicensePlate());
+        when(row.getTimestamp("entry_time")).thenReturn(Timestamp.from(session.getEntryTime()));
+        when(row.getBigDecimal("pricing_multiplier")).thenReturn(session.getPricingMultiplier());
+        return row;
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
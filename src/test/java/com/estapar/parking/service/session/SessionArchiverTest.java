@@ -0,0 +1,88 @@
+package com.estapar.parking.service.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionArchiverTest {
+
+    private static final Instant NOW = Instant.parse("2025-04-15T12:00:00Z");
+    private static final String MARCH_2025 = "1740787200";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        archiver = new SessionArchiver(jdbcTemplate, transactionManager, meterRegistry, true, 30, 2, 3);
+    }
+
+    @Test
+    void archive_ShouldMoveBatchesUntilOneIsNotFull() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT PARTITION_DESCRIPTION"), eq(String.class)))
+                .thenReturn(List.of("1735689600", "1738368000", "1740787200", "1743465600"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM parking_session"), eq(byte[].class), any(), any()))
+                .thenReturn(List.of(new byte[16], new byte[16]))
+                .thenReturn(List.of(new byte[16]));
+
+        assertThat(archiver.archive(NOW)).isEqualTo(3);
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT IGNORE INTO parking_session_archive"), any(Object[].class));
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM parking_session"), any(Object[].class));
+        verify(jdbcTemplate, never()).execute(anyString());
+        assertThat(meterRegistry.get("parking.session.archive.archived").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void archive_ShouldStopAfterMaxBatchesPerRun() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT PARTITION_DESCRIPTION"), eq(String.class)))
+                .thenReturn(List.of("1743465600"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM parking_session"), eq(byte[].class), any(), any()))
+                .thenReturn(List.of(new byte[16], new byte[16]));
+
+        assertThat(archiver.archive(NOW)).isEqualTo(6);
+
+        verify(jdbcTemplate, times(3)).update(startsWith("DELETE FROM parking_session"), any(Object[].class));
+    }
+
+    @Test
+    void archive_ShouldAddMonthlyPartitionsUpToCutoff() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT PARTITION_DESCRIPTION"), eq(String.class)))
+                .thenReturn(List.of("1735689600", "1738368000", MARCH_2025));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM parking_session"), eq(byte[].class), any(), any()))
+                .thenReturn(List.of());
+
+        assertThat(archiver.archive(NOW)).isZero();
+
+        verify(jdbcTemplate).execute(
+                "ALTER TABLE parking_session_archive REORGANIZE PARTITION p_max INTO (" +
+                "PARTITION p202503 VALUES LESS THAN (1743465600), PARTITION p_max VALUES LESS THAN MAXVALUE)");
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
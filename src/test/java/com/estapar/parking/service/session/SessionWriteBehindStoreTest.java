@@ -0,0 +1,245 @@
+package com.estapar.parking.service.session;
+
+import com.estapar.parking.config.SessionStoreConfig;
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSession;
+import com.estapar.parking.infrastructure.persistence.entity.ParkingSpot;
+import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.service.RevenueRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionWriteBehindStoreTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @TempDir
+    private Path directory;
+
+    private SessionWriteBehindStore store;
+    private Garage garage;
+    private ParkingSpot spot;
+
+    @BeforeEach
+    void setUp() {
+        SessionStoreConfig config = new SessionStoreConfig();
+        config.setMode(SessionStoreConfig.Mode.WRITE_BEHIND);
+        config.setDirectory(directory.toString());
+        config.setSegmentSizeBytes(64 * 1024);
+        config.setFlushIntervalMillis(60_000);
+
+        store = new SessionWriteBehindStore(config, jdbcTemplate, transactionManager, revenueRollupService,
+                new SimpleMeterRegistry());
+        store.start();
+
+        garage = new Garage();
+        garage.setId(UUID.randomUUID());
+
+        Sector sector = new Sector();
+        sector.setId(UUID.randomUUID());
+        spot = new ParkingSpot();
+        spot.setId(UUID.randomUUID());
+        spot.setSector(sector);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        store.stop();
+    }
+
+    @Test
+    void open_ShouldBeVisibleInTransactionAndToOthersOnlyAfterCommit() {
+        ParkingSession session = session("ABC1234");
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.open(session);
+
+        assertThat(store.findActive(garage.getId(), "ABC1234")).contains(session);
+        assertThat(session.getId()).isNotNull();
+        assertThat(store.openSessionCount()).isZero();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(store.findActive(garage.getId(), "ABC1234"))
+                .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(session.getId()));
+        assertThat(store.openSessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void park_WhenTransactionRollsBack_ShouldLeaveSessionUnparkedForRetry() {
+        inTransaction(() -> store.open(session("ABC1234")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        ParkingSession attempted = store.findActive(garage.getId(), "ABC1234").orElseThrow();
+        store.occupySpot(spot.getId());
+        attempted.setSpot(spot);
+        store.park(attempted);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        ParkingSession retried = store.findActive(garage.getId(), "ABC1234").orElseThrow();
+        assertThat(retried.isParked()).isFalse();
+        assertThat(store.isSpotOccupied(spot.getId())).isFalse();
+        store.occupySpot(spot.getId());
+        retried.setSpot(spot);
+        store.park(retried);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(store.findActive(garage.getId(), "ABC1234"))
+                .hasValueSatisfying(found -> assertThat(found.getSpot()).isSameAs(spot));
+        assertThat(store.isSpotOccupied(spot.getId())).isTrue();
+    }
+
+    @Test
+    void findActive_WhenSessionChangedWithoutCommit_ShouldNotExposeChange() {
+        inTransaction(() -> store.open(session("ABC1234")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.findActive(garage.getId(), "ABC1234").orElseThrow().setExitTime(Instant.now());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(store.findActive(garage.getId(), "ABC1234"))
+                .hasValueSatisfying(found -> assertThat(found.isActive()).isTrue());
+    }
+
+    @Test
+    void open_WhenTransactionRollsBack_ShouldDiscardChanges() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.open(session("ABC1234"));
+        store.occupySpot(spot.getId());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(store.findActive(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(store.isSpotOccupied(spot.getId())).isFalse();
+        assertThat(store.flush()).isZero();
+    }
+
+    @Test
+    void open_WithoutTransaction_ShouldFail() {
+        assertThatThrownBy(() -> store.open(session("ABC1234")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void flush_ShouldWriteSessionLifecycleInBatchesAndAddRevenueOnce() {
+        ParkingSession session = session("ABC1234");
+        inTransaction(() -> store.open(session));
+        inTransaction(() -> {
+            store.occupySpot(spot.getId());
+            session.setSpot(spot);
+            store.park(session);
+        });
+        inTransaction(() -> {
+            session.setExitTime(session.getEntryTime().plusSeconds(7200));
+            session.setFinalPrice(new BigDecimal("20.00"));
+            store.releaseSpot(spot.getId());
+            store.close(session);
+        });
+        when(jdbcTemplate.query(startsWith("SELECT id FROM parking_session"), any(RowMapper.class), any()))
+                .thenReturn(List.of(session.getId()));
+
+        assertThat(store.findActive(garage.getId(), "ABC1234")).isEmpty();
+        assertThat(store.isSpotOccupied(spot.getId())).isFalse();
+        assertThat(store.flush()).isEqualTo(5);
+        assertThat(store.flush()).isZero();
+
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(), anyList());
+        verify(revenueRollupService).addSession(garage.getId(), spot.getSector().getId(),
+                session.getEntryTime(), new BigDecimal("20.00"));
+    }
+
+    @Test
+    void flush_WhenSessionWasAlreadyClosed_ShouldNotAddRevenueAgain() {
+        ParkingSession session = session("ABC1234");
+        inTransaction(() -> store.open(session));
+        inTransaction(() -> {
+            session.setExitTime(session.getEntryTime().plusSeconds(60));
+            session.setFinalPrice(BigDecimal.ZERO);
+            session.setSpot(spot);
+            store.close(session);
+        });
+        when(jdbcTemplate.query(startsWith("SELECT id FROM parking_session"), any(RowMapper.class), any()))
+                .thenReturn(List.of());
+
+        store.flush();
+
+        verify(revenueRollupService, never()).addSession(any(), any(), any(), any());
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE parking_session SET exit_time"), anyList());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT IGNORE INTO parking_session"), anyList());
+    }
+
+    @Test
+    void start_ShouldReplayChangesNotFlushedBeforeStop() {
+        inTransaction(() -> store.open(session("ABC1234")));
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT IGNORE INTO parking_session"), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+
+        store.stop();
+        store.start();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT IGNORE INTO parking_session"), anyList());
+        assertThat(store.flush()).isZero();
+    }
+
+    private ParkingSession session(String licensePlate) {
+        ParkingSession session = new ParkingSession();
+        session.setGarage(garage);
+        session.setVehicleLicensePlate(licensePlate);
+        session.setEntryTime(Instant.parse("2025-01-01T10:00:00Z"));
+        session.setPricingMultiplier(new BigDecimal("1.00"));
+        return session;
+    }
+
+    private void inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        action.run();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
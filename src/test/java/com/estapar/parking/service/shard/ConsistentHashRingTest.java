@@ -0,0 +1,61 @@
+package com.estapar.parking.service.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final ShardMember A = new ShardMember("a", URI.create("http://a:3003"));
+    private static final ShardMember B = new ShardMember("b", URI.create("http://b:3003"));
+    private static final ShardMember C = new ShardMember("c", URI.create("http://c:3003"));
+
+    private final List<UUID> garageIds = IntStream.range(0, 1000)
+            .mapToObj(i -> new UUID(i, i * 31L))
+            .toList();
+
+    @Test
+    void owner_WithoutMembers_ShouldBeEmpty() {
+        assertThat(new ConsistentHashRing(List.of(), 16).owner(garageIds.get(0))).isEmpty();
+    }
+
+    @Test
+    void owner_ShouldNotDependOnMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(A, B, C), 64);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(C, A, B), 64);
+
+        garageIds.forEach(garageId -> assertThat(ring.owner(garageId)).isEqualTo(reordered.owner(garageId)));
+    }
+
+    @Test
+    void owner_ShouldSpreadGaragesAcrossMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(A, B, C), 128);
+
+        for (ShardMember member : List.of(A, B, C)) {
+            long owned = garageIds.stream().filter(garageId -> ring.owner(garageId).orElseThrow().equals(member)).count();
+            assertThat(owned).isBetween(200L, 470L);
+        }
+    }
+
+    @Test
+    void owner_WhenMemberIsAdded_ShouldOnlyMoveGaragesToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of(A, B), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(A, B, C), 128);
+
+        long moved = 0;
+        for (UUID garageId : garageIds) {
+            ShardMember previous = before.owner(garageId).orElseThrow();
+            ShardMember current = after.owner(garageId).orElseThrow();
+            if (!previous.equals(current)) {
+                assertThat(current).isEqualTo(C);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(200L, 470L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.estapar.parking.service.shard;
+
+import com.estapar.parking.config.SessionStoreConfig;
+import com.estapar.parking.config.ShardConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GarageShardRouterTest {
+
+    @TempDir
+    private Path directory;
+
+    private final List<Object> events = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void isLocal_WhenDisabled_ShouldOwnEveryGarage() {
+        GarageShardRouter router = new GarageShardRouter(new ShardConfig(), events::add, meterRegistry);
+
+        assertThat(router.isLocal(UUID.randomUUID())).isTrue();
+    }
+
+    @Test
+    void ownerOf_WithStaticMembers_ShouldRouteSomeGaragesElsewhere() {
+        ShardConfig config = config("a");
+        config.setMembers(Map.of("a", "http://a:3003", "b", "http://b:3003"));
+        GarageShardRouter router = new GarageShardRouter(config, events::add, meterRegistry);
+
+        List<UUID> remote = garages().stream().filter(garageId -> !router.isLocal(garageId)).toList();
+
+        assertThat(remote).isNotEmpty().hasSizeLessThan(garages().size());
+        remote.forEach(garageId -> assertThat(router.ownerOf(garageId))
+                .hasValueSatisfying(owner -> assertThat(owner.id()).isEqualTo("b")));
+        assertThat(meterRegistry.get("parking.shard.members").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void refresh_WhenMembershipFileChanges_ShouldPublishEvent() throws IOException {
+        Path file = directory.resolve("members.properties");
+        Files.writeString(file, "# instance-id=base-url\na=http://a:3003\n");
+        ShardConfig config = config("a");
+        config.setMembershipFile(file.toString());
+        GarageShardRouter router = new GarageShardRouter(config, events::add, meterRegistry);
+        assertThat(garages()).allMatch(router::isLocal);
+
+        Files.writeString(file, "a=http://a:3003\nb=http://b:3003\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(1)));
+        router.refresh();
+
+        assertThat(events).containsExactly(new ShardMembershipChangedEvent(Set.of("a", "b")));
+        assertThat(garages()).anyMatch(garageId -> !router.isLocal(garageId));
+    }
+
+    @Test
+    void refresh_WhenMembershipFileIsUnchanged_ShouldNotPublishEvent() throws IOException {
+        Path file = directory.resolve("members.properties");
+        Files.writeString(file, "a=http://a:3003\n");
+        ShardConfig config = config("a");
+        config.setMembershipFile(file.toString());
+        GarageShardRouter router = new GarageShardRouter(config, events::add, meterRegistry);
+
+        router.refresh();
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void constructor_WithoutInstanceId_ShouldThrowException() {
+        assertThatThrownBy(() -> new GarageShardRouter(config(""), events::add, meterRegistry))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void constructor_WithWriteBehindSessionStore_ShouldThrowException() {
+        ShardConfig config = config("a");
+        config.setMembers(Map.of("a", "http://a:3003"));
+        SessionStoreConfig sessionStoreConfig = new SessionStoreConfig();
+        sessionStoreConfig.setMode(SessionStoreConfig.Mode.WRITE_BEHIND);
+
+        assertThatThrownBy(() -> new GarageShardRouter(config, sessionStoreConfig, events::add, meterRegistry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("write-behind");
+    }
+
+    private ShardConfig config(String instanceId) {
+        ShardConfig config = new ShardConfig();
+        config.setEnabled(true);
+        config.setInstanceId(instanceId);
+        return config;
+    }
+
+    private List<UUID> garages() {
+        List<UUID> garageIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            garageIds.add(new UUID(i, i));
+        }
+        return garageIds;
+    }
+}
@@ -0,0 +1,204 @@
+package com.estapar.parking.service.tariff;
+
+import com.estapar.parking.config.DecimalConfig;
+import com.estapar.parking.infrastructure.persistence.entity.TariffBand;
+import com.estapar.parking.infrastructure.persistence.entity.TariffPlan;
+import com.estapar.parking.util.FixedPointMoney;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTariffTest {
+
+    private static final ZoneRules UTC = ZoneOffset.UTC.getRules();
+    private static final long BASE_PRICE = 1_000;
+    private static final int NO_MULTIPLIER = 10_000;
+
+    private FixedPointMoney fixedPointMoney;
+    private TariffPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        fixedPointMoney = new FixedPointMoney(new DecimalConfig());
+
+        plan = new TariffPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setBands(new ArrayList<>());
+    }
+
+    @Test
+    void feeMinorUnits_WithoutRules_ShouldMatchDefaultHourlyRule() {
+        CompiledTariff tariff = compile(UTC);
+        int multiplier = 12_500;
+
+        for (long minutes = 0; minutes <= 3 * 24 * 60; minutes++) {
+            long expected = minutes <= 30
+                    ? 0
+                    : ((minutes + 59) / 60) * fixedPointMoney.applyMultiplier(999, multiplier);
+
+            assertThat(tariff.feeMinorUnits(at("2025-01-01T10:17:00Z"), minutes, 999, multiplier))
+                    .as("minutes=%d", minutes)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void feeMinorUnits_WithPlanFreeMinutes_ShouldOverrideDefault() {
+        plan.setFreeMinutes(60);
+        CompiledTariff tariff = compile(UTC);
+
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T10:00:00Z"), 60, BASE_PRICE, NO_MULTIPLIER)).isZero();
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T10:00:00Z"), 61, BASE_PRICE, NO_MULTIPLIER)).isEqualTo(2_000);
+    }
+
+    @Test
+    void feeMinorUnits_WithBand_ShouldChargeBandRateForHoursStartingInside() {
+        band("08:00", "18:00", "15.00");
+        CompiledTariff tariff = compile(UTC);
+
+        // 17:00 in the band, 18:00 and 19:00 at the base price
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T17:00:00Z"), 150, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(3_500);
+    }
+
+    @Test
+    void feeMinorUnits_WithMultiplier_ShouldApplyToBandAndBaseRates() {
+        band("08:00", "18:00", "15.00");
+        CompiledTariff tariff = compile(UTC);
+
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T17:00:00Z"), 150, BASE_PRICE, 11_000))
+                .isEqualTo(1_650 + 1_100 + 1_100);
+    }
+
+    @Test
+    void feeMinorUnits_WithBandWrappingMidnight_ShouldCoverBothDays() {
+        band("22:00", "02:00", "5.00");
+        CompiledTariff tariff = compile(UTC);
+
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T23:00:00Z"), 240, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(500 + 500 + 500 + 1_000);
+    }
+
+    @Test
+    void feeMinorUnits_WithDailyCap_ShouldCapEachLocalDay() {
+        plan.setDailyCap(new BigDecimal("50.00"));
+        CompiledTariff tariff = compile(UTC);
+
+        // 24 hours capped at 50.00, then 2 hours on the next day
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T00:00:00Z"), 26 * 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(5_000 + 2_000);
+    }
+
+    @Test
+    void feeMinorUnits_WithOvernightWindow_ShouldChargeFlatRateOncePerNight() {
+        overnight("22:00", "06:00", "25.00");
+        CompiledTariff tariff = compile(UTC);
+
+        // 20:00 and 21:00 hourly, 22:00-05:00 flat, 06:00 and 07:00 hourly
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T20:00:00Z"), 12 * 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(2_000 + 2_500 + 2_000);
+    }
+
+    @Test
+    void feeMinorUnits_AcrossTwoNights_ShouldChargeFlatRateTwice() {
+        overnight("22:00", "06:00", "25.00");
+        CompiledTariff tariff = compile(UTC);
+
+        // 23:00-05:00 first night, 06:00-21:00 hourly, 22:00-23:00 second night
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T23:00:00Z"), 25 * 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(2_500 + 16 * 1_000 + 2_500);
+    }
+
+    @Test
+    void feeMinorUnits_WithOvernightAndCap_ShouldNotCapFlatRate() {
+        overnight("22:00", "06:00", "25.00");
+        plan.setDailyCap(new BigDecimal("5.00"));
+        CompiledTariff tariff = compile(UTC);
+
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T21:00:00Z"), 3 * 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(500 + 2_500);
+    }
+
+    @Test
+    void feeMinorUnits_ShouldUseLocalTimeOfApplicationZone() {
+        band("08:00", "18:00", "15.00");
+        CompiledTariff tariff = compile(ZoneId.of("America/Sao_Paulo").getRules());
+
+        // 11:00 UTC is 08:00 in Sao Paulo
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T11:00:00Z"), 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(1_500);
+        assertThat(tariff.feeMinorUnits(at("2025-01-01T10:00:00Z"), 60, BASE_PRICE, NO_MULTIPLIER))
+                .isEqualTo(1_000);
+    }
+
+    @Test
+    void compile_WithOverlappingBands_ShouldThrowException() {
+        band("08:00", "12:00", "15.00");
+        band("11:00", "14:00", "12.00");
+
+        assertThatThrownBy(() -> compile(UTC))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bands overlap at 11:00");
+    }
+
+    @Test
+    void compile_WithPartialOvernightWindow_ShouldThrowException() {
+        plan.setOvernightStart(LocalTime.parse("22:00"));
+
+        assertThatThrownBy(() -> compile(UTC))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("must be set together");
+    }
+
+    @Test
+    void compile_WithRateBeyondCurrencyScale_ShouldThrowException() {
+        band("08:00", "12:00", "15.005");
+
+        assertThatThrownBy(() -> compile(UTC))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not fit the currency scale");
+    }
+
+    @Test
+    void compile_WithNegativeCap_ShouldThrowException() {
+        plan.setDailyCap(new BigDecimal("-1.00"));
+
+        assertThatThrownBy(() -> compile(UTC))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("must not be negative");
+    }
+
+    private CompiledTariff compile(ZoneRules zoneRules) {
+        return CompiledTariff.compile(plan, 30, fixedPointMoney, zoneRules);
+    }
+
+    private void band(String start, String end, String hourlyRate) {
+        TariffBand band = new TariffBand();
+        band.setTariffPlan(plan);
+        band.setStartTime(LocalTime.parse(start));
+        band.setEndTime(LocalTime.parse(end));
+        band.setHourlyRate(new BigDecimal(hourlyRate));
+        plan.getBands().add(band);
+    }
+
+    private void overnight(String start, String end, String flatRate) {
+        plan.setOvernightStart(LocalTime.parse(start));
+        plan.setOvernightEnd(LocalTime.parse(end));
+        plan.setOvernightFlatRate(new BigDecimal(flatRate));
+    }
+
+    private static Instant at(String instant) {
+        return Instant.parse(instant);
+    }
+}
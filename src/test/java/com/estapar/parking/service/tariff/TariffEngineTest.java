@@ -0,0 +1,191 @@
+package com.estapar.parking.service.tariff;
+
+import com.estapar.parking.config.DecimalConfig;
+import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.infrastructure.persistence.entity.TariffPlan;
+import com.estapar.parking.infrastructure.persistence.repository.TariffPlanRepository;
+import com.estapar.parking.infrastructure.persistence.repository.TariffPlanRepository.TariffVersion;
+import com.estapar.parking.service.ParkingFeeCalculator;
+import com.estapar.parking.util.BigDecimalUtils;
+import com.estapar.parking.util.FixedPointMoney;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TariffEngineTest {
+
+    @Mock
+    private TariffPlanRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TariffEngine tariffEngine;
+
+    private UUID cappedSectorId;
+    private UUID plainSectorId;
+    private Instant entryTime;
+    private Instant exitTime;
+    private BigDecimal basePrice;
+    private BigDecimal multiplier;
+    private Instant lastModified;
+
+    @BeforeEach
+    void setUp() {
+        DecimalConfig decimalConfig = new DecimalConfig();
+        FixedPointMoney fixedPointMoney = new FixedPointMoney(decimalConfig);
+        ParkingFeeCalculator feeCalculator = new ParkingFeeCalculator(new BigDecimalUtils(decimalConfig), fixedPointMoney);
+        ReflectionTestUtils.setField(feeCalculator, "freeMinutes", 30);
+        meterRegistry = new SimpleMeterRegistry();
+        tariffEngine = new TariffEngine(repository, feeCalculator, fixedPointMoney, meterRegistry, 30, "UTC");
+
+        cappedSectorId = UUID.randomUUID();
+        plainSectorId = UUID.randomUUID();
+        entryTime = Instant.parse("2025-01-01T10:00:00Z");
+        exitTime = Instant.parse("2025-01-01T20:00:00Z");
+        basePrice = new BigDecimal("10.00");
+        multiplier = new BigDecimal("1.10");
+        lastModified = Instant.parse("2025-01-01T00:00:00Z");
+    }
+
+    @Test
+    void calculateFee_WithSectorPlan_ShouldUseCompiledTariff() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+
+        BigDecimal result = tariffEngine.calculateFee(cappedSectorId, entryTime, exitTime, basePrice, multiplier);
+
+        assertThat(result).isEqualTo(new BigDecimal("30.00"));
+    }
+
+    @Test
+    void calculateFee_WithoutSectorPlan_ShouldUseDefaultRule() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+
+        BigDecimal result = tariffEngine.calculateFee(plainSectorId, entryTime, exitTime, basePrice, multiplier);
+
+        assertThat(result).isEqualTo(new BigDecimal("110.00"));
+    }
+
+    @Test
+    void calculateFee_WithoutSector_ShouldUseDefaultRule() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+
+        BigDecimal result = tariffEngine.calculateFee(null, entryTime, exitTime, new BigDecimal("0.00"), multiplier);
+
+        assertThat(result).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void calculateFee_ShouldQueryDatabaseOnce() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+
+        tariffEngine.calculateFee(cappedSectorId, entryTime, exitTime, basePrice, multiplier);
+        tariffEngine.calculateFee(plainSectorId, entryTime, exitTime, basePrice, multiplier);
+
+        verify(repository, times(1)).findActiveWithBands();
+    }
+
+    @Test
+    void calculateFee_WithBasePriceBeyondCurrencyScale_ShouldFallBackToDefaultRule() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+
+        BigDecimal result = tariffEngine.calculateFee(cappedSectorId, entryTime, exitTime, new BigDecimal("10.001"), multiplier);
+
+        assertThat(result).isEqualTo(new BigDecimal("110.00"));
+        assertThat(meterRegistry.get("parking.tariff.evaluations").tag("tariff", "fallback").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void calculateFee_WhenPlansAreInvalidOnFirstUse_ShouldFallBackToDefaultRule() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "20.00"), cappedPlan(cappedSectorId, "40.00")));
+
+        BigDecimal result = tariffEngine.calculateFee(cappedSectorId, entryTime, exitTime, basePrice, multiplier);
+
+        assertThat(result).isEqualTo(new BigDecimal("110.00"));
+        assertThat(meterRegistry.get("parking.tariff.evaluations").tag("tariff", "fallback").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refresh_WithTwoActivePlansForSector_ShouldKeepPreviousTariffs() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+        tariffEngine.refresh();
+
+        when(repository.findActiveWithBands()).thenReturn(List.of(
+                cappedPlan(cappedSectorId, "20.00"), cappedPlan(cappedSectorId, "40.00")));
+
+        assertThatThrownBy(() -> tariffEngine.refresh())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("more than one active tariff plan");
+        assertThat(tariffEngine.calculateFee(cappedSectorId, entryTime, exitTime, basePrice, multiplier))
+                .isEqualTo(new BigDecimal("30.00"));
+    }
+
+    @Test
+    void refreshIfChanged_WithUnchangedVersions_ShouldNotReload() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+        tariffEngine.refresh();
+
+        tariffEngine.refreshIfChanged();
+
+        verify(repository, times(1)).findActiveWithBands();
+    }
+
+    @Test
+    void refreshIfChanged_WithChangedBands_ShouldReload() {
+        givenPlans(List.of(cappedPlan(cappedSectorId, "30.00")));
+        tariffEngine.refresh();
+        when(repository.findBandVersion()).thenReturn(version(1, lastModified.plusSeconds(60)));
+
+        tariffEngine.refreshIfChanged();
+
+        verify(repository, times(2)).findActiveWithBands();
+    }
+
+    private void givenPlans(List<TariffPlan> plans) {
+        when(repository.findActiveWithBands()).thenReturn(plans);
+        when(repository.findVersion()).thenReturn(version(plans.size(), lastModified));
+        when(repository.findBandVersion()).thenReturn(version(0, null));
+    }
+
+    private TariffPlan cappedPlan(UUID sectorId, String dailyCap) {
+        Sector sector = new Sector();
+        sector.setId(sectorId);
+
+        TariffPlan plan = new TariffPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setSector(sector);
+        plan.setDailyCap(new BigDecimal(dailyCap));
+        plan.setBands(List.of());
+        return plan;
+    }
+
+    private TariffVersion version(long count, Instant modified) {
+        return new TariffVersion() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public Instant getLastModified() {
+                return modified;
+            }
+        };
+    }
+}
@@ -0,0 +1,176 @@
+package com.estapar.parking.service.topology;
+
+import com.estapar.parking.config.ShardConfig;
+import com.estapar.parking.infrastructure.persistence.entity.Garage;
+import com.estapar.parking.infrastructure.persistence.entity.Sector;
+import com.estapar.parking.infrastructure.persistence.repository.GarageRepository;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository;
+import com.estapar.parking.infrastructure.persistence.repository.ParkingSpotRepository.SpotLocation;
+import com.estapar.parking.infrastructure.persistence.repository.SectorRepository;
+import com.estapar.parking.service.GarageInitializationRunner;
+import com.estapar.parking.service.GarageLayoutChangedEvent;
+import com.estapar.parking.service.shard.GarageShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GarageTopologyCacheTest {
+
+    @Mock
+    private GarageRepository garageRepository;
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private ParkingSpotRepository spotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GarageTopologyCache cache;
+    private Garage garage;
+    private Sector sector;
+    private UUID spotId;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GarageTopologyCache(garageRepository, sectorRepository, spotRepository,
+                new GarageShardRouter(new ShardConfig(), event -> { }, new SimpleMeterRegistry()), transactionManager);
+
+        garage = new Garage();
+        garage.setId(UUID.randomUUID());
+        garage.setIsDefault(true);
+        garage.setMaxCapacity(10);
+        garage.setCreatedAt(Instant.now());
+
+        sector = new Sector();
+        sector.setId(UUID.randomUUID());
+        sector.setSectorCode("A");
+        sector.setBasePrice(new BigDecimal("10.00"));
+        sector.setMaxCapacity(10);
+
+        spotId = UUID.randomUUID();
+    }
+
+    @Test
+    void order_ShouldRunAfterGarageInitialization() {
+        assertThat(OrderUtils.getOrder(GarageTopologyCache.class))
+                .isGreaterThan(OrderUtils.getOrder(GarageInitializationRunner.class));
+    }
+
+    @Test
+    void run_ShouldLoadEveryGarage() {
+        givenLayout("-23.561684");
+
+        cache.run(null);
+
+        assertThat(cache.isLoaded()).isTrue();
+        GarageTopology topology = cache.findDefault().orElseThrow();
+        assertThat(topology.getId()).isEqualTo(garage.getId());
+        assertThat(topology.getMaxCapacity()).isEqualTo(10);
+        assertThat(topology.findSector("A")).map(SectorTopology::basePrice).contains(new BigDecimal("10.00"));
+        assertThat(topology.findSpot(spotId)).map(SpotTopology::sectorId).contains(sector.getId());
+    }
+
+    @Test
+    void find_WhenLoaded_ShouldNotQueryDatabase() {
+        givenLayout("-23.561684");
+        cache.run(null);
+
+        cache.find(garage.getId());
+        cache.findDefault();
+
+        verify(garageRepository, never()).findById(garage.getId());
+        verify(sectorRepository, times(1)).findByGarageId(garage.getId());
+    }
+
+    @Test
+    void find_WhenUnknown_ShouldLoadGarage() {
+        when(garageRepository.findById(garage.getId())).thenReturn(Optional.of(garage));
+        when(sectorRepository.findByGarageId(garage.getId())).thenReturn(List.of(sector));
+        when(spotRepository.findLocationsByGarageId(garage.getId())).thenReturn(List.of());
+
+        assertThat(cache.find(garage.getId())).map(GarageTopology::getId).contains(garage.getId());
+        assertThat(cache.find(garage.getId())).isPresent();
+
+        verify(garageRepository, times(1)).findById(garage.getId());
+    }
+
+    @Test
+    void onLayoutChanged_ShouldSwapTopology() {
+        givenLayout("-23.561684");
+        cache.run(null);
+        GarageTopology before = cache.find(garage.getId()).orElseThrow();
+
+        when(garageRepository.findById(garage.getId())).thenReturn(Optional.of(garage));
+        when(spotRepository.findLocationsByGarageId(garage.getId()))
+                .thenReturn(List.of(location(UUID.randomUUID(), "-23.000000")));
+        cache.onLayoutChanged(new GarageLayoutChangedEvent(garage.getId()));
+
+        GarageTopology after = cache.find(garage.getId()).orElseThrow();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.findSpot(spotId)).isEmpty();
+        assertThat(before.findSpot(spotId)).isPresent();
+    }
+
+    @Test
+    void reloadAll_ShouldDropRemovedGarages() {
+        givenLayout("-23.561684");
+        cache.run(null);
+
+        when(garageRepository.findAll()).thenReturn(List.of());
+        cache.reloadAll();
+
+        assertThat(cache.getTopologies()).isEmpty();
+    }
+
+    private void givenLayout(String latitude) {
+        when(garageRepository.findAll()).thenReturn(List.of(garage));
+        when(sectorRepository.findByGarageId(garage.getId())).thenReturn(List.of(sector));
+        when(spotRepository.findLocationsByGarageId(garage.getId()))
+                .thenReturn(List.of(location(spotId, latitude)));
+    }
+
+    private SpotLocation location(UUID id, String latitude) {
+        return new SpotLocation() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getSectorId() {
+                return sector.getId();
+            }
+
+            @Override
+            public BigDecimal getLatitude() {
+                return new BigDecimal(latitude);
+            }
+
+            @Override
+            public BigDecimal getLongitude() {
+                return new BigDecimal("-46.655981");
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.estapar.parking.util;
+
+import com.estapar.parking.config.DecimalConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedPointMoneyTest {
+
+    private final DecimalConfig decimalConfig = new DecimalConfig();
+    private final FixedPointMoney fixedPointMoney = new FixedPointMoney(decimalConfig);
+
+    @Test
+    void toMinorUnits_ShouldScaleToCurrency() {
+        assertThat(fixedPointMoney.toMinorUnits(new BigDecimal("10.5"))).isEqualTo(1_050);
+        assertThat(fixedPointMoney.toMinorUnits(new BigDecimal("10.000"))).isEqualTo(1_000);
+    }
+
+    @Test
+    void toMinorUnits_WithMoreDecimalsThanCurrency_ShouldThrowException() {
+        assertThatThrownBy(() -> fixedPointMoney.toMinorUnits(new BigDecimal("10.005")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toBasisPoints_ShouldScaleMultiplier() {
+        assertThat(fixedPointMoney.toBasisPoints(new BigDecimal("1.10"))).isEqualTo(11_000);
+        assertThat(fixedPointMoney.toBasisPoints(new BigDecimal("0.8333"))).isEqualTo(8_333);
+    }
+
+    @Test
+    void toAmount_ShouldUseCurrencyScale() {
+        assertThat(fixedPointMoney.toAmount(1_249)).isEqualTo(new BigDecimal("12.49"));
+        assertThat(fixedPointMoney.toAmount(0)).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void applyMultiplier_ShouldMatchBigDecimalForEveryRoundingMode() {
+        for (RoundingMode roundingMode : RoundingMode.values()) {
+            if (roundingMode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            decimalConfig.setRoundingMode(roundingMode);
+            BigDecimalUtils bigDecimalUtils = new BigDecimalUtils(decimalConfig);
+            for (long cents = -2_000; cents <= 2_000; cents += 3) {
+                for (int basisPoints = 0; basisPoints <= 20_000; basisPoints += 125) {
+                    BigDecimal expected = bigDecimalUtils.multiplyAndSetCurrencyScale(
+                            BigDecimal.valueOf(cents, 2), BigDecimal.valueOf(basisPoints, 4));
+
+                    assertThat(fixedPointMoney.toAmount(fixedPointMoney.applyMultiplier(cents, basisPoints)))
+                            .as("%s: %d x %d", roundingMode, cents, basisPoints)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void divide_ShouldMatchBigDecimalDivide() {
+        for (RoundingMode roundingMode : RoundingMode.values()) {
+            if (roundingMode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend = -250; dividend <= 250; dividend++) {
+                for (long divisor : new long[]{-60, -7, -2, 2, 7, 60}) {
+                    long expected = BigDecimal.valueOf(dividend)
+                            .divide(BigDecimal.valueOf(divisor), 0, roundingMode)
+                            .longValueExact();
+
+                    assertThat(FixedPointMoney.divide(dividend, divisor, roundingMode))
+                            .as("%s: %d / %d", roundingMode, dividend, divisor)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void divide_WithUnnecessaryRounding_ShouldThrowWhenInexact() {
+        assertThat(FixedPointMoney.divide(120, 60, RoundingMode.UNNECESSARY)).isEqualTo(2);
+        assertThatThrownBy(() -> FixedPointMoney.divide(121, 60, RoundingMode.UNNECESSARY))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,38 @@
+package com.estapar.parking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidUtilsTest {
+
+    @Test
+    void toBytes_ShouldRoundTrip() {
+        UUID uuid = UUID.randomUUID();
+
+        assertThat(UuidUtils.fromBytes(UuidUtils.toBytes(uuid))).isEqualTo(uuid);
+    }
+
+    @Test
+    void timeOrdered_ShouldBeVersion7WithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidUtils.timeOrdered();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void timeOrdered_ShouldSortByCreationInBinaryForm() {
+        byte[] previous = UuidUtils.toBytes(UuidUtils.timeOrdered());
+        for (int i = 0; i < 10_000; i++) {
+            byte[] next = UuidUtils.toBytes(UuidUtils.timeOrdered());
+            assertThat(Arrays.compareUnsigned(previous, next)).isNegative();
+            previous = next;
+        }
+    }
+}